@@ -0,0 +1,258 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to save a copy of the inventory in the background shortly after it changes, so the work
+// isn't lost if the app is killed before the user saves it.
+
+package baseline;
+
+import javafx.application.Platform;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class Autosaver implements Closeable, InventoryChanges.Listener {
+
+    // Declare the number of seconds between autosaves when the "inventory.autosave.interval" property isn't set
+    static final long DEFAULT_INTERVAL = 30;
+
+    // Declare the name of the autosave file in the user's home folder when the "inventory.autosave.file" property isn't set
+    static final String DEFAULT_FILE = ".inventorycraft/autosave.inv";
+
+    // Declare the autosaver of the app (if autosaving is enabled and has started)
+    private static Autosaver current;
+
+    // Declare the measurements of the autosaves so far
+    public record Metrics(long saves, long skipped, long failures, long lastNanos, long maxNanos, long totalNanos, long lastBytes, long totalBytes) {
+        // Get the average time an autosave took, in milliseconds
+        public double averageMillis() {
+            return saves == 0 ? 0 : totalNanos / 1e6 / saves;
+        }
+
+        // Describe the measurements for the user
+        @Override
+        public String toString() {
+            return String.format("%d autosaves (%d skipped, %d failed), last %.1f ms, average %.1f ms, max %.1f ms, last %d bytes, %d bytes in total",
+                    saves, skipped, failures, lastNanos / 1e6, averageMillis(), maxNanos / 1e6, lastBytes, totalBytes);
+        }
+    }
+
+    // Declare the file the inventory is saved to, and the shortest time between two autosaves
+    private final File file;
+    private final long intervalNanos;
+
+    // Declare the thread which waits out the interval and writes the file, and the way work is run on the GUI thread
+    private final ScheduledExecutorService scheduler;
+    private final Executor guiExecutor;
+
+    // Declare the inventory being saved, the number of changes made to it, and the number there had been at the last autosave
+    // Note: these are guarded by the autosaver's lock
+    private List<Item> inventory;
+    private long changes;
+    private long savedChanges;
+
+    // Declare whether an autosave is waiting to run
+    private boolean scheduled;
+
+    // Declare the measurements, which are guarded by the autosaver's lock
+    private long saves;
+    private long skipped;
+    private long failures;
+    private long lastNanos;
+    private long maxNanos;
+    private long totalNanos;
+    private long lastBytes;
+    private long totalBytes;
+
+    // Create an autosaver which saves a file at most once per interval, copying the inventory on the GUI executor
+    Autosaver(File file, long interval, TimeUnit unit, ScheduledExecutorService scheduler, Executor guiExecutor) {
+        this.file = file;
+        this.intervalNanos = unit.toNanos(interval);
+        this.scheduler = scheduler;
+        this.guiExecutor = guiExecutor;
+    }
+
+    // Start saving the inventory on screen (replacing any inventory saved before), unless autosaving is turned off
+    // Note: this is called from the GUI thread whenever the main scene is shown, and the autosaver hears about every
+    // change to the inventory from InventoryChanges
+    public static void track(List<Item> inventory) {
+        if(current == null) {
+            current = createDefault();
+            if(current != null) InventoryChanges.addListener(current);
+        }
+        if(current != null) current.setInventory(inventory);
+    }
+
+    // Get the autosaver of the app, or null if autosaving is turned off or hasn't started
+    public static Autosaver getCurrent() {
+        return current;
+    }
+
+    // Create the autosaver described by the "inventory.autosave.interval" (in seconds, 0 turns it off) and "inventory.autosave.file" properties
+    private static Autosaver createDefault() {
+        long interval;
+        try {
+            interval = Long.parseLong(System.getProperty("inventory.autosave.interval", String.valueOf(DEFAULT_INTERVAL)).trim());
+        }
+        catch(NumberFormatException e) {
+            interval = DEFAULT_INTERVAL;
+        }
+        if(interval <= 0) return null;
+
+        String path = System.getProperty("inventory.autosave.file");
+        File file = path != null ? new File(path) : new File(System.getProperty("user.home"), DEFAULT_FILE);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new Autosaver(file, interval, TimeUnit.SECONDS, scheduler, Platform::runLater);
+    }
+
+    // Get the file the inventory is saved to
+    public File getFile() {
+        return file;
+    }
+
+    // Get the measurements of the autosaves so far
+    public synchronized Metrics getMetrics() {
+        return new Metrics(saves, skipped, failures, lastNanos, maxNanos, totalNanos, lastBytes, totalBytes);
+    }
+
+    // Switch to saving another inventory
+    // Note: a newly loaded inventory is already on the disk, so it isn't saved until it changes
+    synchronized void setInventory(List<Item> inventory) {
+        if(this.inventory == inventory) return;
+        this.inventory = inventory;
+        savedChanges = changes;
+    }
+
+    // Count a change to the inventory, and schedule an autosave if one isn't already waiting
+    // Note: every change made while an autosave is waiting is saved by that autosave, so a burst of edits is saved once
+    // and two autosaves never start less than an interval apart
+    synchronized void markChanged(List<Item> inventory) {
+        if(this.inventory != inventory) return;
+        changes++;
+        schedule();
+    }
+
+    // Count an item added to the inventory
+    @Override
+    public void added(List<Item> inventory, Item item) {
+        markChanged(inventory);
+    }
+
+    // Count an item replaced or edited in the inventory
+    @Override
+    public void set(List<Item> inventory, int index, Item previous, Item item) {
+        markChanged(inventory);
+    }
+
+    // Count an item removed from the inventory
+    @Override
+    public void removed(List<Item> inventory, int index, Item item) {
+        markChanged(inventory);
+    }
+
+    // Count the inventory being cleared
+    @Override
+    public void cleared(List<Item> inventory) {
+        markChanged(inventory);
+    }
+
+    // Count a change to the inventory which wasn't reported item by item
+    @Override
+    public void invalidated(List<Item> inventory) {
+        markChanged(inventory);
+    }
+
+    // Schedule an autosave for the end of the interval
+    private void schedule() {
+        if(scheduled || scheduler.isShutdown()) return;
+        scheduled = true;
+        scheduler.schedule(this::autosave, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Copy the inventory on the GUI thread, then write the copy on this thread
+    private void autosave() {
+        List<Item> items;
+        try {
+            CompletableFuture<List<Item>> copy = new CompletableFuture<>();
+            guiExecutor.execute(() -> {
+                try {
+                    copy.complete(takeSnapshot());
+                }
+                catch(RuntimeException e) {
+                    copy.completeExceptionally(e);
+                }
+            });
+            items = copy.get();
+        }
+        catch(ExecutionException e) {
+            recordFailure();
+            return;
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // nothing changed since the last autosave
+        if(items == null) return;
+
+        // write the copy, measuring how long it took and how large it is
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(file.getAbsoluteFile().toPath().getParent());
+            INVWriter.write(file, items, InventoryFiles.SyncPolicy.getDefault());
+        }
+        catch(IOException e) {
+            recordFailure();
+            return;
+        }
+        recordSave(System.nanoTime() - start, file.length());
+    }
+
+    // Copy the inventory if it changed since the last autosave, otherwise return null
+    // Note: this runs on the GUI thread, which is the only thread that edits the inventory
+    private synchronized List<Item> takeSnapshot() {
+        scheduled = false;
+        if(changes == savedChanges || inventory == null) {
+            skipped++;
+            return null;
+        }
+        savedChanges = changes;
+        return ExportTask.snapshot(inventory);
+    }
+
+    // Record a finished autosave
+    private synchronized void recordSave(long nanos, long bytes) {
+        saves++;
+        lastNanos = nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        totalNanos += nanos;
+        lastBytes = bytes;
+        totalBytes += bytes;
+    }
+
+    // Record an autosave which failed, so the changes are saved again after the interval
+    private synchronized void recordFailure() {
+        failures++;
+        savedChanges = -1;
+        schedule();
+    }
+
+    // Stop autosaving, abandoning any autosave that hasn't started
+    @Override
+    public void close() {
+        InventoryChanges.removeListener(this);
+        scheduler.shutdownNow();
+    }
+}
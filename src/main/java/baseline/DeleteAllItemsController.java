@@ -71,6 +71,7 @@ public class DeleteAllItemsController {
 
         // empty inventory
         inventory.clear();
+        InventoryChanges.cleared(inventory);
 
         // return to old screen
         new MainSceneController(inventory,(Stage)(cancelButton.getScene().getWindow()));
@@ -0,0 +1,141 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to encode exported text into one large reusable byte buffer and write it out in large blocks.
+
+package baseline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ExportBuffer implements Closeable {
+
+    // Declare the size of the buffer, which is also the size of each write to the file
+    static final int BUFFER_SIZE = 1 << 20;
+
+    // Declare the charset the text is encoded with (matches the charset Formatter uses by default)
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    // Declare whether the charset encodes ASCII as single bytes of the same value, so it can be copied without encoding
+    private static final boolean ASCII_COMPATIBLE = isAsciiCompatible(CHARSET);
+
+    // Declare the line separator written by newLine() (matches Formatter's "%n")
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    // Declare the stream the buffer is written to
+    private final OutputStream out;
+
+    // Declare the buffer and how much of it is filled
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    // Create a buffer in front of a stream
+    public ExportBuffer(OutputStream out) {
+        this.out = out;
+    }
+
+    // Append a string
+    public ExportBuffer append(String text) throws IOException {
+        int length = text.length();
+
+        // make room for the text if it is all ASCII
+        if(position + length > BUFFER_SIZE) flush();
+
+        // copy ASCII characters straight into the buffer
+        if(ASCII_COMPATIBLE && length <= BUFFER_SIZE) {
+            int start = position;
+            for(int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+
+                // fall back to the encoder for the first character outside of ASCII
+                if(c >= 0x80) {
+                    position = start;
+                    appendEncoded(text);
+                    return this;
+                }
+                buffer[position++] = (byte)c;
+            }
+            return this;
+        }
+
+        appendEncoded(text);
+        return this;
+    }
+
+    // Append an item's serial number, copying a packed serial number straight into the buffer
+    public ExportBuffer appendSerialNumber(Item item) throws IOException {
+        long key = item.getSerialKey();
+        if(key == SerialKey.NONE || !ASCII_COMPATIBLE) return append(item.getSerialNumber());
+
+        if(position + SerialKey.LENGTH > BUFFER_SIZE) flush();
+        SerialKey.write(key, buffer, position);
+        position += SerialKey.LENGTH;
+        return this;
+    }
+
+    // Append a single ASCII character
+    public ExportBuffer append(char c) throws IOException {
+        // characters outside of ASCII go through the encoder
+        if(c >= 0x80 || !ASCII_COMPATIBLE) return append(String.valueOf(c));
+
+        if(position == BUFFER_SIZE) flush();
+        buffer[position++] = (byte)c;
+        return this;
+    }
+
+    // Append the platform line separator
+    public ExportBuffer newLine() throws IOException {
+        return append(LINE_SEPARATOR);
+    }
+
+    // Encode a string with the charset and append its bytes
+    // Note: String.getBytes replaces characters the charset can't encode with '?', just like Formatter's writer does
+    private void appendEncoded(String text) throws IOException {
+        byte[] bytes = text.getBytes(CHARSET);
+
+        // very long text is written straight through
+        if(bytes.length > BUFFER_SIZE - position) {
+            flush();
+            if(bytes.length > BUFFER_SIZE) {
+                out.write(bytes);
+                return;
+            }
+        }
+
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    // Write the filled part of the buffer to the stream
+    public void flush() throws IOException {
+        if(position > 0) out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    // Write the rest of the buffer, then close the stream
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    // Determine if a charset encodes every ASCII character as the same single byte
+    private static boolean isAsciiCompatible(Charset charset) {
+        char[] ascii = new char[0x80];
+        for(int i = 0; i < ascii.length; i++) {
+            ascii[i] = (char)i;
+        }
+        String text = new String(ascii);
+        return Arrays.equals(text.getBytes(charset), text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to save a snapshot of the inventory on a background thread while the GUI shows its progress.
+
+package baseline;
+
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+public class ExportTask extends Task<Long> {
+
+    // Declare the file being saved
+    private final File file;
+
+    // Declare the file extension, which decides the writer
+    private final String fileType;
+
+    // Declare the copy of the inventory being saved (null when only the changes are saved)
+    private final List<Item> items;
+
+    // Declare the journal of the .inv file being saved (if any), and the changes appended to it instead of rewriting the file
+    private final InventoryJournal journal;
+    private final InventoryJournal.Batch batch;
+
+    // Declare whether the batch has been claimed, either by the save appending it or by a cancel putting it back
+    private final AtomicBoolean batchClaimed = new AtomicBoolean();
+
+    // Declare the copy of the inventory the journal is folded into afterwards (if it has grown large enough)
+    private final List<Item> compaction;
+
+    // Declare the number of items (or changes) being saved
+    private final int total;
+
+    // Create a task which saves the inventory as the given type ("txt", "json", "html", or "inv")
+    // Note: this must be created on the GUI thread, which is the only thread that edits the inventory
+    public ExportTask(File file, String fileType, List<Item> inventory) {
+        this.file = file;
+        this.fileType = fileType;
+
+        // saving a .inv file that was loaded or saved before only appends the changes made since to its journal
+        boolean journaled = fileType.equals("inv") && !InventoryFiles.isCompressed(file.getPath());
+        InventoryJournal existing = journaled ? InventoryJournal.get(file, inventory) : null;
+        if(existing != null) {
+            journal = existing;
+            batch = existing.takeBatch();
+            compaction = existing.isCompactionDue(batch) ? snapshot(inventory) : null;
+            items = null;
+            total = batch.count();
+        }
+        // otherwise, every item is written, and a new journal records the changes from here on
+        else {
+            journal = journaled ? InventoryJournal.begin(file, inventory) : null;
+            batch = null;
+            compaction = null;
+            items = snapshot(inventory);
+            total = items.size();
+        }
+    }
+
+    // Copy every item, so edits made while the file is being written don't change what is saved
+    // Note: the items are copied as well as the list, since the main scene edits items in place
+    static List<Item> snapshot(List<Item> inventory) {
+        // a mapped inventory shares its file, which never changes, and only copies the items it holds
+        if(inventory instanceof MappedInventory mapped) return mapped.snapshot();
+
+        // a table copies its columns rather than an Item per row
+        if(inventory instanceof InventoryTable table) return table.snapshot();
+        if(inventory instanceof OffHeapInventory offHeap) return offHeap.snapshot();
+
+        List<Item> copy = new ArrayList<>(inventory.size());
+        for(Item item : inventory) {
+            copy.add(new Item(item));
+        }
+        return copy;
+    }
+
+    // Save the snapshot, returning the number of items written
+    @Override
+    protected Long call() throws IOException, InterruptedException {
+        return save(this::report);
+    }
+
+    // Save the snapshot, reporting the number of items (or changes) written so far, and return the number saved
+    // Note: this is the whole save, so saving without the GUI (as the save controller's helpers do) takes the same path
+    long save(LongConsumer progress) throws IOException, InterruptedException {
+        InventoryFiles.SyncPolicy policy = InventoryFiles.SyncPolicy.getDefault();
+
+        // append the changes, folding the journal into a new copy of the file in the background once it is large
+        // note: append puts the batch back itself if it fails, so the batch is only claimed here
+        if(batch != null) {
+            if(!batchClaimed.compareAndSet(false, true)) throw new CancellationException();
+            journal.append(batch, policy);
+            progress.accept(batch.count());
+            if(compaction != null) journal.compactInBackground(compaction, policy);
+            return batch.count();
+        }
+
+        // determine which file type to write
+        switch (fileType) {
+            // TSV is written line by line
+            case "txt" -> TSVWriter.write(file, items, policy, progress);
+
+            // JSON is written one object after another, as the app has always saved it
+            case "json" -> JSONWriter.write(file, items, JSONWriter.Layout.CONCATENATED, policy, progress);
+
+            // HTML is written row by row
+            case "html" -> HTMLWriter.write(file, items, policy, progress);
+
+            // the binary format is written item by item, once any compaction of the same file is done
+            case "inv" -> {
+                InventoryJournal.awaitCompaction();
+                INVWriter.write(file, items, policy, progress);
+                if(journal != null) journal.reset();
+            }
+
+            // fail case
+            default -> throw new IOException("Unsupported file type: " + fileType);
+        }
+        return total;
+    }
+
+    // Put the changes back into the journal if the task was cancelled before it appended them
+    // Note: this is called on the GUI thread, possibly before the task ever ran
+    @Override
+    protected void cancelled() {
+        restoreBatch();
+    }
+
+    // Put the changes back into the journal if the task failed before it appended them
+    @Override
+    protected void failed() {
+        restoreBatch();
+    }
+
+    // Hand the unsaved changes back to the journal, so the next save appends them
+    void restoreBatch() {
+        if(batch != null && batchClaimed.compareAndSet(false, true)) journal.restore(batch);
+    }
+
+    // Report the number of items written so far
+    private void report(long rows) {
+        // stop the writer as soon as the task is cancelled, which throws away the unfinished file
+        if(isCancelled()) throw new CancellationException();
+
+        updateProgress(rows, Math.max(1, total));
+        updateMessage("Saved " + rows + " of " + total + (batch == null ? " items..." : " changes..."));
+    }
+}
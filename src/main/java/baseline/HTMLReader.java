@@ -0,0 +1,166 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to stream the table rows of an HTML file into items without holding the whole file.
+
+package baseline;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public class HTMLReader {
+
+    // Declare the size of each block of characters read from the file
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    // Declare the longest tag that is matched (anything longer can't be a row or cell tag)
+    private static final int MAX_TAG_LENGTH = 64;
+
+    // Declare the text of the cell currently being read
+    private final StringBuilder cell = new StringBuilder();
+
+    // Declare the text of the tag currently being read
+    private final StringBuilder tag = new StringBuilder();
+
+    // Declare the cells of the row currently being read (serial number, name, cost)
+    private final String[] fields = new String[3];
+
+    // Declare the number of cells read in the current row
+    private int cells;
+
+    // Declare whether the reader is inside a <td> cell
+    private boolean inCell;
+
+    // Declare whether the reader is inside a tag
+    private boolean inTag;
+
+    // Read every row of an HTML (or compressed .html.gz) file written by SaveController, handing each item to the sink as its row closes
+    public static void read(File file, Consumer<Item> sink) throws IOException {
+        try(Reader reader = new BufferedReader(new InputStreamReader(InventoryFiles.openInput(file), Charset.defaultCharset()), BLOCK_SIZE)) {
+            read(reader, sink);
+        }
+    }
+
+    // Read every row from a stream of HTML
+    public static void read(Reader reader, Consumer<Item> sink) throws IOException {
+        HTMLReader parser = new HTMLReader();
+        char[] block = new char[BLOCK_SIZE];
+
+        // feed the parser one block at a time
+        int read;
+        while((read = reader.read(block)) != -1) {
+            for(int i = 0; i < read; i++) {
+                parser.accept(block[i], sink);
+            }
+        }
+    }
+
+    // Move the state machine forward by a single character
+    private void accept(char c, Consumer<Item> sink) throws IOException {
+        // line breaks are not part of any value (the file used to be read one line at a time)
+        if(c == '\n' || c == '\r') return;
+
+        // collect the tag until it closes
+        if(inTag) {
+            if(c == '>') {
+                inTag = false;
+                closeTag(sink);
+            }
+            else if(c == '<') {
+                // the last '<' was plain text, so keep it and start over
+                appendText('<');
+                appendText(tag);
+                tag.setLength(0);
+            }
+            else if(tag.length() < MAX_TAG_LENGTH) tag.append(c);
+            else {
+                // too long to be a tag we care about, so keep it as text
+                inTag = false;
+                appendText('<');
+                appendText(tag);
+                appendText(c);
+            }
+            return;
+        }
+
+        // start of a new tag
+        if(c == '<') {
+            inTag = true;
+            tag.setLength(0);
+            return;
+        }
+
+        // ordinary text
+        appendText(c);
+    }
+
+    // Handle a complete tag
+    private void closeTag(Consumer<Item> sink) throws IOException {
+        String name = tagName();
+
+        switch (name) {
+            // a new row starts with no cells
+            case "tr" -> {
+                cells = 0;
+                inCell = false;
+            }
+
+            // a row is complete
+            case "/tr" -> closeRow(sink);
+
+            // a new cell starts
+            case "td" -> {
+                inCell = true;
+                cell.setLength(0);
+            }
+
+            // a cell is complete (only the first three cells of a row are kept)
+            case "/td" -> {
+                if(inCell && cells < fields.length) fields[cells] = cell.toString();
+                if(inCell) cells++;
+                inCell = false;
+            }
+
+            // any other tag inside a cell is kept as part of the value
+            default -> {
+                appendText('<');
+                appendText(tag);
+                appendText('>');
+            }
+        }
+    }
+
+    // Emit the item for the row that just closed
+    private void closeRow(Consumer<Item> sink) throws IOException {
+        // rows without cells (such as the header row) are skipped
+        if(cells == 0) return;
+
+        // every row needs a serial number, a name, and a cost
+        if(cells < fields.length) throw new IOException("Malformed HTML row: " + String.join(", ", Arrays.copyOf(fields, cells)));
+
+        // add item (the cost parser skips the '$' in front of the cost)
+        sink.accept(new Item(fields[1], fields[0], Item.parseCents(fields[2])));
+        cells = 0;
+    }
+
+    // Get the lower case name of the current tag, without any attributes
+    private String tagName() {
+        int end = 0;
+        while(end < tag.length() && !Character.isWhitespace(tag.charAt(end))) end++;
+        return tag.substring(0, end).toLowerCase();
+    }
+
+    // Add text to the current cell
+    private void appendText(char c) {
+        if(inCell) cell.append(c);
+    }
+
+    // Add text to the current cell
+    private void appendText(CharSequence text) {
+        if(inCell) cell.append(text);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to write the inventory to an HTML table without formatting each row through a Formatter.
+
+package baseline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+public class HTMLWriter {
+
+    // Declare the heading written in front of the rows
+    static final String HEADER = """
+            <html><body><table>
+            <style type="text/css">
+              td {
+                padding: 0 15px;
+              }
+            </style><tr><th>Serial Number\t</th><th>Name\t</th><th>Cost</th></tr>
+            """;
+
+    // Declare the closing tags written after the rows
+    static final String FOOTER = "</table></body></html>";
+
+    // Prevent this utility class from being created
+    private HTMLWriter() {
+    }
+
+    // Save every item as a table row under a basic heading (compressing the file if it is a .gz file)
+    public static void write(File file, List<Item> items) throws IOException {
+        write(file, items, InventoryFiles.SyncPolicy.getDefault());
+    }
+
+    // Save the items atomically, forcing the file to the disk as the policy asks
+    public static void write(File file, List<Item> items, InventoryFiles.SyncPolicy policy) throws IOException {
+        write(file, items, policy, rows -> {});
+    }
+
+    // Save the items atomically, reporting the running number of rows written
+    public static void write(File file, List<Item> items, InventoryFiles.SyncPolicy policy, LongConsumer progress) throws IOException {
+        InventoryFiles.save(file, policy, out -> write(out, items, progress));
+    }
+
+    // Write every item to a stream as an HTML table
+    public static void write(OutputStream out, List<Item> items) throws IOException {
+        write(out, items, rows -> {});
+    }
+
+    // Write every item to a stream as an HTML table, reporting progress every few thousand rows
+    public static void write(OutputStream out, List<Item> items, LongConsumer progress) throws IOException {
+        try(ExportBuffer buffer = new ExportBuffer(out)) {
+            long rows = 0;
+            buffer.append(HEADER);
+            for(Item item : items) {
+                writeRow(buffer, item);
+                if(++rows % InventoryFiles.PROGRESS_ROWS == 0) progress.accept(rows);
+            }
+            progress.accept(rows);
+            buffer.append(FOOTER);
+        }
+    }
+
+    // Write a single item as a table row
+    static void writeRow(ExportBuffer buffer, Item item) throws IOException {
+        buffer.append("<tr><td>").appendSerialNumber(item)
+                .append("</td><td>").append(item.getName())
+                .append("</td><td>").append(item.getCost())
+                .append("</td></tr>");
+    }
+}
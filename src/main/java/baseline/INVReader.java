@@ -0,0 +1,157 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to read an inventory saved in the binary ".inv" format by INVWriter.
+
+package baseline;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public class INVReader {
+
+    // Declare the size of the buffer each read from the file fills
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Declare the stream the items are read from
+    private final InputStream in;
+
+    // Declare the buffer, the position of the next unread byte, and the end of the bytes read so far
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Declare a serial number with its hyphens in place, which each packed serial number is copied into
+    private final byte[] serial = "A-XXX-XXX-XXX".getBytes(StandardCharsets.US_ASCII);
+
+    // Create a reader over a stream
+    private INVReader(InputStream in) {
+        this.in = in;
+    }
+
+    // Read every item in a .inv (or compressed .inv.gz) file and hand it to the sink in file order
+    public static void read(File file, Consumer<Item> sink) throws IOException {
+        try(InputStream stream = InventoryFiles.openInput(file)) {
+            read(stream, sink);
+        }
+    }
+
+    // Read every item from a stream of the binary format and hand it to the sink in order (the row index is skipped)
+    public static void read(InputStream stream, Consumer<Item> sink) throws IOException {
+        INVReader reader = new INVReader(stream);
+        long count = reader.readHeader();
+        for(long i = 0; i < count; i++) {
+            sink.accept(reader.readItem());
+        }
+    }
+
+    // Check the magic bytes and version, returning the number of items in the file
+    private long readHeader() throws IOException {
+        require(INVWriter.HEADER_SIZE);
+        if(!Arrays.equals(buffer, 0, INVWriter.MAGIC.length, INVWriter.MAGIC, 0, INVWriter.MAGIC.length)) {
+            throw new IOException("Not an inventory file");
+        }
+        position = INVWriter.MAGIC.length;
+
+        // note: newer versions only add to the end of the file, so every version up to the current one reads the same way
+        int version = (int)readFixed(Integer.BYTES);
+        if(version < INVWriter.MIN_VERSION || version > INVWriter.VERSION) throw new IOException("Unsupported inventory file version: " + version);
+
+        long count = readFixed(Long.BYTES);
+        if(count < 0) throw new IOException("Invalid item count: " + count);
+        return count;
+    }
+
+    // Read a single item
+    private Item readItem() throws IOException {
+        // read the name
+        String name = readString();
+
+        // read the serial number from its fixed-width field
+        require(INVWriter.SERIAL_SIZE);
+        long serialKey = SerialKey.pack(buffer, position);
+        String serialNumber = null;
+        if(serialKey != SerialKey.NONE) {
+            // letters and digits are kept packed, without making a String
+            position += INVWriter.SERIAL_SIZE;
+        }
+        else if(buffer[position] != 0) {
+            // put the characters back around the hyphens
+            for(int i = 0, j = 0; i < serial.length; i++) {
+                if(i % 4 != 1) serial[i] = buffer[position + j++];
+            }
+            position += INVWriter.SERIAL_SIZE;
+            serialNumber = new String(serial, StandardCharsets.ISO_8859_1);
+        }
+        // an empty field means the serial number follows in full
+        else {
+            position += INVWriter.SERIAL_SIZE;
+            serialNumber = readString();
+        }
+
+        // read the cost in cents, undoing the zigzag encoding
+        long value = readVarint();
+        long cents = (value >>> 1) ^ -(value & 1);
+
+        return new Item(name, serialKey, serialNumber, cents);
+    }
+
+    // Read a length-prefixed UTF-8 string
+    private String readString() throws IOException {
+        long length = readVarint();
+        if(length < 0 || length > Integer.MAX_VALUE - 8) throw new IOException("Invalid string length: " + length);
+
+        require((int)length);
+        String text = new String(buffer, position, (int)length, StandardCharsets.UTF_8);
+        position += (int)length;
+        return text;
+    }
+
+    // Read a big-endian number of the given number of bytes
+    private long readFixed(int size) throws IOException {
+        require(size);
+        long value = 0;
+        for(int i = 0; i < size; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    // Read an unsigned number stored 7 bits at a time, lowest bits first
+    private long readVarint() throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            if(position == limit) require(1);
+            byte b = buffer[position++];
+            value |= (long)(b & 0x7F) << shift;
+            if(b >= 0) return value;
+        }
+        throw new IOException("Malformed number");
+    }
+
+    // Make sure the given number of bytes are in the buffer, reading more of the stream if they aren't
+    private void require(int length) throws IOException {
+        if(limit - position >= length) return;
+
+        // move the unread bytes to the front, growing the buffer for very long strings
+        int remaining = limit - position;
+        if(length > buffer.length) buffer = Arrays.copyOfRange(buffer, position, position + Math.max(length, buffer.length * 2));
+        else System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+
+        // fill the buffer until the bytes are there
+        while(limit < length) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if(read < 0) throw new EOFException("The inventory file ends in the middle of an item");
+            limit += read;
+        }
+    }
+}
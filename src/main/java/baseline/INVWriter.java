@@ -0,0 +1,236 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to save the inventory in the compact binary ".inv" format, which loads far faster than the text formats.
+
+package baseline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+public class INVWriter {
+
+    // Declare the bytes every .inv file starts with (the high first byte catches files mangled by text transfers)
+    static final byte[] MAGIC = {(byte)0x89, 'I', 'N', 'V'};
+
+    // Declare the version of the layout written by this class (version 2 added the row index after the items)
+    static final int VERSION = 2;
+
+    // Declare the oldest version which can still be read
+    static final int MIN_VERSION = 1;
+
+    // Declare how many rows apart the rows in the index are
+    static final int INDEX_STRIDE = 64;
+
+    // Declare the size of the trailer at the very end of the file: the index stride and the position of the index
+    static final int TRAILER_SIZE = Integer.BYTES + Long.BYTES;
+
+    // Declare the size of the header: the magic bytes, the version, and the number of items
+    static final int HEADER_SIZE = MAGIC.length + Integer.BYTES + Long.BYTES;
+
+    // Declare the size of a packed serial number: the characters of an A-XXX-XXX-XXX serial number without the hyphens
+    static final int SERIAL_SIZE = 10;
+
+    // Declare the largest number of bytes a variable-length number takes
+    static final int MAX_VARINT_SIZE = 10;
+
+    // Declare the size of the buffer, which is also the size of each write to the file
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Declare the stream the buffer is written to
+    private final OutputStream out;
+
+    // Declare the buffer, how much of it is filled, and how many bytes have already been written out of it
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private long flushed;
+
+    // Create a writer in front of a stream
+    private INVWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    // Save every item in the binary format (compressing the file if it is a .gz file)
+    public static void write(File file, List<Item> items) throws IOException {
+        write(file, items, InventoryFiles.SyncPolicy.getDefault());
+    }
+
+    // Save the items atomically, forcing the file to the disk as the policy asks
+    public static void write(File file, List<Item> items, InventoryFiles.SyncPolicy policy) throws IOException {
+        write(file, items, policy, rows -> {});
+    }
+
+    // Save the items atomically, reporting the running number of items written
+    public static void write(File file, List<Item> items, InventoryFiles.SyncPolicy policy, LongConsumer progress) throws IOException {
+        InventoryFiles.save(file, policy, out -> write(out, items, progress));
+    }
+
+    // Write every item to a stream in the binary format
+    public static void write(OutputStream out, List<Item> items) throws IOException {
+        write(out, items, rows -> {});
+    }
+
+    // Write the header, every item, and the row index to a stream, reporting progress every few thousand items
+    // File layout (numbers are big-endian):
+    //   header: magic (4 bytes), version (int), number of items (long)
+    //   each item: name length (varint) and UTF-8 name, serial number (10 bytes), cost in cents (zigzag varint)
+    //   index: the file position (long) of every INDEX_STRIDE-th item, starting with the first
+    //   trailer: the index stride (int), the file position of the index (long)
+    public static void write(OutputStream out, List<Item> items, LongConsumer progress) throws IOException {
+        try(out) {
+            INVWriter writer = new INVWriter(out);
+            int count = items.size();
+            long[] index = new long[(count + INDEX_STRIDE - 1) / INDEX_STRIDE];
+
+            // write the header
+            writer.ensure(HEADER_SIZE);
+            System.arraycopy(MAGIC, 0, writer.buffer, 0, MAGIC.length);
+            writer.position = MAGIC.length;
+            writer.writeFixed(VERSION, Integer.BYTES);
+            writer.writeFixed(count, Long.BYTES);
+
+            // write the items, remembering where every INDEX_STRIDE-th one starts
+            int rows = 0;
+            for(Item item : items) {
+                if(rows % INDEX_STRIDE == 0) index[rows / INDEX_STRIDE] = writer.flushed + writer.position;
+                writer.writeItem(item);
+                if(++rows % InventoryFiles.PROGRESS_ROWS == 0) progress.accept(rows);
+            }
+            progress.accept(rows);
+
+            // write the index and the trailer
+            long indexStart = writer.flushed + writer.position;
+            for(long offset : index) {
+                writer.ensure(Long.BYTES);
+                writer.writeFixed(offset, Long.BYTES);
+            }
+            writer.ensure(TRAILER_SIZE);
+            writer.writeFixed(INDEX_STRIDE, Integer.BYTES);
+            writer.writeFixed(indexStart, Long.BYTES);
+            writer.flush();
+        }
+    }
+
+    // Write a big-endian number of the given number of bytes
+    // Precondition: there is room for the bytes in the buffer
+    private void writeFixed(long value, int size) {
+        for(int shift = (size - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte)(value >>> shift);
+        }
+    }
+
+    // Write a single item
+    private void writeItem(Item item) throws IOException {
+        String name = item.getName();
+        int nameLength = name.length();
+
+        // make room for the whole item if its name is ASCII (the usual case)
+        ensure(MAX_VARINT_SIZE + nameLength + SERIAL_SIZE + MAX_VARINT_SIZE);
+
+        // write the name, copying ASCII characters straight into the buffer
+        if(nameLength <= BUFFER_SIZE / 2 && isAscii(name)) {
+            writeVarint(nameLength);
+            for(int i = 0; i < nameLength; i++) {
+                buffer[position++] = (byte)name.charAt(i);
+            }
+        }
+        else writeBytes(name.getBytes(StandardCharsets.UTF_8));
+
+        // write the serial number into its fixed-width field
+        ensure(SERIAL_SIZE);
+        long serialKey = item.getSerialKey();
+        String serialNumber = serialKey == SerialKey.NONE ? item.getSerialNumber() : null;
+        if(serialKey != SerialKey.NONE) {
+            // a packed serial number is copied straight into the field
+            SerialKey.unpack(serialKey, buffer, position);
+            position += SERIAL_SIZE;
+        }
+        else if(isPackable(serialNumber)) {
+            for(int i = 0; i < serialNumber.length(); i++) {
+                // skip the hyphens, which are always in the same place
+                if(i % 4 != 1) buffer[position++] = (byte)serialNumber.charAt(i);
+            }
+        }
+        // a serial number in any other format leaves the field empty and follows it in full
+        else {
+            for(int i = 0; i < SERIAL_SIZE; i++) {
+                buffer[position++] = 0;
+            }
+            writeBytes(serialNumber.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // write the cost as a whole number of cents, zigzag encoded so small negative costs stay short
+        ensure(MAX_VARINT_SIZE);
+        long cents = item.getCents();
+        writeVarint((cents << 1) ^ (cents >> 63));
+    }
+
+    // Write a length-prefixed run of bytes
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensure(MAX_VARINT_SIZE);
+        writeVarint(bytes.length);
+
+        // very long runs are written straight through
+        if(bytes.length > BUFFER_SIZE - position) {
+            flush();
+            if(bytes.length > BUFFER_SIZE) {
+                out.write(bytes);
+                flushed += bytes.length;
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    // Write an unsigned number 7 bits at a time, lowest bits first, setting the high bit of every byte but the last
+    // Precondition: there is room for MAX_VARINT_SIZE bytes in the buffer
+    private void writeVarint(long value) {
+        while((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    // Make sure the buffer has room for the given number of bytes, flushing it if it doesn't
+    // Note: a request larger than the whole buffer is left to the caller
+    private void ensure(int length) throws IOException {
+        if(length > BUFFER_SIZE - position) flush();
+    }
+
+    // Write the filled part of the buffer to the stream
+    private void flush() throws IOException {
+        if(position > 0) out.write(buffer, 0, position);
+        flushed += position;
+        position = 0;
+    }
+
+    // Determine if a string is plain ASCII, which UTF-8 stores as one byte per character
+    private static boolean isAscii(String text) {
+        for(int i = 0; i < text.length(); i++) {
+            if(text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    // Determine if a serial number is in the A-XXX-XXX-XXX format, so it fits the fixed-width field
+    // Note: any ASCII character (other than a zero byte) is allowed, since the field only needs to be able to hold it
+    static boolean isPackable(String serialNumber) {
+        if(serialNumber.length() != 13) return false;
+        for(int i = 0; i < 13; i++) {
+            char c = serialNumber.charAt(i);
+            if(i % 4 == 1) {
+                if(c != '-') return false;
+            }
+            else if(c == 0 || c >= 0x80) return false;
+        }
+        return true;
+    }
+}
@@ -3,16 +3,21 @@
  *  Copyright 2021 Joshua Glaspey
  */
 
-// The purpose of this class is to import a file of items and override the current inventory.
+// The purpose of this class is to import a file of items and either override or merge into the current inventory.
 
 package baseline;
 
+import javafx.animation.AnimationTimer;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.RadioButton;
+import javafx.scene.control.ToggleGroup;
 import javafx.scene.media.AudioClip;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -21,12 +26,15 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 
 public class ImportController {
+    // Declare the messages of the error label: a file which can't be read, and a .inv file whose change journal can't be
+    private static final String INVALID_FILE_ERROR = "Select a valid file!";
+    private static final String DAMAGED_JOURNAL_ERROR = "The file's change journal is damaged!";
+
     // Label that is displayed when there is an error with the input file
     @FXML
     private Label errorLabel;
@@ -39,12 +47,36 @@ public class ImportController {
     @FXML
     private Button loadItemsButton;
 
+    // Button for choosing a file
+    @FXML
+    private Button chooseFileButton;
+
+    // Progress bar that fills as the selected file is parsed
+    @FXML
+    private ProgressBar progressBar;
+
+    // Label that displays the number of items parsed so far
+    @FXML
+    private Label progressLabel;
+
+    // Radio button group for choosing whether the file replaces or merges into the inventory
+    @FXML
+    private ToggleGroup importModeButtons;
+
+    // Check box for watching the file and applying its changes after it is loaded
+    @FXML
+    private CheckBox watchBox;
+
     // Declare sound for clicking button
     private final AudioClip buttonSoundPlayer = new AudioClip(Objects.requireNonNull(getClass().getResource("sound/buttonClick.mp3")).toExternalForm());
+    private final AudioClip smallButtonSoundPlayer = new AudioClip(Objects.requireNonNull(getClass().getResource("sound/smallButtonClick.mp3")).toExternalForm());
 
     // Grab the previous inventory
     private List<Item> inventory;
 
+    // Declare the import currently running in the background (if any)
+    private ImportTask importTask;
+
     // Create the scene and copy the list of items from the main screen
     public ImportController(List<Item> inventory, Stage stage) {
         // save the list of items in case this action is cancelled
@@ -92,10 +124,23 @@ public class ImportController {
         // play click sound
         buttonSoundPlayer.play();
 
+        // if an import is running, stop it and keep the old inventory
+        if(importTask != null && importTask.isRunning()) {
+            importTask.cancel();
+            return;
+        }
+
         // return to old screen
         new MainSceneController(inventory,(Stage)(loadItemsButton.getScene().getWindow()));
     }
 
+    // Plays the small button click sound when an import mode is selected
+    @FXML
+    void playSmallButtonClick(ActionEvent event) {
+        // play small click sound
+        smallButtonSoundPlayer.play();
+    }
+
     // Enable or disable the load button
     private void disableLoadButton(boolean value) {
         loadItemsButton.setDisable(value);
@@ -139,10 +184,13 @@ public class ImportController {
         }
     }
 
-    // Extract the file path from a String as long as it is .txt., .html, or .json
-    private String getFileExtension(String path) {
+    // Extract the file extension from a String, keeping the ".gz" of a compressed file (such as "txt.gz")
+    String getFileExtension(String path) {
+        // look at the extension in front of ".gz" for compressed files
+        String base = InventoryFiles.isCompressed(path) ? path.substring(0, path.length() - InventoryFiles.GZIP_SUFFIX.length()) : path;
+
         // get the last index of '.'
-        int extension = path.lastIndexOf('.');
+        int extension = base.lastIndexOf('.');
 
         // if the extension is > 0, return the extension
         if(extension > 0) return path.substring(extension + 1);
@@ -151,18 +199,27 @@ public class ImportController {
         else return "";
     }
 
-    // Determine if a string is one of the 3 valid file extensions
-    private boolean isValidFileExtension(String extension) {
-        return (extension.equals("txt")) || (extension.equals("json")) || (extension.equals("html"));
+    // Determine if a string is one of the 4 valid file extensions, either plain or compressed
+    boolean isValidFileExtension(String extension) {
+        // strip the compression suffix
+        if(InventoryFiles.isCompressed(extension)) extension = extension.substring(0, extension.length() - InventoryFiles.GZIP_SUFFIX.length());
+
+        return (extension.equals("txt")) || (extension.equals("json")) || (extension.equals("html")) || (extension.equals("inv"));
     }
 
     // Determine the visibility of the error label
     private void errorLabelVisible(boolean value) {
         // set label visibility
-        if(value) errorLabel.setOpacity(1.0);
+        if(value) errorLabelVisible(INVALID_FILE_ERROR);
         else errorLabel.setOpacity(0.0);
     }
 
+    // Show the error label with a message
+    private void errorLabelVisible(String message) {
+        errorLabel.setText(message);
+        errorLabel.setOpacity(1.0);
+    }
+
     // Attempt to import a list of items to the application
     @FXML
     void loadItems(ActionEvent event) {
@@ -196,153 +253,252 @@ public class ImportController {
             return;
         }
 
-        // override the current inventory to the new list imported by file
-        inventory = importItems(importFile);
-
-        // return to old screen
-        new MainSceneController(inventory,(Stage)(loadItemsButton.getScene().getWindow()));
+        // parse the file in the background, then override the current inventory with it
+        startImport(importFile);
     }
 
-    // Open a file given a string
-    private File openFile(String path) {
-        // try to return a new File from the file path
-        try {
-            return new File(path);
-        }
-        catch(Exception e) {
-            // display error
-            errorLabelVisible(true);
-
-            // return from method
-            return null;
-        }
-    }
+    // Parse a file on a background thread while the scene shows its progress
+    private void startImport(File file) {
+        // create the task and the list it fills
+        // note: a merge keeps the parsed items, so their repeated names are shared; a table keeps its own copy of each name
+        InventoryMerger.ConflictPolicy policy = getMergePolicy(((RadioButton)importModeButtons.getSelectedToggle()).getText());
+        ImportTask task = new ImportTask(file, getFileExtension(file.getPath()), policy != null);
 
-    // Given a file, determine a method of parsing, and return the parsed list created by another method
-    // Precondition: file is not null, and is one of three extensions
-    private List<Item> importItems(File file) {
-        // get the file extension
-        String fileExtension = file.getPath();
-        String fileType = getFileExtension(fileExtension);
+        // replace mode with a binary file: map the file instead, so only the rows that are viewed are ever decoded
+        if(policy == null && getFileExtension(file.getPath()).equals("inv") && openMapped(file)) return;
 
-        // determine which file type to parse
-        return switch (fileType) {
-            // if txt, call parseTSVFile
-            case "txt" -> parseTSVFile(file);
-
-            // if JSON, call parseJSONFile
-            case "json" -> parseJSONFile(file);
+        // replace mode: show the new inventory straight away, filling it as the file is parsed
+        importTask = task;
+        if(policy == null) {
+            streamImport(task, file);
+            return;
+        }
 
-            // if html, call parseHTMLFile
-            case "html" -> parseHTMLFile(file);
+        // merge mode only needs a list to read the parsed items back from
+        List<Item> newInventory = new ArrayList<>();
 
-            // fail case
-            default -> null;
+        // move parsed batches into the new list once per frame
+        AnimationTimer batchTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                task.drain(newInventory, ImportTask.ITEMS_PER_PULSE);
+            }
         };
-    }
 
-    // Parse a TSV file
-    private List<Item> parseTSVFile(File file) {
-        // create new list to be returned
-        List<Item> newList = new ArrayList<>();
+        // show the progress of the task
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressLabel.textProperty().bind(task.messageProperty());
+        setImporting(true);
 
-        // create new Scanner
-        Scanner stream = createScanner(file);
+        // on success, merge the new list into the current inventory
+        task.setOnSucceeded(e -> {
+            batchTimer.stop();
+            task.drain(newInventory, Integer.MAX_VALUE);
 
-        // null check
-        if(stream == null) {
-            // display error
+            // apply the changes saved in the journal of a .inv file since it was last rewritten
+            try {
+                if(getFileExtension(file.getPath()).equals("inv")) InventoryJournal.replay(file, newInventory);
+            }
+            // the journal is damaged, so keep the old inventory
+            catch (IOException ex) {
+                setImporting(false);
+                errorLabelVisible(DAMAGED_JOURNAL_ERROR);
+                return;
+            }
+
+            // combine the lists, then stay on this scene so more files can be merged
+            InventoryMerger.MergeResult result = InventoryMerger.merge(inventory, newInventory, policy);
+            InventoryChanges.invalidated(inventory);
+            watchFile(file);
+            setImporting(false);
+            progressLabel.setText(result.toString());
+            progressLabel.setOpacity(1.0);
+        });
+
+        // on cancel, throw away the partial list and keep the old inventory
+        task.setOnCancelled(e -> {
+            batchTimer.stop();
+            setImporting(false);
+        });
+
+        // on failure, keep the old inventory and display error
+        task.setOnFailed(e -> {
+            batchTimer.stop();
+            setImporting(false);
             errorLabelVisible(true);
+        });
 
-            // break method
-            return Collections.emptyList();
-        }
+        // start the import
+        batchTimer.start();
+        start(task);
+    }
 
-        // loop through the file
-        while(stream.hasNextLine()) {
-            // read next line
-            String nextLine = stream.nextLine();
+    // Replace the inventory with a file being parsed, opening the main scene at once and adding the parsed rows to its
+    // table as they arrive, so the first rows show up while the rest of the file is still being read
+    // Note: cancelling or failing goes back to the old inventory, throwing the partial one away
+    private void streamImport(ImportTask task, File file) {
+        // the rows are kept in columns (on or off the heap)
+        List<Item> previous = inventory;
+        List<Item> newInventory = OffHeapInventory.Storage.getDefault().create();
+        Stage stage = (Stage)(loadItemsButton.getScene().getWindow());
+        MainSceneController main = new MainSceneController(newInventory, stage);
+        main.showImport(task);
+
+        // on success, apply the journal of a .inv file and keep the new inventory
+        task.setOnSucceeded(e -> {
+            main.finishImport(task);
+            boolean journaled = getFileExtension(file.getPath()).equals("inv");
+            try {
+                if(journaled) InventoryJournal.load(file, newInventory);
+            }
+            // the journal is damaged, so keep the old inventory
+            catch (IOException ex) {
+                new ImportController(previous, stage).errorLabelVisible(true);
+                return;
+            }
 
-            // create new array of String
-            String[] values = nextLine.split("\t",3);
+            inventory = newInventory;
+            if(!journaled) InventoryJournal.detach();
+            watchFile(file);
+            main.refreshImported();
+        });
+
+        // on cancel, go back to the old inventory
+        task.setOnCancelled(e -> {
+            main.finishImport(task);
+            new MainSceneController(previous, stage);
+        });
+
+        // on failure, go back to the old inventory and display error
+        task.setOnFailed(e -> {
+            main.finishImport(task);
+            new ImportController(previous, stage).errorLabelVisible(true);
+        });
+
+        start(task);
+    }
+
+    // Run an import on its own background thread
+    private void start(ImportTask task) {
+        Thread thread = new Thread(task, "inventory-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-            // add new Item
-            newList.add(new Item(values[1],values[0],values[2].substring(1)));
+    // Replace the inventory with a memory-mapped .inv file and return to the main screen, returning false if the file has to be parsed
+    // Note: a file which can't be mapped (such as one saved before .inv files had a row index) is parsed instead
+    private boolean openMapped(File file) {
+        MappedInventory mapped;
+        try {
+            mapped = MappedInventory.open(file);
+        }
+        catch (IOException e) {
+            return false;
         }
 
-        // close the input stream
-        stream.close();
+        // apply the changes saved in the file's journal since it was last rewritten
+        try {
+            InventoryJournal.load(file, mapped);
+        }
+        // the journal is damaged, so unmap the file and keep the old inventory
+        catch (IOException e) {
+            mapped.close();
+            errorLabelVisible(DAMAGED_JOURNAL_ERROR);
+            return true;
+        }
+        inventory = mapped;
+        watchFile(file);
 
-        // return the Array List
-        return newList;
+        // return to old screen
+        new MainSceneController(inventory,(Stage)(loadItemsButton.getScene().getWindow()));
+        return true;
     }
 
-    // Parse a JSON file
-    private List<Item> parseJSONFile(File file) {
-        // create new ArrayList<Item>
-        List<Item> newList = new ArrayList<>();
+    // Start watching the loaded file for changes if the watch box is checked, otherwise stop watching any file
+    private void watchFile(File file) {
+        // the last file loaded decides what is being watched
+        if(!watchBox.isSelected()) {
+            InventoryWatcher.stop();
+            return;
+        }
 
-        // create closeable stream
-        FileInputStream fileInputStream;
+        // try to watch the file
         try {
-            fileInputStream = new FileInputStream(file);
+            InventoryWatcher.watch(file, inventory);
         }
-        catch (FileNotFoundException e) {
-            // display error
+        // the file's folder can't be watched, but the items are still loaded
+        catch (IOException e) {
+            InventoryWatcher.stop();
             errorLabelVisible(true);
-
-            // return from method
-            return Collections.emptyList();
         }
+    }
 
-        // create new JsonStreamParser from the file
-        JsonStreamParser stream = createJsonStream(fileInputStream);
+    // Determine how duplicate serial numbers are handled for the selected import mode (null replaces the inventory)
+    private InventoryMerger.ConflictPolicy getMergePolicy(String mode) {
+        return switch (mode) {
+            // merge, keeping items already in the inventory
+            case "Keep Existing" -> InventoryMerger.ConflictPolicy.KEEP_EXISTING;
 
-        // null check
-        if(stream == null) {
-            // display error
-            errorLabelVisible(true);
+            // merge, replacing items already in the inventory
+            case "Overwrite" -> InventoryMerger.ConflictPolicy.OVERWRITE;
 
-            // return from method
-            return Collections.emptyList();
-        }
-        // loop while the array still has items
-        while(stream.hasNext()) {
-            // create new JSONObject for item
-            JsonObject item = stream.next().getAsJsonObject();
-
-            // add new Item to ArrayList using the 3 strings retrieved above
-            newList.add(new Item(item.get("name").getAsString(),
-                    item.get("serialNumber").getAsString(),
-                    item.get("cost").getAsString().substring(1)));
+            // merge, refusing files with duplicate serial numbers
+            case "Reject" -> InventoryMerger.ConflictPolicy.REJECT;
+
+            // replace the inventory
+            default -> null;
+        };
+    }
+
+    // Show or hide the import progress, locking the file controls while a file is being parsed
+    private void setImporting(boolean value) {
+        // lock the file controls
+        disableLoadButton(value);
+        chooseFileButton.setDisable(value);
+        watchBox.setDisable(value);
+
+        // show the progress controls
+        progressBar.setOpacity(value ? 1.0 : 0.0);
+        progressLabel.setOpacity(value ? 1.0 : 0.0);
+
+        // reset the progress controls once the import is over
+        if(!value) {
+            progressBar.progressProperty().unbind();
+            progressLabel.textProperty().unbind();
+            progressBar.setProgress(0);
         }
+    }
 
-        // close stream
+    // Open a file given a string
+    File openFile(String path) {
+        // try to return a new File from the file path
         try {
-            fileInputStream.close();
+            return new File(path);
         }
-        catch (IOException e) {
+        catch(Exception e) {
             // display error
             errorLabelVisible(true);
 
             // return from method
-            return Collections.emptyList();
+            return null;
         }
-
-        // return the Array List
-        return newList;
     }
 
-    // Parse a HTML file
-    private List<Item> parseHTMLFile(File file) {
-        // create new ArrayList<Item>
+    // Given a file, parse it at once on this thread, and return the parsed list (empty if it can't be read)
+    // Precondition: file is not null, and is one of four extensions (optionally compressed)
+    // Note: the file type decides the parser in the same place as for a background import
+    List<Item> importItems(File file) {
+        // create new list to be returned
         List<Item> newList = new ArrayList<>();
 
-        // create new Scanner
-        Scanner stream = createScanner(file);
-
-        // null check
-        if(stream == null) {
+        // parse the file, then apply the changes saved in the journal of a .inv file since it was last rewritten
+        try {
+            String fileType = getFileExtension(file.getPath());
+            ImportTask.read(file, fileType, newList::add, newList::addAll, () -> false, bytes -> { });
+            if(fileType.equals("inv")) InventoryJournal.replay(file, newList);
+        }
+        // file could not be read, was not an inventory, or a row was malformed
+        catch (IOException e) {
             // display error
             errorLabelVisible(true);
 
@@ -350,55 +506,18 @@ public class ImportController {
             return Collections.emptyList();
         }
 
-        // read entire file into 1 string
-        StringBuilder all = new StringBuilder();
-        while(stream.hasNext()) {
-            all.append(stream.nextLine());
-        }
-
-        // create array of strings broken by "<td>"
-        String[] split = all.toString().split("</tr>",Integer.MAX_VALUE);
-
-        // remove first and last value (html tags)
-        List<String> items = new ArrayList<>(Arrays.asList(split));
-        items.remove(items.size() - 1);
-        items.remove(0);
-
-        // separate values in string and create new item
-        for(String s: items) {
-            // if value is null, terminate
-            if(s == null) break;
-
-            // split item values
-            String[] values = s.split("</td>",3);
-
-            // remove tags from each item
-            for(int i = 0; i < 3; i++) {
-                values[i] = values[i].replace("</td>","");
-                values[i] = values[i].replace("<td>","");
-                values[i] = values[i].replace("<tr>","");
-                values[i] = values[i].replace("</tr>","");
-            }
-
-            // add item to list
-            newList.add(new Item(values[1],values[0],values[2].substring(1)));
-        }
-
-        // close the input stream
-        stream.close();
-
         // return the Array List
         return newList;
     }
 
-    // Method which creates a JSON file stream
-    private JsonStreamParser createJsonStream(FileInputStream stream) {
-        if(stream != null) return new JsonStreamParser(new InputStreamReader(stream,StandardCharsets.UTF_8));
+    // Method which creates a buffered JSON token stream
+    JsonReader createJsonStream(FileInputStream stream) {
+        if(stream != null) return JSONReader.open(stream);
         else return null;
     }
 
     // Method which tries to create a Scanner stream
-    private Scanner createScanner(File file) {
+    Scanner createScanner(File file) {
         // try to create stream
         try {
             // successfully created stream
@@ -0,0 +1,187 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to parse an inventory file on a background thread and hand the items to the GUI in batches.
+
+package baseline;
+
+import javafx.concurrent.Task;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class ImportTask extends Task<Long> {
+
+    // Declare the number of items grouped together before they are handed to the GUI
+    static final int BATCH_SIZE = 4096;
+
+    // Declare the most items moved into the inventory on screen per frame, so the GUI never stalls
+    static final int ITEMS_PER_PULSE = 100_000;
+
+    // Declare the file being imported
+    private final File file;
+
+    // Declare the file extension, which decides the parser
+    private final String fileType;
+
+    // Declare whether the parsed items swap their names for the shared dictionary's copies
+    private final boolean shareNames;
+
+    // Declare the batches that have been parsed but not yet picked up by the GUI
+    private final Queue<List<Item>> batches = new ConcurrentLinkedQueue<>();
+
+    // Declare the batch currently being filled
+    private List<Item> batch = new ArrayList<>(BATCH_SIZE);
+
+    // Declare the number of items parsed so far
+    private long count;
+
+    // Create a task which imports a file of the given type ("txt", "json", or "html", optionally followed by ".gz")
+    public ImportTask(File file, String fileType) {
+        this(file, fileType, false);
+    }
+
+    // Create a task which imports a file, sharing the names of the items it parses if they will be kept as they are
+    // Note: a list which stores its own copy of each row (such as a table) has no need for the shared names
+    public ImportTask(File file, String fileType, boolean shareNames) {
+        this.file = file;
+        this.fileType = fileType;
+        this.shareNames = shareNames;
+    }
+
+    // Parse the file, returning the number of items read
+    @Override
+    protected Long call() throws IOException {
+        long size = Math.max(1, file.length());
+        read(file, fileType, this::add, this::publish, this::isCancelled, bytes -> updateProgress(bytes, size));
+
+        // hand over the last partial batch
+        publish(batch);
+        updateProgress(size, size);
+        return count;
+    }
+
+    // Parse a file of the given type, handing each item to a sink, or each split of a large TSV file (in order) to a
+    // split sink, and reporting how many bytes of the file have been read
+    // Note: this is the one place the file type decides the parser, for the background import and for reading a file at once
+    static void read(File file, String fileType, Consumer<Item> sink, Consumer<List<Item>> splitSink, BooleanSupplier cancelled,
+                     LongConsumer progress) throws IOException {
+        // determine which file type to parse
+        switch (fileType) {
+            // large TSV files are split across every core and published split by split, in order
+            case "txt" -> {
+                if(file.length() >= TSVReader.PARALLEL_THRESHOLD) {
+                    TSVReader.readParallel(file, ForkJoinPool.commonPool(), splitSink, cancelled, progress);
+                }
+                else TSVReader.read(file, sink, progress);
+            }
+
+            // compressed TSV is streamed through the decompressor
+            case "txt.gz" -> {
+                try(InputStream stream = openCounted(file, progress)) {
+                    TSVReader.read(stream, sink);
+                }
+            }
+
+            // JSON is read token by token
+            case "json", "json.gz" -> {
+                try(InputStream stream = openCounted(file, progress)) {
+                    JSONReader.read(JSONReader.open(stream), sink);
+                }
+            }
+
+            // HTML is read row by row
+            case "html", "html.gz" -> {
+                try(Reader reader = new InputStreamReader(openCounted(file, progress), Charset.defaultCharset())) {
+                    HTMLReader.read(reader, sink);
+                }
+            }
+
+            // the binary format is read item by item
+            case "inv", "inv.gz" -> {
+                try(InputStream stream = openCounted(file, progress)) {
+                    INVReader.read(stream, sink);
+                }
+            }
+
+            // fail case
+            default -> throw new IOException("Unsupported file type: " + fileType);
+        }
+    }
+
+    // Open a file through a stream that reports how many bytes of the file (compressed or not) have been read
+    private static InputStream openCounted(File file, LongConsumer progress) throws IOException {
+        return InventoryFiles.decompress(new CountingInputStream(new FileInputStream(file), progress), file.getPath());
+    }
+
+    // Add a single parsed item, handing the batch over once it is full
+    private void add(Item item) {
+        // stop the parser as soon as the task is cancelled
+        if(isCancelled()) throw new CancellationException();
+
+        batch.add(item);
+        if(batch.size() == BATCH_SIZE) {
+            publish(batch);
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+
+    // Hand a batch of items over to the GUI
+    // Note: this runs on the parsing thread (or threads), so the names are shared before the GUI sees the items
+    private void publish(List<Item> items) {
+        if(items.isEmpty()) return;
+        if(shareNames) items.forEach(Item::shareName);
+        batches.add(items);
+        count += items.size();
+        updateMessage("Loaded " + count + " items...");
+    }
+
+    // Move parsed batches into the target list until at least the given number of items has been moved
+    // Note: this is called from the GUI thread
+    public int drain(List<Item> target, int limit) {
+        int moved = 0;
+        List<Item> next;
+        while(moved < limit && (next = batches.poll()) != null) {
+            target.addAll(next);
+            moved += next.size();
+        }
+        return moved;
+    }
+
+    // Stream which reports the running number of bytes read through it
+    private static class CountingInputStream extends FilterInputStream {
+        private final LongConsumer progress;
+        private long bytes;
+
+        // Wrap a stream, reporting progress to the consumer
+        CountingInputStream(InputStream in, LongConsumer progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if(b >= 0) progress.accept(++bytes);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if(read > 0) progress.accept(bytes += read);
+            return read;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to give each item kept by an index a row which stays the same while items in front of
+// it are removed, and to turn those rows back into positions in the inventory, so an index recording a removal doesn't
+// have to store the position of every item after it again.
+
+package baseline;
+
+import java.util.BitSet;
+
+public class IndexRows {
+
+    // Declare the fewest removals since the rows were handed out which are worth handing them out again for
+    // Note: once the removals are more than this, or an eighth of the rows, the index is rebuilt
+    private static final int MIN_REMOVALS = 1024;
+
+    // Declare the number of rows handed out, which are in inventory order, and the rows whose items have been removed
+    private int count;
+    private BitSet removed = new BitSet();
+    private int removedCount;
+
+    // Declare a Fenwick tree counting the rows still in the inventory, so the position of one can be found after those
+    // in front of it are removed (null until one is, while every row is at its own position)
+    private int[] remaining;
+
+    // Forget every row, then hand out one for each of a number of items, in order
+    public void reset(int items) {
+        count = items;
+        removed = new BitSet();
+        removedCount = 0;
+        remaining = null;
+    }
+
+    // Hand out the row after the last one, for an item added to the end of the inventory
+    public int add() {
+        if(remaining != null && count + 1 >= remaining.length) remaining = fenwick(Math.max(count + 1, count * 2));
+        return count++;
+    }
+
+    // Record the item of a row being removed, moving those after it up one place
+    public void remove(int row) {
+        if(remaining == null) remaining = fenwick(count);
+        for(int i = row + 1; i < remaining.length; i += i & -i) {
+            remaining[i]--;
+        }
+        removed.set(row);
+        removedCount++;
+    }
+
+    // Determine if the item of a row has been removed
+    public boolean isRemoved(int row) {
+        return removed.get(row);
+    }
+
+    // Get the number of rows handed out
+    public int getCount() {
+        return count;
+    }
+
+    // Get the number of rows whose items have been removed
+    public int getRemovedCount() {
+        return removedCount;
+    }
+
+    // Determine if enough rows have been removed that they are worth handing out again
+    public boolean isWorthRebuilding() {
+        return removedCount > Math.max(MIN_REMOVALS, count >> 3);
+    }
+
+    // Find the position in the inventory of a row which hasn't been removed
+    public int positionOf(int row) {
+        if(remaining == null) return row;
+        int position = 0;
+        for(int i = row; i > 0; i -= i & -i) {
+            position += remaining[i];
+        }
+        return position;
+    }
+
+    // Find the row of the item at a position in the inventory
+    public int rowAt(int position) {
+        if(remaining == null) return position;
+
+        // walk down the Fenwick tree to the row with as many remaining rows in front of it as the position
+        int row = 0;
+        int left = position;
+        for(int step = Integer.highestOneBit(remaining.length - 1); step > 0; step >>= 1) {
+            if(row + step < remaining.length && remaining[row + step] <= left) {
+                row += step;
+                left -= remaining[row];
+            }
+        }
+        return row;
+    }
+
+    // Get the number of bytes the rows take, counting the array headers
+    public long getMemoryBytes() {
+        return (remaining == null ? 0 : 16L + remaining.length * 4L) + removed.size() / 8;
+    }
+
+    // Create a Fenwick tree with room for a number of rows, counting each one which hasn't been removed once
+    private int[] fenwick(int rows) {
+        int[] tree = new int[rows + 1];
+        for(int i = 1; i <= rows; i++) {
+            tree[i] += removed.get(i - 1) ? 0 : 1;
+            int parent = i + (i & -i);
+            if(parent <= rows) tree[parent] += tree[i];
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to be the one place every change made to the inventory is reported, telling everything
+// that follows the inventory (the journal, the search indexes, and the autosaver) about each change once.
+
+package baseline;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InventoryChanges {
+
+    // Declare what is told about each change, after the change was made to the inventory
+    // Note: these are called from the GUI thread, which is the only thread that edits the inventory
+    public interface Listener {
+        // An item was added to the end of the inventory
+        void added(List<Item> inventory, Item item);
+
+        // The item at a position was replaced or edited (the position is -1 if the item couldn't be found)
+        // Note: previous is a copy of the item as it was before the change
+        void set(List<Item> inventory, int index, Item previous, Item item);
+
+        // The item at a position was removed
+        void removed(List<Item> inventory, int index, Item item);
+
+        // Every item was removed
+        void cleared(List<Item> inventory);
+
+        // The inventory was changed in a way that wasn't reported item by item (such as a merge or a sort)
+        void invalidated(List<Item> inventory);
+    }
+
+    // Declare the listeners, in the order they are told about a change
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>(List.of(
+            InventoryJournal.LISTENER, SerialIndex.LISTENER, NameIndex.LISTENER, SerialSuffixArray.LISTENER));
+
+    // Prevent this utility class from being created
+    private InventoryChanges() {
+    }
+
+    // Start telling a listener about the changes
+    public static void addListener(Listener listener) {
+        if(!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    // Stop telling a listener about the changes
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Report an item added to the end of the inventory
+    public static void added(List<Item> inventory, Item item) {
+        for(Listener listener : listeners) {
+            listener.added(inventory, item);
+        }
+    }
+
+    // Report an item replaced or edited at a position in the inventory
+    public static void set(List<Item> inventory, int index, Item previous, Item item) {
+        for(Listener listener : listeners) {
+            listener.set(inventory, index, previous, item);
+        }
+    }
+
+    // Report an item removed from a position in the inventory
+    public static void removed(List<Item> inventory, int index, Item item) {
+        for(Listener listener : listeners) {
+            listener.removed(inventory, index, item);
+        }
+    }
+
+    // Report every item being removed from the inventory
+    public static void cleared(List<Item> inventory) {
+        for(Listener listener : listeners) {
+            listener.cleared(inventory);
+        }
+    }
+
+    // Report a change to the inventory which wasn't made item by item
+    public static void invalidated(List<Item> inventory) {
+        for(Listener listener : listeners) {
+            listener.invalidated(inventory);
+        }
+    }
+}
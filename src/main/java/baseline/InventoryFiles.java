@@ -0,0 +1,163 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to open inventory files, reading and writing GZIP-compressed (.gz) files transparently,
+// and to save files atomically so a failed save never destroys the previous copy.
+
+package baseline;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class InventoryFiles {
+
+    // Declare the suffix added to compressed files
+    public static final String GZIP_SUFFIX = ".gz";
+
+    // Declare the size of the buffers in front of the file and the (de)compressor
+    static final int BUFFER_SIZE = 1 << 16;
+
+    // Declare the number of rows the writers save between progress reports
+    static final int PROGRESS_ROWS = 4096;
+
+    // Declare how much of a saved file is forced onto the disk before it replaces the old copy
+    public enum SyncPolicy {
+        // leave the data in the operating system's cache (fastest, but a power loss can lose the save)
+        NONE,
+
+        // force the file's contents to the disk before it replaces the old copy
+        DATA,
+
+        // force the file's contents and metadata, then force the directory entry after the rename (slowest)
+        FULL;
+
+        // Get the policy named by the "inventory.fsync" system property (none, data, or full), defaulting to data
+        public static SyncPolicy getDefault() {
+            try {
+                return valueOf(System.getProperty("inventory.fsync", "data").trim().toUpperCase(Locale.ROOT));
+            }
+            catch(IllegalArgumentException e) {
+                return DATA;
+            }
+        }
+    }
+
+    // Declare the work which writes the contents of a saved file
+    public interface Saver {
+        // Write the plain (uncompressed) contents to the stream
+        void write(OutputStream out) throws IOException;
+    }
+
+    // Prevent this utility class from being created
+    private InventoryFiles() {
+    }
+
+    // Determine if a path names a compressed file
+    public static boolean isCompressed(String path) {
+        return path.endsWith(GZIP_SUFFIX);
+    }
+
+    // Open a buffered stream over a file, decompressing it if it is a .gz file
+    public static InputStream openInput(File file) throws IOException {
+        return decompress(new FileInputStream(file), file.getPath());
+    }
+
+    // Wrap a raw file stream so it reads plain bytes, decompressing it if the path is a .gz file
+    public static InputStream decompress(InputStream in, String path) throws IOException {
+        if(isCompressed(path)) return new GZIPInputStream(in, BUFFER_SIZE);
+        else return new BufferedInputStream(in, BUFFER_SIZE);
+    }
+
+    // Open a buffered stream into a file, compressing it if it is a .gz file
+    public static OutputStream openOutput(File file) throws IOException {
+        return compress(new FileOutputStream(file), file.getPath());
+    }
+
+    // Save a file atomically: write a temporary file beside it, force it to the disk, then rename it over the file
+    // Note: if anything fails, the temporary file is deleted and the old copy of the file is left untouched
+    public static void save(File file, SyncPolicy policy, Saver saver) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = target.resolveSibling("." + target.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+
+        boolean moved = false;
+        try {
+            try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                // write through a stream which leaves the channel open, so it can be forced after the compressor finishes
+                try(OutputStream out = compress(new UnclosedOutputStream(Channels.newOutputStream(channel)), file.getPath())) {
+                    saver.write(out);
+                }
+
+                // force the contents (and, for a full sync, the metadata) to the disk
+                if(policy != SyncPolicy.NONE) channel.force(policy == SyncPolicy.FULL);
+            }
+
+            // replace the old copy in a single step
+            replace(temp, target, policy);
+            moved = true;
+        }
+        finally {
+            if(!moved) Files.deleteIfExists(temp);
+        }
+    }
+
+    // Rename a file that is already on the disk over another in a single step, forcing the rename as the policy asks
+    public static void replace(Path source, Path target, SyncPolicy policy) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // the file system can't rename atomically, so replace the file as closely as it allows
+        catch(AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // force the directory, so the rename itself survives a power loss
+        if(policy == SyncPolicy.FULL) forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    // Force a directory's entries to the disk
+    // Note: some platforms (such as Windows) can't open a directory, in which case the rename is left to the file system
+    private static void forceDirectory(Path directory) {
+        try(FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        catch(IOException ignored) {
+            // the directory can't be forced on this platform
+        }
+    }
+
+    // Wrap a raw file stream so plain bytes written to it are compressed if the path is a .gz file
+    // Note: the compressor is buffered as well, so small writes don't each become a deflate call
+    public static OutputStream compress(OutputStream out, String path) throws IOException {
+        if(isCompressed(path)) return new BufferedOutputStream(new GZIPOutputStream(out, BUFFER_SIZE), BUFFER_SIZE);
+        else return new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    // Stream which passes writes straight through, but only flushes when it is closed
+    private static class UnclosedOutputStream extends FilterOutputStream {
+        // Wrap a stream which stays open
+        UnclosedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to record the changes made to an inventory saved as a ".inv" file in an append-only journal
+// beside it, so saving the inventory again only writes what changed instead of rewriting every item.
+
+package baseline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class InventoryJournal {
+
+    // Declare the suffix added to the snapshot's name to name its journal (such as items.inv.journal)
+    public static final String SUFFIX = ".journal";
+
+    // Declare the suffixes of the new snapshot and its journal while a compaction puts them in place
+    static final String COMPACTING_SUFFIX = ".compacting";
+    static final String NEXT_SUFFIX = ".next";
+
+    // Declare the bytes every journal starts with, and the version of the layout written by this class
+    static final byte[] MAGIC = {(byte)0x89, 'I', 'N', 'J'};
+    static final int VERSION = 1;
+
+    // Declare the size of the header: the magic bytes, the version, and the length and checksum of the snapshot it applies to
+    static final int HEADER_SIZE = MAGIC.length + Integer.BYTES + Long.BYTES + Long.BYTES;
+
+    // Declare the size of the frame in front of each batch of entries: the length and the CRC-32 of the entries
+    static final int BATCH_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+
+    // Declare the number of bytes at the end of the snapshot which are checksummed to recognize it
+    // Note: this covers the row index and trailer of a large snapshot, and the whole of a small one
+    static final int CHECKSUM_SIZE = 1 << 16;
+
+    // Declare the smallest journal which is compacted, and the fraction of the snapshot's size it has to reach first
+    static final long COMPACT_MIN_SIZE = 1 << 20;
+    static final int COMPACT_RATIO = 4;
+
+    // Declare the kinds of entries
+    static final byte ADD = 1;
+    static final byte SET = 2;
+    static final byte REMOVE = 3;
+    static final byte CLEAR = 4;
+
+    // Declare the journal recording the changes to the inventory on screen (if any)
+    private static InventoryJournal current;
+
+    // Declare the compaction running in the background (if any)
+    private static volatile Thread compaction;
+
+    // Declare the listener which records every change reported to InventoryChanges in the current journal
+    static final InventoryChanges.Listener LISTENER = new InventoryChanges.Listener() {
+        @Override
+        public void added(List<Item> inventory, Item item) {
+            recordAdd(inventory, item);
+        }
+
+        @Override
+        public void set(List<Item> inventory, int index, Item previous, Item item) {
+            recordSet(inventory, index, item);
+        }
+
+        @Override
+        public void removed(List<Item> inventory, int index, Item item) {
+            recordRemove(inventory, index);
+        }
+
+        @Override
+        public void cleared(List<Item> inventory) {
+            recordClear(inventory);
+        }
+
+        @Override
+        public void invalidated(List<Item> inventory) {
+            invalidate(inventory);
+        }
+    };
+
+    // Declare the entries taken out of the journal to be saved together
+    public record Batch(byte[] entries, int count) {
+    }
+
+    // Declare the snapshot file, the journal file beside it, and the inventory whose changes are recorded
+    private final File snapshot;
+    private final File file;
+    private final List<Item> inventory;
+
+    // Declare the length and checksum of the snapshot, which are only known once the snapshot is on the disk
+    private long snapshotLength = -1;
+    private long snapshotChecksum;
+
+    // Declare the number of bytes of the journal file which hold complete batches (0 if the file hasn't been created)
+    private long length;
+
+    // Declare the entries recorded since the last save, and how many there are
+    private byte[] pending = new byte[256];
+    private int pendingLength;
+    private int pendingCount;
+
+    // Declare whether the inventory was changed in a way the journal can't record, so the next save has to rewrite the snapshot
+    private boolean invalid;
+
+    // Create a journal for a snapshot and the inventory it holds
+    private InventoryJournal(File snapshot, List<Item> inventory) {
+        this.snapshot = snapshot.getAbsoluteFile();
+        this.file = getFile(snapshot);
+        this.inventory = inventory;
+    }
+
+    // Apply the journal of a snapshot to the items just read from it, then record the inventory's changes from here on
+    // Note: this is called from the GUI thread once the snapshot has been loaded
+    public static void load(File snapshot, List<Item> inventory) throws IOException {
+        InventoryJournal journal = new InventoryJournal(snapshot, inventory);
+        journal.readSnapshot();
+        journal.recoverCompaction();
+        journal.length = replay(journal, inventory);
+        current = journal;
+    }
+
+    // Apply the journal of a snapshot to the items just read from it, without recording any further changes
+    // Note: a journal left over from an older copy of the snapshot is ignored
+    public static void replay(File snapshot, List<Item> items) throws IOException {
+        InventoryJournal journal = new InventoryJournal(snapshot, items);
+        journal.readSnapshot();
+        replay(journal, items);
+    }
+
+    // Start a journal for a snapshot which is about to be written from the inventory as it is now
+    // Note: the journal can't be saved to until reset() is called after the snapshot is on the disk
+    public static InventoryJournal begin(File snapshot, List<Item> inventory) {
+        current = new InventoryJournal(snapshot, inventory);
+        return current;
+    }
+
+    // Get the journal a save of the inventory to a file can be appended to, or null if the file has to be rewritten
+    public static InventoryJournal get(File snapshot, List<Item> inventory) {
+        InventoryJournal journal = current;
+        if(journal == null || journal.inventory != inventory || !journal.snapshot.equals(snapshot.getAbsoluteFile())) return null;
+
+        synchronized(journal) {
+            return journal.invalid || journal.snapshotLength < 0 ? null : journal;
+        }
+    }
+
+    // Stop recording changes (such as when another file replaces the inventory)
+    public static void detach() {
+        current = null;
+    }
+
+    // Record an item added to the end of the inventory
+    public static void recordAdd(List<Item> inventory, Item item) {
+        InventoryJournal journal = current;
+        if(journal != null && journal.inventory == inventory) journal.record(ADD, -1, item);
+    }
+
+    // Record an item replaced or edited at a position in the inventory
+    public static void recordSet(List<Item> inventory, int index, Item item) {
+        InventoryJournal journal = current;
+        if(journal == null || journal.inventory != inventory) return;
+
+        // an item that can't be found has to be saved by rewriting the snapshot
+        if(index < 0) journal.invalidate();
+        else journal.record(SET, index, item);
+    }
+
+    // Record an item removed from a position in the inventory
+    public static void recordRemove(List<Item> inventory, int index) {
+        InventoryJournal journal = current;
+        if(journal == null || journal.inventory != inventory) return;
+
+        if(index < 0) journal.invalidate();
+        else journal.record(REMOVE, index, null);
+    }
+
+    // Record every item being removed from the inventory
+    public static void recordClear(List<Item> inventory) {
+        InventoryJournal journal = current;
+        if(journal != null && journal.inventory == inventory) journal.record(CLEAR, -1, null);
+    }
+
+    // Note that the inventory was changed without being recorded (such as by a merge), so the next save rewrites the snapshot
+    public static void invalidate(List<Item> inventory) {
+        InventoryJournal journal = current;
+        if(journal != null && journal.inventory == inventory) journal.invalidate();
+    }
+
+    // Wait for a compaction running in the background to finish, so it can't overwrite a newer snapshot
+    public static void awaitCompaction() throws InterruptedException {
+        Thread thread = compaction;
+        if(thread != null) thread.join();
+    }
+
+    // Get the journal file beside a snapshot
+    public static File getFile(File snapshot) {
+        return new File(snapshot.getAbsoluteFile().getPath() + SUFFIX);
+    }
+
+    // Get the file the journal of a new snapshot is written to before a compaction puts it in place
+    static File getNextFile(File snapshot) {
+        return new File(getFile(snapshot).getPath() + NEXT_SUFFIX);
+    }
+
+    // Take the entries recorded since the last save, to be saved together as one batch
+    public synchronized Batch takeBatch() {
+        Batch batch = new Batch(Arrays.copyOf(pending, pendingLength), pendingCount);
+        pendingLength = 0;
+        pendingCount = 0;
+        return batch;
+    }
+
+    // Put a batch that couldn't be saved back in front of the entries recorded since
+    // Note: a journal that was given up on keeps nothing, since the next save rewrites the snapshot
+    public synchronized void restore(Batch batch) {
+        if(invalid) return;
+        byte[] entries = batch.entries();
+        ensure(entries.length);
+        System.arraycopy(pending, 0, pending, entries.length, pendingLength);
+        System.arraycopy(entries, 0, pending, 0, entries.length);
+        pendingLength += entries.length;
+        pendingCount += batch.count();
+    }
+
+    // Determine if saving a batch would grow the journal large enough that it should be folded into a new snapshot
+    public synchronized boolean isCompactionDue(Batch batch) {
+        long size = Math.max(length, HEADER_SIZE) + BATCH_HEADER_SIZE + batch.entries().length;
+        return size >= COMPACT_MIN_SIZE && size >= snapshotLength / COMPACT_RATIO;
+    }
+
+    // Append a batch to the journal file, forcing it to the disk as the policy asks
+    // Note: if the append fails, the journal file is cut back and the entries are kept for the next save
+    public synchronized void append(Batch batch, InventoryFiles.SyncPolicy policy) throws IOException {
+        if(batch.count() == 0) return;
+
+        // frame the entries with their length and checksum, so a save cut short by a crash is recognized and skipped
+        CRC32 crc = new CRC32();
+        crc.update(batch.entries());
+        ByteBuffer frame = ByteBuffer.allocate(BATCH_HEADER_SIZE + batch.entries().length);
+        frame.putInt(batch.entries().length).putInt((int)crc.getValue()).put(batch.entries()).flip();
+
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // a new journal starts with the header of the snapshot it applies to
+            if(length == 0) {
+                channel.truncate(0);
+                writeFully(channel, header(), 0);
+                length = HEADER_SIZE;
+            }
+
+            // drop anything after the last complete batch, then add this one
+            channel.truncate(length);
+            writeFully(channel, frame, length);
+            if(policy != InventoryFiles.SyncPolicy.NONE) channel.force(policy == InventoryFiles.SyncPolicy.FULL);
+            length += frame.capacity();
+        }
+        // put the entries back in front of any recorded since, so the next save tries them again
+        catch(IOException e) {
+            restore(batch);
+            throw e;
+        }
+    }
+
+    // Note that the snapshot was just rewritten from the inventory, starting the journal over
+    public synchronized void reset() throws IOException {
+        readSnapshot();
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(getNextFile(snapshot).toPath());
+        length = 0;
+    }
+
+    // Fold the journal into a new snapshot on a background thread
+    // Precondition: the items are a copy of the inventory as it was when the journal was last appended to
+    // Note: only one compaction runs at a time; the journal is compacted by a later save if one is already running
+    public void compactInBackground(List<Item> items, InventoryFiles.SyncPolicy policy) {
+        Thread running = compaction;
+        if(running != null && running.isAlive()) return;
+
+        long folded;
+        synchronized(this) {
+            folded = length;
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                compact(items, folded, policy);
+            }
+            catch(IOException ignored) {
+                // the journal still holds every change, so the next save tries again
+            }
+        }, "inventory-compaction");
+        thread.setDaemon(true);
+        compaction = thread;
+        thread.start();
+    }
+
+    // Write the items as a new snapshot, then keep only the part of the journal past the given length
+    // Note: batches appended while the snapshot was being written are carried over into the new journal
+    // Note: the new journal is on the disk before the new snapshot replaces the old one, so a crash in between leaves
+    // either the old snapshot with its whole journal, or the new snapshot with the journal of the carried batches
+    // (which the next load puts in place)
+    void compact(List<Item> items, long folded, InventoryFiles.SyncPolicy policy) throws IOException {
+        // write the new snapshot beside the old one, which keeps being appended to in the meantime
+        File written = new File(snapshot.getPath() + COMPACTING_SUFFIX);
+        try {
+            INVWriter.write(written, items, policy);
+
+            synchronized(this) {
+                byte[] carried = new byte[(int)(Math.max(length, folded) - folded)];
+                if(carried.length > 0) {
+                    try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                        ByteBuffer buffer = ByteBuffer.wrap(carried);
+                        while(buffer.hasRemaining()) {
+                            if(channel.read(buffer, folded + buffer.position()) < 0) throw new IOException("The inventory journal is cut short");
+                        }
+                    }
+                }
+
+                // write the journal of the new snapshot, then put the new snapshot in place
+                long previousLength = snapshotLength;
+                long previousChecksum = snapshotChecksum;
+                File next = getNextFile(snapshot);
+                try {
+                    readSnapshot(written);
+                    if(carried.length > 0) {
+                        InventoryFiles.save(next, policy, out -> {
+                            out.write(header().array());
+                            out.write(carried);
+                        });
+                    }
+                    InventoryFiles.replace(written.toPath(), snapshot.toPath(), policy);
+                }
+                // the old snapshot and its journal are still in place
+                catch(IOException e) {
+                    snapshotLength = previousLength;
+                    snapshotChecksum = previousChecksum;
+                    Files.deleteIfExists(next.toPath());
+                    throw e;
+                }
+
+                // start the journal over for the new snapshot
+                try {
+                    if(carried.length == 0) {
+                        Files.deleteIfExists(file.toPath());
+                        length = 0;
+                    }
+                    else {
+                        InventoryFiles.replace(next.toPath(), file.toPath(), policy);
+                        length = HEADER_SIZE + carried.length;
+                    }
+                }
+                // the new journal is left for the next load, so later changes can't be appended after it
+                catch(IOException e) {
+                    invalidate();
+                    throw e;
+                }
+            }
+        }
+        finally {
+            Files.deleteIfExists(written.toPath());
+        }
+    }
+
+    // Finish a compaction that was cut short before its journal was put in place
+    // Note: the new journal is kept if the new snapshot made it into place, and dropped (with its snapshot) otherwise
+    private void recoverCompaction() throws IOException {
+        Files.deleteIfExists(new File(snapshot.getPath() + COMPACTING_SUFFIX).toPath());
+
+        File next = getNextFile(snapshot);
+        if(!next.exists()) return;
+        if(isJournalOfSnapshot(Files.readAllBytes(next.toPath()))) {
+            InventoryFiles.replace(next.toPath(), file.toPath(), InventoryFiles.SyncPolicy.getDefault());
+        }
+        else Files.delete(next.toPath());
+    }
+
+    // Get the number of bytes of the journal file which hold complete batches (for testing)
+    synchronized long getLength() {
+        return length;
+    }
+
+    // Add an entry to the ones waiting to be saved
+    private synchronized void record(byte type, int index, Item item) {
+        ensure(1 + 10 + (item == null ? 0 : 30 + 3 * (item.getName().length() + item.getSerialNumber().length())));
+        pending[pendingLength++] = type;
+        if(type == SET || type == REMOVE) putVarint(index);
+        if(item != null) {
+            putString(item.getName());
+            putString(item.getSerialNumber());
+            long cents = item.getCents();
+            putVarint((cents << 1) ^ (cents >> 63));
+        }
+        pendingCount++;
+    }
+
+    // Give up on appending until the snapshot is rewritten
+    private synchronized void invalidate() {
+        invalid = true;
+        pendingLength = 0;
+        pendingCount = 0;
+    }
+
+    // Make sure the pending entries have room for the given number of bytes
+    private void ensure(int size) {
+        if(pendingLength + size > pending.length) pending = Arrays.copyOf(pending, Math.max(pendingLength + size, pending.length * 2));
+    }
+
+    // Add a length-prefixed UTF-8 string to the pending entries
+    private void putString(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        System.arraycopy(bytes, 0, pending, pendingLength, bytes.length);
+        pendingLength += bytes.length;
+    }
+
+    // Add an unsigned number 7 bits at a time, lowest bits first, to the pending entries
+    private void putVarint(long value) {
+        while((value & ~0x7FL) != 0) {
+            pending[pendingLength++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        pending[pendingLength++] = (byte)value;
+    }
+
+    // Remember the length and checksum of the snapshot as it is on the disk
+    private void readSnapshot() throws IOException {
+        readSnapshot(snapshot);
+    }
+
+    // Remember the length and checksum of a file as the snapshot's
+    private void readSnapshot(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer tail = ByteBuffer.allocate((int)Math.min(size, CHECKSUM_SIZE));
+            while(tail.hasRemaining()) {
+                if(channel.read(tail, size - tail.capacity() + tail.position()) < 0) throw new IOException("The inventory file is cut short");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(tail.flip());
+            snapshotLength = size;
+            snapshotChecksum = crc.getValue();
+        }
+    }
+
+    // Create the header of the journal file
+    private ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putInt(VERSION).putLong(snapshotLength).putLong(snapshotChecksum).flip();
+    }
+
+    // Apply every complete batch of a journal to the items, returning the length of the journal they fill (0 if there is none)
+    // Note: a compaction cut short after its snapshot was put in place leaves the snapshot's journal under the next name
+    private static long replay(InventoryJournal journal, List<Item> items) throws IOException {
+        byte[] bytes = null;
+        for(File file : new File[] {journal.file, getNextFile(journal.snapshot)}) {
+            if(!file.exists()) continue;
+            byte[] contents = Files.readAllBytes(file.toPath());
+            if(journal.isJournalOfSnapshot(contents)) {
+                bytes = contents;
+                break;
+            }
+        }
+
+        // a journal left over from an older copy of the snapshot was already folded into it
+        if(bytes == null) return 0;
+
+        return readBatches(bytes, (entries, start, end) -> {
+            JournalReader reader = new JournalReader(entries, start, end);
+            while(reader.hasRemaining()) {
+                reader.apply(items);
+            }
+        });
+    }
+
+    // Determine if the contents of a journal file start with the header of the snapshot as it is now
+    private boolean isJournalOfSnapshot(byte[] bytes) throws IOException {
+        if(bytes.length < HEADER_SIZE) return false;
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_SIZE);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if(!Arrays.equals(magic, MAGIC)) throw new IOException("Not an inventory journal");
+        int version = header.getInt();
+        if(version != VERSION) throw new IOException("Unsupported inventory journal version: " + version);
+        return header.getLong() == snapshotLength && header.getLong() == snapshotChecksum;
+    }
+
+    // Hand each complete batch of a journal to a visitor, returning the length of the journal the batches fill
+    // Note: a batch which is cut short or fails its checksum was a save that never finished, so it and anything after it are ignored
+    private static long readBatches(byte[] bytes, BatchVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int position = HEADER_SIZE;
+        while(bytes.length - position >= BATCH_HEADER_SIZE) {
+            int size = buffer.getInt(position);
+            int checksum = buffer.getInt(position + Integer.BYTES);
+            int start = position + BATCH_HEADER_SIZE;
+            if(size < 0 || size > bytes.length - start) break;
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes, start, size);
+            if((int)crc.getValue() != checksum) break;
+
+            visitor.visit(bytes, start, start + size);
+            position = start + size;
+        }
+        return position;
+    }
+
+    // Write all of a buffer to a channel at a position
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Declare the work done with each complete batch of a journal
+    private interface BatchVisitor {
+        void visit(byte[] entries, int start, int end) throws IOException;
+    }
+
+    // Reader which decodes the entries of a batch
+    private static class JournalReader {
+        private final byte[] bytes;
+        private final int end;
+        private int position;
+
+        // Create a reader over part of an array
+        JournalReader(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.position = start;
+            this.end = end;
+        }
+
+        // Determine if there are more entries
+        boolean hasRemaining() {
+            return position < end;
+        }
+
+        // Apply the next entry to the items
+        void apply(List<Item> items) throws IOException {
+            byte type = bytes[position++];
+            switch (type) {
+                case ADD -> items.add(readItem());
+                case SET -> {
+                    int index = readIndex(items.size());
+                    items.set(index, readItem());
+                }
+                case REMOVE -> items.remove(readIndex(items.size()));
+                case CLEAR -> items.clear();
+                default -> throw new IOException("Unknown inventory journal entry: " + type);
+            }
+        }
+
+        // Read a position in the items, which has to be in range
+        private int readIndex(int size) throws IOException {
+            long index = readVarint();
+            if(index >= size) throw new IOException("The inventory journal doesn't match its file");
+            return (int)index;
+        }
+
+        // Read an item's name, serial number, and cost
+        private Item readItem() throws IOException {
+            String name = readString();
+            String serialNumber = readString();
+            long value = readVarint();
+            return new Item(name, serialNumber, (value >>> 1) ^ -(value & 1));
+        }
+
+        // Read a length-prefixed UTF-8 string
+        private String readString() throws IOException {
+            long length = readVarint();
+            if(length > end - position) throw new IOException("Malformed inventory journal entry");
+            String text = new String(bytes, position, (int)length, StandardCharsets.UTF_8);
+            position += (int)length;
+            return text;
+        }
+
+        // Read an unsigned number stored 7 bits at a time, lowest bits first
+        private long readVarint() throws IOException {
+            long value = 0;
+            for(int shift = 0; shift < 64 && position < end; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long)(b & 0x7F) << shift;
+                if(b >= 0) return value;
+            }
+            throw new IOException("Malformed inventory journal entry");
+        }
+    }
+}
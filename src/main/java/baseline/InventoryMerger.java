@@ -0,0 +1,91 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to merge an imported list of items into the current inventory by serial number.
+
+package baseline;
+
+import java.util.List;
+
+public class InventoryMerger {
+
+    // Declare the ways a serial number that is already in the inventory can be handled
+    public enum ConflictPolicy {
+        // keep the item already in the inventory and skip the imported row
+        KEEP_EXISTING,
+
+        // replace the item already in the inventory with the imported row
+        OVERWRITE,
+
+        // refuse the whole import if any serial number is already taken
+        REJECT
+    }
+
+    // Declare the outcome of a merge
+    public record MergeResult(int inserted, int updated, int skipped, boolean rejected) {
+        // Describe the result for the user
+        @Override
+        public String toString() {
+            if(rejected) return "Import rejected: " + skipped + " duplicate serial numbers";
+            return "Inserted " + inserted + ", updated " + updated + ", skipped " + skipped;
+        }
+    }
+
+    // Prevent this utility class from being created
+    private InventoryMerger() {
+    }
+
+    // Merge the imported items into the inventory, resolving duplicate serial numbers with the policy
+    // Note: rows repeated within the imported list are resolved against each other the same way
+    public static MergeResult merge(List<Item> inventory, List<Item> imported, ConflictPolicy policy) {
+        // index the current inventory by packed serial number
+        SerialKeyMap index = new SerialKeyMap(inventory.size() + imported.size());
+        for(int i = 0; i < inventory.size(); i++) {
+            index.put(inventory.get(i), i);
+        }
+
+        // a rejecting merge checks every row before touching the inventory
+        if(policy == ConflictPolicy.REJECT) {
+            int conflicts = countConflicts(index, imported);
+            if(conflicts > 0) return new MergeResult(0, 0, conflicts, true);
+        }
+
+        // apply each row
+        int inserted = 0;
+        int updated = 0;
+        int skipped = 0;
+        for(Item item : imported) {
+            int position = index.get(item);
+
+            // new serial number, so append the item
+            if(position == SerialKeyMap.MISSING) {
+                index.put(item, inventory.size());
+                inventory.add(item);
+                inserted++;
+            }
+            // serial number is taken, so replace the old item
+            else if(policy == ConflictPolicy.OVERWRITE) {
+                inventory.set(position, item);
+                updated++;
+            }
+            // serial number is taken, so keep the old item
+            else {
+                skipped++;
+            }
+        }
+
+        return new MergeResult(inserted, updated, skipped, false);
+    }
+
+    // Count the imported rows whose serial number is already in the index or earlier in the import
+    private static int countConflicts(SerialKeyMap index, List<Item> imported) {
+        SerialKeyMap seen = new SerialKeyMap(imported.size());
+        int conflicts = 0;
+        for(Item item : imported) {
+            if(index.containsKey(item) || seen.put(item, 0) != SerialKeyMap.MISSING) conflicts++;
+        }
+        return conflicts;
+    }
+}
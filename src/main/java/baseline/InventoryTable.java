@@ -0,0 +1,590 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to hold a large inventory in columns of primitive arrays, instead of one Item object
+// (and its Strings) per row, while still acting as the List<Item> the scenes share.
+
+package baseline;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+public class InventoryTable extends AbstractList<Item> implements RandomAccess {
+
+    // Declare the number of rows a new table has room for
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Declare the marker for an empty entry of the name table, and for the name of a slot that isn't in use
+    private static final int EMPTY = -1;
+
+    // Declare the columns, indexed by slot: the packed serial number, the cost in cents, and the id of the name
+    // Note: a row keeps its slot while rows around it are added and removed, so the Items handed out stay attached to it
+    private long[] serialKeys;
+    private long[] cents;
+    private int[] nameIds;
+
+    // Declare the serial numbers which can't be packed, by slot (rare, so they aren't given a column)
+    private final Map<Integer, String> serialNumbers = new HashMap<>();
+
+    // Declare the slot of each row in list order, and the number of rows
+    private int[] order;
+    private int size;
+
+    // Declare the position of each slot's row in list order, and whether the positions are up to date
+    // Note: the positions are only worked out (in one pass) when a row is looked up after rows were inserted, removed,
+    // or moved, so changing the order costs no more than moving the slots
+    private int[] positions;
+    private boolean positionsValid;
+
+    // Declare the number of slots handed out so far, and the slots freed by removed rows
+    private int slotCount;
+    private int[] freeSlots;
+    private int freeCount;
+
+    // Declare the generation of each slot, which goes up each time the slot is freed, and the number of times the table
+    // has been cleared
+    // Note: an Item handed out remembers both, so once its row is removed it reads as removed (and ignores changes) even
+    // after the slot is given to another row
+    private int[] generations;
+    private int clears;
+
+    // Declare the characters of the distinct names packed end to end (one byte per character for names which fit in
+    // Latin-1, two otherwise), and for each name id: where it starts, whether it is two bytes per character, its hash,
+    // and the number of rows using it
+    private byte[] nameBytes;
+    private int nameBytesLength;
+    private int[] nameStarts;
+    private boolean[] wideNames;
+    private int[] nameHashes;
+    private int[] nameUses;
+    private int nameCount;
+
+    // Declare the number of names no row uses any more, and the bytes they take
+    // Note: once they are more than half the names (and enough to be worth a pass over the slots), the names still
+    // used are packed into new arrays
+    private int unusedNames;
+    private int unusedNameBytes;
+
+    // Declare a hash table of name ids, for finding the id of a name
+    private int[] nameTable;
+
+    // Create an empty table
+    public InventoryTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    // Create an empty table with room for the given number of rows
+    public InventoryTable(int capacity) {
+        capacity = Math.max(capacity, INITIAL_CAPACITY);
+        serialKeys = new long[capacity];
+        cents = new long[capacity];
+        nameIds = new int[capacity];
+        generations = new int[capacity];
+        order = new int[capacity];
+        freeSlots = new int[INITIAL_CAPACITY];
+        nameBytes = new byte[INITIAL_CAPACITY * 16];
+        nameStarts = new int[INITIAL_CAPACITY + 1];
+        wideNames = new boolean[INITIAL_CAPACITY];
+        nameHashes = new int[INITIAL_CAPACITY];
+        nameUses = new int[INITIAL_CAPACITY];
+        nameTable = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(nameTable, EMPTY);
+    }
+
+    // Create a table holding a copy of every item of a list
+    public InventoryTable(List<Item> items) {
+        this(items.size());
+        addAll(items);
+    }
+
+    // Get the number of rows
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Get the row at a position, as an Item which reads and writes the columns
+    @Override
+    public Item get(int index) {
+        return new Row(this, order[checkIndex(index, size)]);
+    }
+
+    // Replace the row at a position with a copy of an item
+    // Note: a row of this table (such as one being moved by a sort) is moved to the position instead of copied
+    @Override
+    public Item set(int index, Item item) {
+        checkIndex(index, size);
+        int previous = order[index];
+        positionsValid = false;
+        if(item instanceof Row row && row.table == this && row.isCurrent()) {
+            order[index] = row.slot;
+            return new Row(this, previous);
+        }
+
+        order[index] = newSlot(item);
+        return release(previous);
+    }
+
+    // Insert a copy of an item at a position
+    @Override
+    public void add(int index, Item item) {
+        if(index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if(size == order.length) order = Arrays.copyOf(order, order.length * 2);
+        int slot = newSlot(item);
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = slot;
+
+        // a row added to the end moves no other row
+        if(positionsValid && index == size && slot < positions.length) positions[slot] = index;
+        else positionsValid = false;
+        size++;
+        modCount++;
+    }
+
+    // Remove the row at a position, returning a copy of it
+    @Override
+    public Item remove(int index) {
+        checkIndex(index, size);
+        int slot = order[index];
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        positionsValid &= index == size - 1;
+        size--;
+        modCount++;
+        return release(slot);
+    }
+
+    // Remove every row which matches a filter, in a single pass
+    @Override
+    public boolean removeIf(Predicate<? super Item> filter) {
+        int kept = 0;
+        for(int i = 0; i < size; i++) {
+            int slot = order[i];
+            if(filter.test(new Row(this, slot))) free(slot);
+            else order[kept++] = slot;
+        }
+        if(kept == size) return false;
+        size = kept;
+        positionsValid = false;
+        modCount++;
+        return true;
+    }
+
+    // Remove every row (and every name)
+    @Override
+    public void clear() {
+        clears++;
+        size = 0;
+        positionsValid = false;
+        slotCount = 0;
+        freeCount = 0;
+        serialNumbers.clear();
+        nameBytesLength = 0;
+        nameCount = 0;
+        unusedNames = 0;
+        unusedNameBytes = 0;
+        Arrays.fill(nameTable, EMPTY);
+        modCount++;
+    }
+
+    // Sort the rows by moving their slots, leaving the columns where they are
+    @Override
+    public void sort(Comparator<? super Item> comparator) {
+        Row[] rows = new Row[size];
+        for(int i = 0; i < size; i++) {
+            rows[i] = new Row(this, order[i]);
+        }
+        Arrays.sort(rows, comparator);
+        for(int i = 0; i < size; i++) {
+            order[i] = rows[i].slot;
+        }
+        positionsValid = false;
+        modCount++;
+    }
+
+    // Find the position of a row of this table (any other item is never in the table, as in a list of Items)
+    // Note: after the order changes, the first lookup works out every position again, and the ones after it are O(1)
+    @Override
+    public int indexOf(Object o) {
+        if(!(o instanceof Row row) || row.table != this || !row.isCurrent()) return -1;
+        if(!positionsValid) {
+            if(positions == null || positions.length < slotCount) positions = new int[serialKeys.length];
+
+            // backwards, so a slot a sort has put at two positions for a moment gets the first of them
+            for(int i = size - 1; i >= 0; i--) {
+                positions[order[i]] = i;
+            }
+            positionsValid = true;
+        }
+
+        // a row moved out of the order by a set() keeps its old position, so the position is checked
+        int position = positions[row.slot];
+        return position < size && order[position] == row.slot ? position : -1;
+    }
+
+    // Find the last position of a row of this table
+    @Override
+    public int lastIndexOf(Object o) {
+        if(!(o instanceof Row row) || row.table != this || !row.isCurrent()) return -1;
+        for(int i = size - 1; i >= 0; i--) {
+            if(order[i] == row.slot) return i;
+        }
+        return -1;
+    }
+
+    // Find every row whose name contains the text, in list order
+    // Note: each distinct name is checked once, then the rows are matched by comparing name ids
+    public List<Item> findByName(String text) {
+        boolean[] matches = new boolean[nameCount];
+        for(int id = 0; id < nameCount; id++) {
+            matches[id] = getName(id).contains(text);
+        }
+
+        List<Item> found = new ArrayList<>();
+        for(int i = 0; i < size; i++) {
+            if(matches[nameIds[order[i]]]) found.add(new Row(this, order[i]));
+        }
+        return found;
+    }
+
+    // Get the number of distinct names the rows of the table use
+    public int getNameCount() {
+        return nameCount - unusedNames;
+    }
+
+    // Get the number of bytes the characters of the names are packed into
+    public int getNameBytes() {
+        return nameBytes.length;
+    }
+
+    // Copy the table, so edits made to it afterwards don't change the copy
+    // Note: only the arrays are copied, so this is much cheaper than copying an Item per row
+    public InventoryTable snapshot() {
+        InventoryTable copy = new InventoryTable(0);
+        int capacity = Math.max(slotCount, INITIAL_CAPACITY);
+        copy.serialKeys = Arrays.copyOf(serialKeys, capacity);
+        copy.cents = Arrays.copyOf(cents, capacity);
+        copy.nameIds = Arrays.copyOf(nameIds, capacity);
+        copy.generations = Arrays.copyOf(generations, capacity);
+        copy.serialNumbers.putAll(serialNumbers);
+        copy.order = Arrays.copyOf(order, Math.max(size, INITIAL_CAPACITY));
+        copy.size = size;
+        copy.slotCount = slotCount;
+        copy.freeSlots = Arrays.copyOf(freeSlots, Math.max(freeCount, INITIAL_CAPACITY));
+        copy.freeCount = freeCount;
+        copy.nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytesLength, INITIAL_CAPACITY));
+        copy.nameBytesLength = nameBytesLength;
+        copy.nameStarts = Arrays.copyOf(nameStarts, Math.max(nameCount, INITIAL_CAPACITY) + 1);
+        copy.wideNames = Arrays.copyOf(wideNames, Math.max(nameCount, INITIAL_CAPACITY));
+        copy.nameHashes = Arrays.copyOf(nameHashes, Math.max(nameCount, INITIAL_CAPACITY));
+        copy.nameUses = Arrays.copyOf(nameUses, Math.max(nameCount, INITIAL_CAPACITY));
+        copy.nameCount = nameCount;
+        copy.unusedNames = unusedNames;
+        copy.unusedNameBytes = unusedNameBytes;
+        copy.nameTable = nameTable.clone();
+        return copy;
+    }
+
+    // Store a copy of an item in a free slot, returning the slot
+    private int newSlot(Item item) {
+        int slot;
+        if(freeCount > 0) slot = freeSlots[--freeCount];
+        else {
+            if(slotCount == serialKeys.length) {
+                int capacity = serialKeys.length * 2;
+                serialKeys = Arrays.copyOf(serialKeys, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+                nameIds = Arrays.copyOf(nameIds, capacity);
+                generations = Arrays.copyOf(generations, capacity);
+            }
+            slot = slotCount++;
+        }
+
+        nameIds[slot] = useName(item.getName());
+        setSerialNumber(slot, item.getSerialKey(), item.getSerialNumber());
+        cents[slot] = item.getCents();
+        return slot;
+    }
+
+    // Free a slot, returning a copy of the row it held
+    private Item release(int slot) {
+        Item copy = new Item(new Row(this, slot));
+        free(slot);
+        return copy;
+    }
+
+    // Put a slot on the free list
+    private void free(int slot) {
+        int nameId = nameIds[slot];
+        nameIds[slot] = EMPTY;
+        releaseName(nameId);
+        generations[slot]++;
+        serialNumbers.remove(slot);
+        if(freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Set the serial number of a slot, keeping the text only if it can't be packed
+    private void setSerialNumber(int slot, long serialKey, String serialNumber) {
+        serialKeys[slot] = serialKey;
+        if(serialKey == SerialKey.NONE) serialNumbers.put(slot, serialNumber);
+        else serialNumbers.remove(slot);
+    }
+
+    // Get the id of a name for one more row, adding it to the names if it is new
+    private int useName(String name) {
+        int hash = name.hashCode();
+        int mask = nameTable.length - 1;
+        int entry = hash & mask;
+        for(; nameTable[entry] != EMPTY; entry = (entry + 1) & mask) {
+            int id = nameTable[entry];
+            if(nameHashes[id] != hash || !isName(id, name)) continue;
+
+            // a name no row used is used again
+            if(nameUses[id]++ == 0) {
+                unusedNames--;
+                unusedNameBytes -= nameStarts[id + 1] - nameStarts[id];
+            }
+            return id;
+        }
+
+        // a new name
+        int id = addName(name, hash);
+        nameUses[id] = 1;
+        nameTable[entry] = id;
+
+        // keep the hash table at most half full, so probes stay short
+        if(nameCount * 2 > nameTable.length) hashNames(nameTable.length * 2);
+        return id;
+    }
+
+    // Count one less row using a name, packing the names once enough of them are unused
+    private void releaseName(int id) {
+        if(--nameUses[id] > 0) return;
+        unusedNames++;
+        unusedNameBytes += nameStarts[id + 1] - nameStarts[id];
+        if(unusedNames > Math.max(INITIAL_CAPACITY, Math.max(nameCount >> 1, slotCount >> 3))
+                || unusedNameBytes > Math.max(nameBytesLength >> 1, slotCount)) packNames();
+    }
+
+    // Drop the names no row uses, moving the others together and giving the rows their new ids
+    // Note: this goes by slot rather than list order, so it is safe in the middle of a removeIf moving the order around
+    private void packNames() {
+        int used = nameCount - unusedNames;
+        int[] ids = new int[nameCount];
+        byte[] bytes = new byte[Math.max(nameBytesLength - unusedNameBytes, INITIAL_CAPACITY * 16)];
+        int[] starts = new int[Math.max(used, INITIAL_CAPACITY) + 1];
+        boolean[] wide = new boolean[Math.max(used, INITIAL_CAPACITY)];
+        int[] hashes = new int[wide.length];
+        int[] uses = new int[wide.length];
+
+        // copy the names still used, in id order
+        int count = 0;
+        int length = 0;
+        for(int id = 0; id < nameCount; id++) {
+            if(nameUses[id] == 0) continue;
+            int start = nameStarts[id];
+            int end = nameStarts[id + 1];
+            System.arraycopy(nameBytes, start, bytes, length, end - start);
+            starts[count] = length;
+            length += end - start;
+            starts[count + 1] = length;
+            wide[count] = wideNames[id];
+            hashes[count] = nameHashes[id];
+            uses[count] = nameUses[id];
+            ids[id] = count++;
+        }
+
+        // give each row in use the new id of its name
+        for(int slot = 0; slot < slotCount; slot++) {
+            if(nameIds[slot] != EMPTY) nameIds[slot] = ids[nameIds[slot]];
+        }
+
+        nameBytes = bytes;
+        nameBytesLength = length;
+        nameStarts = starts;
+        wideNames = wide;
+        nameHashes = hashes;
+        nameUses = uses;
+        nameCount = count;
+        unusedNames = 0;
+        unusedNameBytes = 0;
+        hashNames(Integer.highestOneBit(Math.max(count, INITIAL_CAPACITY)) * 4);
+    }
+
+    // Rebuild the hash table of name ids with a number of entries (a power of two more than twice the names)
+    private void hashNames(int capacity) {
+        nameTable = new int[capacity];
+        Arrays.fill(nameTable, EMPTY);
+        int mask = capacity - 1;
+        for(int i = 0; i < nameCount; i++) {
+            int entry = nameHashes[i] & mask;
+            while(nameTable[entry] != EMPTY) entry = (entry + 1) & mask;
+            nameTable[entry] = i;
+        }
+    }
+
+    // Copy the characters of a new name to the end of the names, returning its id
+    private int addName(String name, int hash) {
+        int length = name.length();
+        boolean wide = false;
+        for(int i = 0; i < length && !wide; i++) {
+            wide = name.charAt(i) > 0xFF;
+        }
+
+        // make room for the name and its id
+        int size = wide ? length * 2 : length;
+        if(nameBytesLength + size > nameBytes.length) nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytesLength + size, nameBytes.length * 2));
+        if(nameCount == nameHashes.length) {
+            nameStarts = Arrays.copyOf(nameStarts, nameCount * 2 + 1);
+            wideNames = Arrays.copyOf(wideNames, nameCount * 2);
+            nameHashes = Arrays.copyOf(nameHashes, nameCount * 2);
+            nameUses = Arrays.copyOf(nameUses, nameCount * 2);
+        }
+
+        // copy the characters
+        int position = nameBytesLength;
+        for(int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if(wide) nameBytes[position++] = (byte)(c >> 8);
+            nameBytes[position++] = (byte)c;
+        }
+
+        int id = nameCount++;
+        nameStarts[id] = nameBytesLength;
+        nameStarts[id + 1] = position;
+        wideNames[id] = wide;
+        nameHashes[id] = hash;
+        nameBytesLength = position;
+        return id;
+    }
+
+    // Get the name with an id
+    private String getName(int id) {
+        int start = nameStarts[id];
+        int end = nameStarts[id + 1];
+        if(!wideNames[id]) return new String(nameBytes, start, end - start, StandardCharsets.ISO_8859_1);
+
+        char[] chars = new char[(end - start) / 2];
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = (char)((nameBytes[start + 2 * i] & 0xFF) << 8 | nameBytes[start + 2 * i + 1] & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    // Determine if the name with an id is the same as a string, without making the name
+    private boolean isName(int id, String name) {
+        int start = nameStarts[id];
+        int length = name.length();
+        if(!wideNames[id]) {
+            if(nameStarts[id + 1] - start != length) return false;
+            for(int i = 0; i < length; i++) {
+                if(name.charAt(i) != (nameBytes[start + i] & 0xFF)) return false;
+            }
+            return true;
+        }
+
+        if(nameStarts[id + 1] - start != length * 2) return false;
+        for(int i = 0; i < length; i++) {
+            if(name.charAt(i) != ((nameBytes[start + 2 * i] & 0xFF) << 8 | nameBytes[start + 2 * i + 1] & 0xFF)) return false;
+        }
+        return true;
+    }
+
+    // Check that a position is within the rows
+    private static int checkIndex(int index, int size) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return index;
+    }
+
+    // Item which reads and writes a slot of the table instead of holding its own fields
+    // Note: once its row is removed, it has no name, serial number, or cost, and changes to it are ignored
+    private static final class Row extends Item {
+        private final InventoryTable table;
+        private final int slot;
+
+        // Declare the generation of the slot and the clears of the table when the item was made
+        private final int generation;
+        private final int clears;
+
+        // Create an item for a slot of a table
+        Row(InventoryTable table, int slot) {
+            super(null, SerialKey.NONE, null, 0);
+            this.table = table;
+            this.slot = slot;
+            this.generation = table.generations[slot];
+            this.clears = table.clears;
+        }
+
+        // Determine if the slot still holds the row the item was made for
+        boolean isCurrent() {
+            return table.clears == clears && table.generations[slot] == generation;
+        }
+
+        @Override
+        public String getName() {
+            return isCurrent() ? table.getName(table.nameIds[slot]) : null;
+        }
+
+        // note: the new name is counted before the old one is let go, so renaming a row to its own name keeps the name
+        @Override
+        public void setName(String name) {
+            if(!isCurrent()) return;
+            int previous = table.nameIds[slot];
+            table.nameIds[slot] = table.useName(name);
+            table.releaseName(previous);
+        }
+
+        @Override
+        public String getSerialNumber() {
+            if(!isCurrent()) return null;
+            long serialKey = table.serialKeys[slot];
+            return serialKey != SerialKey.NONE ? SerialKey.toString(serialKey) : table.serialNumbers.get(slot);
+        }
+
+        @Override
+        public void setSerialNumber(String serialNumber) {
+            if(isCurrent()) table.setSerialNumber(slot, SerialKey.pack(serialNumber), serialNumber);
+        }
+
+        @Override
+        public long getSerialKey() {
+            return isCurrent() ? table.serialKeys[slot] : SerialKey.NONE;
+        }
+
+        @Override
+        public String getCost() {
+            return isCurrent() ? formatCost(table.cents[slot]) : null;
+        }
+
+        @Override
+        public long getCents() {
+            return isCurrent() ? table.cents[slot] : 0;
+        }
+
+        @Override
+        public void setCents(long cents) {
+            if(isCurrent()) table.cents[slot] = cents;
+        }
+
+        // Two items are the same row if they read the same slot of the same table, and neither has been removed since
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Row row && row.table == table && row.slot == slot && row.generation == generation && row.clears == clears;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(table) * 31 + slot;
+        }
+    }
+}
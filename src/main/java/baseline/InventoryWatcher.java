@@ -0,0 +1,522 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to watch an imported file and apply only the rows that changed to the inventory.
+
+package baseline;
+
+import javafx.application.Platform;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class InventoryWatcher implements Closeable {
+
+    // Declare how long the file has to go without changing before it is re-read (in milliseconds)
+    static final long QUIET_PERIOD = 250;
+
+    // Declare how coarse a file system's modification times may be (in milliseconds)
+    private static final long MTIME_GRANULARITY = 2000;
+
+    // Declare the constants of the 64-bit FNV-1a hash used to fingerprint rows
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Declare the watcher for the file currently being watched (if any)
+    private static InventoryWatcher current;
+
+    // Declare the listener which updates the table after a refresh
+    private static Consumer<Refresh> listener;
+
+    // Declare the rows to apply after the file changed
+    public record Changes(List<Item> upserts, Set<String> deletes) {
+        // Determine if the file changed in a way that affects the inventory
+        public boolean isEmpty() {
+            return upserts.isEmpty() && deletes.isEmpty();
+        }
+    }
+
+    // Declare the outcome of applying the changes to the inventory
+    // Note: updated items are changed in place, so only the inserted items are listed
+    public record Refresh(List<Item> inserted, int updated, Set<String> deleted) {
+        // Describe the refresh for the user
+        @Override
+        public String toString() {
+            return "Inserted " + inserted.size() + ", updated " + updated + ", deleted " + deleted.size();
+        }
+    }
+
+    // Declare the file being watched
+    private final File file;
+
+    // Declare the inventory the changes are applied to
+    private final List<Item> inventory;
+
+    // Declare the fingerprint of every row seen in the file last time, with the serial number of the row
+    // Note: this is only used by the watching thread
+    private RowTable rows = new RowTable(16);
+
+    // Declare the fingerprints of the TSV lines seen last time, in file order
+    // Note: this is only used by the watching thread
+    private long[] lines = new long[0];
+    private int lineCount;
+
+    // Declare the length and modification time of the file when it was last scanned, and when that scan started
+    private long scannedLength = -1;
+    private long scannedModified;
+    private long scanStarted;
+
+    // Declare the service which reports changes to the file's directory
+    private WatchService service;
+
+    // Declare whether the watcher has been stopped
+    private volatile boolean closed;
+
+    // Create a watcher for a file whose rows are in the inventory
+    InventoryWatcher(File file, List<Item> inventory) {
+        this.file = file.getAbsoluteFile();
+        this.inventory = inventory;
+    }
+
+    // Start watching a file, applying its changes to the inventory (replaces any file already being watched)
+    // Note: this is called from the GUI thread
+    public static void watch(File file, List<Item> inventory) throws IOException {
+        stop();
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.start();
+        current = watcher;
+    }
+
+    // Stop watching the current file (if any)
+    public static void stop() {
+        if(current != null) current.close();
+        current = null;
+    }
+
+    // Get the file currently being watched, or null
+    public static File getWatchedFile() {
+        return current == null ? null : current.file;
+    }
+
+    // Set the listener which is told about each refresh on the GUI thread
+    public static void setListener(Consumer<Refresh> refreshListener) {
+        listener = refreshListener;
+    }
+
+    // Register the file's directory with a watch service, then fingerprint the file on a background thread
+    private void start() throws IOException {
+        Path directory = file.toPath().getParent();
+        service = directory.getFileSystem().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(this::run, "inventory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Wait for changes to the file, scanning it once its writer goes quiet
+    private void run() {
+        try {
+            // remember the rows the inventory was imported from
+            // note: a file that can't be read yet is fingerprinted by the first refresh instead
+            try {
+                scan();
+            }
+            catch(IOException ignored) {
+                // keep the empty fingerprint table
+            }
+
+            while(!closed) {
+                // wait for an event about this file
+                if(!isFileChanged(service.take())) continue;
+
+                // let the writer finish before reading the file
+                WatchKey key;
+                while((key = service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+
+                // hand the changed rows to the GUI thread
+                Changes changes;
+                try {
+                    changes = scan();
+                }
+                // the file is missing or only partly written, so wait for the next change
+                catch(IOException e) {
+                    continue;
+                }
+                if(!changes.isEmpty()) Platform.runLater(() -> applyAndNotify(changes));
+            }
+        }
+        // the watcher was stopped
+        catch(InterruptedException | ClosedWatchServiceException ignored) {
+            closed = true;
+        }
+    }
+
+    // Determine if any of the events on a key are about the watched file
+    private boolean isFileChanged(WatchKey key) {
+        boolean changed = false;
+        for(WatchEvent<?> event : key.pollEvents()) {
+            // events may have been lost, so assume the file changed
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW) changed = true;
+            else if(file.getName().equals(event.context().toString())) changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+    // Apply the changes on the GUI thread and tell the listener
+    private void applyAndNotify(Changes changes) {
+        // drop changes that arrive after the watcher was stopped
+        if(closed) return;
+
+        Refresh refresh = apply(changes);
+        if(listener != null) listener.accept(refresh);
+    }
+
+    // Read the file and work out which rows were added, changed, or removed since the last scan
+    // Note: unchanged TSV rows are recognized by their bytes, so only the changed rows are parsed into items
+    Changes scan() throws IOException {
+        // the file hasn't been written since the last scan, so there is nothing to read
+        // note: a write in the same clock tick as the last scan could keep both, so a recent stamp isn't trusted
+        long started = System.currentTimeMillis();
+        long length = file.length();
+        long modified = file.lastModified();
+        if(length == scannedLength && modified == scannedModified && modified < scanStarted - MTIME_GRANULARITY) {
+            return new Changes(List.of(), Set.of());
+        }
+
+        List<Item> upserts = new ArrayList<>();
+        Set<String> deletes = new HashSet<>();
+
+        // plain TSV is fingerprinted from the mapped bytes
+        String path = file.getPath();
+        if(path.endsWith(".txt")) {
+            scanTSV(upserts, deletes);
+        }
+        // every other format is parsed, then fingerprinted by its fields
+        else {
+            RowTable next = new RowTable(Math.max(16, rows.size()));
+            Consumer<Item> sink = item -> {
+                long fingerprint = fingerprint(item);
+                if(!rows.contains(fingerprint)) upserts.add(item);
+                next.put(fingerprint, item.getSerialNumber());
+            };
+            if(path.endsWith(".txt" + InventoryFiles.GZIP_SUFFIX)) TSVReader.read(file, sink);
+            else if(path.contains(".json")) JSONReader.read(file, sink);
+            else if(path.contains(".inv")) INVReader.read(file, sink);
+            else HTMLReader.read(file, sink);
+            deletes.addAll(rows.missingFrom(next));
+            rows = next;
+        }
+
+        // rows that are gone are deleted, unless their serial number moved to a changed row
+        for(Item item : upserts) {
+            deletes.remove(item.getSerialNumber());
+        }
+
+        scannedLength = length;
+        scannedModified = modified;
+        scanStarted = started;
+        return new Changes(upserts, deletes);
+    }
+
+    // Fingerprint every line of a TSV file, parsing only the lines that weren't in the file last time
+    // Note: the lines that match the start and end of the file last time are skipped without touching the row table,
+    // so the table work and parsing are proportional to the part of the file that changed
+    private void scanTSV(List<Item> upserts, Set<String> deletes) throws IOException {
+        TSVReader reader = new TSVReader();
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // fingerprint every line, remembering where each one starts
+            long[][] next = {new long[Math.max(16, lineCount)], new long[Math.max(16, lineCount)]};
+            int[] count = {0};
+            forEachLine(channel, 0, channel.size(), (buffer, lineStart, lineEnd, hash, offset) -> {
+                if(count[0] == next[0].length) {
+                    next[0] = Arrays.copyOf(next[0], count[0] * 2);
+                    next[1] = Arrays.copyOf(next[1], count[0] * 2);
+                }
+                next[0][count[0]] = hash;
+                next[1][count[0]++] = offset;
+            });
+            long[] hashes = next[0];
+            int n = count[0];
+
+            // find the lines at the start and the end of the file that are where they were last time
+            int common = Math.min(n, lineCount);
+            int prefix = 0;
+            while(prefix < common && hashes[prefix] == lines[prefix]) prefix++;
+            int suffix = 0;
+            while(suffix < common - prefix && hashes[n - 1 - suffix] == lines[lineCount - 1 - suffix]) suffix++;
+
+            // parse the lines in between that weren't in the file anywhere last time
+            if(prefix < n - suffix) {
+                long from = next[1][prefix];
+                long to = suffix == 0 ? channel.size() : next[1][n - suffix];
+                forEachLine(channel, from, to, (buffer, lineStart, lineEnd, hash, offset) -> {
+                    String serialNumber = rows.get(hash);
+
+                    // unchanged line that moved: keep its fingerprint without parsing it
+                    if(serialNumber != null) rows.put(hash, serialNumber);
+
+                    // new or changed line: parse it
+                    else {
+                        int length = buffer.limit();
+                        buffer.limit(lineEnd).position(lineStart);
+                        reader.parse(buffer, true, item -> {
+                            upserts.add(item);
+                            rows.put(hash, item.getSerialNumber());
+                        });
+                        buffer.limit(length);
+                    }
+                });
+            }
+
+            // forget the lines in between from last time, deleting the rows that are no longer anywhere in the file
+            for(int i = prefix; i < lineCount - suffix; i++) {
+                String serialNumber = rows.remove(lines[i]);
+                if(serialNumber != null) deletes.add(serialNumber);
+            }
+
+            lines = hashes;
+            lineCount = n;
+        }
+    }
+
+    // Declare what is done with each non-blank line of a mapped TSV file
+    private interface LineVisitor {
+        void visit(MappedByteBuffer buffer, int lineStart, int lineEnd, long hash, long offset) throws IOException;
+    }
+
+    // Hash each non-blank line between two newline-aligned offsets of a file and pass it to a visitor
+    private static void forEachLine(FileChannel channel, long from, long to, LineVisitor visitor) throws IOException {
+        long start = from;
+
+        // map the file one newline-aligned region at a time
+        while(start < to) {
+            long end = Math.min(to, TSVReader.alignToLine(channel, Math.min(to, start + TSVReader.REGION_SIZE)));
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int length = buffer.capacity();
+
+            int lineStart = 0;
+            while(lineStart < length) {
+                // hash the line while searching for its end
+                long hash = FNV_OFFSET;
+                int i = lineStart;
+                byte b;
+                while(i < length && (b = buffer.get(i)) != '\n') {
+                    hash = (hash ^ b) * FNV_PRIME;
+                    i++;
+                }
+
+                // skip blank lines (including a lone "\r")
+                int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                if(lineEnd > lineStart) visitor.visit(buffer, lineStart, lineEnd, hash, start + lineStart);
+
+                lineStart = i + 1;
+            }
+            start = end;
+        }
+    }
+
+    // Apply changed rows to the inventory, updating items that share a serial number in place
+    // Note: this is called from the GUI thread
+    // Note: the rows are found through the inventory's serial number index, and each change is reported to
+    // InventoryChanges as it is made, so the journal and the indexes only redo the rows that changed
+    Refresh apply(Changes changes) {
+        SerialIndex index = SerialIndex.of(inventory);
+
+        // insert or update each changed row
+        List<Item> inserted = new ArrayList<>();
+        int updated = 0;
+        for(Item row : changes.upserts()) {
+            int position = index.indexOf(row);
+
+            // new serial number, so append the row
+            // note: the inventory may store a copy of the row (as a table does), so the stored item is reported
+            if(position < 0) {
+                inventory.add(row);
+                Item added = inventory.get(inventory.size() - 1);
+                InventoryChanges.added(inventory, added);
+                inserted.add(added);
+            }
+            // serial number is in the inventory, so update the item
+            else {
+                Item existing = inventory.get(position);
+                Item previous = new Item(existing);
+                existing.setName(row.getName());
+                existing.setCents(row.getCents());
+                InventoryChanges.set(inventory, position, previous, existing);
+                updated++;
+            }
+        }
+
+        // delete each removed row by its position (every copy of it, if an imported file repeated its serial number)
+        Set<String> deleted = new HashSet<>();
+        for(String serialNumber : changes.deletes()) {
+            int position;
+            while((position = index.indexOf(serialNumber)) >= 0) {
+                Item removed = inventory.remove(position);
+                InventoryChanges.removed(inventory, position, removed);
+                deleted.add(serialNumber);
+            }
+        }
+
+        return new Refresh(inserted, updated, deleted);
+    }
+
+    // Stop watching the file
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            if(service != null) service.close();
+        }
+        catch(IOException ignored) {
+            // the service is already unusable
+        }
+    }
+
+    // Fingerprint a parsed item by its fields
+    private static long fingerprint(Item item) {
+        long hash = FNV_OFFSET;
+        String row = item.getSerialNumber() + '\t' + item.getName() + '\t' + item.getCost();
+        for(int i = 0; i < row.length(); i++) {
+            hash = (hash ^ row.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // Open-addressing table from row fingerprints to serial numbers, without boxing a Long per row
+    // Note: a fingerprint of 0 marks an empty slot, so it is stored as 1 instead
+    // Note: identical lines share a fingerprint, so each fingerprint counts how many rows have it
+    static class RowTable {
+        private long[] keys;
+        private String[] values;
+        private int[] counts;
+        private int size;
+
+        // Create a table sized for roughly the given number of rows
+        RowTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new long[capacity];
+            values = new String[capacity];
+            counts = new int[capacity];
+        }
+
+        // Get the number of distinct fingerprints in the table
+        int size() {
+            return size;
+        }
+
+        // Get the serial number stored for a fingerprint, or null
+        String get(long key) {
+            int i = find(key);
+            return i < 0 ? null : values[i];
+        }
+
+        // Determine if a fingerprint is in the table
+        boolean contains(long key) {
+            return find(key) >= 0;
+        }
+
+        // Store the serial number for one more row with a fingerprint
+        void put(long key, String value) {
+            key = key == 0 ? 1 : key;
+            if((size + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while(keys[i] != 0) {
+                if(keys[i] == key) {
+                    values[i] = value;
+                    counts[i]++;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            counts[i] = 1;
+            size++;
+        }
+
+        // Forget one row with a fingerprint
+        // Returns the serial number of the row if no other row has the fingerprint, otherwise null
+        String remove(long key) {
+            int i = find(key);
+            if(i < 0 || --counts[i] > 0) return null;
+            String value = values[i];
+
+            // shift the entries after the slot back, so no probe sequence is broken by the gap
+            int mask = keys.length - 1;
+            int j = i;
+            while(keys[j = (j + 1) & mask] != 0) {
+                int home = slot(keys[j], mask);
+                if(((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    counts[i] = counts[j];
+                    i = j;
+                }
+            }
+            keys[i] = 0;
+            values[i] = null;
+            counts[i] = 0;
+            size--;
+            return value;
+        }
+
+        // Collect the serial numbers of the rows in this table that aren't in the other table
+        Set<String> missingFrom(RowTable other) {
+            Set<String> missing = new HashSet<>();
+            for(int i = 0; i < keys.length; i++) {
+                if(keys[i] != 0 && !other.contains(keys[i])) missing.add(values[i]);
+            }
+            return missing;
+        }
+
+        // Find the slot of a fingerprint, or -1
+        private int find(long key) {
+            key = key == 0 ? 1 : key;
+            int mask = keys.length - 1;
+            for(int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if(keys[i] == key) return i;
+            }
+            return -1;
+        }
+
+        // Double the capacity of the table
+        private void grow() {
+            long[] oldKeys = keys;
+            String[] oldValues = values;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            values = new String[oldValues.length * 2];
+            counts = new int[oldCounts.length * 2];
+            int mask = keys.length - 1;
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldKeys[i] == 0) continue;
+                int j = slot(oldKeys[i], mask);
+                while(keys[j] != 0) j = (j + 1) & mask;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+                counts[j] = oldCounts[i];
+            }
+        }
+
+        // Spread a fingerprint over the slots
+        private static int slot(long key, int mask) {
+            return (int)(key ^ (key >>> 32)) * 0x9e3779b9 & mask;
+        }
+    }
+}
@@ -7,25 +7,67 @@
 
 package baseline;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+// note: any Gson writes an item field by field, so JSON files keep their "cost" text rather than the cents
+@JsonAdapter(ItemTypeAdapter.class)
 public class Item {
 
     // Declare variable for holding the name
     private String name;
 
-    // Declare variable for holding the serial number
+    // Declare variable for holding the id of the name in the shared name dictionary (NONE until the name is shared)
+    // note: items whose names are shared hold the dictionary's copy of the name, so items with the same name share one String
+    private int nameId = NameDictionary.NONE;
+
+    // Declare variable for holding the serial number packed into a number (NONE if it isn't in the A-XXX-XXX-XXX format)
+    private long serialKey;
+
+    // Declare variable for holding a serial number which can't be packed (null when it is packed)
     private String serialNumber;
 
-    // Declare variable for holding the cost
+    // Declare variable for holding the cost, as a whole number of cents
+    private long cents;
+
+    // Declare variable for holding the cost in monetary format (made the first time it is shown)
     private String cost;
 
     // Initialize the item object
     public Item(String name, String serialNumber, String cost) {
         // copy parameter items to the instance variables
         this.name = name;
-        this.serialNumber = serialNumber;
+        this.serialKey = SerialKey.pack(serialNumber);
+        this.serialNumber = serialKey == SerialKey.NONE ? serialNumber : null;
+
+        // convert cost to a whole number of cents
+        this.cents = parseCents(cost);
+    }
+
+    // Initialize an item whose cost is already a whole number of cents (skips parsing the cost)
+    Item(String name, String serialNumber, long cents) {
+        this(name, SerialKey.pack(serialNumber), serialNumber, cents);
+    }
+
+    // Initialize an item whose serial number is already packed, or is NONE and given as text (skips packing it)
+    Item(String name, long serialKey, String serialNumber, long cents) {
+        this.name = name;
+        this.serialKey = serialKey;
+        this.serialNumber = serialKey == SerialKey.NONE ? serialNumber : null;
+        this.cents = cents;
+    }
 
-        // convert cost to 2 decimal places
-        this.cost = convertCost(cost);
+    // Copy an item, keeping its already converted cost
+    // Note: the fields are read through the getters, since a subclass may keep them elsewhere
+    public Item(Item item) {
+        this.name = item.getName();
+        this.nameId = item.getNameId();
+        this.serialKey = item.getSerialKey();
+        this.serialNumber = serialKey == SerialKey.NONE ? item.getSerialNumber() : null;
+        this.cents = item.getCents();
+        this.cost = item.cost;
     }
 
     // Get the item name
@@ -33,43 +75,186 @@ public class Item {
         return name;
     }
 
-    // Set the item name
+    // Set the item name, sharing it with every other item of the same name
     public void setName(String name) {
         this.name = name;
+        shareName();
+    }
+
+    // Swap the item name for the shared dictionary's copy of it, remembering its id
+    void shareName() {
+        nameId = NameDictionary.getShared().intern(name);
+        name = NameDictionary.getShared().get(nameId);
+    }
+
+    // Get the id of the item name in the shared name dictionary, or NONE if the name isn't shared
+    public int getNameId() {
+        return nameId;
+    }
+
+    // Determine if another item has the same name, comparing the name ids when both names are shared
+    public boolean hasSameName(Item item) {
+        int id = getNameId();
+        if(id != NameDictionary.NONE && item.getNameId() != NameDictionary.NONE) return id == item.getNameId();
+        return Objects.equals(getName(), item.getName());
     }
 
     // Get the item serial number
+    // Note: a packed serial number is turned back into text each time, rather than kept, since most are never shown
     public String getSerialNumber() {
-        return serialNumber;
+        return serialKey != SerialKey.NONE ? SerialKey.toString(serialKey) : serialNumber;
     }
 
     // Set the item serial number
     // Precondition: the string is a valid serial number (with "-")
     public void setSerialNumber(String serialNumber) {
-        this.serialNumber = serialNumber;
+        // keep the text only if the serial number can't be packed
+        this.serialKey = SerialKey.pack(serialNumber);
+        this.serialNumber = serialKey == SerialKey.NONE ? serialNumber : null;
+    }
+
+    // Get the item serial number packed into a number, or SerialKey.NONE if it isn't in the A-XXX-XXX-XXX format
+    public long getSerialKey() {
+        return serialKey;
+    }
+
+    // Determine if another item has the same serial number, comparing the packed numbers when there are any
+    public boolean hasSameSerialNumber(Item item) {
+        long key = getSerialKey();
+        if(key != SerialKey.NONE || item.getSerialKey() != SerialKey.NONE) return key == item.getSerialKey();
+        return Objects.equals(getSerialNumber(), item.getSerialNumber());
+    }
+
+    // Determine if another item has the same name, serial number, and cost
+    // Note: the rows of a table or an off-heap inventory are equal only to themselves, so they never equal a plain item
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || o.getClass() != getClass()) return false;
+        Item item = (Item)o;
+        return getCents() == item.getCents() && hasSameSerialNumber(item) && hasSameName(item);
     }
 
-    // Get the item cost
+    // Hash the item by its serial number, which is unique within an inventory
+    @Override
+    public int hashCode() {
+        long key = getSerialKey();
+        return key != SerialKey.NONE ? SerialKey.hash(key) : Objects.hashCode(getSerialNumber());
+    }
+
+    // Get the item cost in monetary format
     public String getCost() {
-        return cost;
+        // format the cost the first time it is asked for
+        String temp = cost;
+        if(temp == null) {
+            temp = formatCost(cents);
+            cost = temp;
+        }
+        return temp;
     }
 
     // Set the item cost
-    // Precondition: String can be cast to double
+    // Precondition: String can be parsed as a number
     public void setCost(String cost) {
-        this.cost = convertCost(cost);
+        setCents(parseCents(cost));
     }
 
-    // Convert a numerical string to monetary format, then convert back to string
-    private String convertCost(String cost) {
-        // convert string to number, round, and convert back to string
-        String temp = String.valueOf(Math.round(100 * Float.parseFloat(cost)) / 100.00);
+    // Get the item cost as a whole number of cents
+    public long getCents() {
+        return cents;
+    }
 
-        // convert the string to be in USD format
-        temp = '$' + temp;
-        if(temp.charAt(temp.length() - 1) == '0') temp += '0';
+    // Set the item cost to a whole number of cents
+    public void setCents(long cents) {
+        this.cents = cents;
+        this.cost = null;
+    }
 
-        // return the string to the new item
-        return temp;
+    // Convert a numerical string to monetary format
+    String convertCost(String cost) {
+        return formatCost(parseCents(cost));
+    }
+
+    // Convert a number (such as "12.5", "-3", or "$4.99") into a whole number of cents, rounding like Math.round
+    // Note: plain decimal numbers are read digit by digit without creating any objects, so no precision is lost
+    // for large costs; anything else (such as "1e3" or " 5 ") goes through the double parser
+    static long parseCents(String cost) {
+        int length = cost.length();
+        int i = 0;
+        if(i < length && cost.charAt(i) == '$') i++;
+        boolean negative = false;
+        if(i < length && (cost.charAt(i) == '-' || cost.charAt(i) == '+')) negative = cost.charAt(i++) == '-';
+
+        // read the dollars (up to 16 digits, so the cents can't overflow)
+        long dollars = 0;
+        int digits = 0;
+        for(; i < length && digits <= 16 && isDigit(cost.charAt(i)); i++, digits++) {
+            dollars = dollars * 10 + (cost.charAt(i) - '0');
+        }
+
+        // read the cents, and compare the rest of the fraction with half a cent
+        int fraction = 0;
+        int fractionDigits = 0;
+        int rest = -1;
+        if(i < length && cost.charAt(i) == '.') {
+            for(i++; i < length && isDigit(cost.charAt(i)); i++, fractionDigits++) {
+                int digit = cost.charAt(i) - '0';
+                if(fractionDigits < 2) fraction = fraction * 10 + digit;
+                else if(fractionDigits == 2) rest = digit == 5 ? 0 : Integer.signum(digit - 5);
+                else if(digit != 0 && rest == 0) rest = 1;
+            }
+        }
+        if(fractionDigits == 1) fraction *= 10;
+
+        if(i == length && digits + fractionDigits > 0 && digits <= 16) {
+            long cents = dollars * 100 + fraction;
+
+            // like Math.round, round up past half a cent, and round exact halves towards positive infinity
+            if(rest > 0 || (rest == 0 && !negative)) cents++;
+            return negative ? -cents : cents;
+        }
+
+        // anything else goes through the double parser
+        double value = Double.parseDouble(length > 0 && cost.charAt(0) == '$' ? cost.substring(1) : cost) * 100;
+        if(!(Math.abs(value) < Long.MAX_VALUE)) throw new NumberFormatException("Cost out of range: " + cost);
+        return Math.round(value);
+    }
+
+    // Determine if a character is an ASCII digit
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Convert a number of cents to monetary format
+    static String formatCost(long cents) {
+        return formatCents(cents, true);
+    }
+
+    // Convert a number of cents to a plain amount with two decimal places (such as "2.50"), for editing
+    static String formatAmount(long cents) {
+        return formatCents(cents, false);
+    }
+
+    // Print a number of cents as the dollars and two digits of cents (such as "$2.50"), without going through a double
+    // Note: the size of the cents is read as unsigned, so even the smallest long prints in full
+    private static String formatCents(long cents, boolean monetary) {
+        long value = Math.abs(cents);
+        int fraction = (int)Long.remainderUnsigned(value, 100);
+
+        // fill the characters in from the end
+        byte[] temp = new byte[24];
+        int start = temp.length;
+        temp[--start] = (byte)('0' + fraction % 10);
+        temp[--start] = (byte)('0' + fraction / 10);
+        temp[--start] = '.';
+        long dollars = Long.divideUnsigned(value, 100);
+        do {
+            temp[--start] = (byte)('0' + dollars % 10);
+            dollars /= 10;
+        } while(dollars > 0);
+        if(cents < 0) temp[--start] = '-';
+        if(monetary) temp[--start] = '$';
+
+        return new String(temp, start, temp.length - start, StandardCharsets.ISO_8859_1);
     }
 }
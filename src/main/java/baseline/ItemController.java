@@ -141,8 +141,8 @@ public class ItemController {
             nameTextField.setText(inventory.get(index).getName());
             serialTextField.setText(inventory.get(index).getSerialNumber());
 
-            // remove the '$' from the cost
-            costTextField.setText(String.valueOf(inventory.get(index).getCost()).substring(1));
+            // show the cost as a plain amount (without the '$')
+            costTextField.setText(Item.formatAmount(inventory.get(index).getCents()));
 
             // change the confirm button text to "Edit Item"
             confirmButton.setText("Edit Item");
@@ -184,9 +184,18 @@ public class ItemController {
         // verify there are no errors
         if(isNoErrors(name,serialNumber,cost)) {
             // if creating a new item, add a new item to the end of the list
-            if(index == inventory.size()) inventory.add(new Item(name,serialNumber,cost));
+            // note: the name is shared with the other items of the same name
+            Item item = new Item(name, serialNumber, cost);
+            item.shareName();
+            if(index == inventory.size()) {
+                inventory.add(item);
+                InventoryChanges.added(inventory, item);
+            }
             // otherwise, set the item at index to a new item using the declared strings
-            else inventory.set(index, new Item(name, serialNumber, cost));
+            else {
+                Item previous = inventory.set(index, item);
+                InventoryChanges.set(inventory, index, previous, item);
+            }
 
             // reload other scene
             new MainSceneController(inventory,(Stage)(pane.getScene().getWindow()));
@@ -202,7 +211,7 @@ public class ItemController {
     }
 
     // Test if all displayed text fields are filled and valid
-    private boolean isNoErrors(String name, String serialNumber, String cost) {
+    boolean isNoErrors(String name, String serialNumber, String cost) {
         // verify each string is not empty
         // verify the name input is valid
         // verify the serial number input is valid
@@ -212,45 +221,28 @@ public class ItemController {
     }
 
     // Method for testing if any of the text fields are not filled
-    private boolean isNotEmpty(String name, String serialNumber, String cost) {
+    boolean isNotEmpty(String name, String serialNumber, String cost) {
         // if all three strings are not empty, return true
         return (!name.isBlank()) && (!serialNumber.isBlank()) && (!cost.isBlank());
     }
 
     // Method for testing the validity of the name
-    private boolean isNameValid(String name) {
+    boolean isNameValid(String name) {
         return (name.length() >= 2) && (name.length() <= 256);
     }
 
     // Method for testing if the serial number input is valid
     // Note: the format is A-XXX-XXX-XXX
-    private boolean isSerialNumberValid(String serialNumber) {
-        // verify there are 3 hyphens
-        if(serialNumber.chars().filter(ch -> ch == '-').count() != 3) return false;
-
-        // split the string into a size 4 array divided by '-'
-        String[] values = serialNumber.split("-",4);
-
-        // verify there are 4 strings in the array
-        if(values.length != 4) return false;
-
-        // check if the first string is a single letter
-        if((values[0].length() != 1) || !(values[0].matches("^[a-zA-Z]*$"))) return false;
-
-        // check if the second, third, and fourth strings are comprised of 3 letters or digits
-        for(int i = 1; i < 4; i++) {
-            if ((values[i].length() != 3) || !(values[i].matches("^[a-zA-Z0-9]+$"))) return false;
-        }
-
-        // serial number must be valid
-        return true;
+    boolean isSerialNumberValid(String serialNumber) {
+        // the first character must be a letter, and the other three groups letters or digits
+        return SerialKey.isValid(serialNumber);
     }
 
     // Method for testing if the cost is valid
-    private boolean isCostValid(String cost) {
+    boolean isCostValid(String cost) {
         // determine if string can be parsed
         try {
-            Float.parseFloat(cost);
+            Item.parseCents(cost);
             return true;
         }
         // catch non-numeric string
@@ -281,17 +273,10 @@ public class ItemController {
     }
 
     // Method for testing if a serial number is unique
-    private boolean isSerialNumberUnique(String serialNumber, int index, List<Item> list) {
-        // loop through the list
-        for(int i = 0; i < list.size(); i++) {
-            // if index value ever equals loop index, skip current check
-            if(i == index) continue;
-
-            // if serial numbers match, return false
-            if(serialNumber.equals(list.get(i).getSerialNumber())) return false;
-        }
-        // otherwise, return true
-        return true;
+    // Note: the list's serial index finds the item holding the serial number, if any, without checking every item
+    boolean isSerialNumberUnique(String serialNumber, int index, List<Item> list) {
+        // unique unless an item other than the one at index holds it
+        return SerialIndex.of(list).isUnique(serialNumber, index);
     }
 
     // Method for changing the empty text fields error label visibility
@@ -0,0 +1,63 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to convert Items to and from JSON field by field, without Gson's reflection.
+
+package baseline;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class ItemTypeAdapter extends TypeAdapter<Item> {
+
+    // Write an item as {"name":..., "serialNumber":..., "cost":...}, the same fields in the same order as reflection
+    @Override
+    public void write(JsonWriter json, Item item) throws IOException {
+        // write null items the way Gson does
+        if(item == null) {
+            json.nullValue();
+            return;
+        }
+
+        json.beginObject();
+        json.name("name").value(item.getName());
+        json.name("serialNumber").value(item.getSerialNumber());
+        json.name("cost").value(item.getCost());
+        json.endObject();
+    }
+
+    // Read a single {"name":..., "serialNumber":..., "cost":...} object into an Item
+    @Override
+    public Item read(JsonReader json) throws IOException {
+        String name = null;
+        String serialNumber = null;
+        String cost = null;
+
+        // pull each field straight from the token stream
+        json.beginObject();
+        while(json.hasNext()) {
+            switch (json.nextName()) {
+                case "name" -> name = json.nextString();
+                case "serialNumber" -> serialNumber = json.nextString();
+                case "cost" -> cost = json.nextString();
+
+                // ignore fields that aren't part of an item
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        // every item needs all three fields
+        if(name == null || serialNumber == null || cost == null) {
+            throw new IOException("JSON item is missing a field near " + json.getPath());
+        }
+
+        // add new Item (the cost parser skips the '$' in front of the cost)
+        return new Item(name, serialNumber, Item.parseCents(cost));
+    }
+}
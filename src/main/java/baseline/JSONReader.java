@@ -0,0 +1,68 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to read a JSON file of items token by token, without building an object tree per item.
+
+package baseline;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+public class JSONReader {
+
+    // Declare the size of the character buffer in front of the file
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Declare the adapter which reads each item
+    private static final ItemTypeAdapter ITEM_ADAPTER = new ItemTypeAdapter();
+
+    // Prevent this utility class from being created
+    private JSONReader() {
+    }
+
+    // Read every item in a JSON (or compressed .json.gz) file and hand it to the sink in file order
+    public static void read(File file, Consumer<Item> sink) throws IOException {
+        try(JsonReader json = open(InventoryFiles.openInput(file))) {
+            read(json, sink);
+        }
+    }
+
+    // Create a lenient, buffered token reader over a stream
+    // Note: lenient mode allows several top-level objects one after another, which is how SaveController writes them
+    public static JsonReader open(InputStream stream) {
+        JsonReader json = new JsonReader(new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8), BUFFER_SIZE));
+        json.setLenient(true);
+        return json;
+    }
+
+    // Read every item from a token stream holding either concatenated objects or a top-level array
+    public static void read(JsonReader json, Consumer<Item> sink) throws IOException {
+        try {
+            // loop until the stream runs out of values
+            while(json.peek() != JsonToken.END_DOCUMENT) {
+                // an array holds the items as its elements
+                if(json.peek() == JsonToken.BEGIN_ARRAY) {
+                    json.beginArray();
+                    while(json.hasNext()) {
+                        sink.accept(ITEM_ADAPTER.read(json));
+                    }
+                    json.endArray();
+                }
+                // otherwise, each top-level value is an item
+                else {
+                    sink.accept(ITEM_ADAPTER.read(json));
+                }
+            }
+        }
+        // the file is valid JSON, but not shaped like an inventory
+        catch(IllegalStateException e) {
+            throw new IOException("Unexpected JSON structure", e);
+        }
+    }
+}
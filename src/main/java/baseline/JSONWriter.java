@@ -0,0 +1,94 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to stream the inventory to a JSON file through a single JsonWriter.
+
+package baseline;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+public class JSONWriter {
+
+    // Declare the ways the items can be laid out in the file
+    public enum Layout {
+        // one object after another with nothing between them, as the app has always saved
+        CONCATENATED,
+
+        // a single top-level array of objects, which other JSON tools can read
+        ARRAY
+    }
+
+    // Declare the size of the character buffer in front of the file
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Declare a Gson which uses the hand-written adapter for items
+    static final Gson GSON = new GsonBuilder().registerTypeAdapter(Item.class, new ItemTypeAdapter()).create();
+
+    // Declare the adapter for items, looked up once
+    private static final TypeAdapter<Item> ITEM_ADAPTER = GSON.getAdapter(Item.class);
+
+    // Prevent this utility class from being created
+    private JSONWriter() {
+    }
+
+    // Save every item to a JSON (or compressed .json.gz) file in the given layout
+    public static void write(File file, List<Item> items, Layout layout) throws IOException {
+        write(file, items, layout, InventoryFiles.SyncPolicy.getDefault());
+    }
+
+    // Save the items atomically, forcing the file to the disk as the policy asks
+    public static void write(File file, List<Item> items, Layout layout, InventoryFiles.SyncPolicy policy) throws IOException {
+        write(file, items, layout, policy, rows -> {});
+    }
+
+    // Save the items atomically, reporting the running number of items written
+    public static void write(File file, List<Item> items, Layout layout, InventoryFiles.SyncPolicy policy, LongConsumer progress) throws IOException {
+        InventoryFiles.save(file, policy, out -> write(out, items, layout, progress));
+    }
+
+    // Write every item to a stream in the given layout
+    public static void write(OutputStream out, List<Item> items, Layout layout) throws IOException {
+        write(out, items, layout, rows -> {});
+    }
+
+    // Write every item to a stream in the given layout, reporting progress every few thousand items
+    // Note: the JsonWriter is flushed rather than closed, since closing it rejects an empty concatenated file
+    public static void write(OutputStream out, List<Item> items, Layout layout, LongConsumer progress) throws IOException {
+        try(out) {
+            JsonWriter json = open(out);
+            write(json, items, layout, progress);
+            json.flush();
+        }
+    }
+
+    // Create a buffered JsonWriter over a stream
+    // Note: this escapes HTML characters and allows several top-level values, just like Gson.toJson did for each item
+    public static JsonWriter open(OutputStream stream) {
+        JsonWriter json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(stream, Charset.defaultCharset()), BUFFER_SIZE));
+        json.setHtmlSafe(true);
+        json.setLenient(true);
+        return json;
+    }
+
+    // Write every item to a token stream in the given layout, reporting progress every few thousand items
+    public static void write(JsonWriter json, List<Item> items, Layout layout, LongConsumer progress) throws IOException {
+        if(layout == Layout.ARRAY) json.beginArray();
+        long rows = 0;
+        for(Item item : items) {
+            ITEM_ADAPTER.write(json, item);
+            if(++rows % InventoryFiles.PROGRESS_ROWS == 0) progress.accept(rows);
+        }
+        progress.accept(rows);
+        if(layout == Layout.ARRAY) json.endArray();
+    }
+}
@@ -7,8 +7,10 @@
 
 package baseline;
 
+import javafx.animation.AnimationTimer;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Worker;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -25,8 +27,10 @@ import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntPredicate;
 
 public class MainSceneController {
 
@@ -51,7 +55,10 @@ public class MainSceneController {
     private TableView<Item> itemView;
 
     // Declare observable list for holding only the viewable items (either ALL or searched results)
-    private final ObservableList<Item> listOfItems = FXCollections.observableArrayList();
+    private ObservableList<Item> listOfItems = FXCollections.observableArrayList();
+
+    // Declare whether the list of items is a live view of a mapped inventory or a table rather than a copy
+    private boolean showingLiveView;
 
     // Declare list for holding all items in an inventory
     private List<Item> inventory;
@@ -112,6 +119,18 @@ public class MainSceneController {
     @FXML
     private HBox topControls;
 
+    // Declare the controls showing the progress of an import which is still filling the inventory
+    @FXML
+    private VBox importControls;
+    @FXML
+    private ProgressBar importProgressBar;
+    @FXML
+    private Label importProgressLabel;
+
+    // Declare the import filling the inventory (if any), and the timer moving its parsed rows into the table each frame
+    private ImportTask importTask;
+    private AnimationTimer importTimer;
+
     // Declare the loaded scene
     private Parent scene;
 
@@ -124,6 +143,9 @@ public class MainSceneController {
         // copy items to be displayed
         this.inventory = inventory;
 
+        // save a copy of the inventory in the background whenever it changes
+        Autosaver.track(inventory);
+
         // load the correct fxml file
         // Declare a fxml loader
         FXMLLoader root;
@@ -194,6 +216,9 @@ public class MainSceneController {
         // get values from inventory
         resetListToInventory();
 
+        // show the changes to a watched file as they are applied
+        InventoryWatcher.setListener(this::showRefresh);
+
         // initialize the description column
         nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
         nameColumn.setCellFactory(t -> {
@@ -212,14 +237,28 @@ public class MainSceneController {
             // display the text
             return cell;
         });
-        nameColumn.setOnEditCommit( t -> (
-                t.getTableView().getItems().get(t.getTablePosition().getRow())).setName(t.getNewValue()));
+        nameColumn.setOnEditCommit( t -> {
+            Item item = t.getTableView().getItems().get(t.getTablePosition().getRow());
+
+            // find the item while it has its old name, then report the edit so the name index moves it to the new one
+            int index = positionOf(item);
+            Item previous = new Item(item);
+            item.setName(t.getNewValue());
+            InventoryChanges.set(inventory, index, previous, item);
+        });
 
         // initialize the serial number column
         serialColumn.setCellValueFactory(new PropertyValueFactory<>("serialNumber"));
         serialColumn.setCellFactory(TextFieldTableCell.forTableColumn());
-        serialColumn.setOnEditCommit( t -> (
-                t.getTableView().getItems().get(t.getTablePosition().getRow())).setSerialNumber(t.getNewValue()));
+        serialColumn.setOnEditCommit( t -> {
+            Item item = t.getTableView().getItems().get(t.getTablePosition().getRow());
+
+            // find the item by its old serial number, then report the edit so the indexes move it to the new one
+            int index = positionOf(item);
+            Item previous = new Item(item);
+            item.setSerialNumber(t.getNewValue());
+            InventoryChanges.set(inventory, index, previous, item);
+        });
 
         // initialize the cost column
         monetaryColumn.setCellValueFactory(new PropertyValueFactory<>("cost"));
@@ -239,12 +278,35 @@ public class MainSceneController {
             // display the text
             return cell;
         });
-        monetaryColumn.setOnEditCommit( t -> (
-                t.getTableView().getItems().get(t.getTablePosition().getRow())).setCost(t.getNewValue()));
+        monetaryColumn.setOnEditCommit( t -> {
+            Item item = t.getTableView().getItems().get(t.getTablePosition().getRow());
+            int index = positionOf(item);
+            Item previous = new Item(item);
+            item.setCost(t.getNewValue());
+            InventoryChanges.set(inventory, index, previous, item);
+        });
 
         // set the values in the table to the observable list
         itemView.setItems(listOfItems);
 
+        // sort the rows by their cents when sorting by cost, so a sort compares longs instead of parsing the text of costs
+        itemView.setSortPolicy(table -> {
+            Comparator<Item> comparator = null;
+            for(TableColumn<Item, ?> column : table.getSortOrder()) {
+                Comparator<Item> byColumn = column == monetaryColumn ? Comparator.comparingLong(Item::getCents) : byCellData(column);
+                if(column.getSortType() == TableColumn.SortType.DESCENDING) byColumn = byColumn.reversed();
+                comparator = comparator == null ? byColumn : comparator.thenComparing(byColumn);
+            }
+            if(comparator != null) FXCollections.sort(table.getItems(), comparator);
+            return true;
+        });
+
+        // sorting a live view reorders the inventory itself, which the journal can't record
+        itemView.setOnSort(e -> {
+            if(!showingLiveView) return;
+            InventoryChanges.invalidated(inventory);
+        });
+
         // disable the edit button
         buttonsDisabled(true);
 
@@ -271,22 +333,121 @@ public class MainSceneController {
         });
     }
 
+    // Find the position of an item in the inventory, looking it up by serial number rather than checking every item
+    // Note: an imported file can repeat a serial number, so the item found is checked, and the inventory is asked for the
+    // item if it differs (a table keeps the positions of its rows, but a list of Items or an off-heap inventory checks
+    // every item, which is O(n))
+    private int positionOf(Item item) {
+        int index = getIndex(item);
+        if(index >= 0 && inventory.get(index).equals(item)) return index;
+        return inventory.indexOf(item);
+    }
+
+    // Compare items by the values a column shows for them, the way the table sorts a column by default
+    private static <T> Comparator<Item> byCellData(TableColumn<Item, T> column) {
+        return (a, b) -> column.getComparator().compare(column.getCellData(a), column.getCellData(b));
+    }
+
     // refresh the table view to update values
     private void refreshTable() {
         nameColumn.setVisible(false);
         nameColumn.setVisible(true);
     }
 
+    // Show the rows of a watched file that changed, without rebuilding the whole list
+    private void showRefresh(InventoryWatcher.Refresh refresh) {
+        // a live view already holds the changes, but the table has to be told about them
+        if(showingLiveView) {
+            resetListToInventory();
+            itemView.setItems(listOfItems);
+            return;
+        }
+
+        // remove the deleted rows
+        if(!refresh.deleted().isEmpty()) listOfItems.removeIf(item -> refresh.deleted().contains(item.getSerialNumber()));
+
+        // add the new rows (updated rows were changed in place)
+        listOfItems.addAll(refresh.inserted());
+
+        // refresh the table
+        refreshTable();
+    }
+
+    // Show an import filling the inventory, moving its parsed rows into the table once per frame
+    // Note: the inventory can't be changed until the import is over, since a .inv file's journal is applied to it by position
+    void showImport(ImportTask task) {
+        importTask = task;
+
+        // show the inventory through a live view, so each batch added to it shows up in the table
+        listOfItems = FXCollections.observableList(inventory);
+        showingLiveView = true;
+        itemView.setItems(listOfItems);
+
+        // show the progress, and lock the controls which change or search the inventory
+        importProgressBar.progressProperty().bind(task.progressProperty());
+        importProgressLabel.textProperty().bind(task.messageProperty());
+        importControls.setVisible(true);
+        textPane.setDisable(true);
+        bottomControls.setDisable(true);
+
+        // move the parsed batches into the table once per frame
+        importTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                task.drain(listOfItems, ImportTask.ITEMS_PER_PULSE);
+            }
+        };
+        importTimer.start();
+    }
+
+    // Stop showing an import, moving the rest of its rows into the table if it succeeded
+    void finishImport(ImportTask task) {
+        importTimer.stop();
+        if(task.getState() == Worker.State.SUCCEEDED) task.drain(listOfItems, Integer.MAX_VALUE);
+
+        // hide the progress and unlock the controls
+        importProgressBar.progressProperty().unbind();
+        importProgressLabel.textProperty().unbind();
+        importControls.setVisible(false);
+        textPane.setDisable(false);
+        bottomControls.setDisable(false);
+        importTask = null;
+    }
+
+    // Show the inventory again once an import is over, since a .inv file's journal can change rows already shown
+    void refreshImported() {
+        resetListToInventory();
+        itemView.setItems(listOfItems);
+        refreshTable();
+    }
+
+    // Cancel the import filling the inventory, going back to the inventory before it
+    @FXML
+    void cancelImport(ActionEvent event) {
+        // play click sound
+        buttonSoundPlayer.play();
+
+        // stop the parse (the import goes back to the old inventory once it has stopped)
+        if(importTask != null) importTask.cancel();
+    }
+
     // reset values in list to inventory
-    private void resetListToInventory() {
+    void resetListToInventory() {
         // null check
         if(inventory == null) {
             inventory = new ArrayList<>();
             return;
         }
 
+        // show a mapped inventory or a table through a live view, so the table view only reads the rows it displays
+        showingLiveView = inventory instanceof MappedInventory || inventory instanceof InventoryTable || inventory instanceof OffHeapInventory;
+        if(showingLiveView) {
+            listOfItems = FXCollections.observableList(inventory);
+            return;
+        }
+
         // clear current list
-        listOfItems.clear();
+        listOfItems = FXCollections.observableArrayList();
 
         // copy inventory to list
         listOfItems.addAll(inventory);
@@ -325,9 +486,19 @@ public class MainSceneController {
         // if item is null, leave
         if(selectedItem == null) return;
 
-        // remove it
-        inventory.remove(selectedItem);
-        listOfItems.remove(selectedItem);
+        // find it in the inventory
+        int index = positionOf(selectedItem);
+        if(index < 0) return;
+
+        // remove it (removing it from a live view removes it from the inventory as well)
+        // note: the item the inventory gives back is used for the index, since a row of a table reads nothing once removed
+        Item removed;
+        if(showingLiveView) removed = listOfItems.remove(index);
+        else {
+            listOfItems.remove(selectedItem);
+            removed = inventory.remove(index);
+        }
+        InventoryChanges.removed(inventory, index, removed);
 
         // refresh the table
         refreshTable();
@@ -350,14 +521,9 @@ public class MainSceneController {
     }
 
     // Search for the index of an item by serial number
-    private int getIndex(Item item) {
-        for(int i = 0; i < inventory.size(); i++) {
-            // compare serial numbers and break when unique duplicate is found
-            if(inventory.get(i).getSerialNumber().equals(item.getSerialNumber())) return i;
-        }
-
-        // search fails
-        return -1;
+    int getIndex(Item item) {
+        // look the serial number up in the inventory's index (-1 if it fails)
+        return SerialIndex.of(inventory).indexOf(item);
     }
 
     // Disable / enable the edit item button depending on if an item was selected
@@ -398,25 +564,65 @@ public class MainSceneController {
         // otherwise, search by serial #
         else searchForSerialNumber(textPane.getText());
 
+        // show the results
+        itemView.setItems(listOfItems);
+
         // refresh the table with updated listOfItems
         refreshTable();
     }
 
     // Search for a specific item name in the inventory
-    private void searchForName(String name) {
-        // empty listOfItems
-        listOfItems.clear();
+    void searchForName(String name) {
+        // empty listOfItems (never clearing a live view, which would clear the inventory)
+        listOfItems = FXCollections.observableArrayList();
+        showingLiveView = false;
+
+        // a search of three or more chars only checks the items whose names have all of its trigrams
+        // note: an off-heap inventory is left to search its own names, so it keeps nothing per item on the heap
+        if(!(inventory instanceof OffHeapInventory)) {
+            List<Item> found = NameIndex.of(inventory).search(name);
+            if(found != null) {
+                listOfItems.addAll(found);
+                return;
+            }
+        }
+
+        // a table checks each distinct name once
+        if(inventory instanceof InventoryTable table) {
+            listOfItems.addAll(table.findByName(name));
+            return;
+        }
+
+        // an off-heap inventory searches its names without making a String per row
+        if(inventory instanceof OffHeapInventory offHeap) {
+            listOfItems.addAll(offHeap.findByName(name));
+            return;
+        }
 
         // if the inventory string contains name, add the item to list
+        // note: each distinct shared name is checked once, then the items are matched by comparing name ids
+        IntPredicate matches = NameDictionary.getShared().matching(itemName -> itemName.contains(name));
         for(Item i: inventory) {
-            if(i.getName().contains(name)) listOfItems.add(i);
+            int id = i.getNameId();
+            if(id != NameDictionary.NONE ? matches.test(id) : i.getName().contains(name)) listOfItems.add(i);
         }
     }
 
     // Search for a specific item serial number in the inventory
-    private void searchForSerialNumber(String serialNumber) {
-        // empty listOfItems
-        listOfItems.clear();
+    void searchForSerialNumber(String serialNumber) {
+        // empty listOfItems (never clearing a live view, which would clear the inventory)
+        listOfItems = FXCollections.observableArrayList();
+        showingLiveView = false;
+
+        // the suffixes of the serial numbers starting with the search are found with a binary search
+        // note: an off-heap inventory is checked item by item, so it keeps nothing per item on the heap
+        if(!(inventory instanceof OffHeapInventory)) {
+            List<Item> found = SerialSuffixArray.of(inventory).search(serialNumber);
+            if(found != null) {
+                listOfItems.addAll(found);
+                return;
+            }
+        }
 
         // if the inventory string contains serialNumber, add the item to list
         for(Item i: inventory) {
@@ -0,0 +1,427 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to show a binary ".inv" file as an inventory list without loading it, by memory-mapping the file
+// and only decoding the rows that are actually looked at.
+
+package baseline;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public class MappedInventory extends AbstractList<Item> implements RandomAccess, Closeable {
+
+    // Declare the number of decoded rows kept when no size is given
+    static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    // Declare the largest region that is mapped at once (a single mapping cannot exceed 2GB)
+    static final long REGION_SIZE = 1L << 30;
+
+    // Declare the mapped regions of the file, and the region and file position of every INDEX_STRIDE-th row
+    private final ByteBuffer[] regions;
+    private final long[] regionStart;
+    private final int[] blockRegion;
+    private final long[] blockStart;
+
+    // Declare the number of rows in the file
+    private int baseCount;
+
+    // Declare the rows of the file that have been removed, in ascending order
+    private int[] removed = new int[16];
+    private int removedCount;
+
+    // Declare the rows of the file that were replaced or edited in place, which are kept until the list is dropped
+    private final Map<Integer, Item> pinned = new HashMap<>();
+
+    // Declare the items added after the rows of the file
+    private final List<Item> appended = new ArrayList<>();
+
+    // Declare the most recently viewed rows of the file, dropping the least recently viewed row once it is full
+    private final Map<Integer, Item> cache;
+
+    // Declare a serial number with its hyphens in place, which each packed serial number is copied into
+    private final byte[] serial = "A-XXX-XXX-XXX".getBytes(StandardCharsets.US_ASCII);
+
+    // Declare a reusable buffer for copying a string out of the mapped file
+    private byte[] scratch = new byte[256];
+
+    // Declare the position of the next byte decoded from the current region
+    private int cursor;
+
+    // Create a list over mapped regions of a file
+    private MappedInventory(ByteBuffer[] regions, long[] regionStart, int[] blockRegion, long[] blockStart, int baseCount, int cacheSize) {
+        this.regions = regions;
+        this.regionStart = regionStart;
+        this.blockRegion = blockRegion;
+        this.blockStart = blockStart;
+        this.baseCount = baseCount;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Item> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Map a .inv file, keeping the default number of decoded rows
+    public static MappedInventory open(File file) throws IOException {
+        return open(file, DEFAULT_CACHE_SIZE);
+    }
+
+    // Map a .inv file, keeping up to the given number of decoded rows
+    // Note: only the header, the row index, and the trailer are read here; the rows are decoded as they are viewed
+    public static MappedInventory open(File file, int cacheSize) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < INVWriter.HEADER_SIZE + INVWriter.TRAILER_SIZE) throw new IOException("Not an indexed inventory file");
+
+            // check the header
+            ByteBuffer header = read(channel, 0, INVWriter.HEADER_SIZE);
+            byte[] magic = new byte[INVWriter.MAGIC.length];
+            header.get(magic);
+            if(!Arrays.equals(magic, INVWriter.MAGIC)) throw new IOException("Not an inventory file");
+            int version = header.getInt();
+            if(version < 2 || version > INVWriter.VERSION) throw new IOException("Inventory file version " + version + " has no row index");
+            long count = header.getLong();
+
+            // read the trailer, then the index it points to
+            ByteBuffer trailer = read(channel, size - INVWriter.TRAILER_SIZE, INVWriter.TRAILER_SIZE);
+            int stride = trailer.getInt();
+            long indexStart = trailer.getLong();
+            long blocks = (count + INVWriter.INDEX_STRIDE - 1) / INVWriter.INDEX_STRIDE;
+            if(count < 0 || count > Integer.MAX_VALUE || stride != INVWriter.INDEX_STRIDE
+                    || indexStart < INVWriter.HEADER_SIZE || indexStart + blocks * Long.BYTES + INVWriter.TRAILER_SIZE != size) {
+                throw new IOException("The inventory file's row index is damaged");
+            }
+            long[] blockStart = new long[(int)blocks];
+            read(channel, indexStart, (int)(blocks * Long.BYTES)).asLongBuffer().get(blockStart);
+
+            // map the rows in regions which each start at a block, so no row is split between two regions
+            List<ByteBuffer> regions = new ArrayList<>();
+            List<Long> starts = new ArrayList<>();
+            int[] blockRegion = new int[blockStart.length];
+            for(int block = 0; block < blockStart.length; ) {
+                long start = blockStart[block];
+                int last = block;
+                while(last + 1 < blockStart.length && blockStart[last + 1] - start <= REGION_SIZE) last++;
+                long end = last + 1 < blockStart.length ? blockStart[last + 1] : indexStart;
+                if(start < INVWriter.HEADER_SIZE || end < start || end - start > Integer.MAX_VALUE) throw new IOException("The inventory file's row index is damaged");
+
+                for(int i = block; i <= last; i++) {
+                    blockRegion[i] = regions.size();
+                }
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                starts.add(start);
+                block = last + 1;
+            }
+
+            long[] regionStart = starts.stream().mapToLong(Long::longValue).toArray();
+            return new MappedInventory(regions.toArray(new ByteBuffer[0]), regionStart, blockRegion, blockStart, (int)count, cacheSize);
+        }
+    }
+
+    // Read a small part of the file into a buffer
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) throw new IOException("The inventory file is cut short");
+        }
+        return buffer.flip();
+    }
+
+    // Get the number of items
+    @Override
+    public int size() {
+        return baseCount - removedCount + appended.size();
+    }
+
+    // Get an item, decoding it from the file if it isn't cached
+    @Override
+    public Item get(int index) {
+        Objects.checkIndex(index, size());
+        int visible = baseCount - removedCount;
+        if(index >= visible) return appended.get(index - visible);
+
+        // look for a replaced or edited row, then a recently viewed row, before decoding it
+        int row = toRow(index);
+        Item item = pinned.get(row);
+        if(item != null) return item;
+        item = cache.get(row);
+        if(item == null) {
+            item = decode(row);
+            cache.put(row, item);
+        }
+        return item;
+    }
+
+    // Replace an item, keeping the replacement for as long as the list is kept
+    @Override
+    public Item set(int index, Item item) {
+        Item old = get(index);
+        int visible = baseCount - removedCount;
+        if(index >= visible) appended.set(index - visible, item);
+        else {
+            int row = toRow(index);
+            pinned.put(row, item);
+            cache.remove(row);
+        }
+        return old;
+    }
+
+    // Add an item after the rows of the file
+    @Override
+    public boolean add(Item item) {
+        modCount++;
+        return appended.add(item);
+    }
+
+    // Remove an item
+    @Override
+    public Item remove(int index) {
+        Item old = get(index);
+        modCount++;
+        int visible = baseCount - removedCount;
+        if(index >= visible) return appended.remove(index - visible);
+
+        // remember the row as removed, keeping the removed rows in order
+        int row = toRow(index);
+        int at = -(Arrays.binarySearch(removed, 0, removedCount, row) + 1);
+        if(removedCount == removed.length) removed = Arrays.copyOf(removed, removedCount * 2);
+        System.arraycopy(removed, at, removed, at + 1, removedCount - at);
+        removed[at] = row;
+        removedCount++;
+
+        pinned.remove(row);
+        cache.remove(row);
+        return old;
+    }
+
+    // Remove every item (the file stays mapped until the list is dropped, but none of its rows are shown)
+    @Override
+    public void clear() {
+        modCount++;
+        baseCount = 0;
+        removedCount = 0;
+        pinned.clear();
+        cache.clear();
+        appended.clear();
+    }
+
+    // Remove every item and unmap the file now, rather than when the list is garbage collected, so the file can be
+    // replaced (which Windows refuses while it is mapped)
+    // Note: a snapshot reads the same mapping, so this is only for a list no snapshot was taken of
+    @Override
+    public void close() {
+        clear();
+        for(int i = 0; i < regions.length; i++) {
+            unmap(regions[i]);
+            regions[i] = null;
+        }
+    }
+
+    // Unmap a mapped buffer through the JDK's cleaner, leaving it to the garbage collector if the cleaner can't be reached
+    private static void unmap(ByteBuffer buffer) {
+        try {
+            Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+            Field instance = unsafe.getDeclaredField("theUnsafe");
+            instance.setAccessible(true);
+            unsafe.getMethod("invokeCleaner", ByteBuffer.class).invoke(instance.get(null), buffer);
+        }
+        catch(ReflectiveOperationException | RuntimeException e) {
+            // the buffer stays mapped until it is garbage collected
+        }
+    }
+
+    // Find an item without decoding the rows of the file
+    // Note: the rows of the file and the items pinned over them are matched by identity, and added items by value
+    @Override
+    public int indexOf(Object o) {
+        // a decoded row knows where it came from
+        if(o instanceof MappedItem item && item.owner == this && item.row < baseCount && !isRemoved(item.row)) {
+            Item current = pinned.get(item.row);
+            if(current == null || current == item) return item.row - removedBefore(item.row);
+        }
+
+        // otherwise, the item was put in by set() or add()
+        for(Map.Entry<Integer, Item> entry : pinned.entrySet()) {
+            if(entry.getValue() == o && !isRemoved(entry.getKey())) return entry.getKey() - removedBefore(entry.getKey());
+        }
+        int index = appended.indexOf(o);
+        return index < 0 ? -1 : baseCount - removedCount + index;
+    }
+
+    // Determine if the list holds an item
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    // Remove an item if the list holds it
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if(index < 0) return false;
+        remove(index);
+        return true;
+    }
+
+    // Copy the list, sharing the mapped file but copying every replaced, edited, and added item
+    // Note: this is how ExportTask saves a mapped inventory without decoding every row up front
+    MappedInventory snapshot() {
+        MappedInventory copy = new MappedInventory(regions, regionStart, blockRegion, blockStart, baseCount, DEFAULT_CACHE_SIZE);
+        copy.removed = Arrays.copyOf(removed, removed.length);
+        copy.removedCount = removedCount;
+        for(Map.Entry<Integer, Item> entry : pinned.entrySet()) {
+            copy.pinned.put(entry.getKey(), new Item(entry.getValue()));
+        }
+        for(Item item : appended) {
+            copy.appended.add(new Item(item));
+        }
+        return copy;
+    }
+
+    // Get the number of decoded rows currently cached (for testing)
+    int getCachedCount() {
+        return cache.size();
+    }
+
+    // Keep a row that was edited in place, so the edit outlives the cache
+    private void pin(int row, MappedItem item) {
+        // a row which was replaced or removed since the item was decoded keeps its replacement
+        if(row >= baseCount || isRemoved(row)) return;
+        pinned.putIfAbsent(row, item);
+    }
+
+    // Convert a position in the list to a row of the file, skipping removed rows
+    private int toRow(int index) {
+        if(removedCount == 0) return index;
+
+        // the row is the index plus the number of removed rows at or before it
+        int row = index;
+        int skipped = 0;
+        while(true) {
+            int before = removedBefore(row + 1);
+            if(before == skipped) return row;
+            row = index + before;
+            skipped = before;
+        }
+    }
+
+    // Count the removed rows before a row
+    private int removedBefore(int row) {
+        int at = Arrays.binarySearch(removed, 0, removedCount, row);
+        return at >= 0 ? at : -(at + 1);
+    }
+
+    // Determine if a row has been removed
+    private boolean isRemoved(int row) {
+        return Arrays.binarySearch(removed, 0, removedCount, row) >= 0;
+    }
+
+    // Decode a row of the file, skipping from the closest indexed row before it
+    private Item decode(int row) {
+        int block = row / INVWriter.INDEX_STRIDE;
+        ByteBuffer region = regions[blockRegion[block]];
+        cursor = (int)(blockStart[block] - regionStart[blockRegion[block]]);
+
+        // skip the rows in front of it
+        for(int i = block * INVWriter.INDEX_STRIDE; i < row; i++) {
+            skipString(region);
+            boolean packed = region.get(cursor) != 0;
+            cursor += INVWriter.SERIAL_SIZE;
+            if(!packed) skipString(region);
+            readVarint(region);
+        }
+
+        // read the name
+        String name = readString(region);
+
+        // read the serial number from its fixed-width field, keeping letters and digits packed
+        region.get(cursor, scratch, 0, INVWriter.SERIAL_SIZE);
+        long serialKey = SerialKey.pack(scratch, 0);
+        String serialNumber = null;
+        if(serialKey != SerialKey.NONE) cursor += INVWriter.SERIAL_SIZE;
+        else if(region.get(cursor) != 0) {
+            // put the characters back around the hyphens
+            for(int i = 0, j = 0; i < serial.length; i++) {
+                if(i % 4 != 1) serial[i] = region.get(cursor + j++);
+            }
+            cursor += INVWriter.SERIAL_SIZE;
+            serialNumber = new String(serial, StandardCharsets.ISO_8859_1);
+        }
+        // an empty field means the serial number follows in full
+        else {
+            cursor += INVWriter.SERIAL_SIZE;
+            serialNumber = readString(region);
+        }
+
+        // read the cost in cents, undoing the zigzag encoding
+        long value = readVarint(region);
+        return new MappedItem(this, row, name, serialKey, serialNumber, (value >>> 1) ^ -(value & 1));
+    }
+
+    // Read a length-prefixed UTF-8 string at the cursor
+    private String readString(ByteBuffer region) {
+        int length = (int)readVarint(region);
+        if(length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        region.get(cursor, scratch, 0, length);
+        cursor += length;
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Move the cursor past a length-prefixed string
+    private void skipString(ByteBuffer region) {
+        int length = (int)readVarint(region);
+        cursor += length;
+    }
+
+    // Read a variable-length number at the cursor, moving the cursor past it
+    private long readVarint(ByteBuffer region) {
+        long value = 0;
+        for(int shift = 0; ; shift += 7) {
+            byte b = region.get(cursor++);
+            value |= (long)(b & 0x7F) << shift;
+            if(b >= 0) return value;
+        }
+    }
+
+    // Item decoded from a row of the file, which pins itself in its list when it is edited
+    private static class MappedItem extends Item {
+        private final MappedInventory owner;
+        private final int row;
+
+        // Create an item for a row of the file
+        MappedItem(MappedInventory owner, int row, String name, long serialKey, String serialNumber, long cents) {
+            super(name, serialKey, serialNumber, cents);
+            this.owner = owner;
+            this.row = row;
+        }
+
+        @Override
+        public void setName(String name) {
+            super.setName(name);
+            owner.pin(row, this);
+        }
+
+        @Override
+        public void setSerialNumber(String serialNumber) {
+            super.setSerialNumber(serialNumber);
+            owner.pin(row, this);
+        }
+
+        @Override
+        public void setCents(long cents) {
+            super.setCents(cents);
+            owner.pin(row, this);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to keep a single copy of every distinct item name, giving each one a small int id, so
+// items that share a name share its String and names can be compared as numbers.
+
+package baseline;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+public class NameDictionary {
+
+    // Declare the id of a missing (null) name
+    public static final int NONE = -1;
+
+    // Declare the number of names a new dictionary has room for
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Declare the dictionary every item's name is kept in
+    private static final NameDictionary SHARED = new NameDictionary();
+
+    // Declare the names by id, and a hash table of ids (NONE in empty entries) for finding the id of a name
+    // Note: the arrays are replaced together when they grow, so a lookup that doesn't take the lock always sees a
+    // matching pair; entries are only ever added, and a lookup which misses one being added takes the lock and looks again
+    private record State(String[] names, int[] table) {
+    }
+    private volatile State state;
+
+    // Declare the number of names, which is guarded by the dictionary's lock
+    private int size;
+
+    // Create an empty dictionary
+    public NameDictionary() {
+        int[] table = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(table, NONE);
+        state = new State(new String[INITIAL_CAPACITY], table);
+    }
+
+    // Get the dictionary every item's name is kept in
+    public static NameDictionary getShared() {
+        return SHARED;
+    }
+
+    // Get the id of a name, adding it to the dictionary if it is new
+    // Note: this is safe to call from several threads at once; a name already in the dictionary is found without locking
+    public int intern(String name) {
+        if(name == null) return NONE;
+        int id = find(state, name);
+        return id != NONE ? id : add(name);
+    }
+
+    // Get the name with an id (null for NONE)
+    public String get(int id) {
+        return id == NONE ? null : state.names[id];
+    }
+
+    // Get the number of distinct names in the dictionary
+    public synchronized int size() {
+        return size;
+    }
+
+    // Make a test of name ids which tests each distinct name at most once, remembering the answer
+    // Note: the test is meant for a single search on a single thread, such as checking every item of an inventory
+    public IntPredicate matching(Predicate<String> test) {
+        return new IntPredicate() {
+            // Declare the answer for each id tested so far (0 untested, 1 matches, 2 doesn't match)
+            private byte[] answers = new byte[Math.max(size(), 16)];
+
+            @Override
+            public boolean test(int id) {
+                if(id == NONE) return false;
+                if(id >= answers.length) answers = Arrays.copyOf(answers, Math.max(id + 1, answers.length * 2));
+                if(answers[id] == 0) answers[id] = test.test(get(id)) ? (byte)1 : 2;
+                return answers[id] == 1;
+            }
+        };
+    }
+
+    // Find the id of a name in the hash table of a state, or NONE if it isn't there
+    private static int find(State state, String name) {
+        int[] table = state.table;
+        int mask = table.length - 1;
+        for(int entry = name.hashCode() & mask; ; entry = (entry + 1) & mask) {
+            int id = table[entry];
+            if(id == NONE) return NONE;
+
+            // a name still being added reads as null, which is a miss
+            String candidate = state.names[id];
+            if(candidate == null) return NONE;
+            if(candidate.equals(name)) return id;
+        }
+    }
+
+    // Add a name under the lock, unless another thread added it first
+    private synchronized int add(String name) {
+        State current = state;
+        int id = find(current, name);
+        if(id != NONE) return id;
+
+        // keep the hash table at most half full, so probes stay short
+        if(size == current.names.length || (size + 1) * 2 > current.table.length) current = grow(current);
+
+        // the name goes in before its id, so a lookup which finds the id always finds the name
+        id = size++;
+        current.names[id] = name;
+        int mask = current.table.length - 1;
+        int entry = name.hashCode() & mask;
+        while(current.table[entry] != NONE) entry = (entry + 1) & mask;
+        current.table[entry] = id;
+        return id;
+    }
+
+    // Double the names and the hash table, putting every id back in its new home entry
+    private State grow(State current) {
+        String[] names = Arrays.copyOf(current.names, current.names.length * 2);
+        int[] table = new int[current.table.length * 2];
+        Arrays.fill(table, NONE);
+        int mask = table.length - 1;
+        for(int id = 0; id < size; id++) {
+            int entry = names[id].hashCode() & mask;
+            while(table[entry] != NONE) entry = (entry + 1) & mask;
+            table[entry] = id;
+        }
+
+        State grown = new State(names, table);
+        state = grown;
+        return grown;
+    }
+}
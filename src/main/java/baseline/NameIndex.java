@@ -0,0 +1,336 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to index every three-character piece (trigram) of the item names in the inventory on
+// screen, so a name search only has to check the items whose names contain every trigram of what was searched for.
+
+package baseline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class NameIndex {
+
+    // Declare the shortest search the trigrams can answer (shorter searches check every item)
+    public static final int TRIGRAM = 3;
+
+    // Declare the value of an empty entry of the hash table (packed trigrams only use the low 48 bits)
+    private static final long EMPTY = -1;
+
+    // Declare the number of trigrams a new hash table has room for
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Declare the index of the inventory on screen (if one has been asked for)
+    private static NameIndex current;
+
+    // Declare the listener which keeps the index up to date with every change reported to InventoryChanges
+    static final InventoryChanges.Listener LISTENER = new InventoryChanges.Listener() {
+        @Override
+        public void added(List<Item> inventory, Item item) {
+            recordAdd(inventory, item);
+        }
+
+        @Override
+        public void set(List<Item> inventory, int index, Item previous, Item item) {
+            recordSet(inventory, index, previous, item);
+        }
+
+        @Override
+        public void removed(List<Item> inventory, int index, Item item) {
+            recordRemove(inventory, index, item);
+        }
+
+        @Override
+        public void cleared(List<Item> inventory) {
+            recordClear(inventory);
+        }
+
+        @Override
+        public void invalidated(List<Item> inventory) {
+            invalidate(inventory);
+        }
+    };
+
+    // Declare the inventory being indexed
+    private final List<Item> inventory;
+
+    // Declare a hash table of trigrams (three chars packed into a long, EMPTY in empty entries), and for each trigram
+    // the sorted rows of the items whose names contain it
+    // Note: the rows of a trigram are kept in their own array, with room to grow at the end
+    private long[] trigrams = new long[0];
+    private int[][] postings = new int[0][];
+    private int[] lengths = new int[0];
+    private int size;
+
+    // Declare the number of items the trigrams cover, or -1 if they have to be rebuilt before the next search
+    // Note: an inventory whose size no longer matches was changed without being recorded, so it is rebuilt as well
+    private int indexed = -1;
+
+    // Declare the rows handed out to the items, which stay the same while items in front of them are removed
+    private final IndexRows rows = new IndexRows();
+
+    // Create an index of an inventory, which is built when it is first searched
+    private NameIndex(List<Item> inventory) {
+        this.inventory = inventory;
+    }
+
+    // Get the index of an inventory, replacing the index of any other inventory
+    public static NameIndex of(List<Item> inventory) {
+        if(current == null || current.inventory != inventory) current = new NameIndex(inventory);
+        return current;
+    }
+
+    // Get the index of an inventory if it is the one being indexed, otherwise null
+    private static NameIndex find(List<Item> inventory) {
+        return current != null && current.inventory == inventory ? current : null;
+    }
+
+    // Record an item added to the end of the inventory
+    public static void recordAdd(List<Item> inventory, Item item) {
+        NameIndex index = find(inventory);
+        if(index == null || index.indexed < 0) return;
+        index.add(item.getName(), index.rows.add());
+        index.indexed++;
+    }
+
+    // Record the item at a position being replaced (or edited in place), given the item as it was before
+    public static void recordSet(List<Item> inventory, int position, Item previous, Item item) {
+        NameIndex index = find(inventory);
+        if(index == null || index.indexed < 0) return;
+        if(position < 0) {
+            index.indexed = -1;
+            return;
+        }
+
+        if(item.hasSameName(previous)) return;
+        int row = index.rows.rowAt(position);
+        index.remove(previous.getName(), row);
+        index.add(item.getName(), row);
+    }
+
+    // Record the item at a position being removed
+    // Note: the items after it move up one place by counting its row as removed, rather than rewriting their rows
+    public static void recordRemove(List<Item> inventory, int position, Item item) {
+        NameIndex index = find(inventory);
+        if(index == null || index.indexed < 0) return;
+        if(position < 0) {
+            index.indexed = -1;
+            return;
+        }
+
+        int row = index.rows.rowAt(position);
+        index.remove(item.getName(), row);
+        index.rows.remove(row);
+        index.indexed--;
+    }
+
+    // Record every item being removed
+    public static void recordClear(List<Item> inventory) {
+        NameIndex index = find(inventory);
+        if(index == null) return;
+        index.reset();
+        index.rows.reset(0);
+        index.indexed = 0;
+    }
+
+    // Record the inventory being changed in a way that wasn't recorded item by item (such as a merge or a sort)
+    public static void invalidate(List<Item> inventory) {
+        NameIndex index = find(inventory);
+        if(index != null) index.indexed = -1;
+    }
+
+    // Get the items whose names contain a search, in inventory order, or null if the search is too short to look up
+    public List<Item> search(String name) {
+        if(name.length() < TRIGRAM) return null;
+        if(indexed != inventory.size() || rows.isWorthRebuilding()) rebuild();
+
+        // find each distinct trigram of the search, any of which missing means nothing matches
+        long[] searched = trigramsOf(name);
+        int[] slots = new int[searched.length];
+        for(int i = 0; i < searched.length; i++) {
+            int slot = slotOf(searched[i]);
+            if(trigrams[slot] != searched[i] || lengths[slot] == 0) return new ArrayList<>();
+
+            // keep them ordered from the rarest trigram up
+            int at = i;
+            while(at > 0 && lengths[slots[at - 1]] > lengths[slot]) {
+                slots[at] = slots[at - 1];
+                at--;
+            }
+            slots[at] = slot;
+        }
+
+        // start from the rarest trigram, and keep the rows every other trigram has as well
+        int[] candidates = Arrays.copyOf(postings[slots[0]], lengths[slots[0]]);
+        int found = candidates.length;
+        for(int i = 1; i < slots.length && found > 0; i++) {
+            found = intersect(candidates, found, postings[slots[i]], lengths[slots[i]]);
+        }
+
+        // the trigrams can be in other places or orders, so check each candidate's name
+        // note: the rows are in inventory order, so their positions are as well
+        List<Item> items = new ArrayList<>();
+        for(int i = 0; i < found; i++) {
+            Item item = inventory.get(rows.positionOf(candidates[i]));
+            if(item.getName() != null && item.getName().contains(name)) items.add(item);
+        }
+        return items;
+    }
+
+    // Get the number of bytes the index takes, counting the array headers
+    public long getMemoryBytes() {
+        long bytes = 16L + trigrams.length * 8L + 16L + postings.length * 4L + 16L + lengths.length * 4L + rows.getMemoryBytes();
+        for(int[] posting : postings) {
+            if(posting != null) bytes += 16L + posting.length * 4L;
+        }
+        return bytes;
+    }
+
+    // Index every item of the inventory, giving each one the row of its position
+    // Note: the rows of each trigram are counted first, so every array is made the size it needs to be
+    private void rebuild() {
+        int items = inventory.size();
+        reset();
+        rows.reset(items);
+        for(int i = 0; i < items; i++) {
+            for(long trigram : trigramsOf(inventory.get(i).getName())) {
+                int slot = insertSlot(trigram);
+                lengths[slot]++;
+            }
+        }
+        for(int slot = 0; slot < trigrams.length; slot++) {
+            if(trigrams[slot] != EMPTY) {
+                postings[slot] = new int[lengths[slot]];
+                lengths[slot] = 0;
+            }
+        }
+
+        // the items go in order, so each row goes on the end
+        for(int i = 0; i < items; i++) {
+            for(long trigram : trigramsOf(inventory.get(i).getName())) {
+                int slot = slotOf(trigram);
+                postings[slot][lengths[slot]++] = i;
+            }
+        }
+        indexed = items;
+    }
+
+    // Empty the index
+    // Note: names share most of their trigrams, so the hash table starts small whatever the size of the inventory
+    private void reset() {
+        trigrams = new long[INITIAL_CAPACITY];
+        Arrays.fill(trigrams, EMPTY);
+        postings = new int[INITIAL_CAPACITY][];
+        lengths = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    // Store the row of an item under each trigram of its name
+    private void add(String name, int row) {
+        for(long trigram : trigramsOf(name)) {
+            int slot = insertSlot(trigram);
+            int[] posting = postings[slot];
+            int length = lengths[slot];
+            if(posting == null) posting = postings[slot] = new int[2];
+            int at = Arrays.binarySearch(posting, 0, length, row);
+            if(at >= 0) continue;
+
+            // make room, then move the rows after it back one place
+            at = -at - 1;
+            if(length == posting.length) posting = postings[slot] = Arrays.copyOf(posting, length + (length >> 1) + 1);
+            System.arraycopy(posting, at, posting, at + 1, length - at);
+            posting[at] = row;
+            lengths[slot] = length + 1;
+        }
+    }
+
+    // Take the row of an item out from under each trigram of its name
+    private void remove(String name, int row) {
+        for(long trigram : trigramsOf(name)) {
+            int slot = slotOf(trigram);
+            if(trigrams[slot] != trigram) continue;
+            int[] posting = postings[slot];
+            int length = lengths[slot];
+            int at = Arrays.binarySearch(posting, 0, length, row);
+            if(at < 0) continue;
+            System.arraycopy(posting, at + 1, posting, at, length - at - 1);
+            lengths[slot] = length - 1;
+        }
+    }
+
+    // Keep the candidates which are also in a sorted list of rows, returning how many are left
+    private static int intersect(int[] candidates, int found, int[] posting, int length) {
+        int kept = 0;
+        int from = 0;
+        for(int i = 0; i < found && from < length; i++) {
+            int at = Arrays.binarySearch(posting, from, length, candidates[i]);
+            if(at >= 0) {
+                candidates[kept++] = candidates[i];
+                from = at + 1;
+            }
+            else from = -at - 1;
+        }
+        return kept;
+    }
+
+    // Get the distinct trigrams of a name, packing each one's three chars into a long
+    static long[] trigramsOf(String name) {
+        if(name == null || name.length() < TRIGRAM) return new long[0];
+        long[] found = new long[name.length() - TRIGRAM + 1];
+        for(int i = 0; i < found.length; i++) {
+            found[i] = (long)name.charAt(i) << 32 | (long)name.charAt(i + 1) << 16 | name.charAt(i + 2);
+        }
+
+        // a name which repeats a trigram is only stored once under it
+        Arrays.sort(found);
+        int distinct = 0;
+        for(int i = 0; i < found.length; i++) {
+            if(i == 0 || found[i] != found[i - 1]) found[distinct++] = found[i];
+        }
+        return distinct == found.length ? found : Arrays.copyOf(found, distinct);
+    }
+
+    // Find the entry of a trigram in the hash table, or the empty entry where it would go
+    private int slotOf(long trigram) {
+        int mask = trigrams.length - 1;
+        int slot = (int)((trigram * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while(trigrams[slot] != trigram && trigrams[slot] != EMPTY) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    // Find the entry of a trigram in the hash table, adding it if it is new
+    private int insertSlot(long trigram) {
+        int slot = slotOf(trigram);
+        if(trigrams[slot] == trigram) return slot;
+
+        // keep the hash table at most half full, so probes stay short
+        if((size + 1) * 2 > trigrams.length) {
+            grow();
+            slot = slotOf(trigram);
+        }
+        trigrams[slot] = trigram;
+        size++;
+        return slot;
+    }
+
+    // Double the hash table, putting every trigram back in its new home entry
+    private void grow() {
+        long[] oldTrigrams = trigrams;
+        int[][] oldPostings = postings;
+        int[] oldLengths = lengths;
+        trigrams = new long[oldTrigrams.length * 2];
+        Arrays.fill(trigrams, EMPTY);
+        postings = new int[trigrams.length][];
+        lengths = new int[trigrams.length];
+        for(int i = 0; i < oldTrigrams.length; i++) {
+            if(oldTrigrams[i] == EMPTY) continue;
+            int slot = slotOf(oldTrigrams[i]);
+            trigrams[slot] = oldTrigrams[i];
+            postings[slot] = oldPostings[i];
+            lengths[slot] = oldLengths[i];
+        }
+    }
+}
@@ -0,0 +1,576 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to hold a very large inventory outside the Java heap, in direct buffers of fixed-width
+// records and packed names, so the garbage collector never has to look at the rows while it still acts as the List<Item>
+// the scenes share.
+
+package baseline;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+public class OffHeapInventory extends AbstractList<Item> implements RandomAccess {
+
+    // Declare the layout of a record: the packed serial number, the cost in cents, the address of the name, its length
+    // in characters, and its flags
+    static final int RECORD_SIZE = 32;
+    private static final int SERIAL_KEY = 0;
+    private static final int CENTS = 8;
+    private static final int NAME_ADDRESS = 16;
+    private static final int NAME_LENGTH = 24;
+    private static final int FLAGS = 28;
+
+    // Declare the flag of a name stored with two bytes per character, and the step of the slot's generation, which takes
+    // the rest of the flags and goes up each time the slot is freed
+    private static final int WIDE = 1;
+    private static final int GENERATION_STEP = 2;
+
+    // Declare the number of records in each buffer of records, and the size of each buffer of names
+    // Note: the buffers are allocated as the inventory grows and are never copied, so adding a row never moves the others
+    private static final int RECORDS_PER_CHUNK = 1 << 15;
+    private static final int NAME_CHUNK_SIZE = 1 << 20;
+
+    // Declare the number of positions the order buffer has room for at first
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Declare the name length of a record that isn't in use, whose cents hold the next free record instead
+    private static final int FREE = -1;
+
+    // Declare which storage the app keeps a loaded inventory in
+    public enum Storage {
+        // columns of primitive arrays on the heap (an InventoryTable)
+        HEAP,
+
+        // records in direct buffers outside the heap (an OffHeapInventory)
+        OFF_HEAP;
+
+        // Get the storage named by the "inventory.storage" system property (heap or off-heap), defaulting to the heap
+        public static Storage getDefault() {
+            try {
+                return valueOf(System.getProperty("inventory.storage", "heap").trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            }
+            catch(IllegalArgumentException e) {
+                return HEAP;
+            }
+        }
+
+        // Create an empty inventory kept in this storage
+        public List<Item> create() {
+            return this == OFF_HEAP ? new OffHeapInventory() : new InventoryTable();
+        }
+    }
+
+    // Declare the buffers of records, indexed by slot, and the number of slots handed out so far
+    // Note: a row keeps its slot while rows around it are added and removed, so the Items handed out stay attached to it
+    private final List<ByteBuffer> records = new ArrayList<>();
+    private int slotCount;
+
+    // Declare the first record on the free list, which runs through the cents of the free records
+    private int freeSlot = FREE;
+
+    // Declare the number of times the inventory has been cleared
+    // Note: an Item handed out remembers this and the generation of its slot, so once its row is removed it reads as
+    // removed (and ignores changes) even after the slot is given to another row
+    private int clears;
+
+    // Declare the serial numbers which can't be packed, by slot (rare, so they aren't given room in the records)
+    private final Map<Integer, String> serialNumbers = new HashMap<>();
+
+    // Declare the slot of each row in list order, and the number of rows
+    private ByteBuffer order;
+    private int size;
+
+    // Declare the buffers of names, and the position of the next name in the last of them
+    private final List<ByteBuffer> names = new ArrayList<>();
+    private int namePosition;
+
+    // Declare the bytes of all the buffers of names, and how many of them no row's name uses any more
+    // Note: once more than half the bytes (and more than a buffer's worth) are unused, the names are packed into new buffers
+    private long nameCapacity;
+    private long unusedNameBytes;
+
+    // Create an empty inventory
+    public OffHeapInventory() {
+        order = allocate((long)INITIAL_CAPACITY * Integer.BYTES);
+    }
+
+    // Create an inventory holding a copy of every item of a list
+    public OffHeapInventory(List<Item> items) {
+        this();
+        addAll(items);
+    }
+
+    // Allocate a direct buffer in the order the processor reads fastest
+    private static ByteBuffer allocate(long capacity) {
+        if(capacity > Integer.MAX_VALUE) throw new OutOfMemoryError("Inventory buffer too large: " + capacity + " bytes");
+        return ByteBuffer.allocateDirect((int)capacity).order(ByteOrder.nativeOrder());
+    }
+
+    // Get the number of rows
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Get the row at a position, as an Item which reads and writes its record
+    @Override
+    public Item get(int index) {
+        return new Row(this, slotAt(checkIndex(index, size)));
+    }
+
+    // Replace the row at a position with a copy of an item
+    // Note: a row of this inventory (such as one being moved by a sort) is moved to the position instead of copied
+    @Override
+    public Item set(int index, Item item) {
+        int previous = slotAt(checkIndex(index, size));
+        if(item instanceof Row row && row.inventory == this && row.isCurrent()) {
+            setSlotAt(index, row.slot);
+            return new Row(this, previous);
+        }
+
+        setSlotAt(index, newSlot(item));
+        return release(previous);
+    }
+
+    // Insert a copy of an item at a position
+    @Override
+    public void add(int index, Item item) {
+        if(index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if((size + 1L) * Integer.BYTES > order.capacity()) {
+            ByteBuffer grown = allocate(order.capacity() * 2L);
+            grown.put(0, order, 0, size * Integer.BYTES);
+            order = grown;
+        }
+        int slot = newSlot(item);
+        order.put((index + 1) * Integer.BYTES, order, index * Integer.BYTES, (size - index) * Integer.BYTES);
+        setSlotAt(index, slot);
+        size++;
+        modCount++;
+    }
+
+    // Remove the row at a position, returning a copy of it
+    @Override
+    public Item remove(int index) {
+        int slot = slotAt(checkIndex(index, size));
+        order.put(index * Integer.BYTES, order, (index + 1) * Integer.BYTES, (size - index - 1) * Integer.BYTES);
+        size--;
+        modCount++;
+        return release(slot);
+    }
+
+    // Remove every row which matches a filter, in a single pass
+    @Override
+    public boolean removeIf(Predicate<? super Item> filter) {
+        int kept = 0;
+        for(int i = 0; i < size; i++) {
+            int slot = slotAt(i);
+            if(filter.test(new Row(this, slot))) free(slot);
+            else setSlotAt(kept++, slot);
+        }
+        if(kept == size) return false;
+        size = kept;
+        modCount++;
+        return true;
+    }
+
+    // Remove every row, giving back all but the first buffer of records and of names
+    @Override
+    public void clear() {
+        clears++;
+        size = 0;
+        slotCount = 0;
+        freeSlot = FREE;
+        serialNumbers.clear();
+        if(records.size() > 1) records.subList(1, records.size()).clear();
+        if(names.size() > 1) names.subList(1, names.size()).clear();
+        namePosition = 0;
+        nameCapacity = names.isEmpty() ? 0 : names.get(0).capacity();
+        unusedNameBytes = 0;
+        if(order.capacity() > INITIAL_CAPACITY * Integer.BYTES) order = allocate((long)INITIAL_CAPACITY * Integer.BYTES);
+        modCount++;
+    }
+
+    // Sort the rows by moving their slots, leaving the records where they are
+    @Override
+    public void sort(Comparator<? super Item> comparator) {
+        Row[] rows = new Row[size];
+        for(int i = 0; i < size; i++) {
+            rows[i] = new Row(this, slotAt(i));
+        }
+        Arrays.sort(rows, comparator);
+        for(int i = 0; i < size; i++) {
+            setSlotAt(i, rows[i].slot);
+        }
+        modCount++;
+    }
+
+    // Find the position of a row of this inventory (any other item is never in it, as in a list of Items)
+    @Override
+    public int indexOf(Object o) {
+        if(!(o instanceof Row row) || row.inventory != this || !row.isCurrent()) return -1;
+        for(int i = 0; i < size; i++) {
+            if(slotAt(i) == row.slot) return i;
+        }
+        return -1;
+    }
+
+    // Find the last position of a row of this inventory
+    @Override
+    public int lastIndexOf(Object o) {
+        if(!(o instanceof Row row) || row.inventory != this || !row.isCurrent()) return -1;
+        for(int i = size - 1; i >= 0; i--) {
+            if(slotAt(i) == row.slot) return i;
+        }
+        return -1;
+    }
+
+    // Find every row whose name contains the text, in list order
+    // Note: one-byte names are searched where they lie, so only the rows that match are made into Items
+    public List<Item> findByName(String text) {
+        // the text as one byte per character, or null if it has a character no one-byte name can hold
+        byte[] narrow = new byte[text.length()];
+        for(int i = 0; i < text.length() && narrow != null; i++) {
+            if(text.charAt(i) > 0xFF) narrow = null;
+            else narrow[i] = (byte)text.charAt(i);
+        }
+
+        List<Item> found = new ArrayList<>();
+        for(int i = 0; i < size; i++) {
+            int slot = slotAt(i);
+            ByteBuffer record = record(slot);
+            int offset = offset(slot);
+            boolean match;
+            if((record.getInt(offset + FLAGS) & WIDE) != 0) match = getName(slot).contains(text);
+            else match = narrow != null && contains(record.getLong(offset + NAME_ADDRESS), record.getInt(offset + NAME_LENGTH), narrow);
+            if(match) found.add(new Row(this, slot));
+        }
+        return found;
+    }
+
+    // Get the number of bytes held outside the heap
+    public long getOffHeapBytes() {
+        long bytes = order.capacity();
+        for(ByteBuffer chunk : records) bytes += chunk.capacity();
+        return bytes + nameCapacity;
+    }
+
+    // Copy the inventory, so edits made to it afterwards don't change the copy
+    // Note: the buffers are copied outside the heap, so this is much cheaper than copying an Item per row
+    public OffHeapInventory snapshot() {
+        OffHeapInventory copy = new OffHeapInventory();
+        copy.order = copyOf(order, Math.max(size * Integer.BYTES, INITIAL_CAPACITY * Integer.BYTES));
+        copy.size = size;
+        for(int i = 0; i < records.size(); i++) {
+            copy.records.add(copyOf(records.get(i), records.get(i).capacity()));
+        }
+        copy.slotCount = slotCount;
+        copy.freeSlot = freeSlot;
+        copy.serialNumbers.putAll(serialNumbers);
+        for(int i = 0; i < names.size(); i++) {
+            // the last buffer of names is only copied as far as it is filled, and new names go in a buffer of their own
+            ByteBuffer chunk = names.get(i);
+            copy.names.add(copyOf(chunk, i < names.size() - 1 ? chunk.capacity() : namePosition));
+            copy.nameCapacity += copy.names.get(i).capacity();
+        }
+        copy.namePosition = names.isEmpty() ? 0 : namePosition;
+        copy.unusedNameBytes = unusedNameBytes;
+        return copy;
+    }
+
+    // Copy the start of a buffer into a new direct buffer
+    private static ByteBuffer copyOf(ByteBuffer buffer, int length) {
+        ByteBuffer copy = allocate(length);
+        copy.put(0, buffer, 0, Math.min(length, buffer.capacity()));
+        return copy;
+    }
+
+    // Get the slot of the row at a position
+    private int slotAt(int index) {
+        return order.getInt(index * Integer.BYTES);
+    }
+
+    // Put a slot at a position
+    private void setSlotAt(int index, int slot) {
+        order.putInt(index * Integer.BYTES, slot);
+    }
+
+    // Get the buffer holding a slot's record
+    private ByteBuffer record(int slot) {
+        return records.get(slot / RECORDS_PER_CHUNK);
+    }
+
+    // Get the position of a slot's record in its buffer
+    private static int offset(int slot) {
+        return slot % RECORDS_PER_CHUNK * RECORD_SIZE;
+    }
+
+    // Get the generation of a slot
+    private int generation(int slot) {
+        return record(slot).getInt(offset(slot) + FLAGS) / GENERATION_STEP;
+    }
+
+    // Store a copy of an item in a free slot, returning the slot
+    private int newSlot(Item item) {
+        int slot;
+        if(freeSlot != FREE) {
+            slot = freeSlot;
+            freeSlot = (int)record(slot).getLong(offset(slot) + CENTS);
+        }
+        else {
+            if(slotCount == records.size() * RECORDS_PER_CHUNK) records.add(allocate((long)RECORDS_PER_CHUNK * RECORD_SIZE));
+            slot = slotCount++;
+        }
+
+        ByteBuffer record = record(slot);
+        int offset = offset(slot);
+        record.putInt(offset + NAME_LENGTH, 0);
+        setName(slot, item.getName());
+        setSerialNumber(slot, item.getSerialKey(), item.getSerialNumber());
+        record.putLong(offset + CENTS, item.getCents());
+        return slot;
+    }
+
+    // Free a slot, returning a copy of the row it held
+    private Item release(int slot) {
+        Item copy = new Item(new Row(this, slot));
+        free(slot);
+        return copy;
+    }
+
+    // Put a slot on the free list
+    private void free(int slot) {
+        ByteBuffer record = record(slot);
+        int offset = offset(slot);
+        unusedNameBytes += nameBytes(record, offset);
+        record.putInt(offset + NAME_LENGTH, FREE);
+        record.putInt(offset + FLAGS, (record.getInt(offset + FLAGS) & ~WIDE) + GENERATION_STEP);
+        record.putLong(offset + CENTS, freeSlot);
+        serialNumbers.remove(slot);
+        freeSlot = slot;
+        packNamesIfUnused();
+    }
+
+    // Set the serial number of a slot, keeping the text only if it can't be packed
+    private void setSerialNumber(int slot, long serialKey, String serialNumber) {
+        record(slot).putLong(offset(slot) + SERIAL_KEY, serialKey);
+        if(serialKey == SerialKey.NONE) serialNumbers.put(slot, serialNumber);
+        else serialNumbers.remove(slot);
+    }
+
+    // Get the serial number of a slot
+    private String getSerialNumber(int slot) {
+        long serialKey = record(slot).getLong(offset(slot) + SERIAL_KEY);
+        return serialKey != SerialKey.NONE ? SerialKey.toString(serialKey) : serialNumbers.get(slot);
+    }
+
+    // Set the name of a slot, writing over its old name if the new one fits in the same space
+    private void setName(int slot, String name) {
+        ByteBuffer record = record(slot);
+        int offset = offset(slot);
+        int length = name.length();
+        boolean wide = false;
+        for(int i = 0; i < length && !wide; i++) {
+            wide = name.charAt(i) > 0xFF;
+        }
+        int bytes = wide ? length * 2 : length;
+
+        // find room for the name: its old space, or the end of the names, leaving what it doesn't use of its old space unused
+        int flags = record.getInt(offset + FLAGS);
+        int oldBytes = nameBytes(record, offset);
+        long address = bytes > 0 && bytes <= oldBytes ? record.getLong(offset + NAME_ADDRESS) : allocateName(bytes);
+        unusedNameBytes += bytes > 0 && bytes <= oldBytes ? oldBytes - bytes : oldBytes;
+
+        // copy the characters
+        ByteBuffer chunk = names.get((int)(address >>> 32));
+        int position = (int)address;
+        for(int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if(wide) {
+                chunk.putChar(position, c);
+                position += 2;
+            }
+            else chunk.put(position++, (byte)c);
+        }
+
+        record.putLong(offset + NAME_ADDRESS, address);
+        record.putInt(offset + NAME_LENGTH, length);
+        record.putInt(offset + FLAGS, flags & ~WIDE | (wide ? WIDE : 0));
+        packNamesIfUnused();
+    }
+
+    // Get the number of bytes the name of a record takes (none for a record that isn't in use)
+    private static int nameBytes(ByteBuffer record, int offset) {
+        int length = record.getInt(offset + NAME_LENGTH);
+        if(length == FREE) return 0;
+        return (record.getInt(offset + FLAGS) & WIDE) != 0 ? length * 2 : length;
+    }
+
+    // Find room for a name at the end of the last buffer of names, or in a new buffer, returning its address
+    // Note: whatever is left at the end of a buffer too short for the name is counted as unused
+    private long allocateName(int bytes) {
+        if(names.isEmpty() || namePosition + bytes > names.get(names.size() - 1).capacity()) {
+            if(!names.isEmpty()) unusedNameBytes += names.get(names.size() - 1).capacity() - namePosition;
+            names.add(allocate(Math.max(NAME_CHUNK_SIZE, bytes)));
+            nameCapacity += names.get(names.size() - 1).capacity();
+            namePosition = 0;
+        }
+        long address = (long)(names.size() - 1) << 32 | namePosition;
+        namePosition += bytes;
+        return address;
+    }
+
+    // Pack the names of the slots in use into new buffers, once most of the bytes of the old ones are unused
+    // Note: this goes by slot rather than list order, so it is safe in the middle of a removeIf moving the order around
+    private void packNamesIfUnused() {
+        if(unusedNameBytes <= NAME_CHUNK_SIZE || unusedNameBytes * 2 <= nameCapacity) return;
+
+        List<ByteBuffer> old = new ArrayList<>(names);
+        names.clear();
+        namePosition = 0;
+        nameCapacity = 0;
+        unusedNameBytes = 0;
+        for(int slot = 0; slot < slotCount; slot++) {
+            ByteBuffer record = record(slot);
+            int offset = offset(slot);
+            if(record.getInt(offset + NAME_LENGTH) == FREE) continue;
+            int bytes = nameBytes(record, offset);
+            long from = record.getLong(offset + NAME_ADDRESS);
+            long to = allocateName(bytes);
+            names.get((int)(to >>> 32)).put((int)to, old.get((int)(from >>> 32)), (int)from, bytes);
+            record.putLong(offset + NAME_ADDRESS, to);
+        }
+    }
+
+    // Get the name of a slot, or null if the slot isn't in use
+    private String getName(int slot) {
+        ByteBuffer record = record(slot);
+        int offset = offset(slot);
+        int length = record.getInt(offset + NAME_LENGTH);
+        if(length == FREE) return null;
+        long address = record.getLong(offset + NAME_ADDRESS);
+        ByteBuffer chunk = names.get((int)(address >>> 32));
+        int position = (int)address;
+
+        if((record.getInt(offset + FLAGS) & WIDE) == 0) {
+            byte[] bytes = new byte[length];
+            chunk.get(position, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+
+        char[] chars = new char[length];
+        for(int i = 0; i < length; i++) {
+            chars[i] = chunk.getChar(position + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    // Determine if a one-byte name contains the bytes of a text
+    private boolean contains(long address, int length, byte[] text) {
+        ByteBuffer chunk = names.get((int)(address >>> 32));
+        int start = (int)address;
+        for(int i = 0; i + text.length <= length; i++) {
+            int j = 0;
+            while(j < text.length && chunk.get(start + i + j) == text[j]) j++;
+            if(j == text.length) return true;
+        }
+        return false;
+    }
+
+    // Check that a position is within the rows
+    private static int checkIndex(int index, int size) {
+        if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return index;
+    }
+
+    // Item which reads and writes a record of the inventory instead of holding its own fields
+    // Note: once its row is removed, it has no name, serial number, or cost, and changes to it are ignored (so it can't
+    // write over the free list running through its record)
+    private static final class Row extends Item {
+        private final OffHeapInventory inventory;
+        private final int slot;
+
+        // Declare the generation of the slot and the clears of the inventory when the item was made
+        private final int generation;
+        private final int clears;
+
+        // Create an item for a slot of an inventory
+        Row(OffHeapInventory inventory, int slot) {
+            super(null, SerialKey.NONE, null, 0);
+            this.inventory = inventory;
+            this.slot = slot;
+            this.generation = inventory.generation(slot);
+            this.clears = inventory.clears;
+        }
+
+        // Determine if the slot still holds the row the item was made for
+        // note: the record of a slot isn't given back until the inventory is cleared, so it is only read once that's checked
+        boolean isCurrent() {
+            return inventory.clears == clears && inventory.generation(slot) == generation;
+        }
+
+        @Override
+        public String getName() {
+            return isCurrent() ? inventory.getName(slot) : null;
+        }
+
+        @Override
+        public void setName(String name) {
+            if(isCurrent()) inventory.setName(slot, name);
+        }
+
+        @Override
+        public String getSerialNumber() {
+            return isCurrent() ? inventory.getSerialNumber(slot) : null;
+        }
+
+        @Override
+        public void setSerialNumber(String serialNumber) {
+            if(isCurrent()) inventory.setSerialNumber(slot, SerialKey.pack(serialNumber), serialNumber);
+        }
+
+        @Override
+        public long getSerialKey() {
+            return isCurrent() ? inventory.record(slot).getLong(offset(slot) + SERIAL_KEY) : SerialKey.NONE;
+        }
+
+        @Override
+        public String getCost() {
+            return isCurrent() ? formatCost(getCents()) : null;
+        }
+
+        @Override
+        public long getCents() {
+            return isCurrent() ? inventory.record(slot).getLong(offset(slot) + CENTS) : 0;
+        }
+
+        @Override
+        public void setCents(long cents) {
+            if(isCurrent()) inventory.record(slot).putLong(offset(slot) + CENTS, cents);
+        }
+
+        // Two items are the same row if they read the same slot of the same inventory, and neither has been removed since
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Row row && row.inventory == inventory && row.slot == slot && row.generation == generation && row.clears == clears;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(inventory) * 31 + slot;
+        }
+    }
+}
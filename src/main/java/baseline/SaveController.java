@@ -7,12 +7,14 @@
 
 package baseline;
 
-import com.google.gson.Gson;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleGroup;
@@ -24,7 +26,6 @@ import javafx.stage.Stage;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.Formatter;
 import java.util.List;
 import java.util.Objects;
 
@@ -49,6 +50,30 @@ public class SaveController {
     @FXML
     private StackPane pane;
 
+    // Declare a check box for compressing the saved file with GZIP
+    @FXML
+    private CheckBox compressBox;
+
+    // Declare the buttons which are locked while a save is running
+    @FXML
+    private Button saveButton;
+    @FXML
+    private Button chooseFileButton;
+
+    // Declare a progress bar that fills as the inventory is saved
+    @FXML
+    private ProgressBar progressBar;
+
+    // Declare a label that displays the number of items saved so far
+    @FXML
+    private Label progressLabel;
+
+    // Declare whether the file is saved compressed (with a ".gz" suffix)
+    private boolean compressed;
+
+    // Declare the save currently running in the background (if any)
+    private ExportTask exportTask;
+
     // Declare sound for clicking button
     private final AudioClip buttonSoundPlayer = new AudioClip(Objects.requireNonNull(getClass().getResource("sound/buttonClick.mp3")).toExternalForm());
     private final AudioClip smallButtonSoundPlayer = new AudioClip(Objects.requireNonNull(getClass().getResource("sound/smallButtonClick.mp3")).toExternalForm());
@@ -96,6 +121,12 @@ public class SaveController {
         // play click sound
         buttonSoundPlayer.play();
 
+        // if a save is running, stop it and keep the old copy of the file
+        if(exportTask != null && exportTask.isRunning()) {
+            exportTask.cancel();
+            return;
+        }
+
         // return to old screen
         new MainSceneController(inventory,(Stage)(pane.getScene().getWindow()));
     }
@@ -146,36 +177,83 @@ public class SaveController {
         // set error label invisible
         isErrorLabelVisible(false);
 
-        // get the selected button from the radio group and run the file exporting
-        RadioButton selectedButton = (RadioButton)fileButtons.getSelectedToggle();
-        chooseFile(selectedButton.getText());
+        // copy the compression option
+        compressed = compressBox.isSelected();
 
-        // return to old screen
-        new MainSceneController(inventory,(Stage)(pane.getScene().getWindow()));
+        // get the selected button from the radio group and run the file exporting in the background
+        RadioButton selectedButton = (RadioButton)fileButtons.getSelectedToggle();
+        String fileType = getFileType(selectedButton.getText());
+        startExport(createExport(filePathLabel.getText(), fileNameField.getText(), fileType));
     }
 
-    // Method to determine which exporting method to call
-    private void chooseFile(String fileType) {
+    // Method to determine the file extension of the selected file type
+    private String getFileType(String buttonText) {
         // determine which file type to export as
-        switch (fileType) {
-            // if TSV, call saveToTSV()
-            case "TSV" -> saveToTSV(filePathLabel.getText(), fileNameField.getText());
+        return switch (buttonText) {
+            // if JSON, save a .json file
+            case "JSON" -> "json";
+
+            // if html, save a .html file
+            case "HTML" -> "html";
+
+            // if binary, save a .inv file
+            case "INV" -> "inv";
+
+            // otherwise, save a TSV file
+            default -> "txt";
+        };
+    }
+
+    // Save a snapshot of the inventory on a background thread while the scene shows its progress
+    private void startExport(ExportTask task) {
+        exportTask = task;
+
+        // show the progress of the task
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressLabel.textProperty().bind(task.messageProperty());
+        setSaving(true);
+
+        // on success, return to old screen
+        task.setOnSucceeded(e -> new MainSceneController(inventory,(Stage)(pane.getScene().getWindow())));
 
-            // if JSON, call saveToJSON()
-            case "JSON" -> saveToJSON(filePathLabel.getText(), fileNameField.getText());
+        // on cancel, stay on this scene so the save can be tried again
+        task.setOnCancelled(e -> setSaving(false));
 
-            // if html, call saveToHTML()
-            case "HTML" -> saveToHTML(filePathLabel.getText(), fileNameField.getText());
+        // on failure, display error
+        task.setOnFailed(e -> {
+            setSaving(false);
+            isErrorLabelVisible(true);
+        });
+
+        // start the save
+        Thread thread = new Thread(task, "inventory-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-            // to satisfy SonarLint
-            default -> {
-            }
+    // Show or hide the save progress, locking the file controls while the inventory is being saved
+    private void setSaving(boolean value) {
+        // lock the file controls
+        saveButton.setDisable(value);
+        chooseFileButton.setDisable(value);
+        fileNameField.setDisable(value);
+        compressBox.setDisable(value);
+
+        // show the progress controls
+        progressBar.setOpacity(value ? 1.0 : 0.0);
+        progressLabel.setOpacity(value ? 1.0 : 0.0);
+
+        // reset the progress controls once the save is over
+        if(!value) {
+            progressBar.progressProperty().unbind();
+            progressLabel.textProperty().unbind();
+            progressBar.setProgress(0);
         }
     }
 
     // Method which determines the validity of the specified file path
     // Note: this is only for if the user decides to delete the file path after specifying it
-    private boolean isFilePathInvalid(String path) {
+    boolean isFilePathInvalid(String path) {
         return (path.isBlank()) || !(Files.exists(Paths.get(path)));
     }
 
@@ -187,119 +265,62 @@ public class SaveController {
     }
 
     // Save the inventory to a TSV file
-    private void saveToTSV(String path, String name) {
-        // combine the file path, name, and extension
-        String save = combinePath(path, name, ".txt");
-
-        // attempt to initialize an output stream
-        File file;
-        Formatter stream;
-        try {
-            // create a file from the string path
-            file = new File(save);
-
-            // create a formatter stream to the file
-            stream = new Formatter(new FileOutputStream(file));
-        }
-        // file was not found
-        catch (FileNotFoundException e) {
-            // set error label to visible
-            isErrorLabelVisible(true);
-            return;
-        }
-
-        // append each item to the TSV file
-        for(Item i : inventory) {
-            // create a new String builder representing the item as a new line
-            String temp = i.getSerialNumber() + "\t" + i.getName() + "\t" + i.getCost();
-
-            // write to new line in file
-            stream.format("%s%n", temp);
-        }
-
-        // close Formatter
-        stream.close();
+    void saveToTSV(String path, String name) {
+        saveNow(path, name, "txt");
     }
 
     // Save the inventory to a JSON file
-    private void saveToJSON(String path, String name) {
-        // combine the file path, name, and extension
-        String save = combinePath(path,name,".json");
-
-        // try to write to output file
-        try {
-            // create new file writer
-            FileWriter stream = new FileWriter(save);
-
-            // loop through inventory
-            for (Item i : inventory) {
-                // create new Gson
-                Gson gson = new Gson();
-
-                // write to json file
-                gson.toJson(i, stream);
-            }
+    void saveToJSON(String path, String name) {
+        saveNow(path, name, "json");
+    }
 
-            // close stream
-            stream.close();
-        }
-        // unhandled file error
-        catch (IOException ioException) {
-            // set error label to visible
-            isErrorLabelVisible(true);
+    // Save the inventory to HTML file
+    void saveToHTML(String path, String name) {
+        saveNow(path, name, "html");
+    }
 
-            // delete partially created file (if it exists)
-            // note: boolean result is ignored
-            new File(save).delete();
-        }
+    // Save the inventory to a binary file
+    void saveToINV(String path, String name) {
+        saveNow(path, name, "inv");
     }
 
-    // Save the inventory to HTML file
-    private void saveToHTML(String path, String name) {
+    // Create the task which saves the inventory to a file of the given type in a folder
+    private ExportTask createExport(String path, String name, String fileType) {
         // combine the file path, name, and extension
-        String save = combinePath(path,name,".html");
-
-        // create a file from the string path
-        File file = new File(save);
+        File file = new File(combinePath(path, name, "." + fileType + getCompressionSuffix()));
+        return new ExportTask(file, fileType, inventory);
+    }
 
-        // try to create a formatter stream to the file
-        Formatter stream;
+    // Save the inventory on the calling thread, through the same task the save button runs in the background
+    private void saveNow(String path, String name, String fileType) {
         try {
-            stream = new Formatter(new FileOutputStream(file));
+            createExport(path, name, fileType).save(rows -> { });
         }
         // unhandled file error
-        catch (FileNotFoundException e) {
+        // note: the file is saved atomically, so the previous copy (if any) is left untouched
+        catch (IOException e) {
             // set error label to visible
             isErrorLabelVisible(true);
-
-            // leave method
-            return;
         }
-
-        // write a basic heading
-        stream.format("""
-                <html><body><table>
-                <style type="text/css">
-                  td {
-                    padding: 0 15px;
-                  }
-                </style><tr><th>Serial Number\t</th><th>Name\t</th><th>Cost</th></tr>
-                """);
-
-        // loop through inventory
-        for(Item i: inventory) {
-            // write line using current item
-            stream.format("<tr><td>%s</td><td>%s</td><td>%s</td></tr>",i.getSerialNumber(),i.getName(),i.getCost());
+        // the save was interrupted while waiting for the journal to be folded into the file
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            isErrorLabelVisible(true);
         }
-        // write closing tags
-        stream.format("%s","</table></body></html>");
+    }
+
+    // Set whether files are saved compressed (for testing)
+    void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
 
-        // close stream
-        stream.close();
+    // Get the suffix added to the file name when it is compressed
+    private String getCompressionSuffix() {
+        return compressed ? InventoryFiles.GZIP_SUFFIX : "";
     }
 
     // Concatenate parts of a string together
-    private String combinePath(String path, String name, String extension) {
+    String combinePath(String path, String name, String extension) {
         // return the combined string
         return path + "/" + name + extension;
     }
@@ -0,0 +1,214 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to keep the position of every serial number in the inventory on screen, so the scenes can
+// find an item, or check that a serial number is free, without scanning the whole inventory.
+
+package baseline;
+
+import java.util.List;
+
+public class SerialIndex {
+
+    // Declare the index of the inventory on screen (if one has been asked for)
+    private static SerialIndex current;
+
+    // Declare the listener which keeps the index up to date with every change reported to InventoryChanges
+    static final InventoryChanges.Listener LISTENER = new InventoryChanges.Listener() {
+        @Override
+        public void added(List<Item> inventory, Item item) {
+            recordAdd(inventory, item);
+        }
+
+        @Override
+        public void set(List<Item> inventory, int index, Item previous, Item item) {
+            recordSet(inventory, index, previous, item);
+        }
+
+        @Override
+        public void removed(List<Item> inventory, int index, Item item) {
+            recordRemove(inventory, index, item);
+        }
+
+        @Override
+        public void cleared(List<Item> inventory) {
+            recordClear(inventory);
+        }
+
+        @Override
+        public void invalidated(List<Item> inventory) {
+            invalidate(inventory);
+        }
+    };
+
+    // Declare the inventory being indexed
+    private final List<Item> inventory;
+
+    // Declare the row of the first item with each serial number
+    // Note: each item is given the next row when it is indexed, and keeps it until the positions are built again, so
+    // the rows are in inventory order and removing an item doesn't move the rows of those after it
+    private final SerialKeyMap positions;
+
+    // Declare the number of items the positions cover, or -1 if they have to be rebuilt before the next lookup
+    // Note: an inventory whose size no longer matches was changed without being recorded, so it is rebuilt as well
+    private int indexed = -1;
+
+    // Declare the rows handed out to the items, which count those removed since the positions were built
+    private final IndexRows rows = new IndexRows();
+
+    // Declare whether two items share a serial number (which only an imported file can do)
+    // Note: such an inventory is rebuilt after any edit or removal, since the position of the second item isn't kept
+    private boolean duplicates;
+
+    // Create an index of an inventory, which is built when it is first used
+    private SerialIndex(List<Item> inventory) {
+        this.inventory = inventory;
+        this.positions = new SerialKeyMap(inventory.size());
+    }
+
+    // Get the index of an inventory, replacing the index of any other inventory
+    public static SerialIndex of(List<Item> inventory) {
+        if(current == null || current.inventory != inventory) current = new SerialIndex(inventory);
+        return current;
+    }
+
+    // Get the index of an inventory if it is the one being indexed, otherwise null
+    private static SerialIndex find(List<Item> inventory) {
+        return current != null && current.inventory == inventory ? current : null;
+    }
+
+    // Record an item added to the end of the inventory
+    public static void recordAdd(List<Item> inventory, Item item) {
+        SerialIndex index = find(inventory);
+        if(index == null || index.indexed < 0) return;
+        index.indexed++;
+        index.add(item, index.rows.add());
+    }
+
+    // Record the item at a position being replaced (or edited in place), given the item as it was before
+    public static void recordSet(List<Item> inventory, int position, Item previous, Item item) {
+        SerialIndex index = find(inventory);
+        if(index == null || index.indexed < 0) return;
+        if(index.duplicates || position < 0) {
+            index.indexed = -1;
+            return;
+        }
+
+        int row = index.rows.rowAt(position);
+        if(index.positions.get(previous) == row) index.positions.remove(previous);
+        index.add(item, row);
+    }
+
+    // Record the item at a position being removed
+    // Note: the items after it move up one place by counting the row as removed, rather than storing each of them again
+    public static void recordRemove(List<Item> inventory, int position, Item item) {
+        SerialIndex index = find(inventory);
+        if(index == null || index.indexed < 0) return;
+        if(index.duplicates || position < 0) {
+            index.indexed = -1;
+            return;
+        }
+
+        int row = index.rows.rowAt(position);
+        if(index.positions.get(item) == row) index.positions.remove(item);
+        index.rows.remove(row);
+        index.indexed--;
+    }
+
+    // Record every item being removed
+    public static void recordClear(List<Item> inventory) {
+        SerialIndex index = find(inventory);
+        if(index == null) return;
+        index.reset();
+        index.indexed = 0;
+    }
+
+    // Record the inventory being changed in a way that wasn't recorded item by item (such as a merge or a sort)
+    public static void invalidate(List<Item> inventory) {
+        SerialIndex index = find(inventory);
+        if(index != null) index.indexed = -1;
+    }
+
+    // Get the position of the first item with the same serial number as an item, or -1 if there is none
+    public int indexOf(Item item) {
+        update();
+        int position = positionOf(positions.get(item));
+
+        // the position is checked, so an edit that wasn't recorded is caught and the positions rebuilt
+        if(position != SerialKeyMap.MISSING && !inventory.get(position).hasSameSerialNumber(item)) {
+            rebuild();
+            position = positions.get(item);
+        }
+        return position;
+    }
+
+    // Get the position of the first item with a serial number, or -1 if there is none
+    public int indexOf(String serialNumber) {
+        update();
+        int position = positionOf(positions.get(serialNumber));
+
+        // the position is checked, so an edit that wasn't recorded is caught and the positions rebuilt
+        if(position != SerialKeyMap.MISSING && !serialNumber.equals(inventory.get(position).getSerialNumber())) {
+            rebuild();
+            position = positions.get(serialNumber);
+        }
+        return position;
+    }
+
+    // Determine if no item other than the one at a position has a serial number
+    public boolean isUnique(String serialNumber, int position) {
+        update();
+        int found = positionOf(positions.get(serialNumber));
+        if(found == SerialKeyMap.MISSING) return true;
+        if(found != position) return false;
+        if(!duplicates) return true;
+
+        // a serial number can appear twice only in an imported file, so those inventories are checked in full
+        long key = SerialKey.pack(serialNumber);
+        for(int i = 0; i < inventory.size(); i++) {
+            if(i == position) continue;
+            Item item = inventory.get(i);
+            if(key != SerialKey.NONE ? item.getSerialKey() == key
+                    : item.getSerialKey() == SerialKey.NONE && serialNumber.equals(item.getSerialNumber())) return false;
+        }
+        return true;
+    }
+
+    // Rebuild the positions if they are out of date, or enough items have been removed that the rows are worth packing
+    private void update() {
+        if(indexed != inventory.size() || rows.isWorthRebuilding()) rebuild();
+    }
+
+    // Index every item of the inventory, giving each one the row of its position
+    private void rebuild() {
+        reset();
+        for(int i = 0; i < inventory.size(); i++) {
+            add(inventory.get(i), rows.add());
+        }
+        indexed = inventory.size();
+    }
+
+    // Forget every item indexed
+    private void reset() {
+        positions.clear();
+        duplicates = false;
+        rows.reset(0);
+    }
+
+    // Store the row of an item, unless an earlier item already has its serial number
+    private void add(Item item, int row) {
+        int found = positions.get(item);
+        if(found == SerialKeyMap.MISSING) positions.put(item, row);
+        else if(found != row) {
+            duplicates = true;
+            if(row < found) positions.put(item, row);
+        }
+    }
+
+    // Find the position in the inventory of a row which hasn't been removed (MISSING stays MISSING)
+    private int positionOf(int row) {
+        return row == SerialKeyMap.MISSING ? row : rows.positionOf(row);
+    }
+}
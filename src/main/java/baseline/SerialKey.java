@@ -0,0 +1,112 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to pack a serial number in the A-XXX-XXX-XXX format into a single long, so serial
+// numbers can be stored, compared, and hashed as numbers instead of Strings.
+
+package baseline;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class SerialKey {
+
+    // Declare the key of a serial number which isn't in the A-XXX-XXX-XXX format (every packed key is positive)
+    public static final long NONE = -1;
+
+    // Declare the number of characters in a serial number, and in a packed serial number (the hyphens aren't stored)
+    static final int LENGTH = 13;
+    static final int CHARACTERS = 10;
+
+    // Declare the number of bits each character is packed into
+    private static final int BITS = 6;
+
+    // Declare the characters a serial number can hold, in ASCII order so keys sort the same way the text does
+    private static final byte[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    // Declare the value of each ASCII character in a packed serial number (-1 for characters that can't be packed)
+    private static final byte[] VALUES = new byte[128];
+    static {
+        Arrays.fill(VALUES, (byte)-1);
+        for(int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte)i;
+        }
+    }
+
+    // Prevent this utility class from being created
+    private SerialKey() {
+    }
+
+    // Pack a serial number into a key, or return NONE if it isn't in the A-XXX-XXX-XXX format
+    // Note: the first character must be a letter and the rest letters or digits, the same rules as the item form
+    public static long pack(String serialNumber) {
+        if(serialNumber.length() != LENGTH) return NONE;
+        long key = 0;
+        for(int i = 0; i < LENGTH; i++) {
+            char c = serialNumber.charAt(i);
+            if(i % 4 == 1) {
+                if(c != '-') return NONE;
+                continue;
+            }
+            int value = c < 128 ? VALUES[c] : -1;
+            if(value < 0 || (i == 0 && value < 10)) return NONE;
+            key = key << BITS | value;
+        }
+        return key;
+    }
+
+    // Pack the characters of a serial number stored without its hyphens (such as the field of a .inv file)
+    // Returns NONE if they aren't letters and digits starting with a letter
+    static long pack(byte[] characters, int offset) {
+        long key = 0;
+        for(int i = 0; i < CHARACTERS; i++) {
+            int c = characters[offset + i];
+            int value = c >= 0 ? VALUES[c] : -1;
+            if(value < 0 || (i == 0 && value < 10)) return NONE;
+            key = key << BITS | value;
+        }
+        return key;
+    }
+
+    // Convert a key back into its serial number
+    public static String toString(long key) {
+        byte[] temp = new byte[LENGTH];
+        write(key, temp, 0);
+        return new String(temp, StandardCharsets.ISO_8859_1);
+    }
+
+    // Write the ASCII text of a key's serial number (with its hyphens) into an array
+    static void write(long key, byte[] text, int offset) {
+        for(int i = LENGTH - 1; i >= 0; i--) {
+            if(i % 4 == 1) text[offset + i] = '-';
+            else {
+                text[offset + i] = DIGITS[(int)(key & 0x3F)];
+                key >>>= BITS;
+            }
+        }
+    }
+
+    // Copy the characters of a key (without the hyphens) into an array
+    static void unpack(long key, byte[] characters, int offset) {
+        for(int i = CHARACTERS - 1; i >= 0; i--) {
+            characters[offset + i] = DIGITS[(int)(key & 0x3F)];
+            key >>>= BITS;
+        }
+    }
+
+    // Determine if a serial number is in the A-XXX-XXX-XXX format
+    public static boolean isValid(String serialNumber) {
+        return pack(serialNumber) != NONE;
+    }
+
+    // Spread the bits of a key for use in a hash table
+    // Note: neighbouring serial numbers differ only in their last few bits, so those bits are mixed into the rest
+    public static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int)key;
+    }
+}
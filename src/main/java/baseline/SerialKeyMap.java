@@ -0,0 +1,153 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to map serial numbers to positions in an inventory, using the packed serial numbers as
+// primitive keys so a lookup doesn't create, hash, or compare any Strings.
+
+package baseline;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SerialKeyMap {
+
+    // Declare the value returned for a serial number that isn't in the map
+    public static final int MISSING = -1;
+
+    // Declare the packed serial numbers (NONE in empty slots) and the positions stored beside them
+    private long[] keys;
+    private int[] values;
+
+    // Declare the number of packed serial numbers in the table
+    private int size;
+
+    // Declare the positions of serial numbers which can't be packed
+    private final Map<String, Integer> other = new HashMap<>();
+
+    // Create a map with room for the expected number of serial numbers before it has to grow
+    public SerialKeyMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected + expected / 2) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, SerialKey.NONE);
+    }
+
+    // Get the position stored for an item's serial number, or MISSING
+    public int get(Item item) {
+        long key = item.getSerialKey();
+        if(key == SerialKey.NONE) return other.getOrDefault(item.getSerialNumber(), MISSING);
+        return get(key);
+    }
+
+    // Get the position stored for a serial number, or MISSING
+    public int get(String serialNumber) {
+        long key = SerialKey.pack(serialNumber);
+        if(key == SerialKey.NONE) return other.getOrDefault(serialNumber, MISSING);
+        return get(key);
+    }
+
+    // Find a packed serial number, probing the slots after its home slot until an empty one
+    private int get(long key) {
+        int mask = keys.length - 1;
+        for(int slot = SerialKey.hash(key) & mask; keys[slot] != SerialKey.NONE; slot = (slot + 1) & mask) {
+            if(keys[slot] == key) return values[slot];
+        }
+        return MISSING;
+    }
+
+    // Determine if an item's serial number is in the map
+    public boolean containsKey(Item item) {
+        return get(item) != MISSING;
+    }
+
+    // Store the position of an item's serial number, returning the position stored before (or MISSING)
+    public int put(Item item, int position) {
+        long key = item.getSerialKey();
+        if(key == SerialKey.NONE) {
+            Integer previous = other.put(item.getSerialNumber(), position);
+            return previous == null ? MISSING : previous;
+        }
+
+        // grow before the table is three quarters full, so probes stay short
+        if(size + 1 > keys.length / 4 * 3) grow();
+
+        int mask = keys.length - 1;
+        int slot = SerialKey.hash(key) & mask;
+        while(keys[slot] != SerialKey.NONE) {
+            if(keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = position;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = position;
+        size++;
+        return MISSING;
+    }
+
+    // Remove an item's serial number, returning the position stored for it (or MISSING)
+    public int remove(Item item) {
+        long key = item.getSerialKey();
+        if(key == SerialKey.NONE) {
+            Integer previous = other.remove(item.getSerialNumber());
+            return previous == null ? MISSING : previous;
+        }
+
+        int mask = keys.length - 1;
+        int slot = SerialKey.hash(key) & mask;
+        while(keys[slot] != key) {
+            if(keys[slot] == SerialKey.NONE) return MISSING;
+            slot = (slot + 1) & mask;
+        }
+        int previous = values[slot];
+
+        // move back each key after the gap which would no longer be found past it, then empty the last gap
+        int gap = slot;
+        for(int next = (gap + 1) & mask; keys[next] != SerialKey.NONE; next = (next + 1) & mask) {
+            int home = SerialKey.hash(keys[next]) & mask;
+            if(((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = SerialKey.NONE;
+        size--;
+        return previous;
+    }
+
+    // Remove every serial number, keeping the room already made
+    public void clear() {
+        Arrays.fill(keys, SerialKey.NONE);
+        other.clear();
+        size = 0;
+    }
+
+    // Get the number of serial numbers in the map
+    public int size() {
+        return size + other.size();
+    }
+
+    // Double the table, putting every key back in its new home slot
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, SerialKey.NONE);
+
+        int mask = keys.length - 1;
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] == SerialKey.NONE) continue;
+            int slot = SerialKey.hash(oldKeys[i]) & mask;
+            while(keys[slot] != SerialKey.NONE) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
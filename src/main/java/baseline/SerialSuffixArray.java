@@ -0,0 +1,361 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to answer serial number searches of the inventory on screen with a binary search, by
+// sorting every suffix of the serial numbers, so the items containing a search are the suffixes starting with it.
+
+package baseline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+public class SerialSuffixArray {
+
+    // Declare the char put after each serial number, which sorts before every other char and ends every suffix
+    private static final char END = '\0';
+
+    // Declare the fewest changes since the suffixes were sorted which are worth sorting them again for
+    // Note: once the changes are more than this, or an eighth of the items, the next search sorts them again
+    private static final int MIN_CHANGES = 1024;
+
+    // Declare the most buckets the suffixes are first sorted into
+    private static final int MAX_BUCKETS = 1 << 18;
+
+    // Declare the suffix array of the inventory on screen (if one has been asked for)
+    private static SerialSuffixArray current;
+
+    // Declare the listener which keeps the index up to date with every change reported to InventoryChanges
+    static final InventoryChanges.Listener LISTENER = new InventoryChanges.Listener() {
+        @Override
+        public void added(List<Item> inventory, Item item) {
+            recordAdd(inventory, item);
+        }
+
+        @Override
+        public void set(List<Item> inventory, int index, Item previous, Item item) {
+            recordSet(inventory, index, previous, item);
+        }
+
+        @Override
+        public void removed(List<Item> inventory, int index, Item item) {
+            recordRemove(inventory, index, item);
+        }
+
+        @Override
+        public void cleared(List<Item> inventory) {
+            recordClear(inventory);
+        }
+
+        @Override
+        public void invalidated(List<Item> inventory) {
+            invalidate(inventory);
+        }
+    };
+
+    // Declare the inventory being indexed
+    private final List<Item> inventory;
+
+    // Declare the serial numbers of the items when the suffixes were sorted, each one followed by END, the offset each
+    // one starts at, and the offsets of every suffix, sorted
+    private char[] text = new char[0];
+    private int[] starts = new int[0];
+    private int[] suffixes = new int[0];
+
+    // Declare the rows of the items sorted into the suffixes, which count those removed since, and the rows whose
+    // serial number has been changed, which are checked one by one
+    private final IndexRows rows = new IndexRows();
+    private BitSet changed = new BitSet();
+
+    // Declare the number of items added after the suffixes were sorted, which are at the end of the inventory
+    private int added;
+
+    // Declare whether the suffixes have to be sorted again before the next search
+    private boolean stale = true;
+
+    // Create a suffix array of an inventory, which is sorted when it is first searched
+    private SerialSuffixArray(List<Item> inventory) {
+        this.inventory = inventory;
+    }
+
+    // Get the suffix array of an inventory, replacing the suffix array of any other inventory
+    public static SerialSuffixArray of(List<Item> inventory) {
+        if(current == null || current.inventory != inventory) current = new SerialSuffixArray(inventory);
+        return current;
+    }
+
+    // Get the suffix array of an inventory if it is the one being indexed, otherwise null
+    private static SerialSuffixArray find(List<Item> inventory) {
+        return current != null && current.inventory == inventory ? current : null;
+    }
+
+    // Record an item added to the end of the inventory
+    public static void recordAdd(List<Item> inventory, Item item) {
+        SerialSuffixArray index = find(inventory);
+        if(index == null || index.stale) return;
+        index.added++;
+    }
+
+    // Record the item at a position being replaced (or edited in place), given the item as it was before
+    public static void recordSet(List<Item> inventory, int position, Item previous, Item item) {
+        SerialSuffixArray index = find(inventory);
+        if(index == null || index.stale) return;
+        if(position < 0) {
+            index.stale = true;
+            return;
+        }
+
+        // an added item is checked one by one already
+        if(item.hasSameSerialNumber(previous) || position >= index.getSortedCount()) return;
+        index.changed.set(index.rows.rowAt(position));
+    }
+
+    // Record the item at a position being removed
+    public static void recordRemove(List<Item> inventory, int position, Item item) {
+        SerialSuffixArray index = find(inventory);
+        if(index == null || index.stale) return;
+        if(position < 0) {
+            index.stale = true;
+            return;
+        }
+
+        if(position >= index.getSortedCount()) {
+            index.added--;
+            return;
+        }
+        index.rows.remove(index.rows.rowAt(position));
+    }
+
+    // Record every item being removed
+    public static void recordClear(List<Item> inventory) {
+        SerialSuffixArray index = find(inventory);
+        if(index == null) return;
+        index.reset(new char[0], new int[0], new int[0]);
+        index.stale = false;
+    }
+
+    // Record the inventory being changed in a way that wasn't recorded item by item (such as a merge or a sort)
+    public static void invalidate(List<Item> inventory) {
+        SerialSuffixArray index = find(inventory);
+        if(index != null) index.stale = true;
+    }
+
+    // Get the items whose serial numbers contain a search, in inventory order, or null if it can't be looked up
+    public List<Item> search(String serialNumber) {
+        if(serialNumber.isEmpty() || serialNumber.indexOf(END) >= 0) return null;
+        int changes = rows.getRemovedCount() + changed.cardinality() + added;
+        if(stale || getSortedCount() + added != inventory.size() || changes > Math.max(MIN_CHANGES, starts.length >> 3)) {
+            rebuild();
+        }
+
+        // the suffixes starting with the search are all together, between the first not before it and the first after it
+        int from = bound(serialNumber, false);
+        int to = bound(serialNumber, true);
+
+        // mark the position of every sorted item with such a suffix, once, skipping those removed or changed since
+        BitSet found = new BitSet();
+        for(int i = from; i < to; i++) {
+            int row = rowOf(suffixes[i]);
+            if(!rows.isRemoved(row) && !changed.get(row)) found.set(rows.positionOf(row));
+        }
+
+        // check the items changed or added since the suffixes were sorted one by one
+        for(int row = changed.nextSetBit(0); row >= 0; row = changed.nextSetBit(row + 1)) {
+            if(rows.isRemoved(row)) continue;
+            int position = rows.positionOf(row);
+            if(inventory.get(position).getSerialNumber().contains(serialNumber)) found.set(position);
+        }
+        for(int position = getSortedCount(); position < inventory.size(); position++) {
+            if(inventory.get(position).getSerialNumber().contains(serialNumber)) found.set(position);
+        }
+
+        List<Item> items = new ArrayList<>(found.cardinality());
+        for(int position = found.nextSetBit(0); position >= 0; position = found.nextSetBit(position + 1)) {
+            items.add(inventory.get(position));
+        }
+        return items;
+    }
+
+    // Get the number of bytes the suffix array takes, counting the array headers
+    public long getMemoryBytes() {
+        return 16L + text.length * 2L + 16L + starts.length * 4L + 16L + suffixes.length * 4L + rows.getMemoryBytes() + changed.size() / 8;
+    }
+
+    // Get the number of sorted items still in the inventory, which come before any added since
+    private int getSortedCount() {
+        return starts.length - rows.getRemovedCount();
+    }
+
+    // Sort the suffixes of every serial number of the inventory
+    private void rebuild() {
+        int items = inventory.size();
+        String[] serialNumbers = new String[items];
+        int length = 0;
+        int count = 0;
+        for(int i = 0; i < items; i++) {
+            serialNumbers[i] = inventory.get(i).getSerialNumber();
+            length += serialNumbers[i].length() + 1;
+            count += serialNumbers[i].length();
+        }
+
+        // lay the serial numbers out one after another, each followed by END
+        char[] newText = new char[length];
+        int[] newStarts = new int[items];
+        int offset = 0;
+        for(int i = 0; i < items; i++) {
+            newStarts[i] = offset;
+            serialNumbers[i].getChars(0, serialNumbers[i].length(), newText, offset);
+            offset += serialNumbers[i].length();
+            newText[offset++] = END;
+        }
+
+        reset(newText, newStarts, sortSuffixes(newText, count));
+
+        // a serial number with END in it would end its suffixes early, so it is checked one by one instead
+        for(int i = 0; i < items; i++) {
+            if(serialNumbers[i].indexOf(END) >= 0) changed.set(i);
+        }
+        stale = false;
+    }
+
+    // Replace the sorted suffixes, forgetting every change recorded since the last ones were sorted
+    private void reset(char[] text, int[] starts, int[] suffixes) {
+        this.text = text;
+        this.starts = starts;
+        this.suffixes = suffixes;
+        rows.reset(starts.length);
+        changed = new BitSet();
+        added = 0;
+    }
+
+    // Sort the suffixes of a text, first into buckets by their first few chars, then each bucket by the rest
+    // Note: the buckets are filled reading the text in order, which is much quicker than sorting every suffix from the
+    // first char, and serial numbers use few enough chars that two or three of them make a small number of buckets
+    private static int[] sortSuffixes(char[] text, int count) {
+        // number the chars which appear in order, END first, so a few of them together make a number in order
+        int[] ranks = new int[Character.MAX_VALUE + 1];
+        for(char c : text) ranks[c] = 1;
+        int chars = 0;
+        for(int c = 0; c < ranks.length; c++) {
+            if(ranks[c] != 0 || c == END) ranks[c] = chars++;
+        }
+        int depth = 1;
+        long buckets = chars;
+        while(depth < 3 && buckets * chars <= MAX_BUCKETS) {
+            buckets *= chars;
+            depth++;
+        }
+
+        // count the suffixes in each bucket, then put each one at the next place left in its bucket
+        int[] ends = new int[(int)buckets + 1];
+        for(int offset = 0; offset < text.length; offset++) {
+            if(text[offset] != END) ends[bucketOf(text, offset, ranks, chars, depth) + 1]++;
+        }
+        for(int bucket = 1; bucket < ends.length; bucket++) {
+            ends[bucket] += ends[bucket - 1];
+        }
+        int[] suffixes = new int[count];
+        int[] next = Arrays.copyOf(ends, ends.length - 1);
+        for(int offset = 0; offset < text.length; offset++) {
+            if(text[offset] != END) suffixes[next[bucketOf(text, offset, ranks, chars, depth)]++] = offset;
+        }
+
+        // the suffixes of a bucket which ends with END are the same, so only the others are sorted further
+        for(int bucket = 0; bucket < buckets; bucket++) {
+            if(ends[bucket + 1] - ends[bucket] > 1 && bucket % chars != 0) sort(text, suffixes, ends[bucket], ends[bucket + 1], depth);
+        }
+        return suffixes;
+    }
+
+    // Get the bucket of a suffix, numbering its first chars (END and nothing after it being 0)
+    private static int bucketOf(char[] text, int offset, int[] ranks, int chars, int depth) {
+        int bucket = 0;
+        boolean ended = false;
+        for(int i = 0; i < depth; i++) {
+            if(!ended && text[offset + i] == END) ended = true;
+            bucket = bucket * chars + (ended ? 0 : ranks[text[offset + i]]);
+        }
+        return bucket;
+    }
+
+    // Sort a range of suffixes which all match up to a depth, three ways by the char at that depth (multikey quicksort)
+    // Note: serial numbers are short, so a suffix is never compared past the END of its serial number
+    private static void sort(char[] text, int[] suffixes, int from, int to, int depth) {
+        while(to - from > 16) {
+            // split the suffixes into those before, at, and after the middle one's char
+            int pivot = text[suffixes[(from + to) >>> 1] + depth];
+            int less = from;
+            int greater = to;
+            int i = from;
+            while(i < greater) {
+                int c = text[suffixes[i] + depth];
+                if(c < pivot) swap(suffixes, less++, i++);
+                else if(c > pivot) swap(suffixes, i, --greater);
+                else i++;
+            }
+
+            // those at the char are sorted by the next one, unless they have all ended
+            sort(text, suffixes, from, less, depth);
+            sort(text, suffixes, greater, to, depth);
+            if(pivot == END) return;
+            from = less;
+            to = greater;
+            depth++;
+        }
+
+        // a few suffixes are sorted by moving each one back past those after it
+        for(int i = from + 1; i < to; i++) {
+            for(int j = i; j > from && compare(text, suffixes[j], suffixes[j - 1], depth) < 0; j--) {
+                swap(suffixes, j, j - 1);
+            }
+        }
+    }
+
+    // Compare two suffixes from a depth, up to the END of the first to end
+    private static int compare(char[] text, int a, int b, int depth) {
+        for(int i = depth; ; i++) {
+            char x = text[a + i];
+            char y = text[b + i];
+            if(x != y) return x - y;
+            if(x == END) return 0;
+        }
+    }
+
+    // Swap two suffixes
+    private static void swap(int[] suffixes, int i, int j) {
+        int temp = suffixes[i];
+        suffixes[i] = suffixes[j];
+        suffixes[j] = temp;
+    }
+
+    // Find the first suffix which doesn't sort before a search, or (after) the first which sorts after everything starting with it
+    private int bound(String search, boolean after) {
+        int low = 0;
+        int high = suffixes.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            int c = compareStart(suffixes[middle], search);
+            if(c < 0 || (after && c == 0)) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    // Compare the start of a suffix with a search (0 if the suffix starts with it)
+    private int compareStart(int suffix, String search) {
+        for(int i = 0; i < search.length(); i++) {
+            char c = text[suffix + i];
+            if(c != search.charAt(i)) return c - search.charAt(i);
+        }
+        return 0;
+    }
+
+    // Find the sorted item a suffix belongs to
+    private int rowOf(int suffix) {
+        int row = Arrays.binarySearch(starts, suffix);
+        return row >= 0 ? row : -row - 2;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to read a TSV file of items by memory-mapping it and scanning the raw bytes.
+
+package baseline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class TSVReader {
+
+    // Declare the largest region that is mapped at once (a single mapping cannot exceed 2GB)
+    static final long REGION_SIZE = 1L << 30;
+
+    // Declare the smallest file that is worth splitting across threads
+    static final long PARALLEL_THRESHOLD = 4L << 20;
+
+    // Declare the target size of each split parsed by a single task
+    static final long SPLIT_SIZE = 8L << 20;
+
+    // Declare the size of the buffer used when reading from a stream
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    // Declare how many bytes are parsed between progress reports
+    private static final int PROGRESS_WINDOW = 1 << 20;
+
+    // Declare the window used when searching for the end of a line
+    private static final int ALIGN_WINDOW = 4096;
+
+    // Declare the charset used for rows that are not plain ASCII (matches the charset SaveController writes with)
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    // Declare a reusable buffer for copying a single field out of the mapped file
+    private byte[] scratch = new byte[256];
+
+    // Read every item in a TSV file and hand it to the sink in file order
+    public static void read(File file, Consumer<Item> sink) throws IOException {
+        read(file, sink, bytes -> { });
+    }
+
+    // Read every item in a TSV file, reporting how many bytes of the file have been parsed as it goes
+    // Note: a compressed file can't be mapped, so it is streamed instead (without progress)
+    public static void read(File file, Consumer<Item> sink, LongConsumer progress) throws IOException {
+        // stream compressed files through the decompressor
+        if(InventoryFiles.isCompressed(file.getPath())) {
+            try(InputStream stream = InventoryFiles.openInput(file)) {
+                read(stream, sink);
+            }
+            return;
+        }
+
+        // open a read-only channel to the file
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            TSVReader reader = new TSVReader();
+            long size = channel.size();
+
+            // map the file one newline-aligned region at a time
+            long start = 0;
+            while(start < size) {
+                long end = alignToLine(channel, Math.min(size, start + REGION_SIZE));
+                reader.readRange(channel, start, end, sink, progress);
+                start = end;
+            }
+        }
+    }
+
+    // Read every item from a stream of TSV bytes, such as a decompressed file
+    public static void read(InputStream stream, Consumer<Item> sink) throws IOException {
+        TSVReader reader = new TSVReader();
+        ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+        int filled = 0;
+
+        while(true) {
+            // top up the buffer behind any partial line left from the last pass
+            int read = stream.read(buffer.array(), filled, buffer.capacity() - filled);
+
+            // parse whatever is left once the stream ends
+            if(read < 0) {
+                buffer.limit(filled).position(0);
+                reader.parse(buffer, true, sink);
+                return;
+            }
+            filled += read;
+
+            // parse every complete line, then move the partial last line to the front
+            buffer.limit(filled).position(0);
+            int consumed = reader.parse(buffer, false, sink);
+            System.arraycopy(buffer.array(), consumed, buffer.array(), 0, filled - consumed);
+            filled -= consumed;
+
+            // grow the buffer for a line that is longer than all of it
+            if(filled == buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                System.arraycopy(buffer.array(), 0, larger.array(), 0, filled);
+                buffer = larger;
+            }
+        }
+    }
+
+    // Read a TSV file by parsing newline-aligned splits in a fork/join pool, returning the items in file order
+    public static List<Item> readParallel(File file, ForkJoinPool pool) throws IOException {
+        return readParallel(file, pool, SPLIT_SIZE);
+    }
+
+    // Read a TSV file in parallel using splits of roughly the given size
+    static List<Item> readParallel(File file, ForkJoinPool pool, long splitSize) throws IOException {
+        List<Item> items = new ArrayList<>();
+        readParallel(file, pool, splitSize, items::addAll, () -> false, bytes -> { });
+        return items;
+    }
+
+    // Read a TSV file in parallel, handing each split's items to the sink in file order as soon as they are ready
+    // Note: the sink and progress are called from pool threads, one split at a time
+    public static void readParallel(File file, ForkJoinPool pool, Consumer<List<Item>> splitSink,
+                                    BooleanSupplier cancelled, LongConsumer progress) throws IOException {
+        readParallel(file, pool, SPLIT_SIZE, splitSink, cancelled, progress);
+    }
+
+    // Read a TSV file in parallel using splits of roughly the given size, publishing them in file order
+    static void readParallel(File file, ForkJoinPool pool, long splitSize, Consumer<List<Item>> splitSink,
+                             BooleanSupplier cancelled, LongConsumer progress) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            // cut the file into splits that each start right after a newline
+            long[] bounds = new long[16];
+            int splits = 0;
+            long position = 0;
+            while(position < size) {
+                position = alignToLine(channel, Math.min(size, position + Math.min(splitSize, REGION_SIZE)));
+                if(splits + 1 == bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                bounds[++splits] = position;
+            }
+
+            // an empty file has nothing to parse
+            if(splits == 0) return;
+
+            // parse every split into its own slot so the results can be published in file order
+            SplitResults results = new SplitResults(bounds, splits, splitSink, progress);
+            try {
+                pool.invoke(new SplitTask(channel, results, cancelled, 0, splits));
+            }
+            // unwrap errors thrown inside the pool
+            catch(UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Holder which collects finished splits and publishes every split whose predecessors are all done
+    private static class SplitResults {
+        private final long[] bounds;
+        private final List<List<Item>> items;
+        private final Consumer<List<Item>> sink;
+        private final LongConsumer progress;
+        private int published;
+
+        // Create an empty holder for the given number of splits between the bounds
+        SplitResults(long[] bounds, int splits, Consumer<List<Item>> sink, LongConsumer progress) {
+            this.bounds = bounds;
+            this.items = new ArrayList<>(Collections.nCopies(splits, null));
+            this.sink = sink;
+            this.progress = progress;
+        }
+
+        // Store a finished split, then publish as many splits as are ready in order
+        synchronized void complete(int split, List<Item> splitItems) {
+            items.set(split, splitItems);
+            while(published < items.size() && items.get(published) != null) {
+                sink.accept(items.set(published, null));
+                published++;
+                progress.accept(bounds[published]);
+            }
+        }
+    }
+
+    // Task which parses a range of splits, halving the range until a single split is left
+    private static class SplitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final transient SplitResults results;
+        private final transient BooleanSupplier cancelled;
+        private final int from;
+        private final int to;
+
+        // Create a task for the splits in [from, to)
+        SplitTask(FileChannel channel, SplitResults results, BooleanSupplier cancelled, int from, int to) {
+            this.channel = channel;
+            this.results = results;
+            this.cancelled = cancelled;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            // fork both halves of a larger range
+            if(to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SplitTask(channel, results, cancelled, from, middle),
+                        new SplitTask(channel, results, cancelled, middle, to));
+                return;
+            }
+
+            // stop before starting any more work once the read is cancelled
+            if(cancelled.getAsBoolean()) throw new CancellationException();
+
+            // parse a single split
+            long start = results.bounds[from];
+            long end = results.bounds[from + 1];
+            List<Item> items = new ArrayList<>((int)Math.min(Integer.MAX_VALUE - 8, (end - start) / 24));
+            try {
+                new TSVReader().readRange(channel, start, end, items::add, bytes -> { });
+            }
+            catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            results.complete(from, items);
+        }
+    }
+
+    // Move a position forward so it sits on the first byte after a newline (or the end of the file)
+    static long alignToLine(FileChannel channel, long position) throws IOException {
+        long size = channel.size();
+
+        // a position at either end of the file is already aligned
+        if(position <= 0 || position >= size) return Math.max(0, Math.min(position, size));
+
+        // scan forward one window at a time until a newline is found
+        ByteBuffer window = ByteBuffer.allocate(ALIGN_WINDOW);
+        long offset = position - 1;
+        while(offset < size) {
+            window.clear();
+            int read = channel.read(window, offset);
+            if(read <= 0) break;
+            for(int i = 0; i < read; i++) {
+                if(window.get(i) == '\n') return offset + i + 1;
+            }
+            offset += read;
+        }
+
+        // the last line has no newline
+        return size;
+    }
+
+    // Map the bytes in [start, end) and parse every line inside them, one window at a time
+    // Precondition: start and end are both line boundaries
+    void readRange(FileChannel channel, long start, long end, Consumer<Item> sink, LongConsumer progress) throws IOException {
+        // nothing to map
+        if(end <= start) return;
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int length = buffer.capacity();
+        int position = 0;
+        int windowEnd = 0;
+        while(position < length) {
+            // widen the window past a line that is longer than a whole window
+            windowEnd = Math.min(length, Math.max(windowEnd, position) + PROGRESS_WINDOW);
+            buffer.limit(windowEnd).position(position);
+            position = parse(buffer, windowEnd == length, sink);
+
+            // report the absolute position in the file
+            progress.accept(start + position);
+        }
+    }
+
+    // Parse every complete line between the buffer's position and limit
+    // Returns the index of the first byte that was not consumed (the start of a partial last line)
+    int parse(ByteBuffer buffer, boolean endOfInput, Consumer<Item> sink) throws IOException {
+        int limit = buffer.limit();
+        int lineStart = buffer.position();
+
+        while(lineStart < limit) {
+            // find the two tabs and the end of the line
+            int firstTab = -1;
+            int secondTab = -1;
+            int i = lineStart;
+            while(i < limit) {
+                byte b = buffer.get(i);
+                if(b == '\n') break;
+                if(b == '\t') {
+                    if(firstTab < 0) firstTab = i;
+                    else if(secondTab < 0) secondTab = i;
+                }
+                i++;
+            }
+
+            // stop at a partial line unless there is no more input coming
+            if(i == limit && !endOfInput) return lineStart;
+
+            // drop the carriage return of a "\r\n" line ending
+            int lineEnd = i;
+            if(lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') lineEnd--;
+
+            // skip blank lines
+            if(lineEnd > lineStart) {
+                // every row needs a serial number, a name, and a cost
+                if(secondTab < 0 || secondTab >= lineEnd) {
+                    throw new IOException("Malformed TSV row: " + decode(buffer, lineStart, lineEnd));
+                }
+
+                // decode the three fields (skipping the '$' in front of the cost)
+                String serialNumber = decode(buffer, lineStart, firstTab);
+                String name = decode(buffer, firstTab + 1, secondTab);
+                String cost = decode(buffer, Math.min(secondTab + 2, lineEnd), lineEnd);
+
+                // add new Item
+                sink.accept(new Item(name, serialNumber, cost));
+            }
+
+            // move to the next line
+            lineStart = i + 1;
+        }
+
+        return limit;
+    }
+
+    // Turn the bytes in [from, to) into a String, skipping the charset decoder when they are plain ASCII
+    private String decode(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+
+        // grow the scratch buffer for unusually long fields
+        if(length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+
+        // copy the field and check for any byte outside of ASCII
+        buffer.get(from, scratch, 0, length);
+        int bits = 0;
+        for(int i = 0; i < length; i++) {
+            bits |= scratch[i];
+        }
+
+        // ASCII is a subset of Latin-1, which the JDK can copy without decoding
+        if(bits >= 0) return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+        else return new String(scratch, 0, length, CHARSET);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to write the inventory to a TSV file without formatting each row through a Formatter.
+
+package baseline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+public class TSVWriter {
+
+    // Prevent this utility class from being created
+    private TSVWriter() {
+    }
+
+    // Save every item as a "serial<TAB>name<TAB>$cost" line (compressing the file if it is a .gz file)
+    public static void write(File file, List<Item> items) throws IOException {
+        write(file, items, InventoryFiles.SyncPolicy.getDefault());
+    }
+
+    // Save the items atomically, forcing the file to the disk as the policy asks
+    public static void write(File file, List<Item> items, InventoryFiles.SyncPolicy policy) throws IOException {
+        write(file, items, policy, rows -> {});
+    }
+
+    // Save the items atomically, reporting the running number of rows written
+    // Note: an exception thrown by the progress consumer stops the save and leaves the old copy in place
+    public static void write(File file, List<Item> items, InventoryFiles.SyncPolicy policy, LongConsumer progress) throws IOException {
+        InventoryFiles.save(file, policy, out -> write(out, items, progress));
+    }
+
+    // Write every item to a stream as TSV lines
+    public static void write(OutputStream out, List<Item> items) throws IOException {
+        write(out, items, rows -> {});
+    }
+
+    // Write every item to a stream as TSV lines, reporting progress every few thousand rows
+    public static void write(OutputStream out, List<Item> items, LongConsumer progress) throws IOException {
+        try(ExportBuffer buffer = new ExportBuffer(out)) {
+            long rows = 0;
+            for(Item item : items) {
+                writeRow(buffer, item);
+                if(++rows % InventoryFiles.PROGRESS_ROWS == 0) progress.accept(rows);
+            }
+            progress.accept(rows);
+        }
+    }
+
+    // Write a single item as a TSV line
+    static void writeRow(ExportBuffer buffer, Item item) throws IOException {
+        buffer.appendSerialNumber(item).append('\t').append(item.getName()).append('\t').append(item.getCost()).newLine();
+    }
+}
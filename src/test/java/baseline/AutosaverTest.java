@@ -0,0 +1,176 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutosaverTest {
+
+    // Create an autosaver with a short interval, which copies the inventory on the calling thread
+    File file;
+    ScheduledExecutorService scheduler;
+    Autosaver autosaver;
+    @BeforeEach
+    void initValues() throws IOException {
+        file = Files.createTempDirectory("autosaver").resolve("autosave.inv").toFile();
+        file.deleteOnExit();
+        file.getParentFile().deleteOnExit();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        autosaver = new Autosaver(file, 200, TimeUnit.MILLISECONDS, scheduler, Runnable::run);
+    }
+
+    @AfterEach
+    void close() {
+        autosaver.close();
+    }
+
+    // Wait for the measurements to reach a state
+    private Autosaver.Metrics await(Predicate<Autosaver.Metrics> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(System.nanoTime() < deadline) {
+            Autosaver.Metrics metrics = autosaver.getMetrics();
+            if(condition.test(metrics)) return metrics;
+            Thread.sleep(10);
+        }
+        fail("timed out: " + autosaver.getMetrics());
+        return null;
+    }
+
+    // Read the autosave file
+    private List<Item> read() throws IOException {
+        List<Item> items = new ArrayList<>();
+        INVReader.read(file, items::add);
+        return items;
+    }
+
+    // test that a burst of changes is saved once, and the file holds the inventory after the last of them
+    @Test
+    void coalesceBurst() throws IOException, InterruptedException {
+        List<Item> inventory = new ArrayList<>();
+        autosaver.setInventory(inventory);
+        for(int i = 0; i < 1000; i++) {
+            inventory.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), "1"));
+            autosaver.markChanged(inventory);
+        }
+
+        Autosaver.Metrics metrics = await(m -> m.saves() == 1);
+        assertEquals(1000,read().size());
+        assertEquals(file.length(),metrics.lastBytes());
+        assertEquals(file.length(),metrics.totalBytes());
+        assertTrue(metrics.lastNanos() > 0);
+
+        // nothing else is written without another change
+        Thread.sleep(400);
+        assertEquals(1,autosaver.getMetrics().saves());
+    }
+
+    // test that two autosaves are never closer together than the interval
+    @Test
+    void saveOncePerInterval() throws IOException, InterruptedException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        autosaver.setInventory(inventory);
+        autosaver.markChanged(inventory);
+        await(m -> m.saves() == 1);
+        long first = System.nanoTime();
+
+        inventory.remove(0);
+        autosaver.markChanged(inventory);
+        await(m -> m.saves() == 2);
+        assertTrue(System.nanoTime() - first >= TimeUnit.MILLISECONDS.toNanos(150));
+        assertEquals(2,read().size());
+    }
+
+    // test that changes to another inventory are ignored, and that switching inventories skips the waiting autosave
+    @Test
+    void skipUnchanged() throws InterruptedException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        autosaver.setInventory(inventory);
+        autosaver.markChanged(new ArrayList<>());
+        Thread.sleep(300);
+        assertEquals(new Autosaver.Metrics(0,0,0,0,0,0,0,0),autosaver.getMetrics());
+
+        // a newly loaded inventory replaces the edited one before the autosave runs
+        autosaver.markChanged(inventory);
+        autosaver.setInventory(new ArrayList<>());
+        Autosaver.Metrics metrics = await(m -> m.skipped() == 1);
+        assertEquals(0,metrics.saves());
+        assertFalse(file.exists());
+    }
+
+    // test that a change reported to InventoryChanges is saved, and that a closed autosaver stops listening
+    @Test
+    void listenForChanges() throws InterruptedException, IOException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        autosaver.setInventory(inventory);
+        InventoryChanges.addListener(autosaver);
+        try {
+            Item item = new Item("Added", InventoryGenerator.serialNumber(3), "4");
+            inventory.add(item);
+            InventoryChanges.added(inventory, item);
+            await(m -> m.saves() == 1);
+            assertEquals(4,read().size());
+        }
+        finally {
+            autosaver.close();
+        }
+
+        // once closed, nothing more is scheduled
+        InventoryChanges.cleared(inventory);
+        Thread.sleep(300);
+        assertEquals(1,autosaver.getMetrics().saves());
+    }
+
+    // test that a failed autosave is counted and tried again
+    @Test
+    void retryFailure() throws InterruptedException, IOException {
+        // a folder stands where the file should be
+        assertTrue(file.mkdir());
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        autosaver.setInventory(inventory);
+        autosaver.markChanged(inventory);
+        await(m -> m.failures() >= 2);
+
+        // once the folder is gone, the retry succeeds
+        Files.delete(file.toPath());
+        await(m -> m.saves() == 1);
+        assertEquals(3,read().size());
+    }
+
+    // measure how long an autosave of a large inventory takes, and how long the GUI thread is held copying it
+    @Test
+    @Tag("benchmark")
+    void autosaveBenchmark() throws InterruptedException {
+        int rows = Integer.getInteger("benchmark.autosaveRows", 1_000_000);
+        List<Item> inventory = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            inventory.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+        }
+
+        long start = System.nanoTime();
+        ExportTask.snapshot(inventory);
+        double copySeconds = (System.nanoTime() - start) / 1e9;
+
+        autosaver.setInventory(inventory);
+        autosaver.markChanged(inventory);
+        Autosaver.Metrics metrics = await(m -> m.saves() == 1);
+        System.out.printf("Autosaver: %d rows, GUI thread held %.3f s for the copy, %s%n", rows, copySeconds, metrics);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportTaskTest {
+
+    // test that edits made to the inventory after the snapshot is taken don't reach the snapshot
+    @Test
+    void snapshot() {
+        List<Item> inventory = new ArrayList<>();
+        inventory.add(new Item("Item 1","A-aaa-aaa-aaa","1"));
+        inventory.add(new Item("Item 2","B-bbb-bbb-bbb","2.25"));
+
+        List<Item> snapshot = ExportTask.snapshot(inventory);
+
+        // edit an item in place, add an item, and remove an item
+        inventory.get(0).setName("Renamed");
+        inventory.get(0).setCost("9");
+        inventory.add(new Item("Item 3","C-ccc-ccc-ccc","3"));
+        inventory.remove(1);
+
+        assertEquals(2,snapshot.size());
+        assertEquals("Item 1",snapshot.get(0).getName());
+        assertEquals("$1.00",snapshot.get(0).getCost());
+        assertEquals("B-bbb-bbb-bbb",snapshot.get(1).getSerialNumber());
+        assertEquals("$2.25",snapshot.get(1).getCost());
+    }
+
+    // test that a mapped inventory's snapshot keeps its edits without decoding the rest of the file
+    @Test
+    void snapshotMapped() throws IOException {
+        File file = File.createTempFile("exportTask", ".inv");
+        file.deleteOnExit();
+        INVWriter.write(file, TSVWriterTest.sampleItems());
+        MappedInventory inventory = MappedInventory.open(file);
+        inventory.get(0).setName("Renamed");
+
+        List<Item> snapshot = ExportTask.snapshot(inventory);
+        inventory.get(0).setName("Renamed again");
+        inventory.remove(2);
+
+        assertTrue(snapshot instanceof MappedInventory);
+        assertEquals(3,snapshot.size());
+        assertEquals("Renamed",snapshot.get(0).getName());
+        assertEquals("C-ccc-ccc-ccc",snapshot.get(2).getSerialNumber());
+    }
+}
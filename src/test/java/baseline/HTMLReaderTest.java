@@ -0,0 +1,55 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HTMLReaderTest {
+
+    // test that the test inventory is read in file order
+    @Test
+    void read() throws IOException {
+        List<Item> list = new ArrayList<>();
+        HTMLReader.read(new File("./data/test/testHTML.html"), list::add);
+
+        // test first and last values to ensure list was copied
+        assertEquals(1024,list.size());
+        assertEquals("Item 1",list.get(0).getName());
+        assertEquals("A-XXX-XX0-001",list.get(0).getSerialNumber());
+        assertEquals("$1.00",list.get(0).getCost());
+        assertEquals("Item 1024",list.get(list.size() - 1).getName());
+    }
+
+    // test that rows split over lines, upper case tags, and stray characters are handled
+    @Test
+    void readFormatting() throws IOException {
+        String html = "<html><body><table><tr><th>Serial Number\t</th><th>Name\t</th><th>Cost</th></tr>\n" +
+                "<TR><TD>A-aaa-aaa-aaa</TD><td class=\"name\">Item\n 1</td><td>$1.00</td></tr>" +
+                "<tr><td>B-bbb-bbb-bbb</td><td>a < b</td><td>$2.00</td></tr></table></body></html>";
+        List<Item> list = new ArrayList<>();
+        HTMLReader.read(new StringReader(html), list::add);
+
+        assertEquals(2,list.size());
+        assertEquals("Item 1",list.get(0).getName());
+        assertEquals("a < b",list.get(1).getName());
+        assertEquals("$2.00",list.get(1).getCost());
+    }
+
+    // test that a row missing a cell is rejected
+    @Test
+    void readMalformed() {
+        String html = "<table><tr><td>A-aaa-aaa-aaa</td><td>Item 1</td></tr></table>";
+        assertThrows(IOException.class, () -> HTMLReader.read(new StringReader(html), item -> { }));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HTMLWriterTest {
+
+    // test that the file is byte-for-byte what the Formatter-based export wrote
+    @Test
+    void writeMatchesFormatter() throws IOException {
+        List<Item> items = TSVWriterTest.sampleItems();
+
+        // write the file the way SaveController used to
+        File expected = File.createTempFile("htmlWriter", ".html");
+        expected.deleteOnExit();
+        try(Formatter stream = new Formatter(new FileOutputStream(expected))) {
+            stream.format("""
+                    <html><body><table>
+                    <style type="text/css">
+                      td {
+                        padding: 0 15px;
+                      }
+                    </style><tr><th>Serial Number\t</th><th>Name\t</th><th>Cost</th></tr>
+                    """);
+            for(Item i: items) {
+                stream.format("<tr><td>%s</td><td>%s</td><td>%s</td></tr>",i.getSerialNumber(),i.getName(),i.getCost());
+            }
+            stream.format("%s","</table></body></html>");
+        }
+
+        File actual = File.createTempFile("htmlWriter", ".html");
+        actual.deleteOnExit();
+        HTMLWriter.write(actual, items);
+
+        assertArrayEquals(Files.readAllBytes(expected.toPath()),Files.readAllBytes(actual.toPath()));
+
+        // the file reads back
+        List<Item> values = new ArrayList<>();
+        HTMLReader.read(actual, values::add);
+        assertEquals("100% %s %n",values.get(2).getName());
+    }
+
+    // test that every cost is written as dollars and two digits of cents, however large it is
+    @Test
+    void writeCosts() throws IOException {
+        List<Item> items = List.of(new Item("Half","A-aaa-aaa-aaa","2.5"), new Item("Large","B-bbb-bbb-bbb","10000000"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HTMLWriter.write(out, items);
+
+        String html = out.toString();
+        assertTrue(html.contains("<tr><td>A-aaa-aaa-aaa</td><td>Half</td><td>$2.50</td></tr>"));
+        assertTrue(html.contains("<tr><td>B-bbb-bbb-bbb</td><td>Large</td><td>$10000000.00</td></tr>"));
+    }
+
+    // test the export throughput on a multi-million row inventory
+    @Test
+    @Tag("benchmark")
+    void writeThroughput() throws IOException {
+        int rows = Integer.getInteger("benchmark.htmlRows", 3_000_000);
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+        }
+        File file = File.createTempFile("htmlWriter", ".html");
+        file.deleteOnExit();
+
+        // warm up, then time the write
+        HTMLWriter.write(file, items.subList(0, Math.min(rows, 200_000)));
+        long start = System.nanoTime();
+        HTMLWriter.write(file, items);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("HTMLWriter: %d rows, %.1f MB in %.3f s (%.0f rows/s, %.1f MB/s)%n", rows,
+                file.length() / 1e6, seconds, rows / seconds, file.length() / 1e6 / seconds);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class INVReaderTest {
+
+    // Write items to bytes in the binary format
+    private static byte[] toBytes(List<Item> items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        INVWriter.write(out, items);
+        return out.toByteArray();
+    }
+
+    // Read items back from bytes in the binary format
+    private static List<Item> fromBytes(byte[] bytes) throws IOException {
+        List<Item> list = new ArrayList<>();
+        INVReader.read(new ByteArrayInputStream(bytes), list::add);
+        return list;
+    }
+
+    // test that every field survives a save and load, including names and serial numbers in other formats
+    @Test
+    void readRoundTrip() throws IOException {
+        List<Item> items = TSVWriterTest.sampleItems();
+        items.add(new Item("Free-form serial","not a serial \u00e9","0.5"));
+        items.add(new Item("Negative","D-ddd-ddd-ddd","-12.34"));
+        items.add(new Item("Expensive","E-eee-eee-eee","20000000"));
+        items.add(new Item("x".repeat(3 << 20),"F-fff-fff-fff","1"));
+
+        List<Item> values = fromBytes(toBytes(items));
+        assertEquals(items.size(),values.size());
+        for(int i = 0; i < items.size(); i++) {
+            // note: the unpaired surrogate can't be stored in UTF-8, so it comes back as '?'
+            assertEquals(items.get(i).getName().replace('\ud800', '?'),values.get(i).getName());
+            assertEquals(items.get(i).getSerialNumber(),values.get(i).getSerialNumber());
+            assertEquals(items.get(i).getCost(),values.get(i).getCost());
+        }
+    }
+
+    // test that an empty inventory is just a header and a trailer
+    @Test
+    void readEmpty() throws IOException {
+        byte[] bytes = toBytes(List.of());
+        assertEquals(INVWriter.HEADER_SIZE + INVWriter.TRAILER_SIZE,bytes.length);
+        assertTrue(fromBytes(bytes).isEmpty());
+    }
+
+    // test that files which aren't inventories, come from a newer version, or are cut short are rejected
+    @Test
+    void readInvalid() throws IOException {
+        byte[] bytes = toBytes(List.of(new Item("Item 1","A-aaa-aaa-aaa","1"), new Item("Item 2","B-bbb-bbb-bbb","2")));
+
+        // a text file
+        assertThrows(IOException.class, () -> fromBytes("A-aaa-aaa-aaa\tItem 1\t$1.00\n".getBytes()));
+
+        // a newer version
+        byte[] newer = bytes.clone();
+        newer[INVWriter.MAGIC.length + 3]++;
+        assertThrows(IOException.class, () -> fromBytes(newer));
+
+        // a file cut off in the middle of the second item (before the index, which holds a single row)
+        assertThrows(EOFException.class, () -> fromBytes(Arrays.copyOf(bytes, bytes.length - INVWriter.TRAILER_SIZE - Long.BYTES - 3)));
+    }
+
+    // test that plain and compressed .inv files can be imported through the controller
+    @Test
+    void importItems() throws IOException {
+        List<Item> items = TSVWriterTest.sampleItems();
+        File dir = Files.createTempDirectory("invReader").toFile();
+        SaveController save = new SaveController(items);
+        ImportController importer = new ImportController();
+
+        for(boolean compressed : new boolean[] {false, true}) {
+            save.setCompressed(compressed);
+            save.saveToINV(dir.getPath(), "items");
+
+            File file = new File(dir, compressed ? "items.inv.gz" : "items.inv");
+            List<Item> values = importer.importItems(file);
+            assertEquals(items.size(),values.size());
+            assertEquals("C-ccc-ccc-ccc",values.get(2).getSerialNumber());
+            assertEquals("$2.25",values.get(1).getCost());
+            Files.delete(file.toPath());
+        }
+        Files.delete(dir.toPath());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static baseline.InventoryGenerator.generate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class INVWriterTest {
+
+    // test the header, the layout of a single item, and the row index
+    @Test
+    void writeLayout() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        INVWriter.write(out, List.of(new Item("Item 1","A-aaa-aaa-aaa","2.25")));
+        ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray());
+
+        // header: magic, version, number of items
+        byte[] magic = new byte[4];
+        bytes.get(magic);
+        assertArrayEquals(INVWriter.MAGIC,magic);
+        assertEquals(INVWriter.VERSION,bytes.getInt());
+        assertEquals(1,bytes.getLong());
+
+        // name length and name
+        assertEquals(6,bytes.get());
+        byte[] name = new byte[6];
+        bytes.get(name);
+        assertEquals("Item 1",new String(name));
+
+        // serial number without its hyphens
+        byte[] serial = new byte[INVWriter.SERIAL_SIZE];
+        bytes.get(serial);
+        assertEquals("Aaaaaaaaaa",new String(serial));
+
+        // 225 cents, zigzag encoded as 450, is written in two bytes
+        assertEquals((byte)(450 & 0x7F | 0x80),bytes.get());
+        assertEquals((byte)(450 >>> 7),bytes.get());
+
+        // index: where the first item starts, then the trailer: the stride and where the index starts
+        int indexStart = bytes.position();
+        assertEquals(INVWriter.HEADER_SIZE,bytes.getLong());
+        assertEquals(INVWriter.INDEX_STRIDE,bytes.getInt());
+        assertEquals(indexStart,bytes.getLong());
+        assertFalse(bytes.hasRemaining());
+    }
+
+    // test which serial numbers fit the fixed-width field
+    @Test
+    void isPackable() {
+        assertTrue(INVWriter.isPackable("A-XXX-XX0-001"));
+        assertTrue(INVWriter.isPackable("a-b1c-d2e-f3g"));
+        assertFalse(INVWriter.isPackable("A-XXX-XX0-0010"));
+        assertFalse(INVWriter.isPackable("AXXXX-XX0-001"));
+        assertFalse(INVWriter.isPackable("\u0000-XXX-XX0-001"));
+        assertFalse(INVWriter.isPackable("\u00c9-XXX-XX0-001"));
+    }
+
+    // test that a typical inventory takes much less space than the same inventory as TSV
+    @Test
+    void writeSmallerThanTSV() throws IOException {
+        List<Item> items = generate(100_000);
+        File inv = File.createTempFile("invWriter", ".inv");
+        inv.deleteOnExit();
+        File tsv = File.createTempFile("invWriter", ".txt");
+        tsv.deleteOnExit();
+
+        INVWriter.write(inv, items);
+        TSVWriter.write(tsv, items);
+        assertTrue(inv.length() < tsv.length() * 4 / 5, inv.length() + " vs " + tsv.length());
+    }
+
+    // compare saving and loading a multi-million row inventory as .inv and as TSV
+    @Test
+    @Tag("benchmark")
+    void writeThroughput() throws IOException {
+        int rows = Integer.getInteger("benchmark.invRows", 3_000_000);
+        List<Item> items = generate(rows);
+
+        for(String extension : new String[] {".txt", ".inv"}) {
+            File file = File.createTempFile("invWriter", extension);
+            file.deleteOnExit();
+
+            // warm up, then time a save and a load
+            save(file, items.subList(0, Math.min(rows, 200_000)));
+            long start = System.nanoTime();
+            save(file, items);
+            double saveSeconds = (System.nanoTime() - start) / 1e9;
+
+            List<Item> values = new ArrayList<>(rows);
+            start = System.nanoTime();
+            if(extension.equals(".inv")) INVReader.read(file, values::add);
+            else TSVReader.read(file, values::add);
+            double loadSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("INVWriter: %s %d rows, %.1f MB, save %.3f s (%.0f MB/s), load %.3f s (%.0f MB/s)%n", extension, rows, file.length() / 1e6,
+                    saveSeconds, file.length() / 1e6 / saveSeconds, loadSeconds, file.length() / 1e6 / loadSeconds);
+            assertEquals(rows,values.size());
+        }
+    }
+
+    // Save a list in the format matching the file's extension
+    private static void save(File file, List<Item> items) throws IOException {
+        if(file.getName().endsWith(".inv")) INVWriter.write(file, items, InventoryFiles.SyncPolicy.NONE);
+        else TSVWriter.write(file, items, InventoryFiles.SyncPolicy.NONE);
+    }
+}
@@ -57,6 +57,10 @@ class ImportControllerTest {
         // html
         assertTrue(test.isValidFileExtension("html"));
 
+        // binary
+        assertTrue(test.isValidFileExtension("inv"));
+        assertTrue(test.isValidFileExtension("inv.gz"));
+
         // fail case
         assertFalse(test.isValidFileExtension(""));
     }
@@ -88,9 +92,9 @@ class ImportControllerTest {
 
     // test that a .txt file can be parsed
     @Test
-    void parseTSVFile() {
+    void importTSVFile() {
         // tsv
-        list = test.parseTSVFile(test.openFile("./data/test/testTSV.txt"));
+        list = test.importItems(test.openFile("./data/test/testTSV.txt"));
         // test first and last values to ensure list was copied
         assertEquals("Item 1",list.get(0).getName());
         assertEquals("Item 1024",list.get(list.size() - 1).getName());
@@ -98,8 +102,8 @@ class ImportControllerTest {
 
     // test that a .json file can be parsed
     @Test
-    void parseJSONFile() {
-        list = test.parseJSONFile(test.openFile("./data/test/testJSON.json"));
+    void importJSONFile() {
+        list = test.importItems(test.openFile("./data/test/testJSON.json"));
         // test first and last values to ensure list was copied
         assertEquals("Item 1",list.get(0).getName());
         assertEquals("Item 1024",list.get(list.size() - 1).getName());
@@ -107,8 +111,8 @@ class ImportControllerTest {
 
     // test that a .html file can be parsed
     @Test
-    void parseHTMLFile() {
-        list = test.parseHTMLFile(test.openFile("./data/test/testHTML.html"));
+    void importHTMLFile() {
+        list = test.importItems(test.openFile("./data/test/testHTML.html"));
         // test first and last values to ensure list was copied
         assertEquals("Item 1",list.get(0).getName());
         assertEquals("Item 1024",list.get(list.size() - 1).getName());
@@ -0,0 +1,167 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import javafx.application.Platform;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: gradlew benchmark --tests baseline.ImportExportBenchmark -Dbenchmark.sizes=10000,100000,1000000,10000000
+// Note: the tasks report their progress to the GUI thread, so the JavaFX toolkit has to be able to start
+@Tag("benchmark")
+class ImportExportBenchmark {
+
+    // Declare the row counts measured when no sizes are given
+    private static final String DEFAULT_SIZES = "10000,100000,1000000";
+
+    // Declare the file formats measured, both plain and compressed
+    private static final String[] EXTENSIONS = {".txt", ".json", ".html", ".inv", ".txt.gz", ".json.gz", ".html.gz", ".inv.gz"};
+
+    // Declare the stores an inventory is loaded into: a plain list, the heap and off-heap tables, and a mapped .inv file
+    private static final String[] STORES = {"list", "table", "off-heap", "mapped"};
+
+    // Start the GUI thread the tasks report their progress to
+    @BeforeAll
+    static void startToolkit() {
+        try {
+            Platform.startup(() -> { });
+        }
+        catch(IllegalStateException alreadyStarted) {
+            // another test started it
+        }
+    }
+
+    // Report the ImportTask and ExportTask paths the app runs, for every format and store at each size
+    @Test
+    void importExportThroughput() throws Exception {
+        long[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", DEFAULT_SIZES).split(","))
+                .mapToLong(size -> Long.parseLong(size.trim().replace("_", ""))).toArray();
+        Path dir = Files.createTempDirectory("inventoryBenchmark");
+        ImportController importer = new ImportController();
+
+        System.out.printf("%-8s %-9s %-10s %-10s %10s %10s %12s %10s %10s%n", "path", "store", "file", "rows", "MB", "seconds", "rows/s", "MB/s", "peak MB");
+        for(long rows : sizes) {
+            for(String extension : EXTENSIONS) {
+                // generate the file to import
+                File file = dir.resolve("generated" + extension).toFile();
+                generate(dir, file, rows);
+                String importType = importer.getFileExtension(file.getPath());
+                String exportType = importType.replace(InventoryFiles.GZIP_SUFFIX, "");
+
+                for(String store : STORES) {
+                    // only an uncompressed .inv file can be mapped
+                    boolean mapped = store.equals("mapped");
+                    if(mapped && !importType.equals("inv")) continue;
+
+                    // load it as the import scene does
+                    List<Item> items = measure("import", store, file, rows, () -> mapped ? MappedInventory.open(file) : importFile(file, importType, store));
+                    assertEquals(rows,items.size());
+
+                    // save it back as the save scene does
+                    File saved = dir.resolve("saved" + extension).toFile();
+                    long written = measure("export", store, saved, rows, () -> new ExportTask(saved, exportType, items).call());
+                    assertEquals(rows,written);
+                    assertTrue(saved.length() > 0);
+                }
+                InventoryJournal.detach();
+                deleteFiles(dir);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    // Write a generated inventory to a file
+    // Note: the generator only writes text formats, so a .inv file is made by saving the generated TSV rows
+    private static void generate(Path dir, File file, long rows) throws IOException {
+        String path = file.getPath();
+        if(!path.contains(".inv")) {
+            new InventoryGenerator(rows, 42).write(file);
+            return;
+        }
+        File tsv = dir.resolve("generated-rows.txt").toFile();
+        new InventoryGenerator(rows, 42).write(tsv);
+        List<Item> items = new ArrayList<>();
+        TSVReader.read(tsv, items::add);
+        INVWriter.write(file, items);
+        Files.delete(tsv.toPath());
+    }
+
+    // Import a file into a new store the way the app does: the task parses the file on its own thread while the
+    // parsed batches are moved into the store a pulse at a time (as the main scene's timer does on the GUI thread)
+    private static List<Item> importFile(File file, String fileType, String store) throws Exception {
+        List<Item> inventory = switch(store) {
+            case "table" -> OffHeapInventory.Storage.HEAP.create();
+            case "off-heap" -> OffHeapInventory.Storage.OFF_HEAP.create();
+            default -> new ArrayList<>();
+        };
+        ImportTask task = new ImportTask(file, fileType, store.equals("list"));
+        FutureTask<Long> parse = new FutureTask<>(task::call);
+        new Thread(parse, "benchmark-import").start();
+        while(!parse.isDone()) {
+            if(task.drain(inventory, ImportTask.ITEMS_PER_PULSE) == 0) Thread.sleep(1);
+        }
+
+        // rethrow any parse failure, then move the last batches over
+        long count = parse.get();
+        task.drain(inventory, Integer.MAX_VALUE);
+        assertEquals(count,inventory.size());
+        return inventory;
+    }
+
+    // Delete the files written for one format
+    private static void deleteFiles(Path dir) throws IOException {
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for(Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // Time a single run after a garbage collection, reporting throughput and the peak heap used during it
+    // Note: the records of an off-heap store are outside the heap, so they aren't part of its peak
+    private static <T> T measure(String name, String store, File file, long rows, Callable<T> run) throws Exception {
+        List<MemoryPoolMXBean> heap = new ArrayList<>();
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if(pool.getType() == MemoryType.HEAP) heap.add(pool);
+        }
+
+        // start from a clean heap
+        System.gc();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        T result = run.call();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // note: the pools peak at different moments, so their sum is an upper bound
+        long peak = 0;
+        for(MemoryPoolMXBean pool : heap) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+
+        double megabytes = file.length() / 1e6;
+        System.out.printf("%-8s %-9s %-10s %-10d %10.1f %10.3f %12.0f %10.1f %10.1f%n", name, store, file.getName().substring(file.getName().indexOf('.')),
+                rows, megabytes, seconds, rows / seconds, megabytes / seconds, peak / 1e6);
+        return result;
+    }
+}
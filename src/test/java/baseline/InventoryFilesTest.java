@@ -0,0 +1,181 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryFilesTest {
+
+    // Test that only paths ending in .gz are treated as compressed
+    @Test
+    void isCompressed() {
+        assertTrue(InventoryFiles.isCompressed("./data/test/items.txt.gz"));
+        assertFalse(InventoryFiles.isCompressed("./data/test/items.txt"));
+        assertFalse(InventoryFiles.isCompressed("./data/test/items.gz.txt"));
+    }
+
+    // Test that each format can be saved compressed and read back through the readers
+    @Test
+    void compressedRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("inventory");
+        List<Item> items = new ArrayList<>();
+        items.add(new Item("Item 1","A-aaa-aaa-aaa","1"));
+        items.add(new Item("Item 2","B-bbb-bbb-bbb","2.25"));
+
+        SaveController save = new SaveController(items);
+        save.setCompressed(true);
+        save.saveToTSV(dir.toString(), "items");
+        save.saveToJSON(dir.toString(), "items");
+        save.saveToHTML(dir.toString(), "items");
+
+        for(String extension : new String[] {".txt.gz", ".json.gz", ".html.gz"}) {
+            File file = dir.resolve("items" + extension).toFile();
+
+            // the saved file really is GZIP data
+            try(InputStream stream = Files.newInputStream(file.toPath())) {
+                assertEquals(0x1f, stream.read());
+                assertEquals(0x8b, stream.read());
+            }
+
+            List<Item> values = read(file);
+            assertEquals(2,values.size(),extension);
+            assertEquals("Item 1",values.get(0).getName());
+            assertEquals("B-bbb-bbb-bbb",values.get(1).getSerialNumber());
+            assertEquals("$2.25",values.get(1).getCost());
+            Files.delete(file.toPath());
+        }
+        Files.delete(dir);
+    }
+
+    // Test that a failed save leaves the old copy in place, and a good save replaces it without leaving temporary files
+    @Test
+    void saveAtomically() throws IOException {
+        Path dir = Files.createTempDirectory("inventory");
+        File file = dir.resolve("items.txt").toFile();
+        Files.writeString(file.toPath(), "old copy");
+
+        // the save dies halfway through writing
+        assertThrows(IOException.class, () -> InventoryFiles.save(file, InventoryFiles.SyncPolicy.DATA, out -> {
+            out.write("half of a new copy".getBytes());
+            throw new IOException("disk full");
+        }));
+        assertEquals("old copy",Files.readString(file.toPath()));
+        assertEquals(1,dir.toFile().list().length);
+
+        // every policy replaces the file
+        for(InventoryFiles.SyncPolicy policy : InventoryFiles.SyncPolicy.values()) {
+            InventoryFiles.save(file, policy, out -> out.write(policy.name().getBytes()));
+            assertEquals(policy.name(),Files.readString(file.toPath()));
+            assertEquals(1,dir.toFile().list().length);
+        }
+
+        Files.delete(file.toPath());
+        Files.delete(dir);
+    }
+
+    // Test that the policy is read from the system property
+    @Test
+    void syncPolicyDefault() {
+        String old = System.getProperty("inventory.fsync");
+        try {
+            System.setProperty("inventory.fsync", "Full");
+            assertEquals(InventoryFiles.SyncPolicy.FULL,InventoryFiles.SyncPolicy.getDefault());
+            System.setProperty("inventory.fsync", "sometimes");
+            assertEquals(InventoryFiles.SyncPolicy.DATA,InventoryFiles.SyncPolicy.getDefault());
+        }
+        finally {
+            if(old == null) System.clearProperty("inventory.fsync");
+            else System.setProperty("inventory.fsync", old);
+        }
+    }
+
+    // Compare what each sync policy adds to the time of a large save
+    @Test
+    @Tag("benchmark")
+    void syncPolicyBenchmark() throws IOException {
+        int rows = Integer.getInteger("benchmark.syncRows", 1_000_000);
+        int runs = 3;
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+        }
+
+        Path dir = Files.createTempDirectory("inventory");
+        File file = dir.resolve("items.txt").toFile();
+        TSVWriter.write(file, items, InventoryFiles.SyncPolicy.NONE);
+        for(InventoryFiles.SyncPolicy policy : InventoryFiles.SyncPolicy.values()) {
+            long start = System.nanoTime();
+            for(int run = 0; run < runs; run++) {
+                TSVWriter.write(file, items, policy);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9 / runs;
+            System.out.printf("InventoryFiles.save: %-4s %d rows, %.1f MB in %.3f s per save%n", policy, rows, file.length() / 1e6, seconds);
+        }
+        Files.delete(file.toPath());
+        Files.delete(dir);
+    }
+
+    // Compare save time, load time, and size on disk of compressed and uncompressed files in every format
+    @Test
+    @Tag("benchmark")
+    void compressionBenchmark() throws IOException {
+        int rows = Integer.getInteger("benchmark.compressionRows", 500_000);
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item("Item " + i, String.format("A-%03d-%03d-%03d", i / 1000000, i / 1000 % 1000, i % 1000), String.valueOf(i % 1000)));
+        }
+
+        Path dir = Files.createTempDirectory("inventory");
+        SaveController save = new SaveController(items);
+        for(boolean compressed : new boolean[] {false, true}) {
+            save.setCompressed(compressed);
+            String suffix = compressed ? InventoryFiles.GZIP_SUFFIX : "";
+
+            for(String extension : new String[] {".txt", ".json", ".html"}) {
+                File file = dir.resolve("items" + extension + suffix).toFile();
+
+                long start = System.nanoTime();
+                switch (extension) {
+                    case ".txt" -> save.saveToTSV(dir.toString(), "items");
+                    case ".json" -> save.saveToJSON(dir.toString(), "items");
+                    default -> save.saveToHTML(dir.toString(), "items");
+                }
+                double saveSeconds = (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                List<Item> values = read(file);
+                double loadSeconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("InventoryFiles: %-10s %d rows, save %.3f s, load %.3f s, %.1f MB on disk%n",
+                        file.getName(), rows, saveSeconds, loadSeconds, file.length() / 1e6);
+                assertEquals(rows,values.size());
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(dir);
+    }
+
+    // Read a file with the reader matching its extension
+    private static List<Item> read(File file) throws IOException {
+        List<Item> values = new ArrayList<>();
+        String name = file.getName();
+        if(name.contains(".txt")) TSVReader.read(file, values::add);
+        else if(name.contains(".json")) JSONReader.read(file, values::add);
+        else HTMLReader.read(file, values::add);
+        return values;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+// The purpose of this class is to generate large, valid inventory files for testing the importers and exporters at scale.
+
+package baseline;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InventoryGenerator {
+
+    // Declare the number of serial numbers available after the leading letter (36^9)
+    private static final long SERIAL_SPACE = 101_559_956_668_416L;
+
+    // Declare a prime which scrambles the row number into a serial number (it shares no factor with 36)
+    private static final long SERIAL_SCRAMBLE = 7919;
+
+    // Declare the digits of a serial number
+    private static final String SERIAL_DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    // Declare the words item names are made from
+    private static final String[] ADJECTIVES = {"Iron", "Golden", "Diamond", "Wooden", "Stone", "Enchanted", "Netherite", "Cracked", "Mossy", "Polished"};
+    private static final String[] NOUNS = {"Pickaxe", "Sword", "Shovel", "Helmet", "Boots", "Block", "Bucket", "Torch", "Lantern", "Bow"};
+
+    // Declare the number of rows to generate and the source of the random names and costs
+    private final long rows;
+    private final Random random;
+
+    // Create a generator for the given number of rows (the same seed always gives the same inventory)
+    public InventoryGenerator(long rows, long seed) {
+        this.rows = rows;
+        this.random = new Random(seed);
+    }
+
+    // Generate the files named on the command line
+    // Usage: InventoryGenerator <rows> <file>... (the format comes from each file's extension, such as items.json.gz)
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: InventoryGenerator <rows> <file>...");
+            System.exit(1);
+        }
+
+        long rows = Long.parseLong(args[0].replace("_", ""));
+        for(int i = 1; i < args.length; i++) {
+            File file = new File(args[i]);
+            long start = System.nanoTime();
+            new InventoryGenerator(rows, 42).write(file);
+            System.out.printf("Wrote %d rows to %s (%.1f MB) in %.2f s%n", rows, file, file.length() / 1e6, (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    // Get the unique serial number of a row, in the A-XXX-XXX-XXX format ItemController accepts
+    public static String serialNumber(long row) {
+        // scramble the row so neighbouring rows don't share a prefix
+        long value = Math.floorMod(row * SERIAL_SCRAMBLE, SERIAL_SPACE);
+        char[] serial = new char[13];
+        serial[0] = (char)('A' + Math.floorMod(row / SERIAL_SPACE, 26));
+        for(int i = 12; i > 0; i--) {
+            // every fourth character is a hyphen
+            if(i % 4 == 1) {
+                serial[i] = '-';
+                continue;
+            }
+            serial[i] = SERIAL_DIGITS.charAt((int)(value % 36));
+            value /= 36;
+        }
+        return new String(serial);
+    }
+
+    // Get the serial number of a numbered test item: a generated one, with a free-form one every so often
+    public static String mixedSerialNumber(long row) {
+        return row % 97 == 0 ? "free-form " + row : serialNumber(row);
+    }
+
+    // Create a list of numbered items ("Product 0", "Product 1", ...), with a free-form serial number every so often
+    public static List<Item> generate(int rows) {
+        return generate(rows, i -> "Product " + i);
+    }
+
+    // Create a list of items named by their row, with a free-form serial number every so often
+    public static List<Item> generate(int rows, IntFunction<String> name) {
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item(name.apply(i), mixedSerialNumber(i), String.valueOf(i % 1000 / 10.0)));
+        }
+        return items;
+    }
+
+    // Check that two lists hold the same names, serial numbers, and costs
+    public static void assertSameItems(List<Item> expected, List<Item> actual) {
+        assertEquals(expected.size(),actual.size());
+        for(int i = 0; i < expected.size(); i++) {
+            // note: an unpaired surrogate can't be stored in UTF-8, so it comes back as '?'
+            assertEquals(expected.get(i).getName().replace('\ud800', '?'),actual.get(i).getName().replace('\ud800', '?'));
+            assertEquals(expected.get(i).getSerialNumber(),actual.get(i).getSerialNumber());
+            assertEquals(expected.get(i).getCost(),actual.get(i).getCost());
+        }
+    }
+
+    // Write the inventory to a file, choosing the format from its extension (.txt, .json, or .html, optionally .gz)
+    public void write(File file) throws IOException {
+        String path = file.getPath();
+        String base = InventoryFiles.isCompressed(path) ? path.substring(0, path.length() - InventoryFiles.GZIP_SUFFIX.length()) : path;
+
+        try(Writer writer = new OutputStreamWriter(InventoryFiles.openOutput(file), Charset.defaultCharset())) {
+            if(base.endsWith(".txt")) writeTSV(writer);
+            else if(base.endsWith(".json")) writeJSON(writer);
+            else if(base.endsWith(".html")) writeHTML(writer);
+            else throw new IOException("Unsupported file type: " + path);
+        }
+    }
+
+    // Write one "serial<TAB>name<TAB>$cost" line per row
+    private void writeTSV(Writer writer) throws IOException {
+        String newline = System.lineSeparator();
+        for(long i = 0; i < rows; i++) {
+            writer.write(serialNumber(i));
+            writer.write('\t');
+            writer.write(name(i));
+            writer.write('\t');
+            writer.write(cost());
+            writer.write(newline);
+        }
+    }
+
+    // Write one JSON object per row, back to back the way SaveController does
+    private void writeJSON(Writer writer) throws IOException {
+        for(long i = 0; i < rows; i++) {
+            writer.write("{\"name\":\"");
+            writer.write(name(i));
+            writer.write("\",\"serialNumber\":\"");
+            writer.write(serialNumber(i));
+            writer.write("\",\"cost\":\"");
+            writer.write(cost());
+            writer.write("\"}");
+        }
+    }
+
+    // Write one table row per row, under the heading SaveController writes
+    private void writeHTML(Writer writer) throws IOException {
+        writer.write("""
+                <html><body><table>
+                <style type="text/css">
+                  td {
+                    padding: 0 15px;
+                  }
+                </style><tr><th>Serial Number\t</th><th>Name\t</th><th>Cost</th></tr>
+                """);
+        for(long i = 0; i < rows; i++) {
+            writer.write("<tr><td>");
+            writer.write(serialNumber(i));
+            writer.write("</td><td>");
+            writer.write(name(i));
+            writer.write("</td><td>");
+            writer.write(cost());
+            writer.write("</td></tr>");
+        }
+        writer.write("</table></body></html>");
+    }
+
+    // Make a readable name, numbered so every name is different
+    private String name(long row) {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + row;
+    }
+
+    // Make a cost between $0.00 and $9999.99
+    private String cost() {
+        int cents = random.nextInt(1_000_000);
+        int fraction = cents % 100;
+        return "$" + cents / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
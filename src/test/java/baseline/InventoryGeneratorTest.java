@@ -0,0 +1,52 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryGeneratorTest {
+
+    // test that serial numbers follow the A-XXX-XXX-XXX format and never repeat
+    @Test
+    void serialNumber() {
+        Set<String> serials = new HashSet<>();
+        for(long i = 0; i < 100_000; i++) {
+            String serial = InventoryGenerator.serialNumber(i);
+            assertTrue(serial.matches("[A-Z]-[0-9A-Z]{3}-[0-9A-Z]{3}-[0-9A-Z]{3}"), serial);
+            assertTrue(serials.add(serial), serial);
+        }
+    }
+
+    // test that every generated format can be imported with the same items
+    @Test
+    void write() throws IOException {
+        Path dir = Files.createTempDirectory("inventoryGenerator");
+        ImportController importer = new ImportController();
+
+        for(String extension : new String[] {".txt", ".json", ".html", ".json.gz"}) {
+            File file = dir.resolve("items" + extension).toFile();
+            new InventoryGenerator(1000, 7).write(file);
+
+            List<Item> items = importer.importItems(file);
+            assertNotNull(items, extension);
+            assertEquals(1000,items.size());
+            assertEquals(InventoryGenerator.serialNumber(999),items.get(999).getSerialNumber());
+            assertTrue(items.get(0).getCost().startsWith("$"));
+            Files.delete(file.toPath());
+        }
+        Files.delete(dir);
+    }
+}
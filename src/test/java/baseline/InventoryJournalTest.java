@@ -0,0 +1,342 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static baseline.InventoryGenerator.assertSameItems;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryJournalTest {
+
+    // Stop recording after each test, so one test's inventory doesn't leak into the next
+    @AfterEach
+    void detach() {
+        InventoryJournal.detach();
+    }
+
+    // Save items to a temporary .inv file, deleting any journal left beside it
+    private static File save(List<Item> items) throws IOException {
+        File file = File.createTempFile("inventoryJournal", ".inv");
+        file.deleteOnExit();
+        InventoryJournal.getFile(file).deleteOnExit();
+        INVWriter.write(file, items, InventoryFiles.SyncPolicy.NONE);
+        return file;
+    }
+
+    // Read a .inv file and apply its journal, the way a parsed import does
+    private static List<Item> load(File file) throws IOException {
+        List<Item> items = new ArrayList<>();
+        INVReader.read(file, items::add);
+        InventoryJournal.replay(file, items);
+        return items;
+    }
+
+    // Save the changes recorded since the last save
+    private static void saveChanges(File file, List<Item> inventory) throws IOException {
+        InventoryJournal journal = InventoryJournal.get(file, inventory);
+        assertNotNull(journal);
+        journal.append(journal.takeBatch(), InventoryFiles.SyncPolicy.NONE);
+    }
+
+    // test that every kind of change reported to InventoryChanges is saved to the journal and replayed on top of the file
+    @Test
+    void appendAndReplay() throws IOException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems().subList(0, 1));
+        File file = save(inventory);
+        InventoryJournal.load(file, inventory);
+
+        // add, edit, and remove items, saving twice
+        Item added = new Item("Added","D-ddd-ddd-ddd","4.5");
+        inventory.add(added);
+        InventoryChanges.added(inventory, added);
+        Item edited = new Item(inventory.get(0));
+        inventory.get(0).setCost("-1.25");
+        InventoryChanges.set(inventory, 0, edited, inventory.get(0));
+        saveChanges(file, inventory);
+
+        Item replacement = new Item("Café","E-eee-eee-eee","5");
+        Item replaced = inventory.set(1, replacement);
+        InventoryChanges.set(inventory, 1, replaced, replacement);
+        Item removed = inventory.remove(0);
+        InventoryChanges.removed(inventory, 0, removed);
+        saveChanges(file, inventory);
+
+        // the file itself is untouched, and both the parser and the mapped list see the changes
+        assertEquals(1,MappedInventory.open(file).size());
+        assertSameItems(inventory, load(file));
+        MappedInventory mapped = MappedInventory.open(file);
+        InventoryJournal.load(file, mapped);
+        assertSameItems(inventory, mapped);
+
+        // clearing the inventory is replayed as well
+        mapped.clear();
+        InventoryChanges.cleared(mapped);
+        saveChanges(file, mapped);
+        assertTrue(load(file).isEmpty());
+    }
+
+    // test that saving one change to a large inventory only writes the change
+    @Test
+    void appendOnlyChanges() throws IOException {
+        List<Item> inventory = new ArrayList<>();
+        for(int i = 0; i < 100_000; i++) {
+            inventory.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), "1"));
+        }
+        File file = save(inventory);
+        long size = file.length();
+        InventoryJournal.load(file, inventory);
+
+        inventory.get(500).setName("Renamed");
+        InventoryJournal.recordSet(inventory, 500, inventory.get(500));
+        saveChanges(file, inventory);
+
+        assertEquals(size,file.length());
+        assertTrue(InventoryJournal.getFile(file).length() < 100);
+        assertEquals("Renamed",load(file).get(500).getName());
+    }
+
+    // test that a save cut short by a crash is skipped, and overwritten by the next save
+    @Test
+    void replayTornBatch() throws IOException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        File file = save(inventory);
+        InventoryJournal.load(file, inventory);
+        inventory.remove(0);
+        InventoryJournal.recordRemove(inventory, 0);
+        saveChanges(file, inventory);
+
+        // half of a second batch reaches the disk
+        File journal = InventoryJournal.getFile(file);
+        long complete = journal.length();
+        try(RandomAccessFile raf = new RandomAccessFile(journal, "rw")) {
+            raf.seek(complete);
+            raf.writeInt(100);
+            raf.writeInt(12345);
+            raf.write(new byte[] {InventoryJournal.REMOVE, 0});
+        }
+        assertSameItems(inventory, load(file));
+
+        // the next save replaces the torn batch
+        inventory.remove(0);
+        InventoryJournal.recordRemove(inventory, 0);
+        saveChanges(file, inventory);
+        assertSameItems(inventory, load(file));
+    }
+
+    // test that a journal left over from an older copy of the file is ignored
+    @Test
+    void replayStaleJournal() throws IOException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        File file = save(inventory);
+        InventoryJournal.load(file, inventory);
+        inventory.remove(0);
+        InventoryJournal.recordRemove(inventory, 0);
+        saveChanges(file, inventory);
+
+        // the file is rewritten by something that doesn't know about the journal
+        List<Item> other = List.of(new Item("Other","O-ooo-ooo-ooo","1"));
+        INVWriter.write(file, other, InventoryFiles.SyncPolicy.NONE);
+        assertSameItems(other, load(file));
+
+        // a journal that isn't one is rejected
+        Files.writeString(InventoryJournal.getFile(file).toPath(), "not a journal, but long enough to have a header");
+        assertThrows(IOException.class, () -> load(file));
+    }
+
+    // test that only a journal recording every change of the inventory on screen can be appended to
+    @Test
+    void getAppendable() throws IOException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        File file = save(inventory);
+
+        // a journal for a file that hasn't been written yet
+        InventoryJournal journal = InventoryJournal.begin(file, inventory);
+        assertNull(InventoryJournal.get(file, inventory));
+        journal.reset();
+        assertSame(journal,InventoryJournal.get(file, inventory));
+
+        // another inventory or file
+        assertNull(InventoryJournal.get(file, new ArrayList<>(inventory)));
+        assertNull(InventoryJournal.get(new File(file.getPath() + ".other"), inventory));
+
+        // a change the journal couldn't record
+        InventoryJournal.recordSet(inventory, -1, inventory.get(0));
+        assertNull(InventoryJournal.get(file, inventory));
+        InventoryJournal.begin(file, inventory).reset();
+        InventoryJournal.invalidate(inventory);
+        assertNull(InventoryJournal.get(file, inventory));
+    }
+
+    // test that compaction folds the journal into the file, carrying over changes saved while it ran
+    @Test
+    void compact() throws IOException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        File file = save(inventory);
+        InventoryJournal.load(file, inventory);
+        InventoryJournal journal = InventoryJournal.get(file, inventory);
+
+        // save a change, then copy the inventory to fold it into
+        inventory.get(0).setName("Renamed");
+        InventoryJournal.recordSet(inventory, 0, inventory.get(0));
+        saveChanges(file, inventory);
+        List<Item> copy = ExportTask.snapshot(inventory);
+        long folded = journal.getLength();
+
+        // another change is saved before the compaction finishes
+        inventory.remove(2);
+        InventoryJournal.recordRemove(inventory, 2);
+        saveChanges(file, inventory);
+        journal.compact(copy, folded, InventoryFiles.SyncPolicy.NONE);
+
+        List<Item> snapshot = new ArrayList<>();
+        INVReader.read(file, snapshot::add);
+        assertSameItems(copy, snapshot);
+        assertSameItems(inventory, load(file));
+
+        // folding everything removes the journal
+        journal.compact(ExportTask.snapshot(inventory), journal.getLength(), InventoryFiles.SyncPolicy.NONE);
+        assertFalse(InventoryJournal.getFile(file).exists());
+        assertSameItems(inventory, load(file));
+        assertNotNull(InventoryJournal.get(file, inventory));
+    }
+
+    // test that a compaction cut short by a crash loses no changes, whichever of its files it put in place
+    @Test
+    void compactInterrupted() throws IOException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        File file = save(inventory);
+        File journalFile = InventoryJournal.getFile(file);
+        File next = InventoryJournal.getNextFile(file);
+        next.deleteOnExit();
+        InventoryJournal.load(file, inventory);
+        InventoryJournal journal = InventoryJournal.get(file, inventory);
+
+        // a change which is folded into the new snapshot, and one which is carried over into its journal
+        inventory.get(0).setName("Renamed");
+        InventoryJournal.recordSet(inventory, 0, inventory.get(0));
+        saveChanges(file, inventory);
+        List<Item> copy = ExportTask.snapshot(inventory);
+        long folded = journal.getLength();
+        inventory.remove(2);
+        InventoryJournal.recordRemove(inventory, 2);
+        saveChanges(file, inventory);
+
+        byte[] oldSnapshot = Files.readAllBytes(file.toPath());
+        byte[] oldJournal = Files.readAllBytes(journalFile.toPath());
+        journal.compact(copy, folded, InventoryFiles.SyncPolicy.NONE);
+        byte[] newJournal = Files.readAllBytes(journalFile.toPath());
+
+        // the crash came after the new snapshot was put in place, but before its journal was
+        Files.write(journalFile.toPath(), oldJournal);
+        Files.write(next.toPath(), newJournal);
+        assertSameItems(inventory, load(file));
+        List<Item> loaded = new ArrayList<>();
+        INVReader.read(file, loaded::add);
+        InventoryJournal.load(file, loaded);
+        assertSameItems(inventory, loaded);
+        assertFalse(next.exists());
+        assertArrayEquals(newJournal,Files.readAllBytes(journalFile.toPath()));
+
+        // the crash came after the new journal was written, but before the new snapshot was put in place
+        Files.write(file.toPath(), oldSnapshot);
+        Files.write(journalFile.toPath(), oldJournal);
+        Files.write(next.toPath(), newJournal);
+        assertSameItems(inventory, load(file));
+        loaded.clear();
+        INVReader.read(file, loaded::add);
+        InventoryJournal.load(file, loaded);
+        assertSameItems(inventory, loaded);
+        assertFalse(next.exists());
+        assertArrayEquals(oldJournal,Files.readAllBytes(journalFile.toPath()));
+    }
+
+    // test that the save task appends to the journal of a file it saved before, and rewrites the file otherwise
+    @Test
+    void exportTask() throws IOException, InterruptedException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        File file = save(List.of());
+
+        // the first save writes every item
+        assertEquals(3,(long)new ExportTask(file, "inv", inventory).save(written -> { }));
+        long size = file.length();
+
+        // the next save only appends the change
+        inventory.get(1).setCost("7");
+        InventoryJournal.recordSet(inventory, 1, inventory.get(1));
+        assertEquals(1,(long)new ExportTask(file, "inv", inventory).save(written -> { }));
+        assertEquals(size,file.length());
+        assertSameItems(inventory, load(file));
+
+        // a merge means the file is rewritten
+        InventoryJournal.invalidate(inventory);
+        assertEquals(3,(long)new ExportTask(file, "inv", inventory).save(written -> { }));
+        assertFalse(InventoryJournal.getFile(file).exists());
+        assertSameItems(inventory, load(file));
+    }
+
+    // test that the changes taken by a save which was cancelled before it ran are appended by the next save
+    @Test
+    void exportTaskCancelled() throws IOException, InterruptedException {
+        List<Item> inventory = new ArrayList<>(TSVWriterTest.sampleItems());
+        File file = save(List.of());
+        new ExportTask(file, "inv", inventory).save(written -> { });
+
+        // the GUI thread is told the task was cancelled before it ran, so it doesn't save anything
+        inventory.get(0).setName("Renamed");
+        InventoryJournal.recordSet(inventory, 0, inventory.get(0));
+        ExportTask cancelled = new ExportTask(file, "inv", inventory);
+        cancelled.cancelled();
+        assertThrows(CancellationException.class, () -> cancelled.save(written -> { }));
+
+        // the next save appends the cancelled change as well as its own
+        inventory.get(1).setName("Renamed too");
+        InventoryJournal.recordSet(inventory, 1, inventory.get(1));
+        assertEquals(2,new ExportTask(file, "inv", inventory).save(written -> { }));
+        assertSameItems(inventory, load(file));
+    }
+
+    // compare rewriting a large inventory with appending a single change to its journal
+    @Test
+    @Tag("benchmark")
+    void saveBenchmark() throws IOException, InterruptedException {
+        int rows = Integer.getInteger("benchmark.journalRows", 1_000_000);
+        List<Item> inventory = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            inventory.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+        }
+        File file = save(List.of());
+
+        // the first save writes every item
+        long start = System.nanoTime();
+        new ExportTask(file, "inv", inventory).save(written -> { });
+        double fullSeconds = (System.nanoTime() - start) / 1e9;
+
+        // each later save appends one edit
+        int saves = 100;
+        start = System.nanoTime();
+        for(int i = 0; i < saves; i++) {
+            inventory.get(i).setCost("9.99");
+            InventoryJournal.recordSet(inventory, i, inventory.get(i));
+            new ExportTask(file, "inv", inventory).save(written -> { });
+        }
+        double appendSeconds = (System.nanoTime() - start) / 1e9 / saves;
+
+        System.out.printf("InventoryJournal: %d rows, full save %.3f s, save of one edit %.6f s (%s fsync), journal %d bytes%n",
+                rows, fullSeconds, appendSeconds, InventoryFiles.SyncPolicy.getDefault(), InventoryJournal.getFile(file).length());
+        assertSameItems(inventory, load(file));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryMergerTest {
+
+    // Create an inventory and an import that share one serial number
+    List<Item> inventory;
+    List<Item> imported;
+    @BeforeEach
+    void initValues() {
+        inventory = new ArrayList<>();
+        inventory.add(new Item("Item 1","A-aaa-aaa-aaa","1"));
+        inventory.add(new Item("Item 2","B-bbb-bbb-bbb","2"));
+
+        imported = new ArrayList<>();
+        imported.add(new Item("New 2","B-bbb-bbb-bbb","20"));
+        imported.add(new Item("Item 3","C-ccc-ccc-ccc","3"));
+    }
+
+    // test that existing items are kept when their serial number is imported again
+    @Test
+    void mergeKeepExisting() {
+        InventoryMerger.MergeResult result = InventoryMerger.merge(inventory, imported, InventoryMerger.ConflictPolicy.KEEP_EXISTING);
+
+        assertEquals(new InventoryMerger.MergeResult(1,0,1,false),result);
+        assertEquals(3,inventory.size());
+        assertEquals("Item 2",inventory.get(1).getName());
+        assertEquals("Item 3",inventory.get(2).getName());
+    }
+
+    // test that existing items are replaced in place when their serial number is imported again
+    @Test
+    void mergeOverwrite() {
+        InventoryMerger.MergeResult result = InventoryMerger.merge(inventory, imported, InventoryMerger.ConflictPolicy.OVERWRITE);
+
+        assertEquals(new InventoryMerger.MergeResult(1,1,0,false),result);
+        assertEquals(3,inventory.size());
+        assertEquals("New 2",inventory.get(1).getName());
+        assertEquals("$20.00",inventory.get(1).getCost());
+    }
+
+    // test that a conflicting import is refused without changing the inventory
+    @Test
+    void mergeReject() {
+        InventoryMerger.MergeResult result = InventoryMerger.merge(inventory, imported, InventoryMerger.ConflictPolicy.REJECT);
+
+        assertTrue(result.rejected());
+        assertEquals(1,result.skipped());
+        assertEquals(2,inventory.size());
+
+        // a clean import is accepted
+        imported.remove(0);
+        result = InventoryMerger.merge(inventory, imported, InventoryMerger.ConflictPolicy.REJECT);
+        assertEquals(new InventoryMerger.MergeResult(1,0,0,false),result);
+        assertEquals(3,inventory.size());
+    }
+
+    // test that serial numbers repeated inside the import are resolved against each other
+    @Test
+    void mergeDuplicatesInImport() {
+        imported.add(new Item("Item 3 again","C-ccc-ccc-ccc","4"));
+
+        InventoryMerger.MergeResult result = InventoryMerger.merge(inventory, imported, InventoryMerger.ConflictPolicy.OVERWRITE);
+        assertEquals(new InventoryMerger.MergeResult(1,2,0,false),result);
+        assertEquals("Item 3 again",inventory.get(2).getName());
+
+        assertTrue(InventoryMerger.merge(new ArrayList<>(), imported, InventoryMerger.ConflictPolicy.REJECT).rejected());
+    }
+
+    // test that merging a million rows into a million rows finishes in linear time
+    @Test
+    @Tag("benchmark")
+    void mergeThroughput() {
+        int rows = Integer.getInteger("benchmark.mergeRows", 1_000_000);
+        List<Item> large = new ArrayList<>();
+        List<Item> incoming = new ArrayList<>();
+        for(int i = 0; i < rows; i++) {
+            large.add(new Item("Item " + i, String.format("A-%03d-%03d-%03d", i / 1000000, i / 1000 % 1000, i % 1000), "1"));
+            int j = i + rows / 2;
+            incoming.add(new Item("Item " + j, String.format("A-%03d-%03d-%03d", j / 1000000, j / 1000 % 1000, j % 1000), "2"));
+        }
+
+        long start = System.nanoTime();
+        InventoryMerger.MergeResult result = InventoryMerger.merge(large, incoming, InventoryMerger.ConflictPolicy.OVERWRITE);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("InventoryMerger: %d + %d rows in %.3f s (%s)%n", rows, rows, seconds, result);
+        assertEquals(rows / 2,result.updated());
+        assertEquals(rows / 2 + rows % 2,result.inserted());
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static baseline.InventoryGenerator.assertSameItems;
+import static baseline.InventoryGenerator.generate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryTableTest {
+
+    // Declare the names of the generated items, of which there are only a few so the table shares them
+    private static final IntFunction<String> NAMES = i -> "Product " + i % 50;
+
+    // test that the table holds the same rows as a list of Items, and shares repeated names
+    @Test
+    void addAndGet() {
+        List<Item> items = TSVWriterTest.sampleItems();
+        items.addAll(generate(1000, NAMES));
+        InventoryTable table = new InventoryTable(items);
+
+        assertSameItems(items, table);
+        assertEquals(53,table.getNameCount());
+        assertEquals(SerialKey.NONE,table.get(3).getSerialKey());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(items.size()));
+    }
+
+    // test that the list can be changed like any other list
+    @Test
+    void editList() {
+        List<Item> expected = generate(300, NAMES);
+        InventoryTable table = new InventoryTable(expected);
+
+        // replace, insert, and remove by position
+        Item replacement = new Item("Replacement","R-rrr-rrr-rrr","1");
+        table.set(10, replacement);
+        expected.set(10, replacement);
+        Item added = new Item("Added","Z-zzz-zzz-zzz","2");
+        table.add(5, added);
+        expected.add(5, added);
+        assertEquals("Product 0",table.remove(0).getName());
+        expected.remove(0);
+        assertSameItems(expected, table);
+
+        // remove with a filter, reusing the freed slots for new rows
+        table.removeIf(item -> item.getName().endsWith("5"));
+        expected.removeIf(item -> item.getName().endsWith("5"));
+        table.addAll(generate(20, NAMES));
+        expected.addAll(generate(20, NAMES));
+        assertSameItems(expected, table);
+
+        // remove everything, then start over
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertEquals(0,table.getNameCount());
+        table.add(added);
+        assertSameItems(List.of(added), table);
+    }
+
+    // test that an item taken from the table edits its row, and stays with its row as other rows move
+    @Test
+    void editInPlace() {
+        InventoryTable table = new InventoryTable(generate(100, NAMES));
+        Item row = table.get(50);
+        row.setName("Renamed");
+        row.setCost("12.34");
+        row.setSerialNumber("not packed");
+        assertEquals("Renamed",table.get(50).getName());
+        assertEquals("$12.34",table.get(50).getCost());
+        assertEquals("not packed",table.get(50).getSerialNumber());
+
+        // rows in front of it come and go
+        table.remove(0);
+        table.add(0, new Item("First","F-fff-fff-fff","1"));
+        table.add(0, new Item("New first","G-ggg-ggg-ggg","1"));
+        assertEquals(51,table.indexOf(row));
+        assertEquals(row,table.get(51));
+        assertTrue(table.contains(row));
+        assertFalse(table.contains(new Item(row)));
+
+        // removing it by itself
+        assertTrue(table.remove(row));
+        assertEquals(-1,table.indexOf(row));
+        assertEquals(100,table.size());
+    }
+
+    // test that an item whose row was removed stays removed after its slot is given to another row, or the table is cleared
+    @Test
+    void removedRow() {
+        InventoryTable table = new InventoryTable(generate(10, NAMES));
+        Item row = table.get(4);
+        table.remove(4);
+        table.add(new Item("Reused","R-rrr-rrr-rrr","7"));
+
+        // it reads nothing, and changing it leaves the row now in its slot alone
+        assertNull(row.getName());
+        assertNull(row.getSerialNumber());
+        assertEquals(0,row.getCents());
+        row.setName("Stale");
+        row.setSerialNumber("S-sss-sss-sss");
+        row.setCents(1);
+        assertEquals(new Item("Reused","R-rrr-rrr-rrr","7"),new Item(table.get(9)));
+        assertEquals(-1,table.indexOf(row));
+        assertNotEquals(row,table.get(9));
+
+        // every row taken before a clear is removed by it
+        Item kept = table.get(1);
+        table.clear();
+        table.addAll(generate(2, NAMES));
+        assertNull(kept.getName());
+        assertEquals("Product 1",table.get(1).getName());
+    }
+
+    // test that the names no row uses any more are dropped, and the rows keep theirs
+    @Test
+    void reuseNames() {
+        List<Item> expected = generate(2000, NAMES);
+        InventoryTable table = new InventoryTable(expected);
+        Item row = table.get(10);
+
+        // each round gives every row a name of its own, then removes a few rows and adds new ones
+        for(int round = 0; round < 40; round++) {
+            for(int i = 0; i < table.size(); i++) {
+                String name = (i % 89 == 0 ? "Ünïcødé € " : "Round ") + round + " item " + i;
+                table.get(i).setName(name);
+                expected.get(i).setName(name);
+            }
+            for(int i = 0; i < 20; i++) {
+                int position = (round * 20 + i) * 31 % table.size();
+                if(position == table.indexOf(row)) continue;
+                table.remove(position);
+                expected.remove(position);
+            }
+            table.addAll(generate(20, NAMES));
+            expected.addAll(generate(20, NAMES));
+        }
+
+        assertSameItems(expected, table);
+        assertEquals(expected.get(table.indexOf(row)).getName(),row.getName());
+        assertEquals(expected.stream().map(Item::getName).distinct().count(),table.getNameCount());
+        assertTrue(table.getNameBytes() < 4 * 2000 * 30, "name bytes: " + table.getNameBytes());
+
+        // renaming a row to its own name keeps it
+        row.setName(row.getName());
+        assertEquals(expected.get(table.indexOf(row)).getName(),row.getName());
+    }
+
+    // test that a row is found at its position as rows are inserted, removed, and moved around it
+    @Test
+    void indexOf() {
+        InventoryTable table = new InventoryTable(generate(100, NAMES));
+        Item row = table.get(60);
+        assertEquals(60,table.indexOf(row));
+
+        table.add(new Item("Last","L-lll-lll-lll","1"));
+        assertEquals(100,table.indexOf(table.get(100)));
+        table.remove(0);
+        table.add(10, new Item("Inserted","I-iii-iii-iii","1"));
+        assertEquals(60,table.indexOf(row));
+        table.sort(Comparator.comparing(Item::getSerialNumber).reversed());
+        for(int i = 0; i < table.size(); i++) {
+            assertEquals(i,table.indexOf(table.get(i)));
+        }
+
+        // a row replaced by another one of the table is no longer anywhere in it
+        Item moved = table.get(5);
+        Item replaced = table.set(3, moved);
+        assertEquals(-1,table.indexOf(replaced));
+        assertEquals(3,table.indexOf(moved));
+    }
+
+    // test that sorting moves the rows, including through a list iterator the way the table view sorts
+    @Test
+    void sort() {
+        List<Item> expected = generate(500, NAMES);
+        InventoryTable table = new InventoryTable(expected);
+        Item row = table.get(0);
+        Comparator<Item> byCost = Comparator.comparingLong(Item::getCents).thenComparing(Item::getSerialNumber);
+
+        table.sort(byCost);
+        expected.sort(byCost);
+        assertSameItems(expected, table);
+        assertEquals("Product 0",row.getName());
+
+        // set every position from a sorted copy of the rows
+        Item[] rows = table.toArray(new Item[0]);
+        java.util.Arrays.sort(rows, Comparator.comparing(Item::getSerialNumber));
+        for(int i = 0; i < rows.length; i++) {
+            table.set(i, rows[i]);
+        }
+        expected.sort(Comparator.comparing(Item::getSerialNumber));
+        assertSameItems(expected, table);
+    }
+
+    // test that a copy doesn't see edits made to the table afterwards
+    @Test
+    void snapshot() {
+        InventoryTable table = new InventoryTable(generate(200, NAMES));
+        InventoryTable copy = (InventoryTable)ExportTask.snapshot(table);
+
+        table.get(3).setName("Renamed");
+        table.remove(0);
+        table.add(new Item("Added","Z-zzz-zzz-zzz","2"));
+        copy.add(new Item("Copy only","Y-yyy-yyy-yyy","2"));
+
+        assertSameItems(generate(200, NAMES), copy.subList(0, 200));
+        assertEquals("Copy only",copy.get(200).getName());
+        assertEquals("Added",table.get(199).getName());
+    }
+
+    // test that a name search finds the same rows as checking every item
+    @Test
+    void findByName() {
+        InventoryTable table = new InventoryTable(generate(1000, NAMES));
+        table.get(7).setName("Special");
+
+        List<Item> found = table.findByName("t 1");
+        assertEquals(220,found.size());
+        for(Item item : found) {
+            assertTrue(item.getName().contains("t 1"));
+        }
+        assertEquals(List.of(table.get(7)),table.findByName("Spec"));
+    }
+
+    // compare the heap taken by a large inventory as a list of Items and as a table
+    @Test
+    @Tag("benchmark")
+    void heapBenchmark() {
+        int rows = Integer.getInteger("benchmark.tableRows", 1_000_000);
+        Runtime runtime = Runtime.getRuntime();
+
+        List<Item> inventory = null;
+        for(int names : new int[] {1000, rows}) {
+            for(String mode : new String[] {"table", "list"}) {
+                inventory = null;
+                System.gc();
+                long heap = runtime.totalMemory() - runtime.freeMemory();
+
+                // build the inventory the way an import does, with a new String for every field of every row
+                inventory = mode.equals("list") ? new ArrayList<>() : new InventoryTable();
+                for(int i = 0; i < rows; i++) {
+                    inventory.add(new Item("Product " + i % names, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+                }
+                inventory.forEach(Item::getCost);
+
+                System.gc();
+                long used = runtime.totalMemory() - runtime.freeMemory() - heap;
+                long start = System.nanoTime();
+                int found = inventory instanceof InventoryTable table ? table.findByName("99").size()
+                        : (int)inventory.stream().filter(item -> item.getName().contains("99")).count();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("InventoryTable: %-5s %d rows, %d distinct names, %.1f bytes per item, name search %.3f s (%d found)%n",
+                        mode, rows, Math.min(names, rows), (double)used / rows, seconds, found);
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryWatcherTest {
+
+    // Write a temporary file with the given extension and contents
+    private File writeTemp(String extension, String contents) throws IOException {
+        File file = File.createTempFile("inventoryWatcher", extension);
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), contents, Charset.defaultCharset());
+        return file;
+    }
+
+    // test that only the inserted, updated, and deleted rows of a TSV file are applied
+    @Test
+    void scanTSV() throws IOException {
+        File file = writeTemp(".txt", "A-aaa-aaa-aaa\tItem 1\t$1.00\nB-bbb-bbb-bbb\tItem 2\t$2.00\nC-ccc-ccc-ccc\tItem 3\t$3.00\n");
+        List<Item> inventory = new ArrayList<>();
+        TSVReader.read(file, inventory::add);
+        Item first = inventory.get(0);
+
+        // the first scan only remembers the file
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.scan();
+
+        // update row 2, delete row 3, and insert row 4
+        Files.writeString(file.toPath(), "A-aaa-aaa-aaa\tItem 1\t$1.00\r\nB-bbb-bbb-bbb\tItem 2\t$2.25\nD-ddd-ddd-ddd\tItem 4\t$4.00\n", Charset.defaultCharset());
+        InventoryWatcher.Changes changes = watcher.scan();
+
+        // row 1 changed only its line ending, so it still counts as changed, but is applied as an update
+        assertEquals(Set.of("C-ccc-ccc-ccc"),changes.deletes());
+        assertEquals(3,changes.upserts().size());
+
+        InventoryWatcher.Refresh refresh = watcher.apply(changes);
+        assertEquals(1,refresh.inserted().size());
+        assertEquals(2,refresh.updated());
+        assertEquals(Set.of("C-ccc-ccc-ccc"),refresh.deleted());
+
+        // the items are updated in place and kept in order
+        assertEquals(3,inventory.size());
+        assertSame(first,inventory.get(0));
+        assertEquals("$2.25",inventory.get(1).getCost());
+        assertEquals("D-ddd-ddd-ddd",inventory.get(2).getSerialNumber());
+
+        // an unchanged file has no changes
+        assertTrue(watcher.scan().isEmpty());
+    }
+
+    // test that a serial number moving to a changed row is an update rather than a delete
+    @Test
+    void scanMovedRow() throws IOException {
+        File file = writeTemp(".txt", "A-aaa-aaa-aaa\tItem 1\t$1.00\nB-bbb-bbb-bbb\tItem 2\t$2.00\n");
+        List<Item> inventory = new ArrayList<>();
+        TSVReader.read(file, inventory::add);
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.scan();
+
+        Files.writeString(file.toPath(), "B-bbb-bbb-bbb\tItem 2\t$2.00\nA-aaa-aaa-aaa\tRenamed\t$1.00\n", Charset.defaultCharset());
+        InventoryWatcher.Changes changes = watcher.scan();
+        assertTrue(changes.deletes().isEmpty());
+        assertEquals(1,changes.upserts().size());
+
+        watcher.apply(changes);
+        assertEquals(2,inventory.size());
+        assertEquals("Renamed",inventory.get(0).getName());
+    }
+
+    // test that only the rows between the unchanged start and end of a file are diffed, counting identical rows
+    @Test
+    void scanMiddle() throws IOException {
+        String a = "A-aaa-aaa-aaa\tItem 1\t$1.00\n";
+        File file = writeTemp(".txt", a + "B-bbb-bbb-bbb\tItem 2\t$2.00\nC-ccc-ccc-ccc\tItem 3\t$3.00\n" + a + "D-ddd-ddd-ddd\tItem 4\t$4.00\n");
+        List<Item> inventory = new ArrayList<>();
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.scan();
+
+        // replace row 2, and drop the copy of row 1, which is still at the start of the file
+        Files.writeString(file.toPath(), a + "X-xxx-xxx-xxx\tItem 5\t$5.00\nC-ccc-ccc-ccc\tItem 3\t$3.00\nD-ddd-ddd-ddd\tItem 4\t$4.00\n", Charset.defaultCharset());
+        InventoryWatcher.Changes changes = watcher.scan();
+        assertEquals(Set.of("B-bbb-bbb-bbb"),changes.deletes());
+        assertEquals(1,changes.upserts().size());
+        assertEquals("X-xxx-xxx-xxx",changes.upserts().get(0).getSerialNumber());
+
+        // moving the last row to the front only moves lines the table already has
+        Files.writeString(file.toPath(), "D-ddd-ddd-ddd\tItem 4\t$4.00\n" + a + "X-xxx-xxx-xxx\tItem 5\t$5.00\nC-ccc-ccc-ccc\tItem 3\t$3.00\n", Charset.defaultCharset());
+        assertTrue(watcher.scan().isEmpty());
+
+        // removing row 1 deletes it now that no copy is left
+        Files.writeString(file.toPath(), "D-ddd-ddd-ddd\tItem 4\t$4.00\nX-xxx-xxx-xxx\tItem 5\t$5.00\nC-ccc-ccc-ccc\tItem 3\t$3.00\n", Charset.defaultCharset());
+        assertEquals(Set.of("A-aaa-aaa-aaa"),watcher.scan().deletes());
+    }
+
+    // test that a file whose length and modification time are unchanged since an earlier scan isn't read again
+    @Test
+    void scanUnchangedStamp() throws IOException {
+        File file = writeTemp(".txt", "A-aaa-aaa-aaa\tItem 1\t$1.00\n");
+        long modified = System.currentTimeMillis() - 60_000;
+        assertTrue(file.setLastModified(modified));
+        InventoryWatcher watcher = new InventoryWatcher(file, new ArrayList<>());
+        watcher.scan();
+
+        // the same length and modification time, so the new name isn't read
+        Files.writeString(file.toPath(), "A-aaa-aaa-aaa\tItem 9\t$1.00\n", Charset.defaultCharset());
+        assertTrue(file.setLastModified(modified));
+        assertTrue(watcher.scan().isEmpty());
+
+        // a new modification time is read
+        assertTrue(file.setLastModified(modified + 1000));
+        assertEquals("Item 9",watcher.scan().upserts().get(0).getName());
+    }
+
+    // test that other formats are diffed by their parsed fields
+    @Test
+    void scanJSON() throws IOException {
+        File file = writeTemp(".json", "{\"name\":\"Item 1\",\"serialNumber\":\"A-aaa-aaa-aaa\",\"cost\":\"$1.00\"}"
+                + "{\"name\":\"Item 2\",\"serialNumber\":\"B-bbb-bbb-bbb\",\"cost\":\"$2.00\"}");
+        List<Item> inventory = new ArrayList<>();
+        JSONReader.read(file, inventory::add);
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.scan();
+
+        Files.writeString(file.toPath(), "[{\"name\":\"Item 2\",\"serialNumber\":\"B-bbb-bbb-bbb\",\"cost\":\"$9.00\"}]", Charset.defaultCharset());
+        InventoryWatcher.Refresh refresh = watcher.apply(watcher.scan());
+
+        assertEquals(1,refresh.updated());
+        assertEquals(Set.of("A-aaa-aaa-aaa"),refresh.deleted());
+        assertEquals(1,inventory.size());
+        assertEquals("$9.00",inventory.get(0).getCost());
+    }
+
+    // test that rows inserted into a table (which stores copies) are updated by the next refresh
+    @Test
+    void scanTable() throws IOException {
+        File file = writeTemp(".txt", "A-aaa-aaa-aaa\tItem 1\t$1.00\n");
+        List<Item> inventory = new InventoryTable();
+        TSVReader.read(file, inventory::add);
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.scan();
+
+        Files.writeString(file.toPath(), "A-aaa-aaa-aaa\tItem 1\t$1.00\nB-bbb-bbb-bbb\tItem 2\t$2.00\n", Charset.defaultCharset());
+        InventoryWatcher.Refresh refresh = watcher.apply(watcher.scan());
+        assertEquals(List.of(inventory.get(1)),refresh.inserted());
+
+        Files.writeString(file.toPath(), "A-aaa-aaa-aaa\tItem 1\t$1.00\nB-bbb-bbb-bbb\tRenamed\t$2.00\n", Charset.defaultCharset());
+        assertEquals(1,watcher.apply(watcher.scan()).updated());
+        assertEquals(2,inventory.size());
+        assertEquals("Renamed",inventory.get(1).getName());
+    }
+
+    // test that each applied row is reported to InventoryChanges by itself, rather than as a change to the whole inventory
+    @Test
+    void reportChanges() throws IOException {
+        File file = writeTemp(".txt", "A-aaa-aaa-aaa\tItem 1\t$1.00\nB-bbb-bbb-bbb\tItem 2\t$2.00\nC-ccc-ccc-ccc\tItem 3\t$3.00\n");
+        List<Item> inventory = new ArrayList<>();
+        TSVReader.read(file, inventory::add);
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.scan();
+
+        List<String> reported = new ArrayList<>();
+        InventoryChanges.Listener listener = new InventoryChanges.Listener() {
+            @Override
+            public void added(List<Item> changed, Item item) {
+                reported.add("added " + item.getSerialNumber());
+            }
+
+            @Override
+            public void set(List<Item> changed, int index, Item previous, Item item) {
+                reported.add("set " + index + " " + previous.getCost() + " " + item.getCost());
+            }
+
+            @Override
+            public void removed(List<Item> changed, int index, Item item) {
+                reported.add("removed " + index + " " + item.getSerialNumber());
+            }
+
+            @Override
+            public void cleared(List<Item> changed) {
+                reported.add("cleared");
+            }
+
+            @Override
+            public void invalidated(List<Item> changed) {
+                reported.add("invalidated");
+            }
+        };
+        InventoryChanges.addListener(listener);
+        try {
+            Files.writeString(file.toPath(), "B-bbb-bbb-bbb\tItem 2\t$2.50\nC-ccc-ccc-ccc\tItem 3\t$3.00\nD-ddd-ddd-ddd\tItem 4\t$4.00\n", Charset.defaultCharset());
+            watcher.apply(watcher.scan());
+        }
+        finally {
+            InventoryChanges.removeListener(listener);
+        }
+
+        assertEquals(List.of("set 1 $2.00 $2.50", "added D-ddd-ddd-ddd", "removed 0 A-aaa-aaa-aaa"),reported);
+        assertEquals(List.of("B-bbb-bbb-bbb", "C-ccc-ccc-ccc", "D-ddd-ddd-ddd"),inventory.stream().map(Item::getSerialNumber).toList());
+    }
+
+    // test that a refresh of a large file with a few changed rows costs far less than re-importing it
+    @Test
+    @Tag("benchmark")
+    void refreshThroughput() throws IOException {
+        int rows = Integer.getInteger("benchmark.watchRows", 1_000_000);
+        int changed = 100;
+        File file = File.createTempFile("inventoryWatcher", ".txt");
+        file.deleteOnExit();
+        writeRows(file, rows, -1);
+
+        // time a full import for comparison
+        List<Item> inventory = new ArrayList<>(rows);
+        long start = System.nanoTime();
+        TSVReader.read(file, inventory::add);
+        double importSeconds = (System.nanoTime() - start) / 1e9;
+
+        InventoryWatcher watcher = new InventoryWatcher(file, inventory);
+        watcher.scan();
+        SerialIndex.of(inventory).indexOf(inventory.get(0));
+
+        // change a handful of rows spread across the file
+        writeRows(file, rows, rows / changed);
+        start = System.nanoTime();
+        InventoryWatcher.Changes changes = watcher.scan();
+        double scanSeconds = (System.nanoTime() - start) / 1e9;
+        start = System.nanoTime();
+        InventoryWatcher.Refresh refresh = watcher.apply(changes);
+        double applySeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("InventoryWatcher: %d rows, full import %.3f s, refresh scan %.3f s + apply %.4f s (%s)%n",
+                rows, importSeconds, scanSeconds, applySeconds, refresh);
+        assertEquals(changed,refresh.updated());
+        assertEquals(rows,inventory.size());
+    }
+
+    // Write rows in the testTSV.txt layout, changing the cost of every n-th row (if n > 0)
+    private static void writeRows(File file, int rows, int n) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset())) {
+            for(int i = 0; i < rows; i++) {
+                int cost = (n > 0 && i % n == 0) ? 2 : 1;
+                writer.write(String.format("A-%03d-%03d-%03d\tItem %d\t$%d.00%n", i / 1000000, i / 1000 % 1000, i % 1000, i, cost));
+            }
+        }
+    }
+}
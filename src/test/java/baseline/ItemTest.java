@@ -6,8 +6,14 @@
 package baseline;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ItemTest {
@@ -64,4 +70,170 @@ class ItemTest {
         String newCost = test.convertCost("5");
         assertEquals("$5.00",newCost);
     }
-}
\ No newline at end of file
+
+    // Test that costs are always formatted as dollars and two digits of cents, however large they are
+    @Test
+    void formatCost() {
+        for(long cents = -1_000_000; cents <= 1_000_000; cents++) {
+            assertEquals('$' + BigDecimal.valueOf(cents, 2).toPlainString(),Item.formatCost(cents));
+        }
+        assertEquals("$2.50",Item.formatCost(250));
+        assertEquals("$9999999.99",Item.formatCost(999_999_999));
+        assertEquals("$10000000.00",Item.formatCost(1_000_000_000));
+        assertEquals("$-10000000.00",Item.formatCost(-1_000_000_000));
+        assertEquals("$-92233720368547758.08",Item.formatCost(Long.MIN_VALUE));
+    }
+
+    // Test that an item can be created straight from cents
+    @Test
+    void createFromCents() {
+        assertEquals("$2.25",new Item("Name","A-XXX-XXX-XXX",225).getCost());
+        assertEquals("$-0.05",new Item("Name","A-XXX-XXX-XXX",-5).getCost());
+    }
+
+    // Test that a cost is converted back to the cents it was made from
+    @Test
+    void parseCents() {
+        assertEquals(225,Item.parseCents("$2.25"));
+        assertEquals(250,Item.parseCents("$2.5"));
+        assertEquals(-100,Item.parseCents("$-1.00"));
+        assertEquals(999999,Item.parseCents(new Item("a","b","9999.99").getCost()));
+        assertEquals(2000000000,Item.parseCents(new Item("a","b","20000000").getCost()));
+
+        // every formatted cost parses back to its cents
+        for(long cents = -100_000; cents <= 100_000; cents++) {
+            assertEquals(cents,Item.parseCents(Item.formatCost(cents)));
+            assertEquals(cents,Item.parseCents(Item.formatAmount(cents)));
+        }
+    }
+
+    // Test that typed costs are rounded to cents the same way Math.round rounds them
+    @Test
+    void parseCentsRounding() {
+        assertEquals(500,Item.parseCents("5"));
+        assertEquals(50,Item.parseCents(".5"));
+        assertEquals(500,Item.parseCents("+5."));
+        assertEquals(13,Item.parseCents("0.125"));
+        assertEquals(-12,Item.parseCents("-0.125"));
+        assertEquals(-13,Item.parseCents("-0.1250001"));
+        assertEquals(12,Item.parseCents("0.1249999"));
+        assertEquals(100000,Item.parseCents("1e3"));
+        assertEquals(150,Item.parseCents(" 1.5 "));
+
+        // not numbers
+        assertThrows(NumberFormatException.class, () -> Item.parseCents(""));
+        assertThrows(NumberFormatException.class, () -> Item.parseCents("$"));
+        assertThrows(NumberFormatException.class, () -> Item.parseCents("-"));
+        assertThrows(NumberFormatException.class, () -> Item.parseCents("a"));
+        assertThrows(NumberFormatException.class, () -> Item.parseCents("NaN"));
+        assertThrows(NumberFormatException.class, () -> Item.parseCents("1e300"));
+    }
+
+    // Test that large costs keep every cent
+    @Test
+    void largeCost() {
+        // a float can't tell these apart
+        Item item = new Item("Name","A-XXX-XXX-XXX","167772.17");
+        assertEquals(16777217,item.getCents());
+        assertEquals("$167772.17",item.getCost());
+        assertEquals(123456789012345678L,Item.parseCents("1234567890123456.78"));
+        assertEquals("92233720368547758.07",Item.formatAmount(Long.MAX_VALUE));
+        assertEquals("-0.05",Item.formatAmount(-5));
+    }
+
+    // Test that the monetary format is made once, and made again after the cost changes
+    @Test
+    void getCostCached() {
+        assertSame(test.getCost(),test.getCost());
+        test.setCents(250);
+        assertEquals("$2.50",test.getCost());
+        assertEquals(250,new Item(test).getCents());
+    }
+
+    // Test that serial numbers in the A-XXX-XXX-XXX format are packed, and others are kept as text
+    @Test
+    void serialKey() {
+        assertEquals(SerialKey.pack("A-XXX-XXX-XXX"),test.getSerialKey());
+        test.setSerialNumber("not a serial");
+        assertEquals(SerialKey.NONE,test.getSerialKey());
+        assertEquals("not a serial",test.getSerialNumber());
+        test.setSerialNumber("b-1c2-d3e-f4g");
+        assertEquals("b-1c2-d3e-f4g",new Item(test).getSerialNumber());
+    }
+
+    // Test that items are matched by serial number whether or not it is packed
+    @Test
+    void hasSameSerialNumber() {
+        assertTrue(test.hasSameSerialNumber(new Item("Other","A-XXX-XXX-XXX","2")));
+        assertFalse(test.hasSameSerialNumber(new Item("Other","A-XXX-XXX-XXY","2")));
+        assertFalse(test.hasSameSerialNumber(new Item("Other","free-form","2")));
+        assertTrue(new Item("Other","free-form","2").hasSameSerialNumber(new Item("Another","free-form","3")));
+    }
+
+    // Test that items with the same name share one copy of it, and are matched by its id
+    @Test
+    void shareName() {
+        Item other = new Item(new String("Name"),"B-YYY-YYY-YYY","2");
+        assertEquals(NameDictionary.NONE,other.getNameId());
+        assertTrue(test.hasSameName(other));
+
+        test.shareName();
+        other.shareName();
+        assertSame(test.getName(),other.getName());
+        assertEquals(test.getNameId(),other.getNameId());
+        assertTrue(test.hasSameName(other));
+
+        // an edited name is shared as well
+        other.setName("Other");
+        assertFalse(test.hasSameName(other));
+        assertEquals(NameDictionary.getShared().intern("Other"),other.getNameId());
+        assertEquals(other.getNameId(),new Item(other).getNameId());
+    }
+
+    // Test that items are equal when their name, serial number, and cost are
+    @Test
+    void equalsAndHashCode() {
+        Item same = new Item("Name","A-XXX-XXX-XXX","1.00");
+        assertEquals(test,same);
+        assertEquals(test.hashCode(),same.hashCode());
+        assertNotEquals(test,new Item("Name","A-XXX-XXX-XXY","1"));
+        assertNotEquals(test,new Item("Other","A-XXX-XXX-XXX","1"));
+        assertNotEquals(test,new Item("Name","A-XXX-XXX-XXX","1.01"));
+        assertEquals(new Item("Name","free-form","1"),new Item("Name","free-form","1"));
+
+        // removing an equal item from a list no longer needs the same object
+        List<Item> list = new ArrayList<>(List.of(new Item("Other","B-XXX-XXX-XXX","1"), test));
+        assertTrue(list.remove(same));
+        assertEquals(1,list.size());
+    }
+
+    // compare sorting and summing a large inventory by cents with parsing each cost string as a float
+    @Test
+    @Tag("benchmark")
+    void costBenchmark() {
+        int rows = Integer.getInteger("benchmark.costRows", 1_000_000);
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), (i * 7919L % 100_000_000) + "." + (i % 100)));
+        }
+
+        // the old way: parse the "$x.yy" text every time two costs are compared or added
+        List<Item> parsed = new ArrayList<>(items);
+        long start = System.nanoTime();
+        parsed.sort(Comparator.comparingDouble(item -> Float.parseFloat(item.getCost().substring(1))));
+        double floatTotal = 0;
+        for(Item item : parsed) floatTotal += Float.parseFloat(item.getCost().substring(1));
+        double parsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        // the new way: compare and add the cents
+        List<Item> primitive = new ArrayList<>(items);
+        start = System.nanoTime();
+        primitive.sort(Comparator.comparingLong(Item::getCents));
+        long total = 0;
+        for(Item item : primitive) total += item.getCents();
+        double primitiveSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Item costs: %d rows, sort and sum by parsing text %.3f s (total $%.2f), by cents %.3f s (total %s)%n",
+                rows, parsedSeconds, floatTotal, primitiveSeconds, Item.formatAmount(total));
+    }
+}
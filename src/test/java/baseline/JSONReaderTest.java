@@ -0,0 +1,112 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonStreamParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONReaderTest {
+
+    // Create a token reader over a string
+    private JsonReader open(String json) {
+        return JSONReader.open(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // test that the concatenated test inventory is read in file order
+    @Test
+    void read() throws IOException {
+        List<Item> list = new ArrayList<>();
+        JSONReader.read(new File("./data/test/testJSON.json"), list::add);
+
+        // test first and last values to ensure list was copied
+        assertEquals(1024,list.size());
+        assertEquals("Item 1",list.get(0).getName());
+        assertEquals("A-XXX-XX0-001",list.get(0).getSerialNumber());
+        assertEquals("$1.00",list.get(0).getCost());
+        assertEquals("Item 1024",list.get(list.size() - 1).getName());
+    }
+
+    // test that a top-level array and unknown fields are accepted
+    @Test
+    void readArray() throws IOException {
+        List<Item> list = new ArrayList<>();
+        JSONReader.read(open("[{\"name\":\"Item 1\",\"serialNumber\":\"A-aaa-aaa-aaa\",\"cost\":\"$1.00\",\"extra\":[1,2]},\n" +
+                "{\"cost\":\"$2.00\",\"serialNumber\":\"B-bbb-bbb-bbb\",\"name\":\"Item 2\"}]"), list::add);
+
+        assertEquals(2,list.size());
+        assertEquals("Item 2",list.get(1).getName());
+        assertEquals("$2.00",list.get(1).getCost());
+    }
+
+    // test that items missing a field, or values that aren't objects, are rejected
+    @Test
+    void readMalformed() {
+        assertThrows(IOException.class, () -> JSONReader.read(open("{\"name\":\"Item 1\",\"cost\":\"$1.00\"}"), item -> { }));
+        assertThrows(IOException.class, () -> JSONReader.read(open("[1,2,3]"), item -> { }));
+    }
+
+    // test that the token reader allocates less per item than building a JsonObject tree for each item
+    @Test
+    @Tag("benchmark")
+    void readAllocation() throws IOException {
+        int rows = Integer.getInteger("benchmark.jsonRows", 500_000);
+
+        // generate a file in the layout SaveController writes
+        File file = File.createTempFile("jsonAllocation", ".json");
+        file.deleteOnExit();
+        try(Writer writer = Files.newBufferedWriter(file.toPath())) {
+            for(int i = 1; i <= rows; i++) {
+                writer.write("{\"name\":\"Item " + i + "\",\"serialNumber\":\"A-XXX-XXX-" + (i % 1000) + "\",\"cost\":\"$" + i + ".00\"}");
+            }
+        }
+
+        // measure both readers twice, keeping the second (warmed up) run
+        double tree = 0;
+        double tokens = 0;
+        for(int run = 0; run < 2; run++) {
+            tree = allocatedPerItem(() -> {
+                try(Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                    JsonStreamParser stream = new JsonStreamParser(reader);
+                    while(stream.hasNext()) {
+                        JsonObject item = stream.next().getAsJsonObject();
+                        new Item(item.get("name").getAsString(), item.get("serialNumber").getAsString(),
+                                item.get("cost").getAsString().substring(1));
+                    }
+                }
+            }, rows);
+            tokens = allocatedPerItem(() -> JSONReader.read(file, item -> { }), rows);
+        }
+
+        // report the results
+        System.out.printf("JSON import: JsonStreamParser %.0f bytes/item, JSONReader %.0f bytes/item%n", tree, tokens);
+        assertTrue(tokens < tree);
+    }
+
+    // Work that reads the test file
+    private interface Read {
+        void run() throws IOException;
+    }
+
+    // Measure the bytes allocated by the current thread per item while running a read
+    private double allocatedPerItem(Read read, int rows) throws IOException {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long before = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        read.run();
+        return (bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / (double)rows;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JSONWriterTest {
+
+    // Create a list with names that need escaping
+    private static List<Item> sampleItems() {
+        List<Item> items = TSVWriterTest.sampleItems();
+        items.add(new Item("<b>\"Quoted\" & 'escaped' = \\ \t</b>","D-ddd-ddd-ddd","4"));
+        return items;
+    }
+
+    // Write the items the way SaveController used to, with a new Gson per item
+    private static void writeWithGson(File file, List<Item> items) throws IOException {
+        try(Writer stream = new OutputStreamWriter(new FileOutputStream(file), Charset.defaultCharset())) {
+            for(Item i : items) {
+                Gson gson = new Gson();
+                gson.toJson(i, stream);
+            }
+        }
+    }
+
+    // test that the concatenated layout is byte-for-byte what reflection wrote
+    @Test
+    void writeConcatenated() throws IOException {
+        List<Item> items = sampleItems();
+        File expected = File.createTempFile("jsonWriter", ".json");
+        expected.deleteOnExit();
+        writeWithGson(expected, items);
+
+        File actual = File.createTempFile("jsonWriter", ".json");
+        actual.deleteOnExit();
+        JSONWriter.write(actual, items, JSONWriter.Layout.CONCATENATED);
+
+        assertArrayEquals(Files.readAllBytes(expected.toPath()),Files.readAllBytes(actual.toPath()));
+    }
+
+    // test that the array layout is a single valid JSON array which reads back
+    @Test
+    void writeArray() throws IOException {
+        List<Item> items = sampleItems();
+        File file = File.createTempFile("jsonWriter", ".json");
+        file.deleteOnExit();
+        JSONWriter.write(file, items, JSONWriter.Layout.ARRAY);
+
+        JsonArray array = JsonParser.parseString(Files.readString(file.toPath(), Charset.defaultCharset())).getAsJsonArray();
+        assertEquals(items.size(),array.size());
+
+        List<Item> values = new ArrayList<>();
+        JSONReader.read(file, values::add);
+        assertEquals(items.get(3).getName(),values.get(3).getName());
+        assertEquals("$2.25",values.get(1).getCost());
+    }
+
+    // test that every cost is written as dollars and two digits of cents, however large it is
+    @Test
+    void writeCosts() throws IOException {
+        List<Item> items = List.of(new Item("Half","A-aaa-aaa-aaa","2.5"), new Item("Large","B-bbb-bbb-bbb","10000000"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONWriter.write(out, items, JSONWriter.Layout.ARRAY);
+
+        JsonArray array = JsonParser.parseString(out.toString()).getAsJsonArray();
+        assertEquals("$2.50",array.get(0).getAsJsonObject().get("cost").getAsString());
+        assertEquals("$10000000.00",array.get(1).getAsJsonObject().get("cost").getAsString());
+    }
+
+    // test that an empty inventory saves as an empty file, or an empty array
+    @Test
+    void writeEmpty() throws IOException {
+        File file = File.createTempFile("jsonWriter", ".json");
+        file.deleteOnExit();
+
+        JSONWriter.write(file, List.of(), JSONWriter.Layout.CONCATENATED);
+        assertEquals(0,file.length());
+
+        JSONWriter.write(file, List.of(), JSONWriter.Layout.ARRAY);
+        assertEquals("[]",Files.readString(file.toPath()));
+    }
+
+    // test export time and garbage per item against a new Gson per item on a large inventory
+    @Test
+    @Tag("benchmark")
+    void writeAllocation() throws IOException {
+        int rows = Integer.getInteger("benchmark.jsonRows", 500_000);
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+        }
+        File file = File.createTempFile("jsonWriter", ".json");
+        file.deleteOnExit();
+
+        // measure both writers twice, keeping the second (warmed up) run
+        double[] reflection = {0, 0};
+        double[] streaming = {0, 0};
+        for(int run = 0; run < 2; run++) {
+            reflection = measure(() -> writeWithGson(file, items), rows);
+            streaming = measure(() -> JSONWriter.write(file, items, JSONWriter.Layout.CONCATENATED), rows);
+        }
+
+        // report the results
+        System.out.printf("JSON export: Gson per item %.3f s, %.0f bytes/item; JSONWriter %.3f s, %.0f bytes/item%n",
+                reflection[0], reflection[1], streaming[0], streaming[1]);
+        assertTrue(streaming[1] < reflection[1]);
+    }
+
+    // Work that writes the test file
+    private interface Write {
+        void run() throws IOException;
+    }
+
+    // Measure the seconds taken and the bytes allocated by the current thread per item while running a write
+    private double[] measure(Write write, int rows) throws IOException {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long before = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        write.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new double[] {seconds, (bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / (double)rows};
+    }
+}
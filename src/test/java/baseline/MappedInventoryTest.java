@@ -0,0 +1,213 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static baseline.InventoryGenerator.assertSameItems;
+import static baseline.InventoryGenerator.generate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedInventoryTest {
+
+    // Save items to a temporary .inv file
+    private static File save(List<Item> items) throws IOException {
+        File file = File.createTempFile("mappedInventory", ".inv");
+        file.deleteOnExit();
+        INVWriter.write(file, items, InventoryFiles.SyncPolicy.NONE);
+        return file;
+    }
+
+    // test that every row reads back the same as the eager reader, in any order
+    @Test
+    void getRoundTrip() throws IOException {
+        List<Item> items = TSVWriterTest.sampleItems();
+        items.addAll(generate(1000));
+        items.add(new Item("x".repeat(1 << 16),"not a serial é","-12.34"));
+        MappedInventory mapped = MappedInventory.open(save(items));
+        assertSameItems(items, mapped);
+
+        // read backwards, which jumps between indexed rows
+        for(int i = items.size() - 1; i >= 0; i -= 7) {
+            assertEquals(items.get(i).getSerialNumber(),mapped.get(i).getSerialNumber());
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> mapped.get(items.size()));
+    }
+
+    // test that only a bounded number of decoded rows are kept, and that evicted rows decode again the same
+    @Test
+    void getBoundedCache() throws IOException {
+        List<Item> items = generate(5000);
+        MappedInventory mapped = MappedInventory.open(save(items), 100);
+
+        assertEquals(0,mapped.getCachedCount());
+        assertSameItems(items, mapped);
+        assertEquals(100,mapped.getCachedCount());
+        assertEquals("Product 0",mapped.get(0).getName());
+    }
+
+    // test that edits made in place are kept after the row drops out of the cache
+    @Test
+    void editInPlace() throws IOException {
+        MappedInventory mapped = MappedInventory.open(save(generate(1000)), 10);
+        mapped.get(5).setName("Renamed");
+        mapped.get(6).setCost("9");
+
+        // view enough other rows to evict both
+        for(int i = 100; i < 200; i++) {
+            mapped.get(i);
+        }
+        assertEquals("Renamed",mapped.get(5).getName());
+        assertEquals("$9.00",mapped.get(6).getCost());
+    }
+
+    // test that the list can be changed like any other list
+    @Test
+    void editList() throws IOException {
+        List<Item> items = generate(300);
+        MappedInventory mapped = MappedInventory.open(save(items));
+        List<Item> expected = new ArrayList<>(items);
+
+        // replace, add, and remove by position
+        Item replacement = new Item("Replacement","R-rrr-rrr-rrr","1");
+        mapped.set(10, replacement);
+        expected.set(10, replacement);
+        Item added = new Item("Added","Z-zzz-zzz-zzz","2");
+        mapped.add(added);
+        expected.add(added);
+        mapped.remove(0);
+        expected.remove(0);
+        mapped.remove(150);
+        expected.remove(150);
+        mapped.remove(mapped.size() - 1);
+        expected.remove(expected.size() - 1);
+        assertSameItems(expected, mapped);
+
+        // find and remove items, whether they were decoded, replaced, or added
+        assertEquals(9,mapped.indexOf(replacement));
+        Item decoded = mapped.get(100);
+        assertEquals(100,mapped.indexOf(decoded));
+        assertTrue(mapped.remove(decoded));
+        expected.remove(100);
+        assertFalse(mapped.contains(decoded));
+        assertFalse(mapped.remove(new Item("Item 1","x","1")));
+        assertTrue(mapped.remove(replacement));
+        expected.remove(9);
+        assertSameItems(expected, mapped);
+
+        // remove with a filter
+        mapped.removeIf(item -> item.getName().endsWith("5"));
+        expected.removeIf(item -> item.getName().endsWith("5"));
+        assertSameItems(expected, mapped);
+
+        // remove everything, then start over
+        mapped.clear();
+        assertTrue(mapped.isEmpty());
+        mapped.add(added);
+        assertSameItems(List.of(added), mapped);
+    }
+
+    // test that a copy doesn't see edits made to the list afterwards
+    @Test
+    void snapshot() throws IOException {
+        List<Item> items = generate(200);
+        MappedInventory mapped = MappedInventory.open(save(items));
+        mapped.get(3).setName("Renamed");
+
+        MappedInventory copy = mapped.snapshot();
+        mapped.get(3).setName("Renamed again");
+        mapped.get(4).setName("Renamed too");
+        mapped.remove(0);
+        mapped.add(new Item("Added","Z-zzz-zzz-zzz","2"));
+
+        assertEquals(200,copy.size());
+        assertEquals("Renamed",copy.get(3).getName());
+        assertEquals("Product 4",copy.get(4).getName());
+        assertEquals("Product 0",copy.get(0).getName());
+    }
+
+    // test that a closed list is empty and its file can be written over and mapped again
+    @Test
+    void close() throws IOException {
+        File file = save(generate(100));
+        MappedInventory mapped = MappedInventory.open(file);
+        assertEquals("Product 5",mapped.get(5).getName());
+        mapped.close();
+        assertTrue(mapped.isEmpty());
+
+        INVWriter.write(file, generate(10), InventoryFiles.SyncPolicy.NONE);
+        try(MappedInventory reopened = MappedInventory.open(file)) {
+            assertSameItems(generate(10), reopened);
+        }
+    }
+
+    // test that files without a usable row index are rejected
+    @Test
+    void openInvalid() throws IOException {
+        // a version 1 file, which has no index
+        File file = save(generate(10));
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(INVWriter.MAGIC.length);
+            raf.writeInt(1);
+        }
+        assertThrows(IOException.class, () -> MappedInventory.open(file));
+
+        // a trailer pointing at the wrong place
+        File damaged = save(generate(10));
+        try(RandomAccessFile raf = new RandomAccessFile(damaged, "rw")) {
+            raf.seek(damaged.length() - Long.BYTES);
+            raf.writeLong(3);
+        }
+        assertThrows(IOException.class, () -> MappedInventory.open(damaged));
+
+        // a text file
+        File text = File.createTempFile("mappedInventory", ".inv");
+        text.deleteOnExit();
+        Files.writeString(text.toPath(), "A-aaa-aaa-aaa\tItem 1\t$1.00\n".repeat(10));
+        assertThrows(IOException.class, () -> MappedInventory.open(text));
+    }
+
+    // compare opening a large .inv file and showing its first rows with loading every row
+    @Test
+    @Tag("benchmark")
+    void openBenchmark() throws IOException {
+        int rows = Integer.getInteger("benchmark.mappedRows", 3_000_000);
+        File file = save(generate(rows));
+        Runtime runtime = Runtime.getRuntime();
+
+        for(String mode : new String[] {"mapped", "eager"}) {
+            System.gc();
+            long heap = runtime.totalMemory() - runtime.freeMemory();
+            long start = System.nanoTime();
+
+            // open the file and read the rows the table first shows
+            List<Item> values;
+            if(mode.equals("mapped")) values = MappedInventory.open(file);
+            else {
+                values = new ArrayList<>(rows);
+                INVReader.read(file, values::add);
+            }
+            for(int i = 0; i < 50; i++) {
+                values.get(i).getName();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.gc();
+            long used = runtime.totalMemory() - runtime.freeMemory() - heap;
+            System.out.printf("MappedInventory: %-6s %d rows, %.1f MB file, first rows shown in %.4f s, %.1f MB of heap%n",
+                    mode, rows, file.length() / 1e6, seconds, used / 1e6);
+            assertEquals(rows,values.size());
+        }
+    }
+}
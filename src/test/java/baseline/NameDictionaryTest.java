@@ -0,0 +1,146 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameDictionaryTest {
+
+    // test that a name gets the same id every time, and the id gets back the first copy of the name
+    @Test
+    void intern() {
+        NameDictionary dictionary = new NameDictionary();
+        String name = "Product";
+        int id = dictionary.intern(name);
+        assertEquals(id,dictionary.intern(new String("Product")));
+        assertSame(name,dictionary.get(id));
+        assertNotEquals(id,dictionary.intern("product"));
+        assertEquals(2,dictionary.size());
+
+        // a missing name has no id
+        assertEquals(NameDictionary.NONE,dictionary.intern(null));
+        assertNull(dictionary.get(NameDictionary.NONE));
+    }
+
+    // test that the dictionary keeps every name as it grows
+    @Test
+    void grow() {
+        NameDictionary dictionary = new NameDictionary();
+        for(int i = 0; i < 100_000; i++) {
+            assertEquals(i,dictionary.intern("Name " + i));
+        }
+        for(int i = 0; i < 100_000; i++) {
+            assertEquals(i,dictionary.intern("Name " + i));
+            assertEquals("Name " + i,dictionary.get(i));
+        }
+    }
+
+    // test that parsers interning the same names at once agree on every id
+    @Test
+    void concurrentIntern() throws Exception {
+        NameDictionary dictionary = new NameDictionary();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for(int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                results.add(pool.submit(() -> {
+                    int[] ids = new int[50_000];
+                    for(int i = 0; i < ids.length; i++) {
+                        int name = (i + offset * 997) % ids.length;
+                        ids[name] = dictionary.intern("Name " + name);
+                    }
+                    return ids;
+                }));
+            }
+
+            int[] first = results.get(0).get();
+            for(Future<int[]> result : results) {
+                assertArrayEquals(first, result.get());
+            }
+            assertEquals(50_000,dictionary.size());
+            for(int i = 0; i < first.length; i++) {
+                assertEquals("Name " + i,dictionary.get(first[i]));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    // test that a matching test checks each distinct name once
+    @Test
+    void matching() {
+        NameDictionary dictionary = new NameDictionary();
+        int red = dictionary.intern("Red chair");
+        int blue = dictionary.intern("Blue chair");
+        AtomicInteger checks = new AtomicInteger();
+        IntPredicate matches = dictionary.matching(name -> {
+            checks.incrementAndGet();
+            return name.contains("Red");
+        });
+
+        for(int i = 0; i < 1000; i++) {
+            assertTrue(matches.test(red));
+            assertFalse(matches.test(blue));
+        }
+        assertEquals(2,checks.get());
+
+        // a name added after the test was made is still checked
+        assertTrue(matches.test(dictionary.intern("Red table")));
+        assertFalse(matches.test(NameDictionary.NONE));
+    }
+
+    // compare the heap taken and the name search time of a large inventory whose names repeat, with the names shared
+    // and with every item keeping its own copy of its name
+    @Test
+    @Tag("benchmark")
+    void nameBenchmark() {
+        int rows = Integer.getInteger("benchmark.nameRows", 1_000_000);
+        Runtime runtime = Runtime.getRuntime();
+
+        List<Item> items = null;
+        for(String mode : new String[] {"shared", "copies"}) {
+            items = null;
+            System.gc();
+            long heap = runtime.totalMemory() - runtime.freeMemory();
+
+            // build the inventory the way an import does, with a new String for the name of every row
+            items = new ArrayList<>(rows);
+            for(int i = 0; i < rows; i++) {
+                Item item = new Item("Product " + i % 1000, InventoryGenerator.serialNumber(i), i % 1000);
+                if(mode.equals("shared")) item.shareName();
+                items.add(item);
+            }
+
+            System.gc();
+            long used = runtime.totalMemory() - runtime.freeMemory() - heap;
+
+            // search the names the way the main scene does
+            long start = System.nanoTime();
+            IntPredicate matches = NameDictionary.getShared().matching(name -> name.contains("99"));
+            int found = 0;
+            for(Item item : items) {
+                int id = item.getNameId();
+                if(id != NameDictionary.NONE ? matches.test(id) : item.getName().contains("99")) found++;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("NameDictionary: %-6s %d rows, 1000 distinct names, %.1f bytes per item, name search %.3f s (%d found)%n",
+                    mode, rows, (double)used / rows, seconds, found);
+        }
+    }
+}
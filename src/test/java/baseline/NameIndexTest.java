@@ -0,0 +1,228 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static baseline.InventoryGenerator.generate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTest {
+
+    // Declare the words the names of the generated items are made from
+    private static final String[] WORDS = {"Red", "Blue", "Chair", "Table", "Lamp", "Desk", "Oak", "Steel", "été", "日本"};
+
+    // Create a name of one to three words
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for(int words = random.nextInt(3); words > 0; words--) {
+            name.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return name.toString();
+    }
+
+    // Check the items the index finds against checking every item
+    private static void assertSearch(List<Item> inventory, String name) {
+        List<Item> expected = new ArrayList<>();
+        for(Item item : inventory) {
+            if(item.getName().contains(name)) expected.add(item);
+        }
+        List<Item> found = NameIndex.of(inventory).search(name);
+        assertEquals(expected.size(),found.size());
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getSerialNumber(),found.get(i).getSerialNumber());
+        }
+    }
+
+    // test that a search finds the items containing it, in order, and nothing else
+    @Test
+    void search() {
+        List<Item> inventory = new ArrayList<>(List.of(
+                new Item("Red chair","A-aaa-aaa-aaa","1"),
+                new Item("Chair, red","B-bbb-bbb-bbb","1"),
+                new Item("Aaaaaa","C-ccc-ccc-ccc","1"),
+                new Item("Red chair and red table","D-ddd-ddd-ddd","1")));
+        NameIndex index = NameIndex.of(inventory);
+
+        assertEquals(List.of(inventory.get(0), inventory.get(3)),index.search("Red chair"));
+        assertEquals(List.of(inventory.get(0), inventory.get(1), inventory.get(3)),index.search("hair"));
+        assertEquals(List.of(inventory.get(2)),index.search("aaaaa"));
+        assertTrue(index.search("chair, red").isEmpty());
+        assertTrue(index.search("Lamp").isEmpty());
+
+        // trigrams all present, but not together
+        assertTrue(index.search("Red table").isEmpty());
+
+        // a search too short for a trigram is left to the caller
+        assertNull(index.search("Re"));
+    }
+
+    // test that the index follows items as they are added, renamed, removed, and cleared
+    @Test
+    void recordChanges() {
+        Random random = new Random(23);
+        for(List<Item> inventory : List.of(generate(2000, i -> name(random)), new InventoryTable(generate(2000, i -> name(random))))) {
+            assertSearch(inventory, "Red");
+            for(int change = 0; change < 300; change++) {
+                switch(random.nextInt(3)) {
+                    case 0 -> {
+                        Item item = new Item(name(random), InventoryGenerator.serialNumber(10_000 + change), "1");
+                        inventory.add(item);
+                        NameIndex.recordAdd(inventory, item);
+                    }
+                    case 1 -> {
+                        int position = random.nextInt(inventory.size());
+                        Item item = inventory.get(position);
+                        Item previous = new Item(item);
+                        item.setName(name(random));
+                        NameIndex.recordSet(inventory, position, previous, item);
+                    }
+                    default -> {
+                        int position = random.nextInt(inventory.size());
+                        Item removed = inventory.remove(position);
+                        NameIndex.recordRemove(inventory, position, removed);
+                    }
+                }
+                for(String name : new String[] {"Red", "Desk", "Oak Lamp", "l Oa", "été 日本", "Table Table"}) {
+                    assertSearch(inventory, name);
+                }
+            }
+
+            // replacing an item rather than editing it
+            Item replacement = new Item("Replacement","R-rrr-rrr-rrr","1");
+            Item previous = inventory.set(7, replacement);
+            NameIndex.recordSet(inventory, 7, previous, replacement);
+            assertEquals(1,NameIndex.of(inventory).search("placement").size());
+
+            inventory.clear();
+            NameIndex.recordClear(inventory);
+            assertTrue(NameIndex.of(inventory).search("Red").isEmpty());
+        }
+    }
+
+    // test that searches follow many removals reported to InventoryChanges, both before and after there are enough of
+    // them to rebuild the index
+    @Test
+    void removeMany() {
+        Random random = new Random(29);
+        List<Item> inventory = generate(3000, i -> name(random));
+        assertSearch(inventory, "Desk");
+        for(int i = 0; i < 1500; i++) {
+            int position = random.nextInt(inventory.size());
+            Item removed = inventory.remove(position);
+            InventoryChanges.removed(inventory, position, removed);
+            if(i % 3 == 0) {
+                Item item = new Item(name(random), InventoryGenerator.serialNumber(10_000 + i), "1");
+                inventory.add(item);
+                InventoryChanges.added(inventory, item);
+            }
+            if(i % 100 == 0) {
+                for(String name : new String[] {"Red", "Desk", "Oak Lamp"}) {
+                    assertSearch(inventory, name);
+                }
+            }
+        }
+        assertSearch(inventory, "Desk");
+        assertSearch(inventory, "l Oa");
+    }
+
+    // test that changes which weren't recorded item by item rebuild the index
+    @Test
+    void rebuild() {
+        Random random = new Random(5);
+        List<Item> inventory = generate(500, i -> name(random));
+        assertSearch(inventory, "Steel");
+
+        // an item added without recording it changes the size
+        inventory.add(0, new Item("Steel lamp","S-sss-sss-sss","1"));
+        assertSearch(inventory, "Steel");
+
+        // a sort keeps the size, so it is recorded as a bulk change
+        inventory.sort((a, b) -> b.getName().compareTo(a.getName()));
+        NameIndex.invalidate(inventory);
+        assertSearch(inventory, "Steel");
+    }
+
+    // test the distinct trigrams of a name
+    @Test
+    void trigramsOf() {
+        assertEquals(0,NameIndex.trigramsOf("ab").length);
+        assertEquals(0,NameIndex.trigramsOf(null).length);
+        assertEquals(1,NameIndex.trigramsOf("aaaaaa").length);
+        assertEquals(3,NameIndex.trigramsOf("abcabc").length);
+        assertEquals(4,NameIndex.trigramsOf("abcabd").length);
+    }
+
+    // compare searching a large inventory with the index against checking every item, and report what the index takes
+    @Test
+    @Tag("benchmark")
+    void searchBenchmark() {
+        int rows = Integer.getInteger("benchmark.searchRows", 1_000_000);
+        int searches = Integer.getInteger("benchmark.searches", 100);
+        List<Item> inventory = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            inventory.add(new Item("Product " + i, InventoryGenerator.serialNumber(i), "1"));
+        }
+
+        // build the index with a search that finds nothing, so only the build is timed
+        long start = System.nanoTime();
+        NameIndex index = NameIndex.of(inventory);
+        index.search("zzz");
+        double build = (System.nanoTime() - start) / 1e9;
+        System.out.printf("NameIndex: %d rows, index built in %.3f s, %.1f bytes per item%n",
+                rows, build, (double)index.getMemoryBytes() / rows);
+
+        // the searches the user might type: a single item, a dozen items, and a tenth of the inventory
+        String[] kinds = {"one item", "a dozen", "a tenth"};
+        for(int kind = 0; kind < kinds.length; kind++) {
+            String[] names = new String[searches];
+            for(int i = 0; i < searches; i++) {
+                names[i] = switch(kind) {
+                    case 0 -> "Product " + (long)i * 7919 % rows;
+                    case 1 -> String.valueOf(10_000 + i * 10);
+                    default -> "duct 9";
+                };
+            }
+
+            start = System.nanoTime();
+            int scanned = 0;
+            for(String name : names) {
+                for(Item item : inventory) {
+                    if(item.getName().contains(name)) scanned++;
+                }
+            }
+            double scan = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            int found = 0;
+            for(String name : names) {
+                found += index.search(name).size();
+            }
+            double lookup = (System.nanoTime() - start) / 1e9;
+            assertEquals(scanned,found);
+
+            System.out.printf("NameIndex: %-8s scanning %.2f ms each, with the index %.3f ms each (%d found per search)%n",
+                    kinds[kind], scan * 1e3 / searches, lookup * 1e3 / searches, found / searches);
+        }
+
+        // a rename and a removal from the front, the slowest kind of change to record
+        start = System.nanoTime();
+        Item item = inventory.get(1);
+        Item previous = new Item(item);
+        item.setName("Renamed");
+        NameIndex.recordSet(inventory, 1, previous, item);
+        Item removed = inventory.remove(0);
+        NameIndex.recordRemove(inventory, 0, removed);
+        double change = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("NameIndex: rename and removal from the front recorded in %.1f ms%n", change * 1e3);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static baseline.InventoryGenerator.assertSameItems;
+import static baseline.InventoryGenerator.generate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapInventoryTest {
+
+    // Declare the names of the generated items, with a name outside Latin-1 every so often
+    private static final IntFunction<String> NAMES = i -> i % 89 == 0 ? "Produkt €" + i : "Product " + i;
+
+    // test that the inventory holds the same rows as a list of Items, across several buffers of records
+    @Test
+    void addAndGet() {
+        List<Item> items = TSVWriterTest.sampleItems();
+        items.addAll(generate(70_000, NAMES));
+        OffHeapInventory inventory = new OffHeapInventory(items);
+
+        assertSameItems(items, inventory);
+        assertEquals(SerialKey.NONE,inventory.get(3).getSerialKey());
+        assertTrue(inventory.getOffHeapBytes() >= (long)items.size() * OffHeapInventory.RECORD_SIZE);
+        assertThrows(IndexOutOfBoundsException.class, () -> inventory.get(items.size()));
+    }
+
+    // test that the list can be changed like any other list
+    @Test
+    void editList() {
+        List<Item> expected = generate(3000, NAMES);
+        OffHeapInventory inventory = new OffHeapInventory(expected);
+
+        // replace, insert, and remove by position
+        Item replacement = new Item("Replacement","R-rrr-rrr-rrr","1");
+        inventory.set(10, replacement);
+        expected.set(10, replacement);
+        Item added = new Item("Added","Z-zzz-zzz-zzz","2");
+        inventory.add(5, added);
+        expected.add(5, added);
+        assertEquals("Product 1",inventory.remove(1).getName());
+        expected.remove(1);
+        assertSameItems(expected, inventory);
+
+        // remove with a filter, reusing the freed slots for new rows
+        inventory.removeIf(item -> item.getName().endsWith("5"));
+        expected.removeIf(item -> item.getName().endsWith("5"));
+        inventory.addAll(generate(200, NAMES));
+        expected.addAll(generate(200, NAMES));
+        assertSameItems(expected, inventory);
+
+        // remove everything, then start over
+        inventory.clear();
+        assertTrue(inventory.isEmpty());
+        inventory.add(added);
+        assertSameItems(List.of(added), inventory);
+    }
+
+    // test that an item taken from the inventory edits its row, and stays with its row as other rows move
+    @Test
+    void editInPlace() {
+        OffHeapInventory inventory = new OffHeapInventory(generate(100, NAMES));
+        Item row = inventory.get(50);
+        row.setName("Short");
+        assertEquals("Short",inventory.get(50).getName());
+        row.setName("A much longer name than the one before, in été and 日本");
+        row.setCost("12.34");
+        row.setSerialNumber("not packed");
+        assertEquals("A much longer name than the one before, in été and 日本",inventory.get(50).getName());
+        assertEquals("$12.34",inventory.get(50).getCost());
+        assertEquals("not packed",inventory.get(50).getSerialNumber());
+        assertEquals("Product 51",inventory.get(51).getName());
+
+        // rows in front of it come and go
+        inventory.remove(0);
+        inventory.add(0, new Item("First","F-fff-fff-fff","1"));
+        inventory.add(0, new Item("New first","G-ggg-ggg-ggg","1"));
+        assertEquals(51,inventory.indexOf(row));
+        assertEquals(row,inventory.get(51));
+        assertFalse(inventory.contains(new Item(row)));
+
+        // removing it by itself
+        assertTrue(inventory.remove(row));
+        assertEquals(-1,inventory.indexOf(row));
+        assertNull(row.getName());
+        assertEquals(100,inventory.size());
+    }
+
+    // test that an item whose row was removed can't change the free list, or the row later given its slot
+    @Test
+    void removedRow() {
+        OffHeapInventory inventory = new OffHeapInventory(generate(10, NAMES));
+        Item first = inventory.get(3);
+        Item second = inventory.get(6);
+        inventory.remove(6);
+        inventory.remove(3);
+
+        // changing a free record would make it look in use, or send the free list somewhere else
+        first.setName("A name long enough to need new space");
+        first.setCents(2);
+        second.setSerialNumber("not packed");
+        assertNull(first.getName());
+        assertNull(second.getSerialNumber());
+        assertEquals(0,first.getCents());
+
+        // the freed slots are each given to one new row, and the old items don't read them
+        Item a = new Item("Reused A","A-aaa-aaa-aaa","1");
+        Item b = new Item("Reused B","B-bbb-bbb-bbb","2");
+        Item c = new Item("Reused C","C-ccc-ccc-ccc","3");
+        inventory.addAll(List.of(a, b, c));
+        assertSameItems(List.of(a, b, c), inventory.subList(8, 11));
+        assertNull(first.getName());
+        assertNull(second.getName());
+        assertEquals(-1,inventory.indexOf(first));
+
+        // every row taken before a clear is removed by it
+        Item kept = inventory.get(0);
+        inventory.clear();
+        inventory.addAll(generate(2, NAMES));
+        assertNull(kept.getName());
+        kept.setName("Stale");
+        assertSameItems(generate(2, NAMES), inventory);
+    }
+
+    // test that the space of names given up by renames and removals is reused, and the names stay the same
+    @Test
+    void reuseNameSpace() {
+        List<Item> expected = generate(5000, NAMES);
+        OffHeapInventory inventory = new OffHeapInventory(expected);
+        Item row = inventory.get(10);
+        long start = inventory.getOffHeapBytes();
+
+        // each round gives every row a longer name than it had, then removes a few rows and adds new ones
+        for(int round = 0; round < 40; round++) {
+            for(int i = 0; i < inventory.size(); i++) {
+                String name = (i % 89 == 0 ? "Ünïcødé € " : "Round ") + round + " of a name long enough to move ".repeat(1 + round % 3) + i;
+                inventory.get(i).setName(name);
+                expected.get(i).setName(name);
+            }
+            for(int i = 0; i < 50; i++) {
+                int position = (round * 50 + i) * 31 % inventory.size();
+                if(position == inventory.indexOf(row)) continue;
+                inventory.remove(position);
+                expected.remove(position);
+            }
+            List<Item> added = generate(50, NAMES);
+            inventory.addAll(added);
+            expected.addAll(added);
+        }
+
+        assertSameItems(expected, inventory);
+        assertEquals(expected.get(inventory.indexOf(row)).getName(),row.getName());
+        assertTrue(inventory.getOffHeapBytes() < start + 4L * (1 << 20), "off-heap bytes: " + inventory.getOffHeapBytes());
+    }
+
+    // test that sorting moves the rows, including through a list iterator the way the table view sorts
+    @Test
+    void sort() {
+        List<Item> expected = generate(500, NAMES);
+        OffHeapInventory inventory = new OffHeapInventory(expected);
+        Item row = inventory.get(1);
+        Comparator<Item> byCost = Comparator.comparingLong(Item::getCents).thenComparing(Item::getSerialNumber);
+
+        inventory.sort(byCost);
+        expected.sort(byCost);
+        assertSameItems(expected, inventory);
+        assertEquals("Product 1",row.getName());
+
+        // set every position from a sorted copy of the rows
+        Item[] rows = inventory.toArray(new Item[0]);
+        java.util.Arrays.sort(rows, Comparator.comparing(Item::getSerialNumber));
+        for(int i = 0; i < rows.length; i++) {
+            inventory.set(i, rows[i]);
+        }
+        expected.sort(Comparator.comparing(Item::getSerialNumber));
+        assertSameItems(expected, inventory);
+    }
+
+    // test that a copy doesn't see edits made to the inventory afterwards
+    @Test
+    void snapshot() {
+        OffHeapInventory inventory = new OffHeapInventory(generate(200, NAMES));
+        OffHeapInventory copy = (OffHeapInventory)ExportTask.snapshot(inventory);
+
+        inventory.get(3).setName("Renamed");
+        inventory.remove(0);
+        inventory.add(new Item("Added","Z-zzz-zzz-zzz","2"));
+        copy.get(4).setName("Copy");
+        copy.add(new Item("Copy only","Y-yyy-yyy-yyy","2"));
+
+        List<Item> expected = generate(200, NAMES);
+        expected.get(4).setName("Copy");
+        assertSameItems(expected, copy.subList(0, 200));
+        assertEquals("Copy only",copy.get(200).getName());
+        assertEquals("Renamed",inventory.get(2).getName());
+        assertEquals("Added",inventory.get(199).getName());
+    }
+
+    // test that a name search finds the same rows as checking every item
+    @Test
+    void findByName() {
+        List<Item> items = generate(1000, NAMES);
+        OffHeapInventory inventory = new OffHeapInventory(items);
+        inventory.get(7).setName("Special");
+
+        for(String text : new String[] {"t 1", "€1", "99", "", "none"}) {
+            List<Item> found = inventory.findByName(text);
+            assertEquals(inventory.stream().filter(item -> item.getName().contains(text)).toList(),found);
+        }
+        assertEquals(List.of(inventory.get(7)),inventory.findByName("Spec"));
+    }
+
+    // test that the storage is chosen by a system property
+    @Test
+    void storage() {
+        try {
+            System.setProperty("inventory.storage", "off-heap");
+            assertTrue(OffHeapInventory.Storage.getDefault().create() instanceof OffHeapInventory);
+            System.setProperty("inventory.storage", "somewhere");
+            assertEquals(OffHeapInventory.Storage.HEAP,OffHeapInventory.Storage.getDefault());
+            System.clearProperty("inventory.storage");
+            assertTrue(OffHeapInventory.Storage.getDefault().create() instanceof InventoryTable);
+        }
+        finally {
+            System.clearProperty("inventory.storage");
+        }
+    }
+
+    // Get the total time the garbage collectors have spent collecting, in milliseconds
+    private static long collectionMillis() {
+        long millis = 0;
+        for(GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    // compare the heap and the collection time taken by a large inventory on and off the heap
+    @Test
+    @Tag("benchmark")
+    void offHeapBenchmark() {
+        int rows = Integer.getInteger("benchmark.offHeapRows", 2_000_000);
+        Runtime runtime = Runtime.getRuntime();
+
+        List<Item> inventory = null;
+        for(String mode : new String[] {"off-heap", "table", "list"}) {
+            inventory = null;
+            System.gc();
+            long heap = runtime.totalMemory() - runtime.freeMemory();
+            long collections = collectionMillis();
+
+            // build the inventory the way an import does, with a new String for every field of every row
+            long start = System.nanoTime();
+            inventory = mode.equals("list") ? new ArrayList<>() : mode.equals("table") ? new InventoryTable() : new OffHeapInventory();
+            for(int i = 0; i < rows; i++) {
+                inventory.add(new Item("Product " + i, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            // a full collection with the inventory alive, as happens while the app runs
+            start = System.nanoTime();
+            System.gc();
+            double fullCollection = (System.nanoTime() - start) / 1e9;
+            long used = runtime.totalMemory() - runtime.freeMemory() - heap;
+            long offHeap = inventory instanceof OffHeapInventory offHeapInventory ? offHeapInventory.getOffHeapBytes() : 0;
+            System.out.printf("OffHeapInventory: %-8s %d rows, built in %.2f s, %.1f heap bytes per item, %.1f off-heap bytes per item, "
+                    + "%d ms collecting while building, full collection %.3f s%n",
+                    mode, rows, seconds, (double)used / rows, (double)offHeap / rows, collectionMillis() - collections, fullCollection);
+        }
+    }
+}
@@ -61,7 +61,7 @@ class SaveControllerTest extends ImportController {
         // note: I'm using ImportController to get the data, which is also being JUnit tested to verify it's
         // accurate
         ImportController readFiles = new ImportController();
-        List<Item> values = readFiles.parseTSVFile(new File("./data/test/testFile.txt"));
+        List<Item> values = readFiles.importItems(new File("./data/test/testFile.txt"));
 
         // confirm values were stored correctly
         assertEquals(2,values.size());
@@ -78,7 +78,7 @@ class SaveControllerTest extends ImportController {
         // read data from TSV
         // note: I'm using ImportController to get the data, which is also being JUnit tested to verify it's
         // accurate
-        List<Item> values = new ImportController().parseJSONFile(new File("./data/test/testFile.json"));
+        List<Item> values = new ImportController().importItems(new File("./data/test/testFile.json"));
 
         // confirm values were stored correctly
         assertEquals(2, values.size());
@@ -96,7 +96,7 @@ class SaveControllerTest extends ImportController {
         // note: I'm using ImportController to get the data, which is also being JUnit tested to verify it's
         // accurate
         ImportController readFiles = new ImportController();
-        List<Item> values = readFiles.parseHTMLFile(new File("./data/test/testFile.html"));
+        List<Item> values = readFiles.importItems(new File("./data/test/testFile.html"));
 
         // confirm values were stored correctly
         assertEquals(2,values.size());
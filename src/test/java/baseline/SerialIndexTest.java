@@ -0,0 +1,202 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static baseline.InventoryGenerator.generate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialIndexTest {
+
+    // Check that every item of a list is found at its position
+    private static void assertIndexed(List<Item> inventory) {
+        SerialIndex index = SerialIndex.of(inventory);
+        for(int i = 0; i < inventory.size(); i++) {
+            assertEquals(i,index.indexOf(new Item(inventory.get(i))));
+            assertFalse(index.isUnique(inventory.get(i).getSerialNumber(), inventory.size()));
+            assertTrue(index.isUnique(inventory.get(i).getSerialNumber(), i));
+        }
+    }
+
+    // test that the positions follow items as they are added, replaced, edited, removed, and cleared
+    @Test
+    void recordChanges() {
+        for(List<Item> inventory : List.of(generate(500), new InventoryTable(generate(500)), new OffHeapInventory(generate(500)))) {
+            SerialIndex index = SerialIndex.of(inventory);
+            assertEquals(42,index.indexOf(new Item("Other", inventory.get(42).getSerialNumber(), "2")));
+            assertTrue(index.isUnique("Z-zzz-zzz-zzz", inventory.size()));
+
+            // add an item
+            Item added = new Item("Added","Z-zzz-zzz-zzz","1");
+            inventory.add(added);
+            SerialIndex.recordAdd(inventory, added);
+            assertFalse(index.isUnique("Z-zzz-zzz-zzz", inventory.size()));
+
+            // replace one, and give another a new serial number in place
+            Item replacement = new Item("Replacement","free-form replacement","1");
+            Item previous = inventory.set(10, replacement);
+            SerialIndex.recordSet(inventory, 10, previous, replacement);
+            Item edited = inventory.get(97);
+            previous = new Item(edited);
+            edited.setSerialNumber("Y-yyy-yyy-yyy");
+            SerialIndex.recordSet(inventory, 97, previous, edited);
+            assertEquals(-1,index.indexOf(previous));
+            assertTrue(index.isUnique(previous.getSerialNumber(), inventory.size()));
+
+            // remove from the middle
+            Item removed = inventory.remove(200);
+            SerialIndex.recordRemove(inventory, 200, removed);
+            assertEquals(-1,index.indexOf(removed));
+            assertIndexed(inventory);
+
+            // remove everything
+            inventory.clear();
+            SerialIndex.recordClear(inventory);
+            assertEquals(-1,index.indexOf(added));
+            assertTrue(index.isUnique("Z-zzz-zzz-zzz", 0));
+        }
+    }
+
+    // test that the positions follow many removals mixed with additions and edits reported to InventoryChanges, both
+    // before and after there are enough removals to rebuild them
+    @Test
+    void removeMany() {
+        List<Item> inventory = generate(3000);
+        SerialIndex index = SerialIndex.of(inventory);
+        assertIndexed(inventory);
+        for(int i = 0; i < 1500; i++) {
+            int position = i * 7919 % inventory.size();
+            Item removed = inventory.remove(position);
+            InventoryChanges.removed(inventory, position, removed);
+            assertEquals(-1,index.indexOf(removed));
+
+            if(i % 5 == 0) {
+                Item added = new Item("Added " + i, "added-" + i, "1");
+                inventory.add(added);
+                InventoryChanges.added(inventory, added);
+            }
+            if(i % 7 == 0) {
+                Item edited = inventory.get(position % inventory.size());
+                Item previous = new Item(edited);
+                edited.setSerialNumber("edited-" + i);
+                InventoryChanges.set(inventory, position % inventory.size(), previous, edited);
+                assertEquals(-1,index.indexOf(previous));
+            }
+            if(i % 250 == 0) assertIndexed(inventory);
+        }
+        assertIndexed(inventory);
+    }
+
+    // test that changes which weren't recorded are caught, and a bulk change rebuilds the positions
+    @Test
+    void rebuild() {
+        List<Item> inventory = generate(300);
+        SerialIndex index = SerialIndex.of(inventory);
+        assertEquals(5,index.indexOf(inventory.get(5)));
+
+        // an item added without recording it changes the size
+        inventory.add(0, new Item("Unrecorded","X-xxx-xxx-xxx","1"));
+        assertEquals(6,index.indexOf(inventory.get(6)));
+        assertEquals(0,index.indexOf(inventory.get(0)));
+
+        // a sort keeps the size, so it is recorded as a bulk change
+        inventory.sort((a, b) -> b.getName().compareTo(a.getName()));
+        SerialIndex.invalidate(inventory);
+        assertIndexed(inventory);
+
+        // a serial number moved without recording it is caught when its old position is looked up
+        inventory.get(3).setSerialNumber(inventory.get(4).getSerialNumber());
+        inventory.get(4).setSerialNumber("W-www-www-www");
+        assertEquals(3,index.indexOf(inventory.get(3)));
+    }
+
+    // test that an imported file repeating a serial number finds the first of them, and neither is unique
+    @Test
+    void duplicates() {
+        List<Item> inventory = generate(100);
+        inventory.add(new Item("Repeat", inventory.get(20).getSerialNumber(), "1"));
+        SerialIndex index = SerialIndex.of(inventory);
+        String repeated = inventory.get(20).getSerialNumber();
+
+        assertEquals(20,index.indexOf(inventory.get(100)));
+        assertFalse(index.isUnique(repeated, 20));
+        assertFalse(index.isUnique(repeated, 100));
+
+        // once one of them is removed, the other is unique
+        Item removed = inventory.remove(20);
+        SerialIndex.recordRemove(inventory, 20, removed);
+        assertEquals(99,index.indexOf(removed));
+        assertTrue(index.isUnique(repeated, 99));
+    }
+
+    // test that another inventory gets an index of its own
+    @Test
+    void switchInventory() {
+        List<Item> first = generate(10);
+        List<Item> second = generate(20).subList(10, 20);
+        assertEquals(3,SerialIndex.of(first).indexOf(first.get(3)));
+        assertEquals(-1,SerialIndex.of(second).indexOf(first.get(3)));
+
+        // changes to an inventory that isn't indexed are ignored
+        SerialIndex.recordAdd(first, new Item("Ignored","V-vvv-vvv-vvv","1"));
+        assertEquals(4,SerialIndex.of(second).indexOf(second.get(4)));
+    }
+
+    // compare finding an item and checking a serial number with the index against scanning the inventory, as each
+    // edit of a large inventory used to
+    @Test
+    @Tag("benchmark")
+    void lookupBenchmark() {
+        int rows = Integer.getInteger("benchmark.indexRows", 1_000_000);
+        int lookups = Integer.getInteger("benchmark.indexLookups", 1000);
+        List<Item> inventory = generate(rows);
+
+        // the old way: walk the inventory for every lookup
+        long start = System.nanoTime();
+        int found = 0;
+        for(int i = 0; i < lookups; i++) {
+            Item item = inventory.get((int)((long)i * 7919 % rows));
+            for(int j = 0; j < inventory.size(); j++) {
+                if(inventory.get(j).hasSameSerialNumber(item)) {
+                    found += j;
+                    break;
+                }
+            }
+        }
+        double scan = (System.nanoTime() - start) / 1e9;
+
+        // building the index once, then looking up
+        start = System.nanoTime();
+        SerialIndex index = SerialIndex.of(inventory);
+        index.indexOf(inventory.get(0));
+        double build = (System.nanoTime() - start) / 1e9;
+        start = System.nanoTime();
+        int indexed = 0;
+        for(int i = 0; i < lookups; i++) {
+            indexed += index.indexOf(inventory.get((int)((long)i * 7919 % rows)));
+        }
+        double lookup = (System.nanoTime() - start) / 1e9;
+        assertEquals(found,indexed);
+
+        System.out.printf("SerialIndex: %d rows, %d lookups: scanning %.3f s (%.1f us each), index built in %.3f s, then %.6f s (%.3f us each)%n",
+                rows, lookups, scan, scan * 1e6 / lookups, build, lookup, lookup * 1e6 / lookups);
+
+        // removals from the front, which used to store the position of every item after them again
+        start = System.nanoTime();
+        for(int i = 0; i < lookups; i++) {
+            Item removed = inventory.remove(0);
+            SerialIndex.recordRemove(inventory, 0, removed);
+        }
+        assertEquals(0,index.indexOf(inventory.get(0)));
+        double remove = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("SerialIndex: %d removals from the front recorded and looked up in %.1f ms%n", lookups, remove * 1e3);
+    }
+}
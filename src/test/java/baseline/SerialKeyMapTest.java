@@ -0,0 +1,114 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialKeyMapTest {
+
+    // test that positions are stored and replaced by serial number, for packed and free-form serial numbers alike
+    @Test
+    void putAndGet() {
+        SerialKeyMap map = new SerialKeyMap(0);
+        Item packed = new Item("Item 1","A-aaa-aaa-aaa","1");
+        Item freeForm = new Item("Item 2","free-form 2","2");
+
+        assertEquals(SerialKeyMap.MISSING,map.put(packed, 0));
+        assertEquals(SerialKeyMap.MISSING,map.put(freeForm, 1));
+        assertEquals(0,map.get(new Item("Copy","A-aaa-aaa-aaa","3")));
+        assertEquals(1,map.get("free-form 2"));
+        assertEquals(0,map.get("A-aaa-aaa-aaa"));
+        assertEquals(SerialKeyMap.MISSING,map.get("A-aaa-aaa-aab"));
+        assertFalse(map.containsKey(new Item("Other","B-aaa-aaa-aaa","1")));
+
+        assertEquals(0,map.put(packed, 5));
+        assertEquals(5,map.get(packed));
+        assertEquals(2,map.size());
+    }
+
+    // test that the map keeps every position as it grows
+    @Test
+    void putGrow() {
+        SerialKeyMap map = new SerialKeyMap(0);
+        for(int i = 0; i < 100_000; i++) {
+            map.put(new Item("Item " + i, InventoryGenerator.serialNumber(i), "1"), i);
+        }
+        assertEquals(100_000,map.size());
+        for(int i = 0; i < 100_000; i++) {
+            assertEquals(i,map.get(InventoryGenerator.serialNumber(i)));
+        }
+    }
+
+    // test that removing serial numbers keeps every other one findable, even where their probes ran through the removed ones
+    @Test
+    void remove() {
+        // a small table, so many keys share probe runs
+        SerialKeyMap map = new SerialKeyMap(0);
+        List<Item> items = InventoryGenerator.generate(10_000);
+        for(int i = 0; i < items.size(); i++) {
+            map.put(items.get(i), i);
+        }
+
+        for(int i = 0; i < items.size(); i += 3) {
+            assertEquals(i,map.remove(items.get(i)));
+        }
+        assertEquals(SerialKeyMap.MISSING,map.remove(items.get(0)));
+        for(int i = 0; i < items.size(); i++) {
+            assertEquals(i % 3 == 0 ? SerialKeyMap.MISSING : i,map.get(items.get(i)));
+        }
+        assertEquals(10_000 - 3334,map.size());
+
+        map.clear();
+        assertEquals(0,map.size());
+        assertEquals(SerialKeyMap.MISSING,map.get(items.get(1)));
+    }
+
+    // compare looking up every item of a large inventory by packed serial number with a map of Strings
+    @Test
+    @Tag("benchmark")
+    void getBenchmark() {
+        int rows = Integer.getInteger("benchmark.serialRows", 1_000_000);
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), "1"));
+        }
+
+        // a map of serial number text, which has to make every item's serial number to look it up
+        long start = System.nanoTime();
+        Map<String, Integer> strings = new HashMap<>();
+        for(int i = 0; i < rows; i++) {
+            strings.put(items.get(i).getSerialNumber(), i);
+        }
+        long found = 0;
+        for(Item item : items) {
+            found += strings.get(item.getSerialNumber());
+        }
+        double stringSeconds = (System.nanoTime() - start) / 1e9;
+
+        // a map of packed serial numbers
+        start = System.nanoTime();
+        SerialKeyMap keys = new SerialKeyMap(rows);
+        for(int i = 0; i < rows; i++) {
+            keys.put(items.get(i), i);
+        }
+        for(Item item : items) {
+            found -= keys.get(item);
+        }
+        double keySeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("SerialKeyMap: %d rows, build and look up every row with Strings %.3f s, with packed keys %.3f s%n",
+                rows, stringSeconds, keySeconds);
+        assertEquals(0,found);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialKeyTest {
+
+    // test that every valid serial number packs into a key and back into the same text
+    @Test
+    void packRoundTrip() {
+        for(String serialNumber : new String[] {"A-000-000-000", "z-zzz-zzz-zzz", "a-B1c-D2e-F3g", "Q-9Z9-a0A-zz0"}) {
+            long key = SerialKey.pack(serialNumber);
+            assertTrue(key >= 0);
+            assertEquals(serialNumber,SerialKey.toString(key));
+        }
+        for(int i = 0; i < 100_000; i++) {
+            String serialNumber = InventoryGenerator.serialNumber(i);
+            assertEquals(serialNumber,SerialKey.toString(SerialKey.pack(serialNumber)));
+        }
+    }
+
+    // test that serial numbers outside the A-XXX-XXX-XXX format aren't packed
+    @Test
+    void packInvalid() {
+        assertEquals(SerialKey.NONE,SerialKey.pack(""));
+        assertEquals(SerialKey.NONE,SerialKey.pack("1-aaa-aaa-aaa"));
+        assertEquals(SerialKey.NONE,SerialKey.pack("A-aaa-aaa-aa"));
+        assertEquals(SerialKey.NONE,SerialKey.pack("A-aaa-aaa-aaaa"));
+        assertEquals(SerialKey.NONE,SerialKey.pack("A-aaa_aaa-aaa"));
+        assertEquals(SerialKey.NONE,SerialKey.pack("A-a a-aaa-aaa"));
+        assertEquals(SerialKey.NONE,SerialKey.pack("A-aéa-aaa-aaa"));
+        assertEquals(SerialKey.NONE,SerialKey.pack("A-aaa-aaa-a-a"));
+        assertFalse(SerialKey.isValid("free-form 1"));
+        assertTrue(SerialKey.isValid("A-aaa-aaa-aaa"));
+    }
+
+    // test that keys sort in the same order as the text
+    @Test
+    void packSorted() {
+        List<String> serialNumbers = new ArrayList<>(List.of("b-000-000-000", "B-zzz-zzz-zzz", "A-00a-000-000", "A-00A-000-000", "A-009-000-000"));
+        for(int i = 0; i < 1000; i++) {
+            serialNumbers.add(InventoryGenerator.serialNumber(i * 7919L));
+        }
+
+        List<String> byText = new ArrayList<>(serialNumbers);
+        byText.sort(Comparator.naturalOrder());
+        List<String> byKey = new ArrayList<>(serialNumbers);
+        byKey.sort(Comparator.comparingLong(SerialKey::pack));
+        assertEquals(byText,byKey);
+    }
+
+    // test that the characters of a .inv field pack to the same key as the text
+    @Test
+    void packCharacters() {
+        byte[] field = "xA1b2c3d4e5".getBytes(StandardCharsets.US_ASCII);
+        long key = SerialKey.pack(field, 1);
+        assertEquals(SerialKey.pack("A-1b2-c3d-4e5"),key);
+
+        byte[] copy = new byte[SerialKey.CHARACTERS];
+        SerialKey.unpack(key, copy, 0);
+        assertEquals("A1b2c3d4e5",new String(copy, StandardCharsets.US_ASCII));
+
+        // a field holding other characters, or an empty field, isn't packed
+        assertEquals(SerialKey.NONE,SerialKey.pack("A1b2c3d4e!".getBytes(StandardCharsets.US_ASCII), 0));
+        assertEquals(SerialKey.NONE,SerialKey.pack(new byte[SerialKey.CHARACTERS], 0));
+    }
+}
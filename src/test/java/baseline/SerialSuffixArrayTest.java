@@ -0,0 +1,184 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static baseline.InventoryGenerator.generate;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerialSuffixArrayTest {
+
+    // Check the items the suffix array finds against checking every item
+    private static void assertSearch(List<Item> inventory, String serialNumber) {
+        List<String> expected = new ArrayList<>();
+        for(Item item : inventory) {
+            if(item.getSerialNumber().contains(serialNumber)) expected.add(item.getSerialNumber());
+        }
+        List<String> found = new ArrayList<>();
+        for(Item item : SerialSuffixArray.of(inventory).search(serialNumber)) {
+            found.add(item.getSerialNumber());
+        }
+        assertEquals(expected,found);
+    }
+
+    // test that a search finds every item containing it once, in order
+    @Test
+    void search() {
+        List<Item> inventory = new ArrayList<>(List.of(
+                new Item("A","A-AAA-AAA-AAA","1"),
+                new Item("B","B-123-456-789","1"),
+                new Item("C","C-123-123-123","1"),
+                new Item("D","free-form 123","1")));
+        SerialSuffixArray index = SerialSuffixArray.of(inventory);
+
+        assertEquals(List.of(inventory.get(1), inventory.get(2), inventory.get(3)),index.search("123"));
+        assertEquals(List.of(inventory.get(0)),index.search("AA-AAA"));
+        assertEquals(List.of(inventory.get(2)),index.search("C-123-123-123"));
+        assertTrue(index.search("C-123-123-1234").isEmpty());
+        assertTrue(index.search("89-").isEmpty());
+        assertTrue(index.search("zzz").isEmpty());
+
+        // an empty search is left to the caller
+        assertNull(index.search(""));
+    }
+
+    // test that the suffix array follows items as they are added, changed, removed, and cleared
+    @Test
+    void recordChanges() {
+        Random random = new Random(25);
+        for(List<Item> inventory : List.of(generate(3000), new InventoryTable(generate(3000)))) {
+            assertSearch(inventory, "-1");
+            int next = 10_000;
+            for(int change = 0; change < 400; change++) {
+                switch(random.nextInt(3)) {
+                    case 0 -> {
+                        Item item = new Item("Added", InventoryGenerator.mixedSerialNumber(next++), "1");
+                        inventory.add(item);
+                        SerialSuffixArray.recordAdd(inventory, item);
+                    }
+                    case 1 -> {
+                        int position = random.nextInt(inventory.size());
+                        Item item = inventory.get(position);
+                        Item previous = new Item(item);
+                        item.setSerialNumber(InventoryGenerator.mixedSerialNumber(next++));
+                        SerialSuffixArray.recordSet(inventory, position, previous, item);
+                    }
+                    default -> {
+                        int position = random.nextInt(inventory.size());
+                        Item removed = inventory.remove(position);
+                        SerialSuffixArray.recordRemove(inventory, position, removed);
+                    }
+                }
+                for(String serialNumber : new String[] {"-1", "A-", "free", "0-00", String.valueOf(next - 1)}) {
+                    assertSearch(inventory, serialNumber);
+                }
+            }
+
+            // replacing an item rather than editing it
+            Item replacement = new Item("Replacement","R-rrr-rrr-rrr","1");
+            Item previous = inventory.set(0, replacement);
+            SerialSuffixArray.recordSet(inventory, 0, previous, replacement);
+            assertSearch(inventory, "rrr");
+
+            inventory.clear();
+            SerialSuffixArray.recordClear(inventory);
+            assertTrue(SerialSuffixArray.of(inventory).search("A-").isEmpty());
+        }
+    }
+
+    // test that enough changes sort the suffixes again, as do changes which weren't recorded item by item
+    @Test
+    void rebuild() {
+        List<Item> inventory = generate(2000);
+        assertSearch(inventory, "-0");
+        long memory = SerialSuffixArray.of(inventory).getMemoryBytes();
+
+        // more changes than are worth checking one by one
+        for(int i = 0; i < 1500; i++) {
+            Item removed = inventory.remove(0);
+            SerialSuffixArray.recordRemove(inventory, 0, removed);
+        }
+        assertSearch(inventory, "-0");
+        assertTrue(SerialSuffixArray.of(inventory).getMemoryBytes() < memory / 2);
+
+        // an item added without recording it changes the size
+        inventory.add(0, new Item("Unrecorded","Z-zzz-zzz-zzz","1"));
+        assertSearch(inventory, "zz");
+
+        // a sort keeps the size, so it is recorded as a bulk change
+        inventory.sort((a, b) -> b.getSerialNumber().compareTo(a.getSerialNumber()));
+        SerialSuffixArray.invalidate(inventory);
+        assertSearch(inventory, "-0");
+    }
+
+    // compare searching a large inventory with the suffix array against checking every item, and report what it takes
+    @Test
+    @Tag("benchmark")
+    void searchBenchmark() {
+        int rows = Integer.getInteger("benchmark.searchRows", 1_000_000);
+        int searches = Integer.getInteger("benchmark.searches", 100);
+        List<Item> inventory = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            inventory.add(new Item("Product " + i, InventoryGenerator.serialNumber(i), "1"));
+        }
+
+        // sort the suffixes with a search that finds nothing, so only the sort is timed
+        long start = System.nanoTime();
+        SerialSuffixArray index = SerialSuffixArray.of(inventory);
+        index.search("zzz");
+        double build = (System.nanoTime() - start) / 1e9;
+        System.out.printf("SerialSuffixArray: %d rows, sorted in %.3f s, %.1f bytes per item%n",
+                rows, build, (double)index.getMemoryBytes() / rows);
+
+        // the searches the user might type: a whole serial number, and a part of one
+        String[] kinds = {"whole", "part"};
+        for(int kind = 0; kind < kinds.length; kind++) {
+            String[] serialNumbers = new String[searches];
+            for(int i = 0; i < searches; i++) {
+                String serialNumber = inventory.get((int)((long)i * 7919 % rows)).getSerialNumber();
+                serialNumbers[i] = kind == 0 ? serialNumber : serialNumber.substring(5, 11);
+            }
+
+            start = System.nanoTime();
+            int scanned = 0;
+            for(String serialNumber : serialNumbers) {
+                for(Item item : inventory) {
+                    if(item.getSerialNumber().contains(serialNumber)) scanned++;
+                }
+            }
+            double scan = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            int found = 0;
+            for(String serialNumber : serialNumbers) {
+                found += index.search(serialNumber).size();
+            }
+            double lookup = (System.nanoTime() - start) / 1e9;
+            assertEquals(scanned,found);
+
+            System.out.printf("SerialSuffixArray: %-5s scanning %.2f ms each, with the suffix array %.4f ms each (%d found per search)%n",
+                    kinds[kind], scan * 1e3 / searches, lookup * 1e3 / searches, found / searches);
+        }
+
+        // a change and a removal from the front, which are checked one by one until the suffixes are sorted again
+        start = System.nanoTime();
+        Item item = inventory.get(1);
+        Item previous = new Item(item);
+        item.setSerialNumber("Z-zzz-zzz-zzz");
+        SerialSuffixArray.recordSet(inventory, 1, previous, item);
+        Item removed = inventory.remove(0);
+        SerialSuffixArray.recordRemove(inventory, 0, removed);
+        assertEquals(1,index.search("Z-zzz").size());
+        double change = (System.nanoTime() - start) / 1e9;
+        System.out.printf("SerialSuffixArray: change and removal from the front recorded and searched in %.1f ms%n", change * 1e3);
+    }
+}
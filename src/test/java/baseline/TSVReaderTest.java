@@ -0,0 +1,175 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSVReaderTest {
+
+    // Write a temporary TSV file with the given contents
+    private File writeTemp(String contents) throws IOException {
+        File file = File.createTempFile("tsvReader", ".txt");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), contents, Charset.defaultCharset());
+        return file;
+    }
+
+    // test that the test inventory is read in file order
+    @Test
+    void read() throws IOException {
+        List<Item> list = new ArrayList<>();
+        TSVReader.read(new File("./data/test/testTSV.txt"), list::add);
+
+        // test first and last values to ensure list was copied
+        assertEquals(1024,list.size());
+        assertEquals("Item 1",list.get(0).getName());
+        assertEquals("A-XXX-XX0-001",list.get(0).getSerialNumber());
+        assertEquals("$1.00",list.get(0).getCost());
+        assertEquals("Item 1024",list.get(list.size() - 1).getName());
+    }
+
+    // test that windows line endings, a missing final newline, and non-ASCII names are handled
+    @Test
+    void readLineEndings() throws IOException {
+        File file = writeTemp("A-aaa-aaa-aaa\tItem 1\t$1.25\r\nB-bbb-bbb-bbb\tCaf\u00e9\t$2.00\n\nC-ccc-ccc-ccc\tItem 3\t$3.00");
+        List<Item> list = new ArrayList<>();
+        TSVReader.read(file, list::add);
+
+        assertEquals(3,list.size());
+        assertEquals("$1.25",list.get(0).getCost());
+        assertEquals("Caf\u00e9",list.get(1).getName());
+        assertEquals("C-ccc-ccc-ccc",list.get(2).getSerialNumber());
+    }
+
+    // test that a row without a cost is rejected
+    @Test
+    void readMalformed() throws IOException {
+        File file = writeTemp("A-aaa-aaa-aaa\tItem 1\n");
+        assertThrows(IOException.class, () -> TSVReader.read(file, item -> { }));
+    }
+
+    // test that a position is moved to the start of the next line
+    @Test
+    void alignToLine() throws IOException {
+        File file = writeTemp("A-aaa-aaa-aaa\tItem 1\t$1.00\nB-bbb-bbb-bbb\tItem 2\t$2.00\n");
+        try(var channel = java.nio.channels.FileChannel.open(file.toPath())) {
+            assertEquals(0,TSVReader.alignToLine(channel,0));
+            assertEquals(27,TSVReader.alignToLine(channel,5));
+            assertEquals(27,TSVReader.alignToLine(channel,27));
+            assertEquals(54,TSVReader.alignToLine(channel,40));
+        }
+    }
+
+    // test that splitting the file across tasks keeps the same items in the same order
+    @Test
+    void readParallel() throws IOException {
+        File file = new File("./data/test/testTSV.txt");
+        List<Item> sequential = new ArrayList<>();
+        TSVReader.read(file, sequential::add);
+
+        // use tiny splits so the file is cut into many tasks
+        List<Item> parallel = TSVReader.readParallel(file, ForkJoinPool.commonPool(), 1000);
+        assertEquals(sequential.size(),parallel.size());
+        for(int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getSerialNumber(),parallel.get(i).getSerialNumber());
+            assertEquals(sequential.get(i).getName(),parallel.get(i).getName());
+            assertEquals(sequential.get(i).getCost(),parallel.get(i).getCost());
+        }
+
+        // an empty file has no splits
+        assertEquals(0,TSVReader.readParallel(writeTemp(""), ForkJoinPool.commonPool(), 1000).size());
+    }
+
+    // test that splits are published in file order, with progress, and that a cancelled read stops
+    @Test
+    void readParallelPublish() throws IOException {
+        File file = new File("./data/test/testTSV.txt");
+        List<List<Item>> splits = new ArrayList<>();
+        List<Long> progress = new ArrayList<>();
+        TSVReader.readParallel(file, ForkJoinPool.commonPool(), 1000, splits::add, () -> false, progress::add);
+
+        // every split arrives once, in order, and progress ends at the end of the file
+        assertEquals(progress.size(),splits.size());
+        assertEquals("Item 1",splits.get(0).get(0).getName());
+        assertEquals(file.length(),(long)progress.get(progress.size() - 1));
+        int expected = 1;
+        for(List<Item> split : splits) {
+            for(Item item : split) {
+                assertEquals("Item " + expected++,item.getName());
+            }
+        }
+
+        // a cancelled read throws instead of finishing
+        assertThrows(java.util.concurrent.CancellationException.class, () ->
+                TSVReader.readParallel(file, ForkJoinPool.commonPool(), 1000, items -> { }, () -> true, bytes -> { }));
+    }
+
+    // Generate a file with the same layout as ./data/test/testTSV.txt
+    private File writeLarge(int rows) throws IOException {
+        File file = File.createTempFile("tsvThroughput", ".txt");
+        file.deleteOnExit();
+        try(BufferedWriter writer = Files.newBufferedWriter(file.toPath())) {
+            for(int i = 1; i <= rows; i++) {
+                writer.write(String.format("A-XXX-%03d-%03d\tItem %d\t$%d.00%n", i / 1000 % 1000, i % 1000, i, i % 100000));
+            }
+        }
+        return file;
+    }
+
+    // test the throughput of the reader on a multi-million row file using the testTSV.txt layout
+    @Test
+    @Tag("benchmark")
+    void readThroughput() throws IOException {
+        int rows = Integer.getInteger("benchmark.tsvRows", 3_000_000);
+
+        File file = writeLarge(rows);
+
+        // time the read
+        long[] count = {0};
+        long start = System.nanoTime();
+        TSVReader.read(file, item -> count[0]++);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // report the results
+        System.out.printf("TSVReader: %d rows, %.1f MB in %.3f s (%.0f rows/s, %.1f MB/s)%n", rows,
+                file.length() / 1e6, seconds, rows / seconds, file.length() / 1e6 / seconds);
+        assertEquals(rows,count[0]);
+    }
+
+    // test how the parallel reader scales with the number of threads
+    @Test
+    @Tag("benchmark")
+    void readParallelScaling() throws IOException {
+        int rows = Integer.getInteger("benchmark.tsvRows", 3_000_000);
+        File file = writeLarge(rows);
+
+        // double the thread count up to the number of cores
+        int cores = Runtime.getRuntime().availableProcessors();
+        for(int threads = 1; threads <= cores; threads = (threads == cores) ? threads + 1 : Math.min(cores, threads * 2)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long start = System.nanoTime();
+            List<Item> items = TSVReader.readParallel(file, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pool.shutdown();
+
+            System.out.printf("TSVReader.readParallel: %d threads, %d rows in %.3f s (%.0f rows/s)%n", threads,
+                    items.size(), seconds, items.size() / seconds);
+            assertEquals(rows,items.size());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  UCF COP3330 Fall 2021 Application Assignment 2 Solution
+ *  Copyright 2021 Joshua Glaspey
+ */
+
+package baseline;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TSVWriterTest {
+
+    // Create a list with plain, non-ASCII (including an unpaired surrogate), and format-like names
+    static List<Item> sampleItems() {
+        List<Item> items = new ArrayList<>();
+        items.add(new Item("Item 1","A-aaa-aaa-aaa","1"));
+        items.add(new Item("Caf\u00e9 \u2615 \ud83d\udce6 \ud800","B-bbb-bbb-bbb","2.25"));
+        items.add(new Item("100% %s %n","C-ccc-ccc-ccc","3"));
+        return items;
+    }
+
+    // test that the file is byte-for-byte what the Formatter-based export wrote
+    @Test
+    void writeMatchesFormatter() throws IOException {
+        List<Item> items = sampleItems();
+
+        // write the file the way SaveController used to
+        File expected = File.createTempFile("tsvWriter", ".txt");
+        expected.deleteOnExit();
+        try(Formatter stream = new Formatter(new FileOutputStream(expected))) {
+            for(Item i : items) {
+                stream.format("%s%n", i.getSerialNumber() + "\t" + i.getName() + "\t" + i.getCost());
+            }
+        }
+
+        File actual = File.createTempFile("tsvWriter", ".txt");
+        actual.deleteOnExit();
+        TSVWriter.write(actual, items);
+
+        assertArrayEquals(Files.readAllBytes(expected.toPath()),Files.readAllBytes(actual.toPath()));
+    }
+
+    // test that every cost is written as dollars and two digits of cents, however large it is
+    @Test
+    void writeCosts() throws IOException {
+        List<Item> items = List.of(new Item("Half","A-aaa-aaa-aaa","2.5"), new Item("Large","B-bbb-bbb-bbb","10000000"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TSVWriter.write(out, items);
+
+        String separator = System.lineSeparator();
+        assertEquals("A-aaa-aaa-aaa\tHalf\t$2.50" + separator + "B-bbb-bbb-bbb\tLarge\t$10000000.00" + separator,out.toString());
+    }
+
+    // test that a file larger than the buffer is written whole and reads back
+    @Test
+    void writeLarge() throws IOException {
+        List<Item> items = new ArrayList<>();
+        for(int i = 0; i < 100_000; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), "1"));
+        }
+
+        File file = File.createTempFile("tsvWriter", ".txt");
+        file.deleteOnExit();
+        TSVWriter.write(file, items);
+
+        List<Item> values = new ArrayList<>();
+        TSVReader.read(file, values::add);
+        assertEquals(items.size(),values.size());
+        assertEquals("Item 99999",values.get(99_999).getName());
+    }
+
+    // test that progress is reported as rows are written, and that stopping the save from the progress consumer keeps the old copy
+    @Test
+    void writeProgress() throws IOException {
+        List<Item> items = new ArrayList<>();
+        for(int i = 0; i < 10_000; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), "1"));
+        }
+
+        File file = File.createTempFile("tsvWriter", ".txt");
+        file.deleteOnExit();
+        List<Long> reports = new ArrayList<>();
+        TSVWriter.write(file, items, InventoryFiles.SyncPolicy.NONE, reports::add);
+        assertEquals(List.of(4096L, 8192L, 10_000L),reports);
+
+        // a save stopped halfway through leaves the finished file alone
+        long length = file.length();
+        assertThrows(CancellationException.class, () -> TSVWriter.write(file, items.subList(0, 5000), InventoryFiles.SyncPolicy.NONE, rows -> {
+            throw new CancellationException();
+        }));
+        assertEquals(length,file.length());
+    }
+
+    // test the export throughput on a multi-million row inventory
+    @Test
+    @Tag("benchmark")
+    void writeThroughput() throws IOException {
+        int rows = Integer.getInteger("benchmark.tsvRows", 3_000_000);
+        List<Item> items = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++) {
+            items.add(new Item("Item " + i, InventoryGenerator.serialNumber(i), String.valueOf(i % 1000)));
+        }
+        File file = File.createTempFile("tsvWriter", ".txt");
+        file.deleteOnExit();
+
+        // warm up, then time the write
+        TSVWriter.write(file, items.subList(0, Math.min(rows, 200_000)));
+        long start = System.nanoTime();
+        TSVWriter.write(file, items);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("TSVWriter: %d rows, %.1f MB in %.3f s (%.0f rows/s, %.1f MB/s)%n", rows,
+                file.length() / 1e6, seconds, rows / seconds, file.length() / 1e6 / seconds);
+    }
+}